@@ -0,0 +1,121 @@
+package net.amygdalum.stringsearchalgorithms.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.charset.Charset;
+
+import net.amygdalum.regexparser.RegexParserOption;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.BPGlushkov;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.GlushkovFactorExtender;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.GlushkovPrefixExtender;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.MultiFactorRE;
+import net.amygdalum.stringsearchalgorithms.search.chars.AhoCorasick;
+
+/**
+ * Resolves the algorithm names used as benchmark parameters to the corresponding algorithm factories.
+ */
+public final class Algorithms {
+
+	public static final Charset BYTES_CHARSET = UTF_8;
+	public static final long MAX_DENSE_SIZE = 64L << 20;
+
+	private Algorithms() {
+	}
+
+	public static net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithmFactory chars(String name) {
+		switch (name) {
+		case "Horspool":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.Horspool.Factory();
+		case "Sunday":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.Sunday.Factory();
+		case "KnuthMorrisPratt":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.KnuthMorrisPratt.Factory();
+		case "ShiftAnd":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.ShiftAnd.Factory();
+		case "ShiftOr":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.ShiftOr.Factory();
+		case "BNDM":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.BNDM.Factory();
+		case "BOM":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.BOM.Factory();
+		default:
+			throw new IllegalArgumentException("unknown algorithm: " + name);
+		}
+	}
+
+	public static net.amygdalum.stringsearchalgorithms.search.chars.MultiStringSearchAlgorithmFactory multiChars(String name) {
+		switch (name) {
+		case "AhoCorasick":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.AhoCorasick.Factory();
+		case "SetHorspool":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.SetHorspool.Factory();
+		case "WuManber":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.WuManber.Factory();
+		case "SetBackwardOracleMatching":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.SetBackwardOracleMatching.Factory();
+		case "QGramShiftOr":
+			return new net.amygdalum.stringsearchalgorithms.search.chars.QGramShiftOr.Factory();
+		default:
+			throw new IllegalArgumentException("unknown algorithm: " + name);
+		}
+	}
+
+	public static net.amygdalum.stringsearchalgorithms.search.bytes.StringSearchAlgorithmFactory bytes(String name) {
+		switch (name) {
+		case "Horspool":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.Horspool.Factory(BYTES_CHARSET);
+		case "Sunday":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.Sunday.Factory(BYTES_CHARSET);
+		case "KnuthMorrisPratt":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.KnuthMorrisPratt.Factory(BYTES_CHARSET);
+		case "ShiftAnd":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.ShiftAnd.Factory(BYTES_CHARSET);
+		case "ShiftOr":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.ShiftOr.Factory(BYTES_CHARSET);
+		case "BNDM":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.BNDM.Factory(BYTES_CHARSET);
+		case "BOM":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.BOM.Factory(BYTES_CHARSET);
+		default:
+			throw new IllegalArgumentException("unknown algorithm: " + name);
+		}
+	}
+
+	public static net.amygdalum.stringsearchalgorithms.search.bytes.MultiStringSearchAlgorithmFactory multiBytes(String name) {
+		switch (name) {
+		case "AhoCorasick":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.AhoCorasick.Factory(BYTES_CHARSET);
+		case "DenseAhoCorasick":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.AhoCorasick.Factory(BYTES_CHARSET, MAX_DENSE_SIZE);
+		case "SetHorspool":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.SetHorspool.Factory(BYTES_CHARSET);
+		case "WuManber":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.WuManber.Factory(BYTES_CHARSET);
+		case "SetBackwardOracleMatching":
+			return new net.amygdalum.stringsearchalgorithms.search.bytes.SetBackwardOracleMatching.Factory(BYTES_CHARSET);
+		default:
+			throw new IllegalArgumentException("unknown algorithm: " + name);
+		}
+	}
+
+	public static MultiFactorRE.Factory patterns(String name) {
+		switch (name) {
+		case "MultiFactorRE-Prefix":
+			return new MultiFactorRE.Factory(new AhoCorasick.Factory(), new GlushkovPrefixExtender.Factory(RegexParserOption.DOT_ALL), 3);
+		case "MultiFactorRE-Factor":
+			return new MultiFactorRE.Factory(new AhoCorasick.Factory(), new GlushkovFactorExtender.Factory(RegexParserOption.DOT_ALL), 3);
+		default:
+			throw new IllegalArgumentException("unknown algorithm: " + name);
+		}
+	}
+
+	public static net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithmFactory pattern(String name) {
+		switch (name) {
+		case "BPGlushkov":
+			return new BPGlushkov.Factory(RegexParserOption.DOT_ALL);
+		default:
+			return patterns(name);
+		}
+	}
+
+}
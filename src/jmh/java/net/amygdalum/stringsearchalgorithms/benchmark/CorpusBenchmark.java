@@ -0,0 +1,64 @@
+package net.amygdalum.stringsearchalgorithms.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.corpus.CorpusKind;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithm;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CorpusBenchmark {
+
+	@Param({"AhoCorasick", "SetHorspool", "WuManber", "SetBackwardOracleMatching", "QGramShiftOr"})
+	public String algorithm;
+
+	@Param({"NATURAL_LANGUAGE", "DNA", "PROTEIN", "BINARY", "SERVER_LOG", "MIXED_CJK"})
+	public CorpusKind corpus;
+
+	@Param({"8", "32"})
+	public int patternLength;
+
+	@Param({"10", "100"})
+	public int patternCount;
+
+	@Param({"0.1", "0.9"})
+	public double hitRate;
+
+	@Param({"1000000"})
+	public int documentSize;
+
+	private Sample sample;
+	private StringSearchAlgorithm searchAlgorithm;
+
+	@Setup
+	public void setup() {
+		sample = corpus.corpus(Documents.SEED).sample(documentSize, patternCount, patternLength, hitRate);
+		searchAlgorithm = Algorithms.multiChars(algorithm).of(sample.getPatterns());
+	}
+
+	@Benchmark
+	public List<StringMatch> findAll() {
+		return searchAlgorithm.createFinder(sample.chars()).findAll();
+	}
+
+}
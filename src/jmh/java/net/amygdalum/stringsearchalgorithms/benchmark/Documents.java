@@ -0,0 +1,53 @@
+package net.amygdalum.stringsearchalgorithms.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import net.amygdalum.stringsearchalgorithms.corpus.RandomText;
+
+/**
+ * Generates reproducible random documents over alphabets of a given size and samples patterns from them.
+ */
+public final class Documents {
+
+	public static final long SEED = 42;
+
+	private static final String ALPHABET = "etaoinshrdlcumwfgypbvkjxqzETAOINSHRDLCUMWFGYPBVKJXQZ0123456789_ ";
+
+	private Documents() {
+	}
+
+	public static String document(Random random, int alphabetSize, int documentSize) {
+		if (alphabetSize < 1 || alphabetSize > ALPHABET.length()) {
+			throw new IllegalArgumentException("alphabet size must be between 1 and " + ALPHABET.length());
+		}
+		return new RandomText(ALPHABET.substring(0, alphabetSize)).generate(random, documentSize);
+	}
+
+	public static String pattern(Random random, String document, int patternLength) {
+		int start = random.nextInt(document.length() - patternLength + 1);
+		return document.substring(start, start + patternLength);
+	}
+
+	public static List<String> patterns(Random random, String document, int patternLength, int patternCount) {
+		Set<String> patterns = new LinkedHashSet<>();
+		int attempts = patternCount * 10;
+		while (patterns.size() < patternCount && attempts > 0) {
+			patterns.add(pattern(random, document, patternLength));
+			attempts--;
+		}
+		return new ArrayList<>(patterns);
+	}
+
+	public static String regex(String pattern) {
+		if (pattern.length() < 3) {
+			return pattern;
+		}
+		int mid = pattern.length() / 2;
+		return pattern.substring(0, mid) + "[" + pattern.charAt(mid) + "_]" + pattern.substring(mid + 1);
+	}
+
+}
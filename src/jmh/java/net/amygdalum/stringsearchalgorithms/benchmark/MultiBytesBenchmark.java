@@ -0,0 +1,72 @@
+package net.amygdalum.stringsearchalgorithms.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.amygdalum.stringsearchalgorithms.search.MatchCounter;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.stringsearchalgorithms.search.bytes.StringSearchAlgorithm;
+import net.amygdalum.util.io.StringByteProvider;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MultiBytesBenchmark {
+
+	@Param({"AhoCorasick", "DenseAhoCorasick", "SetHorspool", "WuManber", "SetBackwardOracleMatching"})
+	public String algorithm;
+
+	@Param({"4", "16", "64"})
+	public int patternLength;
+
+	@Param({"10", "100"})
+	public int patternCount;
+
+	@Param({"4", "20", "64"})
+	public int alphabetSize;
+
+	@Param({"10000", "1000000"})
+	public int documentSize;
+
+	private byte[] document;
+	private StringSearchAlgorithm searchAlgorithm;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(Documents.SEED);
+		String text = Documents.document(random, alphabetSize, documentSize);
+		document = text.getBytes(Algorithms.BYTES_CHARSET);
+		List<String> patterns = Documents.patterns(random, text, patternLength, patternCount);
+		searchAlgorithm = Algorithms.multiBytes(algorithm).of(patterns);
+	}
+
+	@Benchmark
+	public List<StringMatch> findAll() {
+		return searchAlgorithm.createFinder(new StringByteProvider(document, 0, Algorithms.BYTES_CHARSET)).findAll();
+	}
+
+	@Benchmark
+	public long count() {
+		MatchCounter counter = new MatchCounter();
+		searchAlgorithm.search(new StringByteProvider(document, 0, Algorithms.BYTES_CHARSET), counter);
+		return counter.getCount();
+	}
+
+}
@@ -0,0 +1,67 @@
+package net.amygdalum.stringsearchalgorithms.benchmark;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithm;
+import net.amygdalum.util.io.StringCharProvider;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MultiPatternSearchBenchmark {
+
+	@Param({"MultiFactorRE-Prefix", "MultiFactorRE-Factor"})
+	public String algorithm;
+
+	@Param({"4", "16", "64"})
+	public int patternLength;
+
+	@Param({"10", "100"})
+	public int patternCount;
+
+	@Param({"4", "20", "64"})
+	public int alphabetSize;
+
+	@Param({"10000", "1000000"})
+	public int documentSize;
+
+	private String document;
+	private StringSearchAlgorithm searchAlgorithm;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(Documents.SEED);
+		document = Documents.document(random, alphabetSize, documentSize);
+		List<String> patterns = new ArrayList<>();
+		for (String pattern : Documents.patterns(random, document, patternLength, patternCount)) {
+			patterns.add(Documents.regex(pattern));
+		}
+		searchAlgorithm = Algorithms.patterns(algorithm).of(patterns);
+	}
+
+	@Benchmark
+	public List<StringMatch> findAll() {
+		return searchAlgorithm.createFinder(new StringCharProvider(document, 0)).findAll();
+	}
+
+}
@@ -0,0 +1,202 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import java.io.IOException;
+
+import net.amygdalum.util.io.IORuntimeException;
+import net.amygdalum.util.io.OutOfBufferException;
+
+/**
+ * The base of providers reading an input in chunks (see {@link ChannelByteProvider} and {@link ReaderWindowCharProvider}).
+ *
+ * Only a bounded window of the input is kept in memory: elements before the current position are discarded
+ * as soon as they are more than {@code lookback} elements behind the current position. Accessing discarded
+ * elements throws an {@link OutOfBufferException}. Subclasses read the input into the buffer and access its
+ * elements, this class manages the window, the position and the mark.
+ *
+ * @param <T> the type of the buffer (an array of bytes or chars)
+ */
+public abstract class AbstractWindowProvider<T> {
+
+	private static final long NO_MARK = Long.MIN_VALUE;
+
+	private int chunk;
+	private int lookback;
+	private int capacity;
+	protected T buffer;
+	private long bufferStart;
+	private int filled;
+	private boolean eof;
+	protected long pos;
+	private long mark;
+
+	/**
+	 * @param chunk the number of elements to read at once
+	 * @param lookback the number of elements before the current position that should stay accessible
+	 */
+	protected AbstractWindowProvider(int chunk, int lookback) {
+		this.chunk = chunk;
+		this.lookback = lookback;
+		this.capacity = chunk + lookback;
+		this.buffer = allocate(capacity);
+		this.mark = NO_MARK;
+	}
+
+	/**
+	 * @param length the length of the new buffer
+	 * @return a new buffer
+	 */
+	protected abstract T allocate(int length);
+
+	/**
+	 * reads from the input into the buffer (which might have been replaced since the last call)
+	 *
+	 * @param buffer the buffer
+	 * @param offset the offset to read to
+	 * @param length the maximum number of elements to read
+	 * @return the number of elements read, or -1 if the input is exhausted
+	 * @throws IOException if reading the input fails
+	 */
+	protected abstract int read(T buffer, int offset, int length) throws IOException;
+
+	protected long end() {
+		return bufferStart + filled;
+	}
+
+	private void ensure(long required) {
+		while (required > end() && read()) {
+		}
+	}
+
+	private boolean read() {
+		if (eof) {
+			return false;
+		}
+		if (capacity - filled < chunk) {
+			compact();
+		}
+		try {
+			int read = read(buffer, filled, chunk);
+			if (read < 0) {
+				eof = true;
+				return false;
+			}
+			filled += read;
+			return true;
+		} catch (IOException e) {
+			throw new IORuntimeException(e);
+		}
+	}
+
+	private void compact() {
+		long keep = Math.max(bufferStart, Math.min(pos - lookback, end()));
+		int discard = (int) (keep - bufferStart);
+		if (discard > 0) {
+			System.arraycopy(buffer, discard, buffer, 0, filled - discard);
+			filled -= discard;
+			bufferStart = keep;
+		}
+		if (capacity - filled < chunk) {
+			capacity = Math.max(capacity * 2, filled + chunk);
+			T newBuffer = allocate(capacity);
+			System.arraycopy(buffer, 0, newBuffer, 0, filled);
+			buffer = newBuffer;
+		}
+	}
+
+	/**
+	 * reads the input up to the given position
+	 *
+	 * @param i the position of an element
+	 * @return the index of this element in the buffer
+	 */
+	protected int index(long i) {
+		if (i < bufferStart) {
+			throw new OutOfBufferException();
+		}
+		ensure(i + 1);
+		if (i >= end()) {
+			throw new IndexOutOfBoundsException();
+		}
+		return (int) (i - bufferStart);
+	}
+
+	/**
+	 * @param start the position of the first element
+	 * @param end the position after the last element
+	 * @return a new buffer with the elements between start and end
+	 */
+	protected T copy(long start, long end) {
+		if (start < bufferStart) {
+			throw new OutOfBufferException();
+		}
+		ensure(end);
+		if (end > end()) {
+			throw new IndexOutOfBoundsException();
+		}
+		int length = (int) Math.max(0, end - start);
+		T copy = allocate(length);
+		System.arraycopy(buffer, (int) (start - bufferStart), copy, 0, length);
+		return copy;
+	}
+
+	public long current() {
+		return pos;
+	}
+
+	public void move(long i) {
+		pos = i;
+	}
+
+	public void forward(int i) {
+		pos += i;
+	}
+
+	public void finish() {
+		pos = end();
+		while (read()) {
+			pos = end();
+		}
+	}
+
+	public boolean finished() {
+		return finished(0);
+	}
+
+	public boolean finished(int i) {
+		ensure(pos + i + 1);
+		return end() - pos <= i;
+	}
+
+	public void mark() {
+		mark = pos;
+	}
+
+	public boolean changed() {
+		boolean changed = mark != NO_MARK && mark != pos;
+		mark = NO_MARK;
+		return changed;
+	}
+
+	/**
+	 * @return the position of the first element to show in {@link #toString()}
+	 */
+	protected long windowStart() {
+		return Math.max(bufferStart, pos - lookback);
+	}
+
+	/**
+	 * @return the position after the last element to show in {@link #toString()}
+	 */
+	protected long windowEnd() {
+		return Math.min(end(), pos + lookback);
+	}
+
+	/**
+	 * @param end the position after the last shown element
+	 * @return true if there are more elements after the shown ones
+	 */
+	protected boolean hasMoreThan(long end) {
+		return !eof || end < end();
+	}
+
+}
@@ -0,0 +1,117 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import net.amygdalum.util.io.ByteProvider;
+import net.amygdalum.util.text.ByteString;
+
+/**
+ * A ByteProvider limiting another ByteProvider to an end position, i.e. the provider is finished as soon as it reaches this position.
+ * 
+ * Positions are not translated, so matches found in a bounded provider have the positions of the underlying provider.
+ */
+public class BoundedByteProvider implements ByteProvider {
+
+	private ByteProvider bytes;
+	private long end;
+
+	/**
+	 * @param bytes the underlying provider (positioned at the start)
+	 * @param end the position where this provider should end (not beyond the end of the underlying provider)
+	 */
+	public BoundedByteProvider(ByteProvider bytes, long end) {
+		this.bytes = bytes;
+		this.end = end;
+	}
+
+	@Override
+	public byte next() {
+		return bytes.next();
+	}
+
+	@Override
+	public byte lookahead() {
+		return bytes.lookahead();
+	}
+
+	@Override
+	public byte lookahead(int i) {
+		return bytes.lookahead(i);
+	}
+
+	@Override
+	public byte prev() {
+		return bytes.prev();
+	}
+
+	@Override
+	public byte lookbehind() {
+		return bytes.lookbehind();
+	}
+
+	@Override
+	public byte lookbehind(int i) {
+		return bytes.lookbehind(i);
+	}
+
+	@Override
+	public long current() {
+		return bytes.current();
+	}
+
+	@Override
+	public void move(long i) {
+		bytes.move(i);
+	}
+
+	@Override
+	public byte[] between(long start, long end) {
+		return bytes.between(start, end);
+	}
+
+	@Override
+	public ByteString slice(long start, long end) {
+		return bytes.slice(start, end);
+	}
+
+	@Override
+	public void forward(int i) {
+		bytes.forward(i);
+	}
+
+	@Override
+	public void finish() {
+		if (bytes.current() < end) {
+			bytes.move(end);
+		}
+	}
+
+	@Override
+	public boolean finished() {
+		return finished(0);
+	}
+
+	@Override
+	public boolean finished(int i) {
+		return end - bytes.current() <= i || bytes.finished(i);
+	}
+
+	@Override
+	public byte at(long i) {
+		return bytes.at(i);
+	}
+
+	@Override
+	public void mark() {
+		bytes.mark();
+	}
+
+	@Override
+	public boolean changed() {
+		return bytes.changed();
+	}
+
+	@Override
+	public String toString() {
+		return bytes.toString();
+	}
+
+}
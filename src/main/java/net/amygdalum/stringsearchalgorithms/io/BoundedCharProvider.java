@@ -0,0 +1,116 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import net.amygdalum.util.io.CharProvider;
+
+/**
+ * A CharProvider limiting another CharProvider to an end position, i.e. the provider is finished as soon as it reaches this position.
+ * 
+ * Positions are not translated, so matches found in a bounded provider have the positions of the underlying provider.
+ */
+public class BoundedCharProvider implements CharProvider {
+
+	private CharProvider chars;
+	private long end;
+
+	/**
+	 * @param chars the underlying provider (positioned at the start)
+	 * @param end the position where this provider should end (not beyond the end of the underlying provider)
+	 */
+	public BoundedCharProvider(CharProvider chars, long end) {
+		this.chars = chars;
+		this.end = end;
+	}
+
+	@Override
+	public char next() {
+		return chars.next();
+	}
+
+	@Override
+	public char lookahead() {
+		return chars.lookahead();
+	}
+
+	@Override
+	public char lookahead(int i) {
+		return chars.lookahead(i);
+	}
+
+	@Override
+	public char prev() {
+		return chars.prev();
+	}
+
+	@Override
+	public char lookbehind() {
+		return chars.lookbehind();
+	}
+
+	@Override
+	public char lookbehind(int i) {
+		return chars.lookbehind(i);
+	}
+
+	@Override
+	public long current() {
+		return chars.current();
+	}
+
+	@Override
+	public void move(long i) {
+		chars.move(i);
+	}
+
+	@Override
+	public char[] between(long start, long end) {
+		return chars.between(start, end);
+	}
+
+	@Override
+	public String slice(long start, long end) {
+		return chars.slice(start, end);
+	}
+
+	@Override
+	public void forward(int i) {
+		chars.forward(i);
+	}
+
+	@Override
+	public void finish() {
+		if (chars.current() < end) {
+			chars.move(end);
+		}
+	}
+
+	@Override
+	public boolean finished() {
+		return finished(0);
+	}
+
+	@Override
+	public boolean finished(int i) {
+		return end - chars.current() <= i || chars.finished(i);
+	}
+
+	@Override
+	public char at(long i) {
+		return chars.at(i);
+	}
+
+	@Override
+	public void mark() {
+		chars.mark();
+	}
+
+	@Override
+	public boolean changed() {
+		return chars.changed();
+	}
+
+	@Override
+	public String toString() {
+		return chars.toString();
+	}
+
+}
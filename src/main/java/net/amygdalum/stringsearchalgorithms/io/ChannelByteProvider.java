@@ -0,0 +1,141 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+import net.amygdalum.util.io.ByteProvider;
+import net.amygdalum.util.io.OutOfBufferException;
+import net.amygdalum.util.text.ByteString;
+
+/**
+ * A ByteProvider reading a channel (or stream) in chunks.
+ * 
+ * Only a bounded window of the input is kept in memory: bytes before the current position are discarded
+ * as soon as they are more than {@code lookback} bytes behind the current position. Accessing discarded
+ * bytes throws an {@link OutOfBufferException}. The lookback should be at least the (max) pattern length
+ * of the algorithm using this provider.
+ */
+public class ChannelByteProvider extends AbstractWindowProvider<byte[]> implements ByteProvider, Closeable {
+
+	private ReadableByteChannel channel;
+	private Charset charset;
+	private ByteBuffer window;
+
+	/**
+	 * @param input the stream to read
+	 * @param charset the charset of the input (used for slices)
+	 * @param chunk the number of bytes to read at once
+	 * @param lookback the number of bytes before the current position that should stay accessible
+	 */
+	public ChannelByteProvider(InputStream input, Charset charset, int chunk, int lookback) {
+		this(Channels.newChannel(input), charset, chunk, lookback);
+	}
+
+	/**
+	 * @param channel the channel to read
+	 * @param charset the charset of the input (used for slices)
+	 * @param chunk the number of bytes to read at once
+	 * @param lookback the number of bytes before the current position that should stay accessible
+	 */
+	public ChannelByteProvider(ReadableByteChannel channel, Charset charset, int chunk, int lookback) {
+		super(chunk, lookback);
+		this.channel = channel;
+		this.charset = charset;
+	}
+
+	@Override
+	protected byte[] allocate(int length) {
+		return new byte[length];
+	}
+
+	@Override
+	protected int read(byte[] buffer, int offset, int length) throws IOException {
+		if (window == null || window.array() != buffer) {
+			window = ByteBuffer.wrap(buffer);
+		}
+		window.limit(offset + length);
+		window.position(offset);
+		return channel.read(window);
+	}
+
+	@Override
+	public byte next() {
+		byte b = at(pos);
+		pos++;
+		return b;
+	}
+
+	@Override
+	public byte lookahead() {
+		return at(pos);
+	}
+
+	@Override
+	public byte lookahead(int i) {
+		return at(pos + i);
+	}
+
+	@Override
+	public byte prev() {
+		pos--;
+		return at(pos);
+	}
+
+	@Override
+	public byte lookbehind() {
+		return at(pos - 1);
+	}
+
+	@Override
+	public byte lookbehind(int i) {
+		return at(pos - i - 1);
+	}
+
+	@Override
+	public byte at(long i) {
+		int index = index(i); // reading may replace the buffer
+		return buffer[index];
+	}
+
+	@Override
+	public byte[] between(long start, long end) {
+		return copy(start, end);
+	}
+
+	@Override
+	public ByteString slice(long start, long end) {
+		return new ByteString(between(start, end), charset);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	@Override
+	public String toString() {
+		long start = windowStart();
+		long end = windowEnd();
+		StringBuilder buffer = new StringBuilder();
+		if (start > 0) {
+			buffer.append("...");
+		}
+		if (start < pos) {
+			buffer.append(slice(start, pos).getMappableSuffix());
+		}
+		buffer.append('|');
+		if (pos < end) {
+			buffer.append(slice(pos, end).getMappablePrefix());
+		}
+		if (hasMoreThan(end)) {
+			buffer.append("...");
+		}
+		return buffer.toString();
+	}
+
+}
@@ -0,0 +1,233 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+import net.amygdalum.util.io.ByteProvider;
+import net.amygdalum.util.text.ByteString;
+
+/**
+ * A ByteProvider reading a file via memory mapping (without copying the file to the heap).
+ * 
+ * The file is mapped in multiple segments, so files larger than 2 GB are supported.
+ * The mapping stays valid after the underlying channel is closed.
+ */
+public class MappedFileByteProvider implements ByteProvider {
+
+	private static final long NO_MARK = Long.MIN_VALUE;
+	private static final int DEFAULT_SEGMENT_BITS = 30;
+	private static final int TO_STRING_WINDOW = 32;
+
+	private Charset charset;
+	private int segmentBits;
+	private long segmentMask;
+	private ByteBuffer[] segments;
+	private long size;
+	private long pos;
+	private long mark;
+
+	/**
+	 * @param file the file to map
+	 * @param start the position to start with
+	 * @param charset the charset of the file (used for slices)
+	 * @throws IOException if the file cannot be opened or mapped 
+	 */
+	public MappedFileByteProvider(Path file, long start, Charset charset) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, READ)) {
+			init(channel, start, charset, DEFAULT_SEGMENT_BITS);
+		}
+	}
+
+	/**
+	 * @param channel the file channel to map (the provider does not close this channel)
+	 * @param start the position to start with
+	 * @param charset the charset of the file (used for slices)
+	 * @throws IOException if the channel cannot be mapped 
+	 */
+	public MappedFileByteProvider(FileChannel channel, long start, Charset charset) throws IOException {
+		init(channel, start, charset, DEFAULT_SEGMENT_BITS);
+	}
+
+	MappedFileByteProvider(FileChannel channel, long start, Charset charset, int segmentBits) throws IOException {
+		init(channel, start, charset, segmentBits);
+	}
+
+	private MappedFileByteProvider(MappedFileByteProvider provider, long start) {
+		this.charset = provider.charset;
+		this.segmentBits = provider.segmentBits;
+		this.segmentMask = provider.segmentMask;
+		this.size = provider.size;
+		this.segments = provider.segments;
+		this.pos = start;
+		this.mark = NO_MARK;
+	}
+
+	private void init(FileChannel channel, long start, Charset charset, int segmentBits) throws IOException {
+		this.charset = charset;
+		this.segmentBits = segmentBits;
+		this.segmentMask = (1L << segmentBits) - 1;
+		this.size = channel.size();
+		this.segments = map(channel, size, 1L << segmentBits);
+		this.pos = start;
+		this.mark = NO_MARK;
+	}
+
+	private static ByteBuffer[] map(FileChannel channel, long size, long segmentSize) throws IOException {
+		int count = (int) ((size + segmentSize - 1) / segmentSize);
+		ByteBuffer[] segments = new ByteBuffer[count];
+		for (int i = 0; i < count; i++) {
+			long position = i * segmentSize;
+			segments[i] = channel.map(READ_ONLY, position, Math.min(segmentSize, size - position));
+		}
+		return segments;
+	}
+
+	private byte get(long i) {
+		return segments[(int) (i >>> segmentBits)].get((int) (i & segmentMask));
+	}
+
+	/**
+	 * creates a new provider on the same mapping (e.g. to search the file in multiple threads)
+	 * 
+	 * @param start the position to start the new provider with
+	 * @return a provider with independent position sharing the mapped segments of this provider
+	 */
+	public MappedFileByteProvider duplicate(long start) {
+		return new MappedFileByteProvider(this, start);
+	}
+
+	/**
+	 * @return the size of the mapped file
+	 */
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public byte next() {
+		byte b = get(pos);
+		pos++;
+		return b;
+	}
+
+	@Override
+	public byte lookahead() {
+		return get(pos);
+	}
+
+	@Override
+	public byte lookahead(int i) {
+		return get(pos + i);
+	}
+
+	@Override
+	public byte prev() {
+		pos--;
+		return get(pos);
+	}
+
+	@Override
+	public byte lookbehind() {
+		return get(pos - 1);
+	}
+
+	@Override
+	public byte lookbehind(int i) {
+		return get(pos - i - 1);
+	}
+
+	@Override
+	public long current() {
+		return pos;
+	}
+
+	@Override
+	public void move(long i) {
+		pos = i;
+	}
+
+	@Override
+	public void forward(int i) {
+		pos += i;
+	}
+
+	@Override
+	public void finish() {
+		pos = size;
+	}
+
+	@Override
+	public boolean finished() {
+		return pos >= size;
+	}
+
+	@Override
+	public boolean finished(int i) {
+		return size - pos <= i;
+	}
+
+	@Override
+	public byte at(long i) {
+		return get(i);
+	}
+
+	@Override
+	public byte[] between(long start, long end) {
+		if (start < 0 || end > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		byte[] between = new byte[(int) Math.max(0, end - start)];
+		int to = 0;
+		long from = start;
+		while (to < between.length) {
+			ByteBuffer segment = segments[(int) (from >>> segmentBits)].duplicate();
+			segment.position((int) (from & segmentMask));
+			int len = Math.min(segment.remaining(), between.length - to);
+			segment.get(between, to, len);
+			to += len;
+			from += len;
+		}
+		return between;
+	}
+
+	@Override
+	public ByteString slice(long start, long end) {
+		return new ByteString(between(start, end), charset);
+	}
+
+	@Override
+	public void mark() {
+		mark = pos;
+	}
+
+	@Override
+	public boolean changed() {
+		boolean changed = mark != NO_MARK && mark != pos;
+		mark = NO_MARK;
+		return changed;
+	}
+
+	@Override
+	public String toString() {
+		long start = Math.max(0, pos - TO_STRING_WINDOW);
+		long end = Math.min(size, pos + TO_STRING_WINDOW);
+		StringBuilder buffer = new StringBuilder();
+		if (start > 0) {
+			buffer.append("...");
+		}
+		buffer.append(slice(start, pos).getMappableSuffix());
+		buffer.append('|');
+		buffer.append(slice(pos, end).getMappablePrefix());
+		if (end < size) {
+			buffer.append("...");
+		}
+		return buffer.toString();
+	}
+
+}
@@ -0,0 +1,117 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import net.amygdalum.util.io.CharProvider;
+import net.amygdalum.util.io.OutOfBufferException;
+
+/**
+ * A CharProvider reading a reader in chunks.
+ * 
+ * Only a bounded window of the input is kept in memory: chars before the current position are discarded
+ * as soon as they are more than {@code lookback} chars behind the current position. Accessing discarded
+ * chars throws an {@link OutOfBufferException}. The lookback should be at least the (max) pattern length
+ * of the algorithm using this provider.
+ */
+public class ReaderWindowCharProvider extends AbstractWindowProvider<char[]> implements CharProvider, Closeable {
+
+	private Reader reader;
+
+	/**
+	 * @param reader the reader to read
+	 * @param chunk the number of chars to read at once
+	 * @param lookback the number of chars before the current position that should stay accessible
+	 */
+	public ReaderWindowCharProvider(Reader reader, int chunk, int lookback) {
+		super(chunk, lookback);
+		this.reader = reader;
+	}
+
+	@Override
+	protected char[] allocate(int length) {
+		return new char[length];
+	}
+
+	@Override
+	protected int read(char[] buffer, int offset, int length) throws IOException {
+		return reader.read(buffer, offset, length);
+	}
+
+	@Override
+	public char next() {
+		char c = at(pos);
+		pos++;
+		return c;
+	}
+
+	@Override
+	public char lookahead() {
+		return at(pos);
+	}
+
+	@Override
+	public char lookahead(int i) {
+		return at(pos + i);
+	}
+
+	@Override
+	public char prev() {
+		pos--;
+		return at(pos);
+	}
+
+	@Override
+	public char lookbehind() {
+		return at(pos - 1);
+	}
+
+	@Override
+	public char lookbehind(int i) {
+		return at(pos - i - 1);
+	}
+
+	@Override
+	public char at(long i) {
+		int index = index(i); // reading may replace the buffer
+		return buffer[index];
+	}
+
+	@Override
+	public char[] between(long start, long end) {
+		return copy(start, end);
+	}
+
+	@Override
+	public String slice(long start, long end) {
+		return new String(between(start, end));
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	@Override
+	public String toString() {
+		long start = windowStart();
+		long end = windowEnd();
+		StringBuilder buffer = new StringBuilder();
+		if (start > 0) {
+			buffer.append("...");
+		}
+		if (start < pos) {
+			buffer.append(slice(start, pos));
+		}
+		buffer.append('|');
+		if (pos < end) {
+			buffer.append(slice(pos, end));
+		}
+		if (hasMoreThan(end)) {
+			buffer.append("...");
+		}
+		return buffer.toString();
+	}
+
+}
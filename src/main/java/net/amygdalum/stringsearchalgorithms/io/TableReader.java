@@ -0,0 +1,103 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Reads the tables of a compiled algorithm written by {@link TableWriter}.
+ *
+ * The tables are read from a ByteBuffer, which is usually a memory mapped file (see {@link #map(Path)}): reading does not parse, arrays
+ * are bulk copied from the buffer, so loading costs no more than copying the file content to the heap.
+ */
+public class TableReader {
+
+	private ByteBuffer buffer;
+
+	/**
+	 * @param buffer the buffer to read from (reading starts at the current position of the buffer)
+	 */
+	public TableReader(ByteBuffer buffer) {
+		this.buffer = buffer.duplicate();
+	}
+
+	/**
+	 * maps the given file into memory (files are limited to 2 GB)
+	 *
+	 * @param file the file to map
+	 * @return a reader on the mapped file
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public static TableReader map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, READ)) {
+			return new TableReader(channel.map(READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * @param type the expected type of the tables
+	 * @throws IllegalArgumentException if the buffer does not start with a header of the expected type
+	 */
+	public void readHeader(String type) {
+		if (buffer.remaining() < 8 || buffer.getInt() != TableWriter.MAGIC) {
+			throw new IllegalArgumentException("expected tables of " + type + ", but found no tables");
+		}
+		int version = buffer.getInt();
+		if (version != TableWriter.VERSION) {
+			throw new IllegalArgumentException("expected tables of version " + TableWriter.VERSION + ", but found version " + version);
+		}
+		char[] found = readChars();
+		if (found == null || !type.equals(new String(found))) {
+			throw new IllegalArgumentException("expected tables of " + type + ", but found tables of " + (found == null ? null : new String(found)));
+		}
+	}
+
+	public boolean readBoolean() {
+		return buffer.get() != 0;
+	}
+
+	public int readInt() {
+		return buffer.getInt();
+	}
+
+	/**
+	 * @return the array written by {@link TableWriter#writeInts(int[])} (null if null was written)
+	 * @throws IllegalArgumentException if the buffer contains fewer values than announced by the length prefix
+	 */
+	public int[] readInts() {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > buffer.remaining() / 4) {
+			throw new IllegalArgumentException("expected " + length + " ints, but found only " + buffer.remaining() + " bytes");
+		}
+		int[] values = new int[length];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + length * 4);
+		return values;
+	}
+
+	/**
+	 * @return the array written by {@link TableWriter#writeChars(char[])} (null if null was written)
+	 * @throws IllegalArgumentException if the buffer contains fewer values than announced by the length prefix
+	 */
+	public char[] readChars() {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > buffer.remaining() / 2) {
+			throw new IllegalArgumentException("expected " + length + " chars, but found only " + buffer.remaining() + " bytes");
+		}
+		char[] values = new char[length];
+		buffer.asCharBuffer().get(values);
+		buffer.position(buffer.position() + length * 2);
+		return values;
+	}
+
+}
@@ -0,0 +1,78 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the tables of a compiled algorithm (primitive values and arrays) in a compact binary format, to be read by {@link TableReader}.
+ *
+ * The format starts with a header (magic number, version and the type of the written algorithm), values are written in big endian
+ * order, arrays are prefixed by their length (-1 for null arrays).
+ */
+public class TableWriter implements Closeable {
+
+	static final int MAGIC = 0x53534154;
+	static final int VERSION = 1;
+
+	private DataOutputStream out;
+
+	/**
+	 * @param out the stream to write to (closed if this writer is closed)
+	 */
+	public TableWriter(OutputStream out) {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+	}
+
+	/**
+	 * @param type the type of the written tables (usually the name of the algorithm)
+	 * @throws IOException if writing fails
+	 */
+	public void writeHeader(String type) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		writeChars(type.toCharArray());
+	}
+
+	public void writeBoolean(boolean value) throws IOException {
+		out.writeBoolean(value);
+	}
+
+	public void writeInt(int value) throws IOException {
+		out.writeInt(value);
+	}
+
+	public void writeInts(int[] values) throws IOException {
+		if (values == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(values.length);
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	public void writeChars(char[] values) throws IOException {
+		if (values == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(values.length);
+		for (char value : values) {
+			out.writeChar(value);
+		}
+	}
+
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+}
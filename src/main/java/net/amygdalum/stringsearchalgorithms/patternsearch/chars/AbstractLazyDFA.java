@@ -0,0 +1,88 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import static net.amygdalum.stringsearchalgorithms.patternsearch.chars.DFAStates.INITIAL;
+import static net.amygdalum.stringsearchalgorithms.patternsearch.chars.DFAStates.UNKNOWN;
+
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.DFAStates.Row;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.DFAStates.Table;
+import net.amygdalum.util.io.CharClassMapper;
+
+/**
+ * A deterministic automaton that is built lazily, executing the transitions cached in a {@link DFAStates} table. Once a transition is
+ * known, computing the next state is a single table lookup.
+ *
+ * State ids returned before a flush of the table are invalid after the flush, so callers should only keep the last returned id. An
+ * automaton is not thread safe, but the automata of one table may be used by different threads.
+ */
+public abstract class AbstractLazyDFA implements DFA {
+
+	private DFAStates states;
+	private CharClassMapper mapper;
+
+	Table table;
+	Row[] rows;
+
+	protected AbstractLazyDFA(DFAStates states) {
+		this.states = states;
+		this.mapper = states.mapper;
+		states.refresh(this);
+	}
+
+	@Override
+	public int getInitial() {
+		return INITIAL;
+	}
+
+	@Override
+	public boolean isInitial(int state) {
+		return state == INITIAL;
+	}
+
+	@Override
+	public boolean isFinal(int state) {
+		return rows[state].accepting;
+	}
+
+	@Override
+	public boolean isEmpty(int state) {
+		return rows[state].empty;
+	}
+
+	/**
+	 * @param state the id of the current state
+	 * @param c the next char
+	 * @return the id of the next state (all previously returned ids are invalid if the cache was flushed)
+	 */
+	@Override
+	public int next(int state, char c) {
+		int charClass = mapper.getIndex(c);
+		int next = rows[state].next[charClass];
+		if (next == UNKNOWN || next >= rows.length || rows[next] == null) {
+			next = states.next(this, state, charClass);
+		}
+		return next;
+	}
+
+	/**
+	 * @param state the id of a state
+	 * @return the row of this state
+	 */
+	protected Row row(int state) {
+		return rows[state];
+	}
+
+	/**
+	 * @return the number of currently cached states
+	 */
+	public int size() {
+		return states.size();
+	}
+
+	/**
+	 * @return the number of times the cache was flushed
+	 */
+	public int flushes() {
+		return states.flushes();
+	}
+
+}
@@ -1,24 +1,20 @@
 package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
 
-import static java.util.Collections.emptyList;
 import static net.amygdalum.stringsearchalgorithms.patternsearch.chars.GlushkovAnalyzerOption.SELF_LOOP;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
 import net.amygdalum.regexparser.RegexNode;
 import net.amygdalum.regexparser.RegexParser;
 import net.amygdalum.regexparser.RegexParserOption;
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
 import net.amygdalum.stringsearchalgorithms.search.MatchOption;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithm;
 import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithmFactory;
-import net.amygdalum.util.bits.BitSet;
 import net.amygdalum.util.io.CharClassMapper;
 import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.io.ReverseCharProvider;
@@ -31,19 +27,41 @@ import net.amygdalum.util.io.ReverseCharProvider;
  * The efficiency of this algorithm depends on the pattern to process:
  * - works fine for complex patterns (many regex operators)
  * - works better for short patterns (few chars (excluding regex operators))
+ * 
+ * The search automaton (and the backward automaton computing the match starts) is executed as lazy DFA (see {@link LazyDFA}), so each
+ * char costs a table lookup once the transitions are known. The DFA states are cached by the algorithm and shared by all its finders, the
+ * number of cached states is bounded (configurable by constructor).
+ * 
+ * Patterns with at most 64 positions use automata with long states (see {@link LongGlushkovAutomaton}), so computing new DFA states does
+ * not allocate.
 */
-public class BPGlushkov implements StringSearchAlgorithm {
+public class BPGlushkov implements StringSearchAlgorithm, SizedAlgorithm {
 
-	private GlushkovAutomaton search;
-	private DualGlushkovAutomaton back;
-	private CharClassMapper mapper;
+	public static final int DEFAULT_MAX_DFA_STATES = 1024;
+
+	private DFAStates search;
+	private DFAStates back;
 	private int minLength;
 
 	public BPGlushkov(String pattern, RegexParserOption... options) {
+		this(pattern, DEFAULT_MAX_DFA_STATES, options);
+	}
+
+	/**
+	 * @param pattern the regex pattern
+	 * @param maxDfaStates the maximum number of DFA states cached for the search and for the backward automaton (the cache is flushed if it gets larger)
+	 * @param options the regex parser options
+	 */
+	public BPGlushkov(String pattern, int maxDfaStates, RegexParserOption... options) {
 		GlushkovAnalyzer analyzer = parseAndNormalizeRegex(pattern, options);
-		search = analyzer.buildAutomaton(SELF_LOOP);
-		back = analyzer.buildReverseAutomaton();
-		mapper = analyzer.mapper();
+		CharClassMapper mapper = analyzer.mapper();
+		if (analyzer.fitsInLong()) {
+			search = new LongLazyDFA.States(analyzer.buildLongAutomaton(SELF_LOOP), mapper, maxDfaStates);
+			back = new LongLazyDFA.States(analyzer.buildLongReverseAutomaton(), mapper, maxDfaStates);
+		} else {
+			search = new LazyDFA.States(analyzer.buildAutomaton(SELF_LOOP), mapper, maxDfaStates);
+			back = new LazyDFA.States(analyzer.buildReverseAutomaton(), mapper, maxDfaStates);
+		}
 		minLength = analyzer.minLength();
 	}
 
@@ -59,6 +77,16 @@ public class BPGlushkov implements StringSearchAlgorithm {
 		return new Finder(chars, options);
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new Finder(chars).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		return search.estimatedSize() + back.estimatedSize();
+	}
+
 	@Override
 	public int getPatternLength() {
 		return minLength;
@@ -69,14 +97,16 @@ public class BPGlushkov implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	private class Finder extends BufferedStringFinder {
+	private class Finder extends BufferedStringFinder implements MatchSink {
 
 		private boolean longestMatch;
 		private boolean nonEmpty;
 		private CharProvider chars;
 		private CharProvider reverse;
 		private long border;
-		private BitSet state;
+		private DFA dfa;
+		private DFA backDfa;
+		private int state;
 
 		public Finder(CharProvider chars, StringFinderOption... options) {
 			super(options);
@@ -85,13 +115,17 @@ public class BPGlushkov implements StringSearchAlgorithm {
 			this.chars = chars;
 			this.reverse = new ReverseCharProvider(chars);
 			this.border = -1;
-			this.state = search.getInitial();
+			this.dfa = search.createDFA();
+			this.backDfa = back.createDFA();
+			this.state = dfa.getInitial();
 		}
 
 		@Override
 		public void skipTo(long pos) {
 			long last = removeMatchesBefore(pos);
-			border = last;
+			if (last > border) {
+				border = last;
+			}
 			if (last > chars.current()) {
 				chars.move(last);
 			}
@@ -104,17 +138,16 @@ public class BPGlushkov implements StringSearchAlgorithm {
 			}
 			if (isBufferEmpty()) {
 				while (!chars.finished()) {
-					if (search.isFinal(state)) {
-						push(createMatches(chars.current(), state));
+					if (dfa.isFinal(state)) {
+						reportMatches(chars.current(), state, this);
 					}
-					char c = mapper.representative(chars.next());
-					state = search.next(state, c);
-					if (search.isInitial(state) && !isBufferEmpty()) {
+					state = dfa.next(state, chars.next());
+					if (dfa.isInitial(state) && !isBufferEmpty()) {
 						break;
 					}
 				}
-				if (chars.finished() && search.isFinal(state)) {
-					push(createMatches(chars.current(), state));
+				if (chars.finished() && dfa.isFinal(state)) {
+					reportMatches(chars.current(), state, this);
 					border = chars.current();
 				}
 			}
@@ -127,62 +160,81 @@ public class BPGlushkov implements StringSearchAlgorithm {
 			}
 		}
 
-		private List<StringMatch> createMatches(long end, BitSet state) {
-			if (end <= border) {
-				return emptyList();
+		public void search(MatchSink sink) {
+			while (!chars.finished()) {
+				if (dfa.isFinal(state) && !reportMatches(chars.current(), state, sink)) {
+					return;
+				}
+				state = dfa.next(state, chars.next());
+			}
+			if (dfa.isFinal(state)) {
+				reportMatches(chars.current(), state, sink);
 			}
-			state = state.and(back.getInitial());
+		}
 
-			List<StringMatch> matches = new ArrayList<>();
+		/**
+		 * reports all matches ending at the given position (the search automaton being in the given final state) to the given sink
+		 * 
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		private boolean reportMatches(long end, int current, MatchSink sink) {
+			if (end <= border) {
+				return true;
+			}
+			int state = backDfa.enterFrom(dfa, current);
 
 			long backup = reverse.current();
 			reverse.move(end);
-			while (!reverse.finished() && !state.isEmpty()) {
-				if (back.isFinal(state)) {
-					long start = reverse.current();
-					matches.add(createMatch(start, end));
+			try {
+				while (!reverse.finished() && !backDfa.isEmpty(state)) {
+					if (backDfa.isFinal(state) && !sink.match(reverse.current(), end, 0)) {
+						return false;
+					}
+					state = backDfa.next(state, reverse.next());
 				}
-				char c = mapper.representative(reverse.next());
-				state = back.next(state, c);
-			}
-			if (reverse.finished() && back.isFinal(state)) {
-				long start = reverse.current();
-				matches.add(createMatch(start, end));
+				if (reverse.finished() && backDfa.isFinal(state)) {
+					return sink.match(reverse.current(), end, 0);
+				}
+				return true;
+			} finally {
+				reverse.move(backup);
 			}
-			reverse.move(backup);
-			if (nonEmpty) {
-				removeEmpty(matches);
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			if (!nonEmpty || start < end) {
+				push(createMatch(start, end));
 			}
-			return matches;
+			return true;
 		}
 
 		public StringMatch createMatch(long start, long end) {
+			if (!capturesText()) {
+				return new StringMatch(start, end);
+			}
 			String s = chars.slice(start, end);
 			return new StringMatch(start, end, s);
 		}
-
-		private void removeEmpty(List<StringMatch> matches) {
-			Iterator<StringMatch> matchIterator = matches.iterator();
-			while (matchIterator.hasNext()) {
-				StringMatch match = matchIterator.next();
-				if (match.isEmpty()) {
-					matchIterator.remove();
-				}
-			}
-		}
 	}
 
 	public static class Factory implements StringSearchAlgorithmFactory {
 
+		private int maxDfaStates;
 		private RegexParserOption[] options;
 
 		public Factory(RegexParserOption... options) {
+			this(DEFAULT_MAX_DFA_STATES, options);
+		}
+
+		public Factory(int maxDfaStates, RegexParserOption... options) {
+			this.maxDfaStates = maxDfaStates;
 			this.options = options;
 		}
 
 		@Override
 		public StringSearchAlgorithm of(String pattern) {
-			return new BPGlushkov(pattern, options);
+			return new BPGlushkov(pattern, maxDfaStates, options);
 		}
 
 	}
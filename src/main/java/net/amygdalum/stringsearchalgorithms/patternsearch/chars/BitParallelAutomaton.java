@@ -16,4 +16,9 @@ public interface BitParallelAutomaton {
 
 	int minLength();
 
+	/**
+	 * @return the estimated size (in bytes) of the tables of this automaton
+	 */
+	long estimatedSize();
+
 }
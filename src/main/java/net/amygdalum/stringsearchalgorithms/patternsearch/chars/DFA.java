@@ -0,0 +1,45 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+/**
+ * A deterministic automaton computed from a bit parallel automaton. States are denoted by int ids.
+ */
+public interface DFA {
+
+	/**
+	 * @return the id of the initial state
+	 */
+	int getInitial();
+
+	/**
+	 * @param state the id of a state
+	 * @return true if the state is the initial state
+	 */
+	boolean isInitial(int state);
+
+	/**
+	 * @param state the id of a state
+	 * @return true if the state contains a final state of the automaton
+	 */
+	boolean isFinal(int state);
+
+	/**
+	 * @param state the id of a state
+	 * @return true if the state does not contain any state of the automaton (i.e. no further match is possible)
+	 */
+	boolean isEmpty(int state);
+
+	/**
+	 * @param state the id of the current state
+	 * @param c the next char
+	 * @return the id of the next state
+	 */
+	int next(int state, char c);
+
+	/**
+	 * @param dfa another automaton with the same positions and state encoding (e.g. the forward automaton of this backward automaton)
+	 * @param state the id of a state of the other automaton
+	 * @return the id of the state of this automaton containing the positions of the given state that are also initial in this automaton
+	 */
+	int enterFrom(DFA dfa, int state);
+
+}
@@ -0,0 +1,193 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
+import net.amygdalum.util.io.CharClassMapper;
+
+/**
+ * The state table of a lazily built deterministic automaton (see {@link LazyDFA} and {@link LongLazyDFA}).
+ *
+ * Each distinct state of the underlying automaton gets an id, the transitions of each id are cached in a row indexed by the char class
+ * (as given by the CharClassMapper). Subclasses map the states of their automaton to ids, this class holds the rows and evicts them.
+ *
+ * The table is shared by all automata created with {@link #createDFA()} (e.g. by all finders of an algorithm), which may run in different
+ * threads. Known transitions are read without locking, unknown transitions are computed while holding the lock of this object. Rows are
+ * only published with their final fields set, a transition read before it was written is just computed again.
+ *
+ * The number of cached states is bounded (the table grows on demand up to this bound): if the table is full a new table is started
+ * (with only the initial state and the state currently computed). State ids are only valid in the table they were returned from, an
+ * automaton keeps its table until it computes an unknown transition.
+ */
+public abstract class DFAStates {
+
+	static final int UNKNOWN = -1;
+	static final int INITIAL = 0;
+	private static final int INITIAL_CAPACITY = 16;
+
+	CharClassMapper mapper;
+	private int maxStates;
+
+	private Table table;
+	private int flushes;
+
+	/**
+	 * @param mapper the char classes of the automaton
+	 * @param maxStates the maximum number of states to cache (at least 2)
+	 */
+	protected DFAStates(CharClassMapper mapper, int maxStates) {
+		this.mapper = mapper;
+		this.maxStates = Math.max(2, maxStates);
+	}
+
+	/**
+	 * @return a new automaton executing the transitions of this table (not thread safe, each search should use its own automaton)
+	 */
+	public abstract AbstractLazyDFA createDFA();
+
+	/**
+	 * starts a new table with the initial state (with id {@link #INITIAL}). Subclasses call this method when initialized.
+	 */
+	protected void flush() {
+		table = new Table(Math.min(INITIAL_CAPACITY, maxStates));
+		clearIds();
+		enterInitial();
+	}
+
+	/**
+	 * forgets the ids of all states (the table was flushed)
+	 */
+	protected abstract void clearIds();
+
+	/**
+	 * enters the initial state of the automaton (into an empty table)
+	 */
+	protected abstract void enterInitial();
+
+	/**
+	 * @param row the row of a state
+	 * @param c the representative char of the next char class
+	 * @return the id of the next state (the table may have been flushed while computing this id)
+	 */
+	protected abstract int computeNext(Row row, char c);
+
+	/**
+	 * @return the estimated size (in bytes) of the underlying automaton
+	 */
+	protected abstract long automatonSize();
+
+	/**
+	 * @return the estimated size (in bytes) of a state of the underlying automaton (in its row and in the map of ids)
+	 */
+	protected abstract long stateSize();
+
+	/**
+	 * @return the estimated size (in bytes) of the underlying automaton and of the table holding the maximum number of states
+	 */
+	public long estimatedSize() {
+		long row = 2 * Sizes.HEADER + Sizes.REFERENCE + 4L * mapper.indexCount() + stateSize();
+		return automatonSize() + maxStates * row;
+	}
+
+	/**
+	 * @return a new row of transitions (all unknown)
+	 */
+	protected int[] newTransitions() {
+		int[] next = new int[mapper.indexCount()];
+		fill(next, UNKNOWN);
+		return next;
+	}
+
+	/**
+	 * flushes the table if it is full (a subclass should look up the state to add again after a flush)
+	 *
+	 * @return true if the table was flushed, false otherwise
+	 */
+	protected boolean flushIfFull() {
+		if (table.size < maxStates) {
+			return false;
+		}
+		flushes++;
+		flush();
+		return true;
+	}
+
+	/**
+	 * adds a new state to the table (which must not be full, see {@link #flushIfFull()})
+	 *
+	 * @param row the row of the new state
+	 * @return the id of the new state
+	 */
+	protected int add(Row row) {
+		if (table.size == table.rows.length) {
+			table.rows = copyOf(table.rows, Math.min(maxStates, table.size * 2));
+		}
+		int id = table.size;
+		table.rows[id] = row;
+		table.size++;
+		return id;
+	}
+
+	synchronized int next(AbstractLazyDFA dfa, int state, int charClass) {
+		Row row = dfa.rows[state];
+		int next = row.next[charClass];
+		if (next == UNKNOWN || dfa.table != table) {
+			Table current = table;
+			next = computeNext(row, mapper.representative(charClass));
+			if (dfa.table == current && table == current) {
+				row.next[charClass] = next;
+			}
+		}
+		refresh(dfa);
+		return next;
+	}
+
+	synchronized void refresh(AbstractLazyDFA dfa) {
+		dfa.table = table;
+		dfa.rows = table.rows;
+	}
+
+	/**
+	 * @return the number of currently cached states
+	 */
+	public synchronized int size() {
+		return table.size;
+	}
+
+	/**
+	 * @return the number of times the table was flushed
+	 */
+	public synchronized int flushes() {
+		return flushes;
+	}
+
+	static class Table {
+
+		private Row[] rows;
+		private int size;
+
+		Table(int capacity) {
+			this.rows = new Row[capacity];
+		}
+
+	}
+
+	/**
+	 * The row of a state: the transitions (the ids of the next states, indexed by char class) and the properties of the state.
+	 */
+	protected static class Row {
+
+		final int[] next;
+		final boolean accepting;
+		final boolean empty;
+
+		protected Row(int[] next, boolean accepting, boolean empty) {
+			this.next = next;
+			this.accepting = accepting;
+			this.empty = empty;
+		}
+
+	}
+
+}
@@ -5,6 +5,7 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Set;
 
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
 import net.amygdalum.util.bits.BitSet;
 import net.amygdalum.util.map.BitSetObjectMap;
 import net.amygdalum.util.map.CharObjectMap;
@@ -12,13 +13,13 @@ import net.amygdalum.util.map.CharObjectMap;
 public class DualGlushkovAutomaton implements BitParallelAutomaton {
 
 	private BitSet initial;
-	private BitSet finals;
+	private int[] finalBits;
 	private CharObjectMap<BitSet> emittingChar;
 	private BitSetObjectMap<BitSet> reachableByState;
 
 	public DualGlushkovAutomaton(BitSet initial, BitSet finals, CharObjectMap<BitSet> emittingChar, BitSetObjectMap<BitSet> reachableByState) {
 		this.initial = initial;
-		this.finals = finals;
+		this.finalBits = finals.isEmpty() ? new int[0] : finals.allSetBits();
 		this.emittingChar = emittingChar;
 		this.reachableByState = reachableByState;
 	}
@@ -50,7 +51,12 @@ public class DualGlushkovAutomaton implements BitParallelAutomaton {
 
 	@Override
 	public boolean isFinal(BitSet state) {
-		return !finals.and(state).isEmpty();
+		for (int bit : finalBits) {
+			if (state.get(bit)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@Override
@@ -77,4 +83,11 @@ public class DualGlushkovAutomaton implements BitParallelAutomaton {
 		return Integer.MAX_VALUE;
 	}
 
+	@Override
+	public long estimatedSize() {
+		long state = Sizes.ofBitSet(initial);
+		return state + 4L * finalBits.length
+			+ emittingChar.size() * (2 + Sizes.REFERENCE + state)
+			+ reachableByState.size() * (2 * Sizes.REFERENCE + 2 * state);
+	}
 }
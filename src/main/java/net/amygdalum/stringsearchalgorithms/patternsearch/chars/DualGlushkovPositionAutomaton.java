@@ -0,0 +1,98 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
+import net.amygdalum.util.bits.BitSet;
+import net.amygdalum.util.map.CharObjectMap;
+
+/**
+ * A DualGlushkovAutomaton computing its transitions from the precede sets of the positions (see {@link GlushkovPositionAutomaton}).
+ */
+public class DualGlushkovPositionAutomaton implements BitParallelAutomaton {
+
+	private BitSet initial;
+	private int[] finalBits;
+	private CharObjectMap<BitSet> emittingChar;
+	private BitSet[] precedeByPosition;
+	private BitSet defaultValue;
+
+	public DualGlushkovPositionAutomaton(BitSet initial, BitSet finals, CharObjectMap<BitSet> emittingChar, BitSet[] precedeByPosition, BitSet defaultValue) {
+		this.initial = initial;
+		this.finalBits = finals.isEmpty() ? new int[0] : finals.allSetBits();
+		this.emittingChar = emittingChar;
+		this.precedeByPosition = precedeByPosition;
+		this.defaultValue = defaultValue;
+	}
+
+	@Override
+	public char[] supportedChars() {
+		return emittingChar.keys();
+	}
+
+	@Override
+	public BitSet getInitial() {
+		return initial;
+	}
+
+	@Override
+	public boolean isInitial(BitSet state) {
+		return initial.equals(state);
+	}
+
+	@Override
+	public BitSet next(BitSet state, char c) {
+		BitSet emitting = state.and(emittingChar.get(c));
+
+		BitSet result = defaultValue;
+		for (int i = emitting.nextSetBit(0); i >= 0; i = emitting.nextSetBit(i + 1)) {
+			result = result.or(precedeByPosition[i]);
+		}
+		return result;
+	}
+
+	@Override
+	public boolean isFinal(BitSet state) {
+		for (int bit : finalBits) {
+			if (state.get(bit)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int minLength() {
+		int length = 0;
+		Set<BitSet> done = new HashSet<>();
+		Queue<BitSet> next = new LinkedList<>();
+		next.add(getInitial());
+		while (!next.isEmpty()) {
+			Queue<BitSet> states = next;
+			next = new LinkedList<>();
+			while(!states.isEmpty()) {
+				BitSet current = states.remove();
+				if (isFinal(current)) {
+					return length;
+				}
+				done.add(current);
+				for (char c : emittingChar.keys()) {
+					next.add(next(current, c));
+				}
+			}
+			length++;
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public long estimatedSize() {
+		long state = Sizes.ofBitSet(initial);
+		return 2 * state + 4L * finalBits.length
+			+ emittingChar.size() * (2 + Sizes.REFERENCE + state)
+			+ precedeByPosition.length * (Sizes.REFERENCE + state);
+	}
+}
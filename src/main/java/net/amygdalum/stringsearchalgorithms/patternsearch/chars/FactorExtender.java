@@ -53,4 +53,10 @@ public interface FactorExtender {
 	 */
 	boolean hasFactor(String factor);
 
+	/**
+	 * @return the estimated size (in bytes) of the automata of this extender (which are shared with the extenders returned by
+	 * {@link #forFactor(String)})
+	 */
+	long estimatedSize();
+
 }
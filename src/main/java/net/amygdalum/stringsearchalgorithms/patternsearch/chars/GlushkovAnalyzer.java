@@ -261,6 +261,67 @@ public class GlushkovAnalyzer implements RegexNodeVisitor<Void> {
 		return new DualGlushkovAutomaton(initial, finals, reachableByChar, reachableByState);
 	}
 
+	public GlushkovPositionAutomaton buildPositionAutomaton(GlushkovAnalyzerOption... options) {
+		BitSet initial = FACTORS.in(options) ? all() : initial();
+
+		BitSet finals = finals();
+
+		CharObjectMap<BitSet> reachableByChar = reachableByChar(options);
+
+		BitSet defaultValue = SELF_LOOP.in(options) ? initial() : BitSet.empty(len);
+
+		return new GlushkovPositionAutomaton(initial, finals, reachableByChar, byPosition(follow), defaultValue);
+	}
+
+	public DualGlushkovPositionAutomaton buildReversePositionAutomaton(GlushkovAnalyzerOption... options) {
+		BitSet initial = FACTORS.in(options) ? all() : finals();
+
+		BitSet finals = initial();
+
+		CharObjectMap<BitSet> reachableByChar = reachableByChar(options);
+
+		BitSet defaultValue = SELF_LOOP.in(options) ? finals() : BitSet.empty(len);
+
+		return new DualGlushkovPositionAutomaton(initial, finals, reachableByChar, byPosition(precede), defaultValue);
+	}
+
+	/**
+	 * @return true if the positions of the pattern fit into a long, i.e. long automata can be built
+	 */
+	public boolean fitsInLong() {
+		return len <= Long.SIZE;
+	}
+
+	public LongGlushkovAutomaton buildLongAutomaton(GlushkovAnalyzerOption... options) {
+		if (!fitsInLong()) {
+			throw new IllegalStateException("pattern has " + len + " positions, at most " + Long.SIZE + " fit into a long");
+		}
+		BitSet initial = FACTORS.in(options) ? all() : initial();
+
+		BitSet finals = finals();
+
+		CharObjectMap<BitSet> reachableByChar = reachableByChar(options);
+
+		BitSetObjectMap<BitSet> reachableByState = reachableByState(reachableByChar, options);
+
+		return new LongGlushkovAutomaton(toLong(initial), toLong(finals), mapper, byClass(reachableByChar), toLong(reachableByState));
+	}
+
+	public LongDualGlushkovAutomaton buildLongReverseAutomaton(GlushkovAnalyzerOption... options) {
+		if (!fitsInLong()) {
+			throw new IllegalStateException("pattern has " + len + " positions, at most " + Long.SIZE + " fit into a long");
+		}
+		BitSet initial = FACTORS.in(options) ? all() : finals();
+
+		BitSet finals = initial();
+
+		CharObjectMap<BitSet> reachableByChar = reachableByChar(options);
+
+		BitSetObjectMap<BitSet> reachableByState = sourceableByState(reachableByChar, options);
+
+		return new LongDualGlushkovAutomaton(toLong(initial), toLong(finals), mapper, byClass(reachableByChar), toLong(reachableByState));
+	}
+
 	public int minLength() {
 		return minLength(root);
 	}
@@ -362,6 +423,39 @@ public class GlushkovAnalyzer implements RegexNodeVisitor<Void> {
 		return new ArrayList<>(filteredPossible);
 	}
 
+	private BitSet[] byPosition(Map<Integer, Set<Integer>> next) {
+		BitSet[] byPosition = new BitSet[len];
+		for (int i = 0; i < len; i++) {
+			Set<Integer> positions = next.get(i);
+			byPosition[i] = positions == null ? BitSet.empty(len) : bits(len, positions);
+		}
+		return byPosition;
+	}
+
+	private long[] byClass(CharObjectMap<BitSet> byChar) {
+		long[] byClass = new long[mapper.indexCount()];
+		for (int i = 0; i < byClass.length; i++) {
+			byClass[i] = toLong(byChar.get(mapper.representative(i)));
+		}
+		return byClass;
+	}
+
+	private static LongStateMap toLong(BitSetObjectMap<BitSet> byState) {
+		LongStateMap map = new LongStateMap(toLong(byState.getDefaultValue()));
+		for (BitSetObjectMap.Entry<BitSet> entry : byState.cursor()) {
+			map.put(toLong(entry.key), toLong(entry.value));
+		}
+		return map;
+	}
+
+	private static long toLong(BitSet bits) {
+		long value = 0;
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			value |= 1L << i;
+		}
+		return value;
+	}
+
 	private static BitSet bits(int len, Set<Integer> ints) {
 		BitSet bits = BitSet.empty(len);
 		for (int i : ints) {
@@ -371,11 +465,19 @@ public class GlushkovAnalyzer implements RegexNodeVisitor<Void> {
 	}
 
 	private BitSet finals() {
+		return finals(root);
+	}
+
+	/**
+	 * @param node the root or a sub node of the analyzed pattern
+	 * @return the positions accepting the given sub node (including the initial position if the sub node matches the empty string)
+	 */
+	public BitSet finals(RegexNode node) {
 		BitSet finals = BitSet.empty(len);
-		for (int x : last(root)) {
+		for (int x : last(node)) {
 			finals.set(x);
 		}
-		if (minLength.get(root) == 0) {
+		if (minLength.get(node) == 0) {
 			finals.set(0);
 		}
 		return finals;
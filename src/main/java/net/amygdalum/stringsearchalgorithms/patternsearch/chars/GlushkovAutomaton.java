@@ -5,6 +5,7 @@ import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Set;
 
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
 import net.amygdalum.util.bits.BitSet;
 import net.amygdalum.util.map.BitSetObjectMap;
 import net.amygdalum.util.map.CharObjectMap;
@@ -12,13 +13,13 @@ import net.amygdalum.util.map.CharObjectMap;
 public class GlushkovAutomaton implements BitParallelAutomaton {
 
 	private BitSet initial;
-	private BitSet finals;
+	private int[] finalBits;
 	private CharObjectMap<BitSet> reachableByChar;
 	private BitSetObjectMap<BitSet> reachableByState;
 
 	public GlushkovAutomaton(BitSet initial, BitSet finals, CharObjectMap<BitSet> reachableByChar, BitSetObjectMap<BitSet> reachableByState) {
 		this.initial = initial;
-		this.finals = finals;
+		this.finalBits = finals.isEmpty() ? new int[0] : finals.allSetBits();
 		this.reachableByChar = reachableByChar;
 		this.reachableByState = reachableByState;
 	}
@@ -48,7 +49,12 @@ public class GlushkovAutomaton implements BitParallelAutomaton {
 
 	@Override
 	public boolean isFinal(BitSet state) {
-		return !finals.and(state).isEmpty();
+		for (int bit : finalBits) {
+			if (state.get(bit)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@Override
@@ -76,4 +82,11 @@ public class GlushkovAutomaton implements BitParallelAutomaton {
 		return length;
 	}
 
+	@Override
+	public long estimatedSize() {
+		long state = Sizes.ofBitSet(initial);
+		return state + 4L * finalBits.length
+			+ reachableByChar.size() * (2 + Sizes.REFERENCE + state)
+			+ reachableByState.size() * (2 * Sizes.REFERENCE + 2 * state);
+	}
 }
@@ -159,6 +159,11 @@ public class GlushkovFactorExtender implements FactorExtender {
 		}
 	}
 
+	@Override
+	public long estimatedSize() {
+		return factors.estimatedSize() + automaton.estimatedSize();
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
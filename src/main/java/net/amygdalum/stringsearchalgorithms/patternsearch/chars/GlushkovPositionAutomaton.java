@@ -0,0 +1,103 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
+import net.amygdalum.util.bits.BitSet;
+import net.amygdalum.util.map.CharObjectMap;
+
+/**
+ * A GlushkovAutomaton computing its transitions from the follow sets of the positions (instead of a table of all reachable states).
+ *
+ * Building this automaton is linear in the number of positions, so it is suitable for large patterns (e.g. unions of many patterns)
+ * where the number of reachable states explodes. It should be executed as lazy DFA (see {@link LazyDFA}), which computes each
+ * transition only once.
+ */
+public class GlushkovPositionAutomaton implements BitParallelAutomaton {
+
+	private BitSet initial;
+	private int[] finalBits;
+	private CharObjectMap<BitSet> reachableByChar;
+	private BitSet[] followByPosition;
+	private BitSet defaultValue;
+
+	public GlushkovPositionAutomaton(BitSet initial, BitSet finals, CharObjectMap<BitSet> reachableByChar, BitSet[] followByPosition, BitSet defaultValue) {
+		this.initial = initial;
+		this.finalBits = finals.isEmpty() ? new int[0] : finals.allSetBits();
+		this.reachableByChar = reachableByChar;
+		this.followByPosition = followByPosition;
+		this.defaultValue = defaultValue;
+	}
+
+	@Override
+	public char[] supportedChars() {
+		return reachableByChar.keys();
+	}
+
+	@Override
+	public BitSet getInitial() {
+		return initial;
+	}
+
+	@Override
+	public boolean isInitial(BitSet state) {
+		return initial.equals(state);
+	}
+
+	@Override
+	public BitSet next(BitSet state, char c) {
+		BitSet result = defaultValue;
+		for (int i = state.nextSetBit(0); i >= 0; i = state.nextSetBit(i + 1)) {
+			result = result.or(followByPosition[i]);
+		}
+		BitSet byChar = reachableByChar.get(c);
+
+		return result.and(byChar);
+	}
+
+	@Override
+	public boolean isFinal(BitSet state) {
+		for (int bit : finalBits) {
+			if (state.get(bit)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int minLength() {
+		int length = 0;
+		Set<BitSet> done = new HashSet<>();
+		Queue<BitSet> next = new LinkedList<>();
+		next.add(getInitial());
+		while (!next.isEmpty()) {
+			Queue<BitSet> states = next;
+			states.removeAll(done);
+			next = new LinkedList<>();
+			while(!states.isEmpty()) {
+				BitSet current = states.remove();
+				if (isFinal(current)) {
+					return length;
+				}
+				done.add(current);
+				for (char c : reachableByChar.keys()) {
+					next.add(next(current, c));
+				}
+			}
+			length++;
+		}
+		return length;
+	}
+
+	@Override
+	public long estimatedSize() {
+		long state = Sizes.ofBitSet(initial);
+		return 2 * state + 4L * finalBits.length
+			+ reachableByChar.size() * (2 + Sizes.REFERENCE + state)
+			+ followByPosition.length * (Sizes.REFERENCE + state);
+	}
+}
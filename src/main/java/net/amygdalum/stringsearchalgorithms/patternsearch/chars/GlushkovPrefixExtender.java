@@ -155,6 +155,11 @@ public class GlushkovPrefixExtender implements FactorExtender {
 		return state;
 	}
 
+	@Override
+	public long estimatedSize() {
+		return automaton.estimatedSize();
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
@@ -0,0 +1,143 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.DFAStates.Row;
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
+import net.amygdalum.util.bits.BitSet;
+import net.amygdalum.util.io.CharClassMapper;
+import net.amygdalum.util.map.BitSetObjectMap;
+
+/**
+ * A deterministic automaton that is built lazily from a BitParallelAutomaton.
+ *
+ * Each distinct state (BitSet) of the bit parallel automaton gets an id, the transitions of each id are cached in a table indexed
+ * by the char class (see {@link DFAStates}). Once a transition is known, computing the next state is a single table lookup.
+ *
+ * The number of cached states is bounded: if the cache is full it is flushed. State ids returned before a flush are invalid after the
+ * flush, so callers should only keep the last returned id.
+ *
+ * A LazyDFA is not thread safe, each search should use its own instance. Instances created from the same {@link States} share their
+ * cached states (and may be used by different threads).
+ */
+public class LazyDFA extends AbstractLazyDFA {
+
+	private States states;
+
+	/**
+	 * @param automaton the automaton to determinize
+	 * @param mapper the char classes of the automaton
+	 * @param maxStates the maximum number of states to cache (at least 2)
+	 */
+	public LazyDFA(BitParallelAutomaton automaton, CharClassMapper mapper, int maxStates) {
+		this(new States(automaton, mapper, maxStates));
+	}
+
+	/**
+	 * @param states the state table shared with other automata
+	 */
+	public LazyDFA(States states) {
+		super(states);
+		this.states = states;
+	}
+
+	/**
+	 * @param state the id of a state
+	 * @return the state of the underlying automaton
+	 */
+	public BitSet getState(int state) {
+		return ((BitSetRow) row(state)).state;
+	}
+
+	/**
+	 * @param state a state of the underlying automaton (e.g. a state to start a scan with)
+	 * @return the id of this state (all previously returned ids are invalid if the cache was flushed)
+	 */
+	public int enter(BitSet state) {
+		return states.enter(this, state);
+	}
+
+	@Override
+	public int enterFrom(DFA dfa, int state) {
+		return enter(((LazyDFA) dfa).getState(state).and(states.automaton.getInitial()));
+	}
+
+	/**
+	 * The state table of LazyDFAs, which can be shared by multiple automata (see {@link DFAStates}).
+	 */
+	public static class States extends DFAStates {
+
+		private BitParallelAutomaton automaton;
+		private BitSetObjectMap<Integer> ids;
+
+		/**
+		 * @param automaton the automaton to determinize
+		 * @param mapper the char classes of the automaton
+		 * @param maxStates the maximum number of states to cache (at least 2)
+		 */
+		public States(BitParallelAutomaton automaton, CharClassMapper mapper, int maxStates) {
+			super(mapper, maxStates);
+			this.automaton = automaton;
+			flush();
+		}
+
+		@Override
+		public LazyDFA createDFA() {
+			return new LazyDFA(this);
+		}
+
+		@Override
+		protected long automatonSize() {
+			return automaton.estimatedSize();
+		}
+
+		@Override
+		protected long stateSize() {
+			return Sizes.ofBitSet(automaton.getInitial()) + 2 * Sizes.REFERENCE + Sizes.HEADER;
+		}
+
+		@Override
+		protected void clearIds() {
+			ids = new BitSetObjectMap<>(null);
+		}
+
+		@Override
+		protected void enterInitial() {
+			enter(automaton.getInitial());
+		}
+
+		@Override
+		protected int computeNext(Row row, char c) {
+			return enter(automaton.next(((BitSetRow) row).state, c));
+		}
+
+		synchronized int enter(LazyDFA dfa, BitSet state) {
+			int id = enter(state);
+			refresh(dfa);
+			return id;
+		}
+
+		private int enter(BitSet state) {
+			Integer id = ids.get(state);
+			if (id != null) {
+				return id;
+			} else if (flushIfFull()) {
+				return enter(state);
+			}
+			int next = add(new BitSetRow(newTransitions(), state, automaton.isFinal(state)));
+			ids.put(state, next);
+			return next;
+		}
+
+	}
+
+	private static class BitSetRow extends Row {
+
+		private final BitSet state;
+
+		public BitSetRow(int[] next, BitSet state, boolean accepting) {
+			super(next, accepting, state.isEmpty());
+			this.state = state;
+		}
+
+	}
+
+}
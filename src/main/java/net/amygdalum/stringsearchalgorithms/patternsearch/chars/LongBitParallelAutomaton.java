@@ -0,0 +1,21 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+/**
+ * A bit parallel automaton with at most 64 positions, each state is a single long (bit i is set if position i is active).
+ */
+public interface LongBitParallelAutomaton {
+
+	long getInitial();
+
+	boolean isInitial(long state);
+
+	long next(long state, char c);
+
+	boolean isFinal(long state);
+
+	/**
+	 * @return the estimated size (in bytes) of the tables of this automaton
+	 */
+	long estimatedSize();
+
+}
@@ -0,0 +1,49 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import net.amygdalum.util.io.CharClassMapper;
+
+/**
+ * A DualGlushkovAutomaton for patterns with at most 64 positions. The transition of a state is computed on primitives:
+ * the positions of the state emitting the char class and the positions preceding these (looked up in a map from state to state).
+ */
+public class LongDualGlushkovAutomaton implements LongBitParallelAutomaton {
+
+	private long initial;
+	private long finals;
+	private CharClassMapper mapper;
+	private long[] emittingClass;
+	private LongStateMap reachableByState;
+
+	public LongDualGlushkovAutomaton(long initial, long finals, CharClassMapper mapper, long[] emittingClass, LongStateMap reachableByState) {
+		this.initial = initial;
+		this.finals = finals;
+		this.mapper = mapper;
+		this.emittingClass = emittingClass;
+		this.reachableByState = reachableByState;
+	}
+
+	@Override
+	public long getInitial() {
+		return initial;
+	}
+
+	@Override
+	public boolean isInitial(long state) {
+		return state == initial;
+	}
+
+	@Override
+	public long next(long state, char c) {
+		return reachableByState.get(state & emittingClass[mapper.getIndex(c)]);
+	}
+
+	@Override
+	public boolean isFinal(long state) {
+		return (state & finals) != 0;
+	}
+
+	@Override
+	public long estimatedSize() {
+		return 8L * emittingClass.length + reachableByState.estimatedSize();
+	}
+}
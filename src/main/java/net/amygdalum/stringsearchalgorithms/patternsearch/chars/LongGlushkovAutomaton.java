@@ -0,0 +1,49 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import net.amygdalum.util.io.CharClassMapper;
+
+/**
+ * A GlushkovAutomaton for patterns with at most 64 positions. The transition of a state is computed on primitives:
+ * the positions following the state (looked up in a map from state to state) and the positions reachable by the char class.
+ */
+public class LongGlushkovAutomaton implements LongBitParallelAutomaton {
+
+	private long initial;
+	private long finals;
+	private CharClassMapper mapper;
+	private long[] reachableByClass;
+	private LongStateMap reachableByState;
+
+	public LongGlushkovAutomaton(long initial, long finals, CharClassMapper mapper, long[] reachableByClass, LongStateMap reachableByState) {
+		this.initial = initial;
+		this.finals = finals;
+		this.mapper = mapper;
+		this.reachableByClass = reachableByClass;
+		this.reachableByState = reachableByState;
+	}
+
+	@Override
+	public long getInitial() {
+		return initial;
+	}
+
+	@Override
+	public boolean isInitial(long state) {
+		return state == initial;
+	}
+
+	@Override
+	public long next(long state, char c) {
+		return reachableByState.get(state) & reachableByClass[mapper.getIndex(c)];
+	}
+
+	@Override
+	public boolean isFinal(long state) {
+		return (state & finals) != 0;
+	}
+
+	@Override
+	public long estimatedSize() {
+		return 8L * reachableByClass.length + reachableByState.estimatedSize();
+	}
+}
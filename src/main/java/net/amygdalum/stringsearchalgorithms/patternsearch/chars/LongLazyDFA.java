@@ -0,0 +1,136 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.DFAStates.Row;
+import net.amygdalum.util.io.CharClassMapper;
+
+/**
+ * A deterministic automaton that is built lazily from a LongBitParallelAutomaton (see {@link LazyDFA}).
+ *
+ * States are single longs, so computing an unknown transition (and looking up the id of the resulting state) works on primitives only.
+ *
+ * A LongLazyDFA is not thread safe, each search should use its own instance. Instances created from the same {@link States} share
+ * their cached states (and may be used by different threads).
+ */
+public class LongLazyDFA extends AbstractLazyDFA {
+
+	private States states;
+
+	/**
+	 * @param automaton the automaton to determinize
+	 * @param mapper the char classes of the automaton
+	 * @param maxStates the maximum number of states to cache (at least 2)
+	 */
+	public LongLazyDFA(LongBitParallelAutomaton automaton, CharClassMapper mapper, int maxStates) {
+		this(new States(automaton, mapper, maxStates));
+	}
+
+	/**
+	 * @param states the state table shared with other automata
+	 */
+	public LongLazyDFA(States states) {
+		super(states);
+		this.states = states;
+	}
+
+	/**
+	 * @param state the id of a state
+	 * @return the state of the underlying automaton
+	 */
+	public long getState(int state) {
+		return ((LongRow) row(state)).state;
+	}
+
+	/**
+	 * @param state a state of the underlying automaton (e.g. a state to start a scan with)
+	 * @return the id of this state (all previously returned ids are invalid if the cache was flushed)
+	 */
+	public int enter(long state) {
+		return states.enter(this, state);
+	}
+
+	@Override
+	public int enterFrom(DFA dfa, int state) {
+		return enter(((LongLazyDFA) dfa).getState(state) & states.automaton.getInitial());
+	}
+
+	/**
+	 * The state table of LongLazyDFAs, which can be shared by multiple automata (see {@link DFAStates}).
+	 */
+	public static class States extends DFAStates {
+
+		private LongBitParallelAutomaton automaton;
+		private LongStateMap ids;
+
+		/**
+		 * @param automaton the automaton to determinize
+		 * @param mapper the char classes of the automaton
+		 * @param maxStates the maximum number of states to cache (at least 2)
+		 */
+		public States(LongBitParallelAutomaton automaton, CharClassMapper mapper, int maxStates) {
+			super(mapper, maxStates);
+			this.automaton = automaton;
+			flush();
+		}
+
+		@Override
+		public LongLazyDFA createDFA() {
+			return new LongLazyDFA(this);
+		}
+
+		@Override
+		protected long automatonSize() {
+			return automaton.estimatedSize();
+		}
+
+		@Override
+		protected long stateSize() {
+			return 8 + 2 * 17;
+		}
+
+		@Override
+		protected void clearIds() {
+			ids = new LongStateMap(UNKNOWN);
+		}
+
+		@Override
+		protected void enterInitial() {
+			enter(automaton.getInitial());
+		}
+
+		@Override
+		protected int computeNext(Row row, char c) {
+			return enter(automaton.next(((LongRow) row).state, c));
+		}
+
+		synchronized int enter(LongLazyDFA dfa, long state) {
+			int id = enter(state);
+			refresh(dfa);
+			return id;
+		}
+
+		private int enter(long state) {
+			int id = (int) ids.get(state);
+			if (id != UNKNOWN) {
+				return id;
+			} else if (flushIfFull()) {
+				return enter(state);
+			}
+			int next = add(new LongRow(newTransitions(), state, automaton.isFinal(state)));
+			ids.put(state, next);
+			return next;
+		}
+
+	}
+
+	private static class LongRow extends Row {
+
+		private final long state;
+
+		public LongRow(int[] next, long state, boolean accepting) {
+			super(next, accepting, state == 0);
+			this.state = state;
+		}
+
+	}
+
+}
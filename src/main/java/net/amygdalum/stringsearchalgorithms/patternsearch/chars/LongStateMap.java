@@ -0,0 +1,94 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+/**
+ * A map from states (encoded as long) to states (encoded as long), implemented with open addressing on primitive arrays.
+ *
+ * Keys that are not contained in the map are mapped to the default value.
+ */
+public class LongStateMap {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private long defaultValue;
+	private long[] keys;
+	private long[] values;
+	private boolean[] used;
+	private int mask;
+	private int size;
+
+	/**
+	 * @param defaultValue the value of keys that are not contained in the map
+	 */
+	public LongStateMap(long defaultValue) {
+		this.defaultValue = defaultValue;
+		this.keys = new long[INITIAL_CAPACITY];
+		this.values = new long[INITIAL_CAPACITY];
+		this.used = new boolean[INITIAL_CAPACITY];
+		this.mask = INITIAL_CAPACITY - 1;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9e3779b97f4a7c15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	public void put(long key, long value) {
+		if ((size + 1) * 2 > keys.length) {
+			expand();
+		}
+		int slot = hash(key) & mask;
+		while (used[slot] && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		if (!used[slot]) {
+			used[slot] = true;
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] = value;
+	}
+
+	public long get(long key) {
+		int slot = hash(key) & mask;
+		while (used[slot]) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return defaultValue;
+	}
+
+	public long getDefaultValue() {
+		return defaultValue;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the estimated size (in bytes) of the tables of this map
+	 */
+	public long estimatedSize() {
+		return 17L * keys.length;
+	}
+
+	private void expand() {
+		long[] oldkeys = keys;
+		long[] oldvalues = values;
+		boolean[] oldused = used;
+		int capacity = oldkeys.length * 2;
+		keys = new long[capacity];
+		values = new long[capacity];
+		used = new boolean[capacity];
+		mask = capacity - 1;
+		size = 0;
+		for (int i = 0; i < oldkeys.length; i++) {
+			if (oldused[i]) {
+				put(oldkeys[i], oldvalues[i]);
+			}
+		}
+	}
+
+}
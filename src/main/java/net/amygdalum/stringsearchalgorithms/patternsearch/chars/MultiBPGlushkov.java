@@ -0,0 +1,294 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.stringsearchalgorithms.patternsearch.chars.GlushkovAnalyzerOption.SELF_LOOP;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import net.amygdalum.regexparser.AlternativesNode;
+import net.amygdalum.regexparser.GroupNode;
+import net.amygdalum.regexparser.RegexNode;
+import net.amygdalum.regexparser.RegexParser;
+import net.amygdalum.regexparser.RegexParserOption;
+import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchOption;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.stringsearchalgorithms.search.chars.MultiStringSearchAlgorithmFactory;
+import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithmFactory;
+import net.amygdalum.util.bits.BitSet;
+import net.amygdalum.util.io.CharClassMapper;
+import net.amygdalum.util.io.CharProvider;
+import net.amygdalum.util.io.ReverseCharProvider;
+
+/**
+ * An implementation of the regex pattern search algorithm Bit-Parallel Glushkov for multiple patterns.
+ *
+ * This algorithm takes one or more regex patterns as input and generates a finder which can find this patterns in documents. All
+ * patterns are united into one Glushkov automaton, so each char of the document is read once (independent of the number of patterns).
+ *
+ * The final positions of the automaton are tagged with the index of their pattern: if a final state is reached, only the positions of the
+ * matched patterns are traced back to find the match starts. The index of the matched pattern is reported to a {@link MatchSink}
+ * (see {@link #search(CharProvider, MatchSink)}).
+ *
+ * The automata compute their transitions from the follow sets of the positions (see {@link GlushkovPositionAutomaton}) and are executed
+ * as lazy DFA (see {@link LazyDFA}), so building is linear in the size of the patterns and searching costs a table lookup per char
+ * once the transitions are known. The DFA states are cached by the algorithm and shared by all its finders.
+ */
+public class MultiBPGlushkov implements StringSearchAlgorithm, SizedAlgorithm {
+
+	private LazyDFA.States search;
+	private LazyDFA.States back;
+	private BitSet finals;
+	private BitSet[] patternFinals;
+	private int[] patternByFinal;
+	private List<Integer> emptyPatterns;
+	private int minLength;
+
+	public MultiBPGlushkov(Collection<String> patterns, RegexParserOption... options) {
+		this(patterns, BPGlushkov.DEFAULT_MAX_DFA_STATES, options);
+	}
+
+	/**
+	 * @param patterns the regex patterns (the index of a pattern is its position in this collection)
+	 * @param maxDfaStates the maximum number of DFA states cached for the search and for the backward automaton (the cache is flushed if it gets larger)
+	 * @param options the regex parser options
+	 */
+	public MultiBPGlushkov(Collection<String> patterns, int maxDfaStates, RegexParserOption... options) {
+		List<RegexNode> roots = parseAndNormalizeRegexes(patterns, options);
+		RegexNode root = AlternativesNode.anyOf(roots);
+		GlushkovAnalyzer analyzer = new GlushkovAnalyzer(root).analyze();
+		CharClassMapper mapper = analyzer.mapper();
+		search = new LazyDFA.States(analyzer.buildPositionAutomaton(SELF_LOOP), mapper, maxDfaStates);
+		back = new LazyDFA.States(analyzer.buildReversePositionAutomaton(), mapper, maxDfaStates);
+		minLength = analyzer.minLength();
+		computePatternFinals(analyzer, root, roots);
+	}
+
+	private static List<RegexNode> parseAndNormalizeRegexes(Collection<String> patterns, RegexParserOption... options) {
+		List<RegexNode> roots = new ArrayList<>(patterns.size());
+		for (String pattern : patterns) {
+			RegexParser parser = new RegexParser(pattern, options);
+			RegexNode root = parser.parse();
+			root = root.accept(new GlushkovNormalizer());
+			roots.add(new GroupNode(root));
+		}
+		return roots;
+	}
+
+	private void computePatternFinals(GlushkovAnalyzer analyzer, RegexNode root, List<RegexNode> roots) {
+		finals = analyzer.finals(root);
+		patternFinals = new BitSet[roots.size()];
+		patternByFinal = new int[finals.size()];
+		emptyPatterns = new ArrayList<>();
+		for (int pattern = 0; pattern < patternFinals.length; pattern++) {
+			BitSet current = analyzer.finals(roots.get(pattern));
+			patternFinals[pattern] = current;
+			for (int i = current.nextSetBit(1); i >= 0; i = current.nextSetBit(i + 1)) {
+				patternByFinal[i] = pattern;
+			}
+			if (current.get(0)) {
+				emptyPatterns.add(pattern);
+			}
+		}
+	}
+
+	private Set<Integer> matchedPatterns(BitSet state) {
+		Set<Integer> patterns = new TreeSet<>();
+		BitSet matched = state.and(finals);
+		for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+			if (i == 0) {
+				patterns.addAll(emptyPatterns);
+			} else {
+				patterns.add(patternByFinal[i]);
+			}
+		}
+		return patterns;
+	}
+
+	@Override
+	public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
+		return new Finder(chars, options);
+	}
+
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new Finder(chars).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		long finalsSize = Sizes.ofBitSet(finals);
+		return search.estimatedSize() + back.estimatedSize()
+			+ finalsSize + patternFinals.length * (Sizes.REFERENCE + finalsSize) + 4L * patternByFinal.length;
+	}
+
+	@Override
+	public int getPatternLength() {
+		return minLength;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+	private class Finder extends BufferedStringFinder implements MatchSink {
+
+		private boolean longestMatch;
+		private boolean nonEmpty;
+		private CharProvider chars;
+		private CharProvider reverse;
+		private long border;
+		private LazyDFA dfa;
+		private LazyDFA backDfa;
+		private int state;
+
+		public Finder(CharProvider chars, StringFinderOption... options) {
+			super(options);
+			this.longestMatch = LONGEST_MATCH.in(options);
+			this.nonEmpty = MatchOption.NON_EMPTY.in(options);
+			this.chars = chars;
+			this.reverse = new ReverseCharProvider(chars);
+			this.border = -1;
+			this.dfa = search.createDFA();
+			this.backDfa = back.createDFA();
+			this.state = dfa.getInitial();
+		}
+
+		@Override
+		public void skipTo(long pos) {
+			long last = removeMatchesBefore(pos);
+			if (last > border) {
+				border = last;
+			}
+			if (last > chars.current()) {
+				chars.move(last);
+			}
+		}
+
+		@Override
+		public StringMatch findNext() {
+			if (chars.finished() && border >= chars.current() && isBufferEmpty()) {
+				return null;
+			}
+			if (isBufferEmpty()) {
+				while (!chars.finished()) {
+					if (dfa.isFinal(state)) {
+						reportMatches(chars.current(), dfa.getState(state), this);
+					}
+					state = dfa.next(state, chars.next());
+					if (dfa.isInitial(state) && !isBufferEmpty()) {
+						break;
+					}
+				}
+				if (chars.finished() && dfa.isFinal(state)) {
+					reportMatches(chars.current(), dfa.getState(state), this);
+					border = chars.current();
+				}
+			}
+			if (isBufferEmpty()) {
+				return null;
+			} else if (!longestMatch) {
+				return leftMost();
+			} else {
+				return longestLeftMost();
+			}
+		}
+
+		public void search(MatchSink sink) {
+			while (!chars.finished()) {
+				if (dfa.isFinal(state) && !reportMatches(chars.current(), dfa.getState(state), sink)) {
+					return;
+				}
+				state = dfa.next(state, chars.next());
+			}
+			if (dfa.isFinal(state)) {
+				reportMatches(chars.current(), dfa.getState(state), sink);
+			}
+		}
+
+		/**
+		 * reports all matches ending at the given position (the search automaton being in the given final state) to the given sink
+		 * 
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		private boolean reportMatches(long end, BitSet current, MatchSink sink) {
+			if (end <= border) {
+				return true;
+			}
+			long backup = reverse.current();
+			try {
+				for (int pattern : matchedPatterns(current)) {
+					int state = backDfa.enter(current.and(patternFinals[pattern]));
+					reverse.move(end);
+					while (!reverse.finished() && !backDfa.isEmpty(state)) {
+						if (backDfa.isFinal(state) && !sink.match(reverse.current(), end, pattern)) {
+							return false;
+						}
+						state = backDfa.next(state, reverse.next());
+					}
+					if (reverse.finished() && backDfa.isFinal(state) && !sink.match(reverse.current(), end, pattern)) {
+						return false;
+					}
+				}
+				return true;
+			} finally {
+				reverse.move(backup);
+			}
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			if (!nonEmpty || start < end) {
+				push(createMatch(start, end, pattern));
+			}
+			return true;
+		}
+
+		public StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
+			String s = chars.slice(start, end);
+			return new StringMatch(start, end, s, pattern);
+		}
+
+	}
+
+	public static class Factory implements StringSearchAlgorithmFactory, MultiStringSearchAlgorithmFactory {
+
+		private int maxDfaStates;
+		private RegexParserOption[] options;
+
+		public Factory(RegexParserOption... options) {
+			this(BPGlushkov.DEFAULT_MAX_DFA_STATES, options);
+		}
+
+		public Factory(int maxDfaStates, RegexParserOption... options) {
+			this.maxDfaStates = maxDfaStates;
+			this.options = options;
+		}
+
+		@Override
+		public StringSearchAlgorithm of(String pattern) {
+			return new MultiBPGlushkov(asList(pattern), maxDfaStates, options);
+		}
+
+		@Override
+		public StringSearchAlgorithm of(Collection<String> patterns) {
+			return new MultiBPGlushkov(patterns, maxDfaStates, options);
+		}
+
+	}
+}
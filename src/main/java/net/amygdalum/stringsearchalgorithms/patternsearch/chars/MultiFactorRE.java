@@ -4,9 +4,11 @@ import static java.lang.Math.min;
 import static java.util.Arrays.asList;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_EMPTY;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NO_TEXT;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -14,14 +16,18 @@ import java.util.Map;
 import java.util.Set;
 
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.stringsearchalgorithms.search.chars.EmptyMatchFinder;
 import net.amygdalum.stringsearchalgorithms.search.chars.MultiStringSearchAlgorithmFactory;
+import net.amygdalum.stringsearchalgorithms.search.chars.SizeEstimator;
 import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithm;
 import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithmFactory;
 import net.amygdalum.util.io.CharProvider;
+import net.amygdalum.util.io.StringCharProvider;
 
 /**
  * An implementation of the regex pattern search algorithm MultiStringRE.
@@ -38,15 +44,17 @@ import net.amygdalum.util.io.CharProvider;
  * - works better if patterns have limited char combinations in their factors (dont-cares are hard)
  * - works really, really bad for dont-care-loops
  */
-public class MultiFactorRE implements StringSearchAlgorithm {
+public class MultiFactorRE implements StringSearchAlgorithm, SizedAlgorithm {
 
 	private static final int DEFAULT_MAX_LENGTH = 3;
 
 	private int maxLength;
 	private int minLength;
 	private StringSearchAlgorithm searchAlgorithm;
-	private Map<String, List<FactorExtender>> extenders;
-
+	private long searchAlgorithmSize;
+	private FactorExtender[][] extenders;
+	private int[][] extenderPatterns;
+	private int emptyFactor;
 
 	public MultiFactorRE(MultiStringSearchAlgorithmFactory factorSearcher, FactorExtenderFactory factorExtender, String... patterns) {
 		this(factorSearcher, factorExtender, DEFAULT_MAX_LENGTH, asList(patterns));
@@ -64,8 +72,48 @@ public class MultiFactorRE implements StringSearchAlgorithm {
 		Map<String, FactorExtender> matchers = computeMatchers(patterns, factorExtender);
 		this.maxLength = maxLength;
 		this.minLength = computeMinLength(matchers);
-		this.extenders = computeExtenders(matchers, maxLength);
-		this.searchAlgorithm = factorSearcher.of(extenders.keySet());
+		Map<String, List<FactorExtender>> extendersByFactor = computeExtenders(matchers, maxLength);
+		Map<String, Integer> patternIndexes = computePatternIndexes(patterns);
+		List<String> factors = new ArrayList<>(extendersByFactor.keySet());
+		this.extenders = new FactorExtender[factors.size()][];
+		this.extenderPatterns = new int[factors.size()][];
+		for (int i = 0; i < extenders.length; i++) {
+			List<FactorExtender> factorExtenders = extendersByFactor.get(factors.get(i));
+			extenders[i] = factorExtenders.toArray(new FactorExtender[0]);
+			extenderPatterns[i] = new int[extenders[i].length];
+			for (int j = 0; j < extenders[i].length; j++) {
+				extenderPatterns[i][j] = patternIndexes.get(extenders[i][j].getPattern());
+			}
+		}
+		this.emptyFactor = factors.indexOf("");
+		this.searchAlgorithm = factorSearcher.of(factors);
+		checkFactorIndexes(searchAlgorithm, factors);
+		this.searchAlgorithmSize = SizeEstimator.DEFAULT.estimate(searchAlgorithm, factors);
+	}
+
+	/**
+	 * checks that the factor search algorithm reports the index of each factor, matches of the factor search are mapped to their extenders
+	 * by this index.
+	 */
+	private static void checkFactorIndexes(StringSearchAlgorithm searchAlgorithm, List<String> factors) {
+		for (int i = 0; i < factors.size(); i++) {
+			String factor = factors.get(i);
+			if (factor.isEmpty()) {
+				continue;
+			}
+			if (!reportsFactor(searchAlgorithm, factor, i)) {
+				throw new IllegalArgumentException("factor search " + searchAlgorithm + " does not report the index " + i + " of factor '" + factor + "'");
+			}
+		}
+	}
+
+	private static boolean reportsFactor(StringSearchAlgorithm searchAlgorithm, String factor, int index) {
+		for (StringMatch match : searchAlgorithm.createFinder(new StringCharProvider(factor, 0), NO_TEXT).findAll()) {
+			if (match.start() == 0 && match.end() == factor.length() && match.pattern() == index) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private static Map<String, FactorExtender> computeMatchers(Collection<String> patterns, FactorExtenderFactory factorExtender) {
@@ -76,6 +124,16 @@ public class MultiFactorRE implements StringSearchAlgorithm {
 		return matchers;
 	}
 
+	private static Map<String, Integer> computePatternIndexes(Collection<String> patterns) {
+		Map<String, Integer> patternIndexes = new LinkedHashMap<>();
+		int index = 0;
+		for (String pattern : patterns) {
+			patternIndexes.put(pattern, index);
+			index++;
+		}
+		return patternIndexes;
+	}
+
 	private static int computeMinLength(Map<String, FactorExtender> matchers) {
 		int minLength = Integer.MAX_VALUE;
 		for (FactorExtender matcher : matchers.values()) {
@@ -134,6 +192,25 @@ public class MultiFactorRE implements StringSearchAlgorithm {
 		return new Finder(chars, options);
 	}
 
+	/**
+	 * estimates the factor search algorithm (see {@link SizeEstimator#DEFAULT}) and the automata of the extenders (once for each pattern,
+	 * the extenders of a pattern share their automata).
+	 */
+	@Override
+	public long estimatedSize() {
+		long size = searchAlgorithmSize;
+		Set<String> patterns = new HashSet<>();
+		for (FactorExtender[] factorExtenders : extenders) {
+			for (FactorExtender extender : factorExtenders) {
+				if (patterns.add(extender.getPattern())) {
+					size += extender.estimatedSize();
+				}
+				size += 2 * Sizes.REFERENCE;
+			}
+		}
+		return size;
+	}
+
 	@Override
 	public int getPatternLength() {
 		return minLength;
@@ -142,7 +219,7 @@ public class MultiFactorRE implements StringSearchAlgorithm {
 	@Override
 	public String toString() {
 		Set<String> factors = new LinkedHashSet<>();
-		for (List<FactorExtender> matchExtenders : extenders.values()) {
+		for (FactorExtender[] matchExtenders : extenders) {
 			for (FactorExtender matchExtender : matchExtenders) {
 				factors.add(matchExtender.toString());
 			}
@@ -161,9 +238,9 @@ public class MultiFactorRE implements StringSearchAlgorithm {
 
 		public Finder(CharProvider chars, StringFinderOption... options) {
 			super(options);
-			this.searchFactors = searchAlgorithm.createFinder(chars);
+			this.searchFactors = searchAlgorithm.createFinder(chars, NO_TEXT);
 			if (minLength == 0) {
-				this.searchFactors = new EmptyMatchFinder(searchFactors, chars, options);
+				this.searchFactors = new EmptyMatchFinder(searchFactors, emptyFactor, chars, options);
 			}
 			this.longest = LONGEST_MATCH.in(options);
 			this.nonEmpty = NON_EMPTY.in(options);
@@ -222,8 +299,10 @@ public class MultiFactorRE implements StringSearchAlgorithm {
 		}
 
 		private void extend(StringMatch match) {
-			List<FactorExtender> matchers = extenders.get(match.text());
-			for (FactorExtender matcher : matchers) {
+			FactorExtender[] matchers = extenders[match.pattern()];
+			int[] matcherPatterns = extenderPatterns[match.pattern()];
+			for (int i = 0; i < matchers.length; i++) {
+				FactorExtender matcher = matchers[i];
 				long pos = chars.current();
 				chars.move(match.end());
 				for (StringMatch extendedMatch : matcher.extendFactor(chars, longest)) {
@@ -231,7 +310,8 @@ public class MultiFactorRE implements StringSearchAlgorithm {
 						&& (extendedMatch.start() > lastStart || extendedMatch.end() > lastEnd) // do only reports matches different from the last match
 						&& (!longest || extendedMatch.end() > lastEnd) // if longest: do only report matches not being subsumed by last match
 						&& (!nonEmpty || !extendedMatch.isEmpty())) { // if non-empty: do only report matches that do not match the empty string
-						push(extendedMatch);
+						String text = capturesText() ? extendedMatch.text() : null;
+						push(new StringMatch(extendedMatch.start(), extendedMatch.end(), text, matcherPatterns[i]));
 					}
 
 				}
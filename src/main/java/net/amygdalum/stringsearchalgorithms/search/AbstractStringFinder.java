@@ -1,6 +1,7 @@
 package net.amygdalum.stringsearchalgorithms.search;
 
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NO_TEXT;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -8,11 +9,37 @@ import java.util.List;
 public abstract class AbstractStringFinder implements StringFinder {
 
 	private boolean nonOverlap;
+	private boolean noText;
 	
 	public AbstractStringFinder(StringFinderOption... options) {
 		nonOverlap = NON_OVERLAP.in(options);
+		noText = NO_TEXT.in(options);
 	}
-	
+
+	/**
+	 * @return false if matches should only carry positions (see {@link MatchOption#NO_TEXT}), true otherwise
+	 */
+	protected boolean capturesText() {
+		return !noText;
+	}
+
+	/**
+	 * @return true if matches should not overlap (see {@link MatchOption#NON_OVERLAP}), false otherwise
+	 */
+	protected boolean nonOverlapping() {
+		return nonOverlap;
+	}
+
+	/**
+	 * Finders that skip overlapping matches in their own scan loop (if {@link #nonOverlapping()}) should return true, such that
+	 * {@link #findAll()} does not need to skip them with {@link #skipTo(long)}.
+	 * 
+	 * @return true if findNext already skips matches overlapping the previous match, false otherwise
+	 */
+	protected boolean skipsOverlaps() {
+		return false;
+	}
+
 	public abstract StringMatch findNext();
 
 	public abstract void skipTo(long pos);
@@ -20,6 +47,7 @@ public abstract class AbstractStringFinder implements StringFinder {
 	@Override
 	public List<StringMatch> findAll() {
 		List<StringMatch> matches = new ArrayList<>();
+		boolean skipOverlaps = nonOverlap && !skipsOverlaps();
 		long last = -1;
 		while (true) {
 			StringMatch match = findNext();
@@ -27,7 +55,7 @@ public abstract class AbstractStringFinder implements StringFinder {
 				return matches;
 			} else {
 				matches.add(match);
-				if (nonOverlap && match.end() > last) {
+				if (skipOverlaps && match.end() > last) {
 					last = match.end(); 
 					skipTo(last);
 				}
@@ -0,0 +1,187 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Searches many (small) documents with one finder factory, the documents are searched in batches on an Executor.
+ *
+ * The finder factory (usually a compiled StringSearchAlgorithm) is shared by all threads. This is safe because algorithms
+ * only read their tables after construction, all mutable search state is kept in the finders.
+ *
+ * Documents are read lazily: at most maxPendingBatches batches are searched (or wait for being searched) at the same time, the results
+ * are reported in the order of the documents as soon as the earliest pending batch is complete. So searching with a
+ * {@link DocumentSink} keeps only the pending batches (and their results) in memory.
+ *
+ * @param <T> the type of documents
+ */
+public class BatchedSearch<T> {
+
+	/**
+	 * the default maximum number of pending batches (twice the number of available processors)
+	 */
+	public static final int DEFAULT_PENDING_BATCHES = 2 * Runtime.getRuntime().availableProcessors();
+
+	private DocumentFinders<T> finders;
+	private int batchSize;
+	private int maxPendingBatches;
+
+	/**
+	 * @param finders a factory for finders on a document
+	 * @param batchSize the number of documents searched by one task
+	 */
+	public BatchedSearch(DocumentFinders<T> finders, int batchSize) {
+		this(finders, batchSize, DEFAULT_PENDING_BATCHES);
+	}
+
+	/**
+	 * @param finders a factory for finders on a document
+	 * @param batchSize the number of documents searched by one task
+	 * @param maxPendingBatches the maximum number of batches submitted to the executor, but not yet reported
+	 */
+	public BatchedSearch(DocumentFinders<T> finders, int batchSize, int maxPendingBatches) {
+		this.finders = finders;
+		this.batchSize = Math.max(1, batchSize);
+		this.maxPendingBatches = Math.max(1, maxPendingBatches);
+	}
+
+	/**
+	 * searches all documents (on the given executor) and collects the results
+	 *
+	 * @param documents the documents to search (consumed in the calling thread)
+	 * @param executor the executor to search the batches on
+	 * @return the matches of each document (in the order of the documents)
+	 */
+	public List<List<StringMatch>> search(Iterator<T> documents, Executor executor) {
+		final List<List<StringMatch>> matches = new ArrayList<>();
+		search(documents, executor, new DocumentSink<T>() {
+
+			@Override
+			public void matches(T document, List<StringMatch> documentMatches) {
+				matches.add(documentMatches);
+			}
+		});
+		return matches;
+	}
+
+	/**
+	 * searches all documents (on the given executor) and reports the results of each document to the sink
+	 *
+	 * @param documents the documents to search (consumed in the calling thread, not before there is room for a new pending batch)
+	 * @param executor the executor to search the batches on
+	 * @param sink the sink to report the results to (called in the calling thread, in the order of the documents)
+	 */
+	public void search(Iterator<T> documents, Executor executor, DocumentSink<T> sink) {
+		Deque<BatchTask> pending = new ArrayDeque<>(maxPendingBatches);
+		while (documents.hasNext()) {
+			if (pending.size() >= maxPendingBatches) {
+				report(pending.removeFirst(), sink);
+			}
+			List<T> batch = new ArrayList<>(batchSize);
+			while (documents.hasNext() && batch.size() < batchSize) {
+				batch.add(documents.next());
+			}
+			BatchTask task = new BatchTask(batch);
+			executor.execute(task.future);
+			pending.addLast(task);
+		}
+		while (!pending.isEmpty()) {
+			report(pending.removeFirst(), sink);
+		}
+	}
+
+	private void report(BatchTask task, DocumentSink<T> sink) {
+		List<List<StringMatch>> matches = join(task.future);
+		for (int i = 0; i < task.documents.size(); i++) {
+			sink.matches(task.documents.get(i), matches.get(i));
+		}
+	}
+
+	/**
+	 * searches a single document
+	 *
+	 * @param document the document to search
+	 * @return the matches of the document
+	 */
+	public List<StringMatch> search(T document) {
+		return finders.createFinder(document).findAll();
+	}
+
+	private static <R> R join(FutureTask<R> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for search results", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private class BatchTask implements Callable<List<List<StringMatch>>> {
+
+		private List<T> documents;
+		private FutureTask<List<List<StringMatch>>> future;
+
+		public BatchTask(List<T> documents) {
+			this.documents = documents;
+			this.future = new FutureTask<>(this);
+		}
+
+		@Override
+		public List<List<StringMatch>> call() throws Exception {
+			List<List<StringMatch>> matches = new ArrayList<>(documents.size());
+			for (T document : documents) {
+				matches.add(search(document));
+			}
+			return matches;
+		}
+
+	}
+
+	/**
+	 * A sink for the results of a document
+	 *
+	 * @param <T> the type of documents
+	 */
+	public interface DocumentSink<T> {
+
+		/**
+		 * is called for each document after it was searched
+		 *
+		 * @param document the searched document
+		 * @param matches the matches of the document
+		 */
+		void matches(T document, List<StringMatch> matches);
+
+	}
+
+	/**
+	 * A factory for finders on a document
+	 *
+	 * @param <T> the type of documents
+	 */
+	public interface DocumentFinders<T> {
+
+		/**
+		 * @param document the document to search
+		 * @return a finder on the given document
+		 */
+		StringFinder createFinder(T document);
+
+	}
+
+}
@@ -1,17 +1,14 @@
 package net.amygdalum.stringsearchalgorithms.search;
 
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.PriorityQueue;
-import java.util.Queue;
 
 public abstract class BufferedStringFinder extends AbstractStringFinder {
 
-	private Queue<StringMatch> buffer;
+	private MatchBuffer buffer;
 
 	public BufferedStringFinder(StringFinderOption... options) {
 		super(options);
-		this.buffer = new PriorityQueue<>();
+		this.buffer = new MatchBuffer();
 	}
 
 	protected void push(StringMatch match) {
@@ -19,7 +16,9 @@ public abstract class BufferedStringFinder extends AbstractStringFinder {
 	}
 	
 	protected void push(Collection<StringMatch> matches) {
-		buffer.addAll(matches);
+		for (StringMatch match : matches) {
+			buffer.add(match);
+		}
 	}
 	
 	protected void clear() {
@@ -30,29 +29,26 @@ public abstract class BufferedStringFinder extends AbstractStringFinder {
 		return buffer.isEmpty();
 	}
 
+	/**
+	 * removes all buffered matches starting before the given position (see {@link #dropMatchesBefore(long)}).
+	 * 
+	 * @param pos the position to start with
+	 * @return the maximum end of the remaining matches (or pos if no remaining match ends after pos)
+	 */
 	protected long removeMatchesBefore(long pos) {
-		long last = pos;
-		Iterator<StringMatch> bufferIterator = buffer.iterator();
-		while (bufferIterator.hasNext()) {
-			StringMatch next = bufferIterator.next();
-			if (next.start() < pos) {
-				bufferIterator.remove();
-			} else if (next.end() > last) {
-				last = next.end();
-			}
-		}
-		return last;
+		dropMatchesBefore(pos);
+		return Math.max(pos, buffer.maxEnd());
 	}
 
 	protected StringMatch leftMost() {
 		if (buffer.isEmpty()) {
 			return null;
 		}
-		StringMatch match = buffer.remove();
+		StringMatch match = buffer.removeFirst();
 		while (!buffer.isEmpty()) {
-			StringMatch nextMatch = buffer.peek();
+			StringMatch nextMatch = buffer.first();
 			if (nextMatch.start() == match.start() && nextMatch.end() == match.end()) {
-				match = buffer.remove();
+				match = buffer.removeFirst();
 			} else {
 				break;
 			}
@@ -64,13 +60,13 @@ public abstract class BufferedStringFinder extends AbstractStringFinder {
 		if (buffer.isEmpty()) {
 			return null;
 		}
-		StringMatch match = buffer.remove();
+		StringMatch match = buffer.removeFirst();
 		while (!buffer.isEmpty()) {
-			StringMatch nextMatch = buffer.peek();
+			StringMatch nextMatch = buffer.first();
 			if (nextMatch.start() == match.start()) {
-				match = buffer.remove();
+				match = buffer.removeFirst();
 			} else if (nextMatch.end() <= match.end()){
-				buffer.remove();
+				buffer.removeFirst();
 			} else {
 				break;
 			}
@@ -78,20 +74,23 @@ public abstract class BufferedStringFinder extends AbstractStringFinder {
 		return match;
 	}
 
-	protected long lastStartFromBuffer() {
-		long start = Long.MAX_VALUE;
-		Iterator<StringMatch> bufferIterator = buffer.iterator();
-		while (bufferIterator.hasNext()) {
-			StringMatch next = bufferIterator.next();
-			if (next.start() < start) {
-				start = next.start();
-			}
+	/**
+	 * removes all buffered matches starting before the given position. Since the buffer is ordered by start, only the head of
+	 * the buffer is inspected.
+	 * 
+	 * @param pos the position to start with
+	 */
+	protected void dropMatchesBefore(long pos) {
+		while (!buffer.isEmpty() && buffer.first().start() < pos) {
+			buffer.removeFirst();
 		}
-		if (start == Long.MAX_VALUE) {
+	}
+
+	protected long lastStartFromBuffer() {
+		if (buffer.isEmpty()) {
 			return -1;
-		} else {
-			return start;
 		}
+		return buffer.first().start();
 	}
 
 }
@@ -0,0 +1,318 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Searches a document in chunks, which can be searched independently (e.g. in parallel).
+ *
+ * Each chunk is searched with an overlap of (max pattern length - 1), so every match starting in a chunk is found when searching this chunk.
+ * The results of the chunks are then stitched together (in the order of the chunks) such that:
+ * <ul>
+ * <li>matches at chunk boundaries are reported only once</li>
+ * <li>with {@link MatchOption#NON_OVERLAP} a chunk is searched again from the end of the last match of the previous chunks (until the results of both searches converge)</li>
+ * <li>with {@link MatchOption#LONGEST_MATCH} a chunk is searched with a leading context of (max pattern length - 1), so matches subsumed by a match of the previous chunk are not reported</li>
+ * </ul>
+ * Within each chunk matches are ordered by start and end.
+ *
+ * Alternatively the matches can be consumed lazily with a {@link #spliterator(long, long)}, which splits at the same chunk boundaries.
+ */
+public class ChunkedSearch {
+
+	private ChunkFinders finders;
+	private int overlap;
+	private boolean longest;
+	private boolean nonOverlap;
+
+	/**
+	 * @param finders a factory for finders on a region of the document
+	 * @param maxPatternLength the maximum length of a match
+	 * @param options the options for the finders
+	 */
+	public ChunkedSearch(ChunkFinders finders, int maxPatternLength, StringFinderOption... options) {
+		this.finders = finders;
+		this.overlap = Math.max(0, maxPatternLength - 1);
+		this.longest = LONGEST_MATCH.in(options);
+		this.nonOverlap = NON_OVERLAP.in(options);
+	}
+
+	/**
+	 * @param length the length of the document
+	 * @param chunks the number of chunks
+	 * @return the boundaries of the chunks (chunk i starts at index i and ends at index i + 1)
+	 */
+	public static long[] split(long length, int chunks) {
+		int count = (int) Math.max(1, Math.min(chunks, length));
+		long[] boundaries = new long[count + 1];
+		for (int i = 0; i <= count; i++) {
+			boundaries[i] = length * i / count;
+		}
+		return boundaries;
+	}
+
+	/**
+	 * searches all chunks of a document in parallel and stitches the results
+	 *
+	 * @param length the length of the document
+	 * @param chunks the number of chunks
+	 * @param pool the pool to search the chunks on
+	 * @return the matches of the document
+	 */
+	public List<StringMatch> search(long length, int chunks, ForkJoinPool pool) {
+		long[] boundaries = split(length, chunks);
+		List<ForkJoinTask<List<StringMatch>>> tasks = new ArrayList<>();
+		for (int i = 0; i < boundaries.length - 1; i++) {
+			tasks.add(pool.submit(new ChunkTask(boundaries[i], boundaries[i + 1])));
+		}
+
+		Stitcher stitcher = stitcher();
+		List<StringMatch> matches = new ArrayList<>();
+		for (int i = 0; i < tasks.size(); i++) {
+			matches.addAll(stitcher.stitch(boundaries[i], boundaries[i + 1], tasks.get(i).join()));
+		}
+		return matches;
+	}
+
+	/**
+	 * searches a chunk (independent of all other chunks)
+	 *
+	 * @param start the start of the chunk
+	 * @param end the end of the chunk
+	 * @return the matches starting in the chunk
+	 */
+	public List<StringMatch> search(long start, long end) {
+		StringFinder finder = createFinder(start, end);
+		List<StringMatch> matches = new ArrayList<>();
+		if (nonOverlap) {
+			long last = -1;
+			while (true) {
+				StringMatch match = finder.findNext();
+				if (match == null || match.start() >= end) {
+					break;
+				} else if (match.start() < start || match.start() < last) {
+					continue;
+				}
+				matches.add(match);
+				if (match.end() > last) {
+					last = match.end();
+					finder.skipTo(last);
+				}
+			}
+		} else {
+			while (true) {
+				StringMatch match = finder.findNext();
+				if (match == null) {
+					break;
+				} else if (match.start() < start || match.start() >= end) {
+					continue;
+				}
+				matches.add(match);
+			}
+			Collections.sort(matches);
+		}
+		return matches;
+	}
+
+	private StringFinder createFinder(long start, long end) {
+		long from = longest && !nonOverlap ? Math.max(0, start - overlap) : start;
+		long to = end > Long.MAX_VALUE - overlap ? Long.MAX_VALUE : end + overlap;
+		return finders.createFinder(from, to);
+	}
+
+	/**
+	 * creates a lazy spliterator over the matches of a document. The spliterator splits the document in halves (as long as both
+	 * halves are not smaller than minChunk), so it may be used for parallel streams. With {@link MatchOption#NON_OVERLAP} it does not
+	 * split at all (the matches of a chunk depend on all previous chunks).
+	 * 
+	 * Matches are reported in the order of the chunks, within a chunk in the order of the finder.
+	 *
+	 * @param length the length of the document
+	 * @param minChunk the minimum size of a chunk
+	 * @return a spliterator over the matches of the document
+	 */
+	public Spliterator<StringMatch> spliterator(long length, long minChunk) {
+		return new MatchSpliterator(0, length, Math.max(1, minChunk));
+	}
+
+	/**
+	 * @return a new stitcher for the results of this search
+	 */
+	public Stitcher stitcher() {
+		return new Stitcher();
+	}
+
+	private class ChunkTask extends RecursiveTask<List<StringMatch>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private long start;
+		private long end;
+
+		public ChunkTask(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected List<StringMatch> compute() {
+			return search(start, end);
+		}
+
+	}
+
+	private class MatchSpliterator implements Spliterator<StringMatch> {
+
+		private long start;
+		private long end;
+		private long minChunk;
+		private StringFinder finder;
+		private long last;
+		private boolean done;
+
+		public MatchSpliterator(long start, long end, long minChunk) {
+			this.start = start;
+			this.end = end;
+			this.minChunk = minChunk;
+			this.last = -1;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super StringMatch> action) {
+			if (done) {
+				return false;
+			} else if (finder == null) {
+				finder = createFinder(start, end);
+			}
+			while (true) {
+				StringMatch match = finder.findNext();
+				if (match == null || nonOverlap && match.start() >= end) {
+					done = true;
+					return false;
+				} else if (match.start() < start || match.start() >= end || nonOverlap && match.start() < last) {
+					continue;
+				}
+				if (nonOverlap && match.end() > last) {
+					last = match.end();
+					finder.skipTo(last);
+				}
+				action.accept(match);
+				return true;
+			}
+		}
+
+		@Override
+		public Spliterator<StringMatch> trySplit() {
+			if (nonOverlap || finder != null || (end - start) / 2 < minChunk) {
+				return null;
+			}
+			long mid = start + (end - start) / 2;
+			MatchSpliterator prefix = new MatchSpliterator(start, mid, minChunk);
+			start = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | NONNULL;
+		}
+
+	}
+
+	/**
+	 * A factory for finders on a region of the document
+	 */
+	public interface ChunkFinders {
+
+		/**
+		 * @param start the start of the region
+		 * @param end the end of the region (chunks overlap, so this may be beyond the end of the document)
+		 * @return a finder starting at start and finishing at end (or at the end of the document, if end is beyond)
+		 */
+		StringFinder createFinder(long start, long end);
+
+	}
+
+	/**
+	 * Stitches the results of consecutive chunks. Chunks have to be appended in order.
+	 */
+	public class Stitcher {
+
+		private long last;
+
+		private Stitcher() {
+			this.last = -1;
+		}
+
+		/**
+		 * @param start the start of the chunk
+		 * @param end the end of the chunk
+		 * @param matches the matches of the chunk (as returned by {@link ChunkedSearch#search(long, long)})
+		 * @return the matches of the chunk that are valid with respect to the previous chunks
+		 */
+		public List<StringMatch> stitch(long start, long end, List<StringMatch> matches) {
+			if (nonOverlap) {
+				return stitchNonOverlapping(start, end, matches);
+			} else {
+				return matches;
+			}
+		}
+
+		private List<StringMatch> stitchNonOverlapping(long start, long end, List<StringMatch> matches) {
+			if (last <= start) {
+				for (StringMatch match : matches) {
+					advance(match);
+				}
+				return matches;
+			} else if (last >= end) {
+				return Collections.emptyList();
+			}
+			List<StringMatch> stitched = new ArrayList<>();
+			StringFinder finder = finders.createFinder(last, end + overlap);
+			while (true) {
+				StringMatch match = finder.findNext();
+				if (match == null || match.start() >= end) {
+					break;
+				} else if (match.start() < last) {
+					continue;
+				}
+				int converged = Collections.binarySearch(matches, match);
+				if (converged >= 0 && matches.get(converged).equals(match)) {
+					for (StringMatch next : matches.subList(converged, matches.size())) {
+						stitched.add(next);
+						advance(next);
+					}
+					break;
+				}
+				stitched.add(match);
+				if (advance(match)) {
+					finder.skipTo(last);
+				}
+			}
+			return stitched;
+		}
+
+		private boolean advance(StringMatch match) {
+			if (match.end() > last) {
+				last = match.end();
+				return true;
+			}
+			return false;
+		}
+
+	}
+
+}
@@ -0,0 +1,150 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+/**
+ * A buffer of matches ordered by start and end (see {@link StringMatch#compareTo(StringMatch)}), backed by a ring of matches.
+ *
+ * Matches are inserted from the tail of the buffer, so inserting matches that arrive (nearly) in order and removing matches from the
+ * head are constant time operations (amortized). Matches comparing equal are kept in the order of insertion.
+ *
+ * The buffer also tracks the maximum end of its matches, split at a border: each match before the border stores the maximum end of
+ * the matches from its position up to the border, the matches after the border share one maximum. If the matches before the border
+ * are removed, the border is moved to the tail (computing the maxima once for each match). Inserting before the border moves the
+ * border to the inserted match, which costs no more than shifting the following matches.
+ */
+class MatchBuffer {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private StringMatch[] matches;
+	private long[] maxEnds;
+	private int mask;
+	private int head;
+	private int size;
+	private int border;
+	private long maxEndAfterBorder;
+
+	public MatchBuffer() {
+		this.matches = new StringMatch[INITIAL_CAPACITY];
+		this.maxEnds = new long[INITIAL_CAPACITY];
+		this.mask = INITIAL_CAPACITY - 1;
+		this.maxEndAfterBorder = -1;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param i the index of the match (0 is the head of the buffer)
+	 * @return the i-th match of this buffer
+	 */
+	public StringMatch get(int i) {
+		return matches[(head + i) & mask];
+	}
+
+	/**
+	 * @return the first match of this buffer (or null if it is empty)
+	 */
+	public StringMatch first() {
+		return size == 0 ? null : matches[head];
+	}
+
+	/**
+	 * @return the maximum end of the matches of this buffer (or -1 if it is empty)
+	 */
+	public long maxEnd() {
+		if (border == 0) {
+			return maxEndAfterBorder;
+		}
+		return Math.max(maxEnds[head], maxEndAfterBorder);
+	}
+
+	/**
+	 * @return the first match of this buffer (after removing it)
+	 */
+	public StringMatch removeFirst() {
+		if (border == 0) {
+			moveBorderToTail();
+		}
+		StringMatch first = matches[head];
+		matches[head] = null;
+		head = (head + 1) & mask;
+		size--;
+		border--;
+		return first;
+	}
+
+	public void add(StringMatch match) {
+		if (size == matches.length) {
+			grow();
+		}
+		int i = size;
+		while (i > 0) {
+			StringMatch prev = get(i - 1);
+			if (prev.compareTo(match) <= 0) {
+				break;
+			}
+			matches[(head + i) & mask] = prev;
+			i--;
+		}
+		matches[(head + i) & mask] = match;
+		size++;
+		if (i < border) {
+			moveBorderTo(i);
+		} else if (match.end() > maxEndAfterBorder) {
+			maxEndAfterBorder = match.end();
+		}
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			matches[(head + i) & mask] = null;
+		}
+		head = 0;
+		size = 0;
+		border = 0;
+		maxEndAfterBorder = -1;
+	}
+
+	private void moveBorderTo(int i) {
+		border = i;
+		maxEndAfterBorder = -1;
+		for (int j = i; j < size; j++) {
+			long end = get(j).end();
+			if (end > maxEndAfterBorder) {
+				maxEndAfterBorder = end;
+			}
+		}
+	}
+
+	private void moveBorderToTail() {
+		long maxEnd = -1;
+		for (int i = size - 1; i >= 0; i--) {
+			long end = get(i).end();
+			if (end > maxEnd) {
+				maxEnd = end;
+			}
+			maxEnds[(head + i) & mask] = maxEnd;
+		}
+		border = size;
+		maxEndAfterBorder = -1;
+	}
+
+	private void grow() {
+		StringMatch[] newMatches = new StringMatch[matches.length * 2];
+		long[] newMaxEnds = new long[matches.length * 2];
+		for (int i = 0; i < size; i++) {
+			newMatches[i] = get(i);
+			newMaxEnds[i] = maxEnds[(head + i) & mask];
+		}
+		matches = newMatches;
+		maxEnds = newMaxEnds;
+		mask = newMatches.length - 1;
+		head = 0;
+	}
+
+}
@@ -0,0 +1,22 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+/**
+ * A MatchSink counting all matches of a search (without creating any match objects).
+ * 
+ * The count includes overlapping matches, i.e. it is the same as the size of the result of {@link StringFinder#findAll()} for a finder without options.
+ */
+public class MatchCounter implements MatchSink {
+
+	private long count;
+
+	@Override
+	public boolean match(long start, long end, int pattern) {
+		count++;
+		return true;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+}
@@ -0,0 +1,20 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+/**
+ * A MatchSink detecting whether a search finds any match. The search is stopped at the first match. 
+ */
+public class MatchDetector implements MatchSink {
+
+	private boolean found;
+
+	@Override
+	public boolean match(long start, long end, int pattern) {
+		found = true;
+		return false;
+	}
+
+	public boolean isFound() {
+		return found;
+	}
+
+}
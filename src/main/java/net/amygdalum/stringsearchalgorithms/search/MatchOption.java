@@ -3,7 +3,11 @@ package net.amygdalum.stringsearchalgorithms.search;
 
 public enum MatchOption implements StringFinderOption {
 
-	LONGEST_MATCH, NON_OVERLAP, NON_EMPTY;
+	LONGEST_MATCH, NON_OVERLAP, NON_EMPTY,
+	/**
+	 * report only the positions of matches, do not compute (slice or decode) the matched text 
+	 */
+	NO_TEXT;
 
 	public boolean in(StringFinderOption... options) {
 		for (int i = 0; i < options.length; i++) {
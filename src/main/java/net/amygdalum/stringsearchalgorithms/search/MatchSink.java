@@ -0,0 +1,18 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+/**
+ * A MatchSink receives the matches of a search as primitive values (no match objects and no match texts are created).
+ */
+public interface MatchSink {
+
+	/**
+	 * is called for each match found.
+	 * 
+	 * @param start the start of the match
+	 * @param end the end of the match
+	 * @param pattern the index of the matched pattern (in the order the patterns were given to the algorithm, always 0 for single pattern algorithms)
+	 * @return true if the search should continue, false if the search should stop
+	 */
+	boolean match(long start, long end, int pattern);
+
+}
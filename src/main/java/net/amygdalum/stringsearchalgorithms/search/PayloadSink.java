@@ -0,0 +1,39 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import java.util.List;
+
+/**
+ * A MatchSink resolving the pattern index of each match to a payload (e.g. a rule or a dictionary entry) attached to the pattern.
+ * 
+ * The payloads are given in the same order as the patterns were given to the algorithm, so the payload of a match is found by its pattern index
+ * (no lookup by the matched text is needed).
+ *
+ * @param <T> the type of the payloads
+ */
+public abstract class PayloadSink<T> implements MatchSink {
+
+	private List<T> payloads;
+
+	/**
+	 * @param payloads the payloads, one for each pattern (in the order of the patterns)
+	 */
+	public PayloadSink(List<T> payloads) {
+		this.payloads = payloads;
+	}
+
+	@Override
+	public boolean match(long start, long end, int pattern) {
+		return match(start, end, payloads.get(pattern));
+	}
+
+	/**
+	 * is called for each match found.
+	 * 
+	 * @param start the start of the match
+	 * @param end the end of the match
+	 * @param payload the payload of the matched pattern
+	 * @return true if the search should continue, false if the search should stop
+	 */
+	public abstract boolean match(long start, long end, T payload);
+
+}
@@ -0,0 +1,60 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+/**
+ * A finder for a single pattern of fixed length. Subclasses implement the scan loop once (see {@link #nextMatch()}), both
+ * {@link #findNext()} and {@link #search(MatchSink)} are driven by this scan loop.
+ */
+public abstract class SinglePatternFinder extends AbstractStringFinder {
+
+	protected static final long NO_MATCH = -1;
+
+	private int patternLength;
+
+	public SinglePatternFinder(int patternLength, StringFinderOption... options) {
+		super(options);
+		this.patternLength = patternLength;
+	}
+
+	/**
+	 * scans to the next match and positions the finder behind this match
+	 * 
+	 * @return the start of the next match or {@link #NO_MATCH} if there is no next match
+	 */
+	protected abstract long nextMatch();
+
+	/**
+	 * @param start the start of the match
+	 * @param end the end of the match
+	 * @return the text of the document between start and end
+	 */
+	protected abstract String text(long start, long end);
+
+	@Override
+	public StringMatch findNext() {
+		long start = nextMatch();
+		if (start == NO_MATCH) {
+			return null;
+		}
+		long end = start + patternLength;
+		if (!capturesText()) {
+			return new StringMatch(start, end);
+		}
+		return new StringMatch(start, end, text(start, end));
+	}
+
+	/**
+	 * reports all remaining matches to the given sink (without creating match objects)
+	 * 
+	 * @param sink the sink receiving the matches, the search stops as soon as the sink returns false
+	 */
+	public void search(MatchSink sink) {
+		long start = nextMatch();
+		while (start != NO_MATCH) {
+			if (!sink.match(start, start + patternLength, 0)) {
+				return;
+			}
+			start = nextMatch();
+		}
+	}
+
+}
@@ -0,0 +1,14 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+/**
+ * An algorithm that can estimate the memory held by its compiled tables (e.g. to limit the size of a cache of algorithms, see
+ * {@link net.amygdalum.stringsearchalgorithms.search.chars.SizeEstimator}). Tables of library types that do not expose their size (e.g.
+ * tries) are estimated with {@link Sizes}.
+ */
+public interface SizedAlgorithm {
+
+	/**
+	 * @return the estimated size (in bytes) of the compiled tables of this algorithm
+	 */
+	long estimatedSize();
+}
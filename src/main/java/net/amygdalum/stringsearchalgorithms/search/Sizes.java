@@ -0,0 +1,83 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import java.util.List;
+
+import net.amygdalum.util.bits.BitSet;
+
+/**
+ * Estimates of the memory (in bytes) of tables whose types do not report their size (see {@link SizedAlgorithm}), e.g. the tries and
+ * bit sets of compilerutils. The estimates count the arrays and objects a table consists of, not the exact layout of a JVM.
+ *
+ * The nodes of a trie are bounded by the number of chars (or bytes) of its words (plus the root node).
+ */
+public final class Sizes {
+
+	/**
+	 * the size of an object header (or an array header)
+	 */
+	public static final long HEADER = 16;
+
+	/**
+	 * the size of a reference
+	 */
+	public static final long REFERENCE = 4;
+
+	private static final long DOUBLE_ARRAY_NODE = 16;
+	private static final long LINKED_NODE = 48;
+
+	private Sizes() {
+	}
+
+	/**
+	 * @param bits a bit set
+	 * @return the estimated size of the bit set (the object and its words)
+	 */
+	public static long ofBitSet(BitSet bits) {
+		return 2 * HEADER + 8L * ((bits.size() + 63) / 64);
+	}
+
+	/**
+	 * estimates a double array trie (base, check, fallback or tail and attachment of each node)
+	 *
+	 * @param length the number of chars (or bytes) of the words of the trie
+	 * @return the estimated size of the trie
+	 */
+	public static long ofDoubleArrayTrie(long length) {
+		return DOUBLE_ARRAY_NODE * (length + 1);
+	}
+
+	/**
+	 * estimates a trie (or dawg) of linked nodes (the node object, its transition arrays and its attachment)
+	 *
+	 * @param length the number of chars (or bytes) of the words of the trie
+	 * @return the estimated size of the trie
+	 */
+	public static long ofLinkedTrie(long length) {
+		return LINKED_NODE * (length + 1);
+	}
+
+	/**
+	 * @param words the words
+	 * @return the number of chars of the words
+	 */
+	public static long charsOf(List<char[]> words) {
+		long length = 0;
+		for (char[] word : words) {
+			length += word.length;
+		}
+		return length;
+	}
+
+	/**
+	 * @param words the words
+	 * @return the number of bytes of the words
+	 */
+	public static long bytesOf(List<byte[]> words) {
+		long length = 0;
+		for (byte[] word : words) {
+			length += word.length;
+		}
+		return length;
+	}
+
+}
@@ -3,22 +3,48 @@ package net.amygdalum.stringsearchalgorithms.search;
 
 /**
  * a string match, that means a textual subsequence of a document matching a specific pattern
+ * 
+ * Matches of multi pattern algorithms carry the index of the matched pattern (see {@link #pattern()}). The pattern index is not part of
+ * the identity of a match (matches of different patterns at the same position with the same text are equal). Multi pattern algorithms
+ * must create their matches with the pattern index (the constructors without index default to 0).
  */
 public class StringMatch implements Comparable<StringMatch> {
 
 	private long start;
 	private long end;
 	private String text;
+	private int pattern;
 
 	/**
 	 * @param start the start of the match
 	 * @param end the end of the match
-	 * @param match the matched string
+	 * @param match the matched string (or null if the match is created without text)
+	 * @param pattern the index of the matched pattern
 	 */
-	public StringMatch(long start, long end, String match) {
+	public StringMatch(long start, long end, String match, int pattern) {
 		this.start = start;
 		this.end = end;
 		this.text = match;
+		this.pattern = pattern;
+	}
+
+	/**
+	 * @param start the start of the match
+	 * @param end the end of the match
+	 * @param match the matched string
+	 */
+	public StringMatch(long start, long end, String match) {
+		this(start, end, match, 0);
+	}
+
+	/**
+	 * creates a match without text (e.g. if the finder was called with {@link MatchOption#NO_TEXT})
+	 * 
+	 * @param start the start of the match
+	 * @param end the end of the match
+	 */
+	public StringMatch(long start, long end) {
+		this(start, end, null);
 	}
 
 	public long start() {
@@ -29,15 +55,35 @@ public class StringMatch implements Comparable<StringMatch> {
 		return end;
 	}
 
+	/**
+	 * @return the matched string or null if the match was created without text
+	 */
 	public String text() {
 		return text;
 	}
 
+	/**
+	 * @return the index of the matched pattern (in the order the patterns were given to the algorithm, always 0 for single pattern algorithms)
+	 */
+	public int pattern() {
+		return pattern;
+	}
+
+	public boolean hasText() {
+		return text != null;
+	}
+
 	public boolean isEmpty() {
 		return start == end;
 	}
 
+	/**
+	 * @return the length of the matched text or (if the match has no text) the distance of start and end 
+	 */
 	public int length() {
+		if (text == null) {
+			return (int) (end - start);
+		}
 		return text.length();
 	}
 
@@ -56,12 +102,15 @@ public class StringMatch implements Comparable<StringMatch> {
 
 	@Override
 	public String toString() {
+		if (text == null) {
+			return start + ":" + end;
+		}
 		return start + ":" + end + "(" + text + ")";
 	}
 
 	@Override
 	public int hashCode() {
-		return 31 + (int) end * 13 + (int) start * 7 + text.hashCode() * 3;
+		return 31 + (int) end * 13 + (int) start * 7 + (text == null ? 0 : text.hashCode()) * 3;
 	}
 
 	@Override
@@ -78,7 +127,7 @@ public class StringMatch implements Comparable<StringMatch> {
 		StringMatch that = (StringMatch) obj;
 		return this.start == that.start
 			&& this.end == that.end
-			&& this.text.equals(that.text);
+			&& (this.text == null ? that.text == null : this.text.equals(that.text));
 	}
 
 }
@@ -15,6 +15,9 @@ import java.util.Collection;
 import java.util.List;
 
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
@@ -23,7 +26,7 @@ import net.amygdalum.util.text.ByteAutomaton;
 import net.amygdalum.util.text.ByteNode;
 import net.amygdalum.util.text.ByteString;
 import net.amygdalum.util.text.ByteTask;
-import net.amygdalum.util.text.ByteTrie;
+import net.amygdalum.util.text.ByteWordGraphCompiler;
 import net.amygdalum.util.text.ByteWordSet;
 import net.amygdalum.util.text.ByteWordSetBuilder;
 import net.amygdalum.util.text.doublearraytrie.DoubleArrayByteFallbackTrieCompiler;
@@ -32,23 +35,45 @@ import net.amygdalum.util.text.doublearraytrie.DoubleArrayByteFallbackTrieCompil
  * An implementation of the Aho-Corasick Algorithm.
  * 
  * This algorithm takes a multiple string patterns as input and generates a finder which can find any of these patterns in documents. 
+ * 
+ * The automaton follows fallback links on mismatches. Optionally the automaton may be fully determinized (see {@link DenseByteTrie}),
+ * such that each byte costs one transition, at the cost of a larger transition table. The size of this table is limited, larger
+ * automata keep the fallback links.
  */
-public class AhoCorasick implements StringSearchAlgorithm {
+public class AhoCorasick implements StringSearchAlgorithm, SizedAlgorithm {
 
-	private ByteWordSet<ByteString> trie;
+	private ByteWordSet<Integer> trie;
+	private long trieSize;
+	private int[] lengths;
 	private int minLength;
 
 	public AhoCorasick(Collection<String> patterns, Charset charset) {
+		this(patterns, charset, 0);
+	}
+
+	/**
+	 * @param patterns the patterns to search
+	 * @param charset the charset to encode the patterns with
+	 * @param maxDenseSize the maximum size (in bytes) of the transitions of the determinized automaton, if the determinized automaton would
+	 * be larger (or the size is not positive) the automaton with fallback links is used. The size does not include the lists of
+	 * pattern indexes of the states
+	 */
+	public AhoCorasick(Collection<String> patterns, Charset charset, long maxDenseSize) {
 		List<byte[]> bytepatterns = toByteArray(patterns, charset);
-		this.trie = computeTrie(bytepatterns, charset);
+		this.trie = computeTrie(bytepatterns, maxDenseSize);
+		this.trieSize = trie instanceof DenseByteTrie ? ((DenseByteTrie) trie).estimatedSize() : Sizes.ofDoubleArrayTrie(Sizes.bytesOf(bytepatterns));
+		this.lengths = computeLengths(bytepatterns);
 		this.minLength = minLength(bytepatterns);
 	}
 
-	private static ByteWordSet<ByteString> computeTrie(List<byte[]> bytepatterns, Charset charset) {
-		ByteWordSetBuilder<ByteString, ByteTrie<ByteString>> builder = new ByteWordSetBuilder<>(new DoubleArrayByteFallbackTrieCompiler<ByteString>());
+	private static ByteWordSet<Integer> computeTrie(List<byte[]> bytepatterns, long maxDenseSize) {
+		ByteWordGraphCompiler<Integer, ? extends ByteWordSet<Integer>> compiler = maxDenseSize > 0
+			? new DenseByteTrie.Compiler(maxDenseSize)
+			: new DoubleArrayByteFallbackTrieCompiler<Integer>();
+		ByteWordSetBuilder<Integer, ? extends ByteWordSet<Integer>> builder = new ByteWordSetBuilder<>(compiler);
 
-		for (byte[] pattern : bytepatterns) {
-			builder.extend(pattern, new ByteString(pattern, charset));
+		for (int i = 0; i < bytepatterns.size(); i++) {
+			builder.extend(bytepatterns.get(i), i);
 		}
 
 		return builder
@@ -57,15 +82,33 @@ public class AhoCorasick implements StringSearchAlgorithm {
 
 	}
 
+	private static int[] computeLengths(List<byte[]> bytepatterns) {
+		int[] lengths = new int[bytepatterns.size()];
+		for (int i = 0; i < lengths.length; i++) {
+			lengths[i] = bytepatterns.get(i).length;
+		}
+		return lengths;
+	}
+
 	@Override
 	public StringFinder createFinder(ByteProvider bytes, StringFinderOption... options) {
 		if (LONGEST_MATCH.in(options)) {
-			return new LongestMatchFinder(trie, bytes, options);
+			return new LongestMatchFinder(trie, lengths, bytes, options);
 		} else {
-			return new NextMatchFinder(trie, bytes, options);
+			return new NextMatchFinder(trie, lengths, bytes, options);
 		}
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		new NextMatchFinder(trie, lengths, bytes).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		return trieSize + 4L * lengths.length;
+	}
+
 	@Override
 	public int getPatternLength() {
 		return minLength;
@@ -76,29 +119,29 @@ public class AhoCorasick implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	private static class FallbackLinks implements ByteTask<ByteString> {
+	static class FallbackLinks implements ByteTask<Integer> {
 
-		private ByteNode<ByteString> root;
+		private ByteNode<Integer> root;
 
 		@Override
-		public List<ByteNode<ByteString>> init(ByteNode<ByteString> root) {
+		public List<ByteNode<Integer>> init(ByteNode<Integer> root) {
 			this.root = root;
 			setFallback(root, null);
 			return asList(root);
 		}
 
 		@Override
-		public List<ByteNode<ByteString>> process(ByteNode<ByteString> node) {
-			List<ByteNode<ByteString>> nexts = new ArrayList<>();
+		public List<ByteNode<Integer>> process(ByteNode<Integer> node) {
+			List<ByteNode<Integer>> nexts = new ArrayList<>();
 			for (byte b : node.getAlternatives()) {
-				ByteNode<ByteString> next = node.nextNode(b);
-				ByteNode<ByteString> down = getFallback(node);
+				ByteNode<Integer> next = node.nextNode(b);
+				ByteNode<Integer> down = getFallback(node);
 				nextdown: while (down != null) {
-					ByteNode<ByteString> nextNode = down.nextNode(b);
+					ByteNode<Integer> nextNode = down.nextNode(b);
 					if (nextNode != null) {
 						setFallback(next, nextNode);
 						if (next.getAttached() == null) {
-							ByteString attachment = nextNode.getAttached();
+							Integer attachment = nextNode.getAttached();
 							if (attachment != null) {
 								attach(next, attachment);
 							}
@@ -120,12 +163,14 @@ public class AhoCorasick implements StringSearchAlgorithm {
 	private static abstract class Finder extends BufferedStringFinder {
 
 		protected ByteProvider bytes;
-		protected ByteAutomaton<ByteString> cursor;
+		protected ByteAutomaton<Integer> cursor;
+		protected int[] lengths;
 
-		public Finder(ByteWordSet<ByteString> trie, ByteProvider bytes, StringFinderOption... options) {
+		public Finder(ByteWordSet<Integer> trie, int[] lengths, ByteProvider bytes, StringFinderOption... options) {
 			super(options);
 			this.bytes = bytes;
 			this.cursor = trie.cursor();
+			this.lengths = lengths;
 		}
 
 		@Override
@@ -137,11 +182,52 @@ public class AhoCorasick implements StringSearchAlgorithm {
 			clear();
 		}
 
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
+		/**
+		 * reads the next byte and moves the cursor
+		 * 
+		 * @return true if patterns end at the current position (i.e. the cursor has attachments), false otherwise
+		 */
+		protected boolean advance() {
+			if (!cursor.accept(bytes.next())) {
+				cursor.reset();
+			}
+			return cursor.hasAttachments();
+		}
+
+		public void search(MatchSink sink) {
+			while (!bytes.finished()) {
+				if (advance()) {
+					long end = bytes.current();
+					for (int pattern : cursor) {
+						if (!sink.match(end - lengths[pattern], end, pattern)) {
+							return;
+						}
+					}
+				}
+			}
+		}
+
+		protected StringMatch createLeftMostMatch(long end) {
+			int leftMost = -1;
+			for (int pattern : cursor) {
+				if (leftMost < 0 || lengths[pattern] > lengths[leftMost]) {
+					leftMost = pattern;
+				}
+			}
+			cursor.reset();
+			return createMatch(end - lengths[leftMost], end, leftMost);
+		}
+
 		protected List<StringMatch> createMatches(long end) {
 			List<StringMatch> matches = new ArrayList<>();
-			for (ByteString currentMatch : cursor) {
-				long start = end - currentMatch.length();
-				StringMatch nextMatch = createMatch(start, end);
+			for (int pattern : cursor) {
+				long start = end - lengths[pattern];
+				StringMatch nextMatch = createMatch(start, end, pattern);
 				if (!matches.contains(nextMatch)) {
 					matches.add(nextMatch);
 				}
@@ -149,17 +235,20 @@ public class AhoCorasick implements StringSearchAlgorithm {
 			return matches;
 		}
 
-		private StringMatch createMatch(long start, long end) {
+		protected StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			ByteString s = bytes.slice(start, end);
-			return new StringMatch(start, end, s.getString());
+			return new StringMatch(start, end, s.getString(), pattern);
 		}
 
 	}
 
 	private static class NextMatchFinder extends Finder {
 
-		public NextMatchFinder(ByteWordSet<ByteString> trie, ByteProvider bytes, StringFinderOption... options) {
-			super(trie, bytes, options);
+		public NextMatchFinder(ByteWordSet<Integer> trie, int[] lengths, ByteProvider bytes, StringFinderOption... options) {
+			super(trie, lengths, bytes, options);
 		}
 
 		@Override
@@ -168,12 +257,10 @@ public class AhoCorasick implements StringSearchAlgorithm {
 				return leftMost();
 			}
 			while (!bytes.finished()) {
-				byte b = bytes.next();
-				boolean success = cursor.accept(b);
-				if (!success) {
-					cursor.reset();
-				}
-				if (cursor.hasAttachments()) {
+				if (advance()) {
+					if (nonOverlapping()) {
+						return createLeftMostMatch(bytes.current());
+					}
 					push(createMatches(bytes.current()));
 					return leftMost();
 				}
@@ -184,12 +271,28 @@ public class AhoCorasick implements StringSearchAlgorithm {
 
 	private static class LongestMatchFinder extends Finder {
 
-		public LongestMatchFinder(ByteWordSet<ByteString> trie, ByteProvider bytes, StringFinderOption... options) {
-			super(trie, bytes, options);
+		private int maxLength;
+
+		public LongestMatchFinder(ByteWordSet<Integer> trie, int[] lengths, ByteProvider bytes, StringFinderOption... options) {
+			super(trie, lengths, bytes, options);
+			this.maxLength = maxLength(lengths);
+		}
+
+		private static int maxLength(int[] lengths) {
+			int maxLength = 0;
+			for (int length : lengths) {
+				if (length > maxLength) {
+					maxLength = length;
+				}
+			}
+			return maxLength;
 		}
 
 		@Override
 		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				return findNextNonOverlapping();
+			}
 			while (!bytes.finished()) {
 				byte b = bytes.next();
 				boolean success = cursor.lookahead(b);
@@ -208,23 +311,61 @@ public class AhoCorasick implements StringSearchAlgorithm {
 			return longestLeftMost();
 		}
 
+		private StringMatch findNextNonOverlapping() {
+			int leftMost = -1;
+			long start = -1;
+			long end = -1;
+			while (!bytes.finished()) {
+				if (leftMost >= 0 && bytes.current() >= start + maxLength) {
+					break;
+				}
+				if (advance()) {
+					long current = bytes.current();
+					for (int pattern : cursor) {
+						long currentStart = current - lengths[pattern];
+						if (leftMost < 0 || currentStart < start || currentStart == start && current > end) {
+							leftMost = pattern;
+							start = currentStart;
+							end = current;
+						}
+					}
+				}
+			}
+			if (leftMost < 0) {
+				return null;
+			}
+			bytes.move(end);
+			cursor.reset();
+			return createMatch(start, end, leftMost);
+		}
+
 	}
 
 	public static class Factory implements MultiStringSearchAlgorithmFactory {
 
 		private Charset charset;
+		private long maxDenseSize;
 
 		public Factory() {
 			this(UTF_16LE);
 		}
 
 		public Factory(Charset charset) {
+			this(charset, 0);
+		}
+
+		/**
+		 * @param charset the charset to encode the patterns with
+		 * @param maxDenseSize the maximum size (in bytes) of the transitions of the determinized automaton
+		 */
+		public Factory(Charset charset, long maxDenseSize) {
 			this.charset = charset;
+			this.maxDenseSize = maxDenseSize;
 		}
 
 		@Override
 		public StringSearchAlgorithm of(Collection<String> patterns) {
-			return new AhoCorasick(patterns, charset);
+			return new AhoCorasick(patterns, charset, maxDenseSize);
 		}
 
 	}
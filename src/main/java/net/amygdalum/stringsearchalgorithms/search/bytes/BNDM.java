@@ -7,12 +7,11 @@ import static net.amygdalum.util.text.ByteEncoding.encode;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.ByteProvider;
-import net.amygdalum.util.text.ByteString;
 
 /**
  * An implementation of the String Search Algorithm BNDM (Backward Nondeterministic Dawg Matching).
@@ -52,12 +51,21 @@ public class BNDM implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		if (states.supportsSingle()) {
+			new LongFinder(bytes).search(sink);
+		} else {
+			new MultiLongFinder(bytes).search(sink);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private abstract class Finder extends AbstractStringFinder {
+	private abstract class Finder extends SinglePatternFinder {
 
 		protected final long finalstate;
 		protected final long activeStates;
@@ -65,17 +73,15 @@ public class BNDM implements StringSearchAlgorithm {
 		protected ByteProvider bytes;
 
 		public Finder(ByteProvider bytes, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.finalstate = 1l << ((patternLength - 1) % 64);
 			this.activeStates = (finalstate - 1) | finalstate;
 			this.bytes = bytes;
 		}
 
-		protected StringMatch createMatch() {
-			long start = bytes.current();
-			long end = start + patternLength;
-			ByteString s = bytes.slice(start, end);
-			return new StringMatch(start, end, s.getString());
+		@Override
+		protected String text(long start, long end) {
+			return bytes.slice(start, end).getString();
 		}
 
 	}
@@ -98,7 +104,7 @@ public class BNDM implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!bytes.finished(patternLength - 1)) {
 				state = activeStates;
 				int j = patternLength - 1;
@@ -111,9 +117,9 @@ public class BNDM implements StringSearchAlgorithm {
 						if (j > 0) {
 							last = j;
 						} else {
-							StringMatch createMatch = createMatch();
+							long start = bytes.current();
 							bytes.forward(last);
-							return createMatch;
+							return start;
 						}
 					}
 					j--;
@@ -121,7 +127,7 @@ public class BNDM implements StringSearchAlgorithm {
 				}
 				bytes.forward(last);
 			}
-			return null;
+			return NO_MATCH;
 		}
 
 	}
@@ -134,10 +140,12 @@ public class BNDM implements StringSearchAlgorithm {
 		private long state;
 		private int segment;
 		private int[] patternLengths;
+		private int[] last;
 
 		public MultiLongFinder(ByteProvider chars, StringFinderOption... options) {
 			super(chars, options);
 			this.patternLengths = computePatternLengths();
+			this.last = new int[patternLengths.length];
 			this.finalstate = computeFinalStates();
 			this.activeStates = computeActiveStates();
 			this.segment = 0;
@@ -179,12 +187,11 @@ public class BNDM implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!bytes.finished(patternLength - 1)) {
 				segment = 0;
 				state = activeStates[segment];
 				int j = patternLengths[segment] - 1;
-				int[] last = new int[patternLengths.length];
 				System.arraycopy(patternLengths, 0, last, 0, patternLengths.length);
 				nextSegment: while (state != 0l) {
 					byte currentByte = bytes.lookahead(segment * 64 + j);
@@ -194,9 +201,9 @@ public class BNDM implements StringSearchAlgorithm {
 						if (j > 0) {
 							last[segment] = j;
 						} else if (segment == patternLengths.length - 1) {
-							StringMatch createMatch = createMatch();
+							long start = bytes.current();
 							bytes.forward(max(last, segment));
-							return createMatch;
+							return start;
 						} else {
 							segment++;
 							state = activeStates[segment];
@@ -209,7 +216,7 @@ public class BNDM implements StringSearchAlgorithm {
 				}
 				bytes.forward(max(last, segment));
 			}
-			return null;
+			return NO_MATCH;
 		}
 
 		private int max(int[] values, int last) {
@@ -11,16 +11,15 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.ByteProvider;
 import net.amygdalum.util.text.ByteAutomaton;
 import net.amygdalum.util.text.ByteConnectionAdaptor;
 import net.amygdalum.util.text.ByteDawg;
 import net.amygdalum.util.text.ByteNode;
-import net.amygdalum.util.text.ByteString;
 import net.amygdalum.util.text.ByteTask;
 import net.amygdalum.util.text.ByteWordSet;
 import net.amygdalum.util.text.ByteWordSetBuilder;
@@ -63,6 +62,11 @@ public class BOM implements StringSearchAlgorithm {
 		return new Finder(trie, patternLength, bytes, options);
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		new Finder(trie, patternLength, bytes).search(sink);
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
@@ -114,14 +118,14 @@ public class BOM implements StringSearchAlgorithm {
 
 	}
 
-	private static class Finder extends AbstractStringFinder {
+	private static class Finder extends SinglePatternFinder {
 
 		private final int lookahead;
 		private ByteProvider bytes;
 		private ByteAutomaton<byte[]> cursor;
 
 		public Finder(ByteWordSet<byte[]> trie, int patternLength, ByteProvider bytes, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.lookahead = patternLength - 1;
 			this.bytes = bytes;
 			this.cursor = trie.cursor();
@@ -135,7 +139,7 @@ public class BOM implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!bytes.finished(lookahead)) {
 				cursor.reset();
 				int j = lookahead;
@@ -145,13 +149,9 @@ public class BOM implements StringSearchAlgorithm {
 					j--;
 				}
 				if (success && j < 0) {
-					byte[] pattern = cursor.iterator().next();
 					long start = bytes.current();
-					long end = start + pattern.length;
-					StringMatch match = createMatch(start, end);
-
 					bytes.next();
-					return match;
+					return start;
 				}
 				if (j <= 0) {
 					bytes.next();
@@ -159,12 +159,12 @@ public class BOM implements StringSearchAlgorithm {
 					bytes.forward(j + 2);
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
-		private StringMatch createMatch(long start, long end) {
-			ByteString s = bytes.slice(start, end);
-			return new StringMatch(start, end, s.getString());
+		@Override
+		protected String text(long start, long end) {
+			return bytes.slice(start, end).getString();
 		}
 
 	}
@@ -0,0 +1,109 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import static net.amygdalum.stringsearchalgorithms.search.BatchedSearch.DEFAULT_PENDING_BATCHES;
+
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import net.amygdalum.stringsearchalgorithms.search.BatchedSearch;
+import net.amygdalum.stringsearchalgorithms.search.BatchedSearch.DocumentFinders;
+import net.amygdalum.stringsearchalgorithms.search.BatchedSearch.DocumentSink;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringByteProvider;
+
+/**
+ * Searches many documents with one StringSearchAlgorithm in parallel.
+ *
+ * The documents are searched in batches on an Executor (see {@link BatchedSearch}). The compiled algorithm (tries, shift tables, ...) is
+ * shared read-only by all threads, only the finders are created per document.
+ */
+public class BatchSearch {
+
+	private static final int DEFAULT_BATCH_SIZE = 256;
+
+	private StringSearchAlgorithm algorithm;
+	private Executor executor;
+	private int batchSize;
+	private int maxPendingBatches;
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param executor the executor to search the batches on
+	 */
+	public BatchSearch(StringSearchAlgorithm algorithm, Executor executor) {
+		this(algorithm, executor, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param executor the executor to search the batches on
+	 * @param batchSize the number of documents searched by one task
+	 */
+	public BatchSearch(StringSearchAlgorithm algorithm, Executor executor, int batchSize) {
+		this(algorithm, executor, batchSize, DEFAULT_PENDING_BATCHES);
+	}
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param executor the executor to search the batches on
+	 * @param batchSize the number of documents searched by one task
+	 * @param maxPendingBatches the maximum number of batches searched (or waiting to be searched) at the same time
+	 */
+	public BatchSearch(StringSearchAlgorithm algorithm, Executor executor, int batchSize, int maxPendingBatches) {
+		this.algorithm = algorithm;
+		this.executor = executor;
+		this.batchSize = batchSize;
+		this.maxPendingBatches = maxPendingBatches;
+	}
+
+	/**
+	 * @param documents the documents to search
+	 * @param charset the charset of the documents
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return the matches of each document (in the order of the documents)
+	 */
+	public List<List<StringMatch>> findAll(Iterable<byte[]> documents, Charset charset, StringFinderOption... options) {
+		return findAll(documents.iterator(), charset, options);
+	}
+
+	/**
+	 * @param documents the documents to search (consumed in the calling thread)
+	 * @param charset the charset of the documents
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return the matches of each document (in the order of the documents)
+	 */
+	public List<List<StringMatch>> findAll(Iterator<byte[]> documents, Charset charset, StringFinderOption... options) {
+		return search(charset, options).search(documents, executor);
+	}
+
+	/**
+	 * searches the documents without keeping them in memory (only the pending batches are kept)
+	 *
+	 * @param documents the documents to search (consumed in the calling thread)
+	 * @param charset the charset of the documents
+	 * @param sink the sink to report the matches of each document to (in the order of the documents)
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 */
+	public void findAll(Iterator<byte[]> documents, Charset charset, DocumentSink<byte[]> sink, StringFinderOption... options) {
+		search(charset, options).search(documents, executor, sink);
+	}
+
+	private BatchedSearch<byte[]> search(final Charset charset, final StringFinderOption... options) {
+		return new BatchedSearch<>(new DocumentFinders<byte[]>() {
+			@Override
+			public StringFinder createFinder(byte[] document) {
+				return algorithm.createFinder(new StringByteProvider(document, 0, charset), options);
+			}
+		}, batchSize, maxPendingBatches);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "<" + algorithm.toString() + ">";
+	}
+
+}
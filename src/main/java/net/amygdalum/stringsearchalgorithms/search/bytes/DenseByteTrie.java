@@ -0,0 +1,302 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
+import net.amygdalum.util.text.ByteAutomaton;
+import net.amygdalum.util.text.ByteFallbackAdaptor;
+import net.amygdalum.util.text.ByteNode;
+import net.amygdalum.util.text.ByteWordGraphCompiler;
+import net.amygdalum.util.text.ByteWordSet;
+import net.amygdalum.util.text.NodeResolver;
+import net.amygdalum.util.text.doublearraytrie.DoubleArrayByteFallbackTrieCompiler;
+import net.amygdalum.util.text.linkeddawg.ByteGenericFallbackNode;
+
+/**
+ * A fully determinized trie with int attachments (e.g. pattern indexes), i.e. the fallback links of the trie (e.g. computed by
+ * Aho-Corasick) are resolved at compile time.
+ *
+ * Each state has a dense row of transitions, one for each class of bytes (bytes not occurring in the words of the trie share one class),
+ * and a dense list of the attachments reachable by fallback links. Accepting a byte costs the lookup of the byte class and of the
+ * transition, independent of the number of fallback links. Use {@link Compiler} to build a DenseByteTrie with a ByteWordSetBuilder.
+ */
+public class DenseByteTrie implements ByteWordSet<Integer> {
+
+	private static final int ROOT = 0;
+	private static final int NO_ATTACHMENT = -1;
+	private static final int[] NO_ATTACHMENTS = new int[0];
+
+	private int[] classes;
+	private int shift;
+	private int[] transitions;
+	private int[] depths;
+	private int[] attachments;
+	private int[][] outputs;
+
+	private DenseByteTrie(int[] classes, int shift, int[] transitions, int[] depths, int[] attachments, int[][] outputs) {
+		this.classes = classes;
+		this.shift = shift;
+		this.transitions = transitions;
+		this.depths = depths;
+		this.attachments = attachments;
+		this.outputs = outputs;
+	}
+
+	/**
+	 * @return the number of states of this trie
+	 */
+	public int size() {
+		return depths.length;
+	}
+
+	/**
+	 * @return the estimated size (in bytes) of the tables of this trie
+	 */
+	public long estimatedSize() {
+		long size = 4L * (classes.length + transitions.length + depths.length + attachments.length);
+		for (int[] output : outputs) {
+			size += Sizes.HEADER + 4L * output.length;
+		}
+		return size;
+	}
+
+	@Override
+	public ByteAutomaton<Integer> cursor() {
+		return new Cursor();
+	}
+
+	@Override
+	public boolean contains(byte[] bytes) {
+		return find(bytes) != null;
+	}
+
+	@Override
+	public Integer find(byte[] bytes) {
+		int state = ROOT;
+		for (byte b : bytes) {
+			int next = next(state, b);
+			if (depths[next] != depths[state] + 1) {
+				return null;
+			}
+			state = next;
+		}
+		int attachment = attachments[state];
+		return attachment == NO_ATTACHMENT ? null : attachment;
+	}
+
+	private int next(int state, byte b) {
+		return transitions[(state << shift) | classes[b & 0xff]];
+	}
+
+	private class Cursor implements ByteAutomaton<Integer> {
+
+		private int state;
+		private AttachmentIterator iterator;
+
+		public Cursor() {
+			this.state = ROOT;
+			this.iterator = new AttachmentIterator();
+		}
+
+		@Override
+		public Iterator<Integer> iterator() {
+			iterator.init(outputs[state]);
+			return iterator;
+		}
+
+		@Override
+		public void reset() {
+			state = ROOT;
+		}
+
+		@Override
+		public boolean lookahead(byte b) {
+			return depths[next(state, b)] == depths[state] + 1;
+		}
+
+		@Override
+		public boolean accept(byte b) {
+			state = next(state, b);
+			return state != ROOT;
+		}
+
+		@Override
+		public boolean hasAttachments() {
+			return outputs[state].length > 0;
+		}
+
+	}
+
+	private static class AttachmentIterator implements Iterator<Integer> {
+
+		private int[] attachments;
+		private int i;
+
+		public void init(int[] attachments) {
+			this.attachments = attachments;
+			this.i = 0;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return i < attachments.length;
+		}
+
+		@Override
+		public Integer next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return attachments[i++];
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+	/**
+	 * Compiles the nodes of a ByteWordSetBuilder to a DenseByteTrie (resolving the fallback links of the nodes). If the transition table
+	 * would exceed the given size the nodes are compiled to a fallback trie (see {@link DoubleArrayByteFallbackTrieCompiler}), compiling
+	 * is aborted as soon as the states visited so far exceed the size. The size does not include the lists of attachments (which are
+	 * shared between states with the same attachments).
+	 */
+	public static class Compiler implements ByteWordGraphCompiler<Integer, ByteWordSet<Integer>> {
+
+		private long maxSize;
+
+		/**
+		 * @param maxSize the maximum size of the transition table (in bytes)
+		 */
+		public Compiler(long maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		public ByteNode<Integer> create() {
+			return new ByteGenericFallbackNode<Integer>();
+		}
+
+		@Override
+		public ByteWordSet<Integer> build(ByteNode<Integer> node) {
+			List<ByteNode<Integer>> nodes = new ArrayList<>();
+			Map<ByteNode<Integer>, Integer> states = new IdentityHashMap<>();
+			int[] classes = new int[256];
+			int classCount = 1;
+			int shift = 0;
+			nodes.add(node);
+			states.put(node, ROOT);
+			for (int i = 0; i < nodes.size(); i++) {
+				ByteNode<Integer> current = nodes.get(i);
+				for (byte b : current.getAlternatives()) {
+					ByteNode<Integer> next = current.nextNode(b);
+					if (!states.containsKey(next)) {
+						states.put(next, nodes.size());
+						nodes.add(next);
+					}
+					if (classes[b & 0xff] == 0) {
+						classes[b & 0xff] = classCount++;
+						shift = 32 - Integer.numberOfLeadingZeros(classCount - 1);
+					}
+				}
+				if (exceedsMaxSize(nodes.size(), shift)) {
+					return new DoubleArrayByteFallbackTrieCompiler<Integer>().build(node);
+				}
+			}
+			return new Determinizer(nodes, states, classes, shift).determinize();
+		}
+
+		private boolean exceedsMaxSize(int states, int shift) {
+			return ((long) states << shift) * 4 > maxSize;
+		}
+
+		@Override
+		public NodeResolver<ByteNode<Integer>> resolver() {
+			return new NodeResolver<ByteNode<Integer>>() {
+
+				@Override
+				public void compile(ByteNode<Integer> node) {
+				}
+
+				@Override
+				public void link(ByteNode<Integer> node) {
+				}
+
+				@Override
+				public ByteNode<Integer> resolve(ByteNode<Integer> node) {
+					return node;
+				}
+
+			};
+		}
+
+	}
+
+	private static class Determinizer {
+
+		private List<ByteNode<Integer>> nodes;
+		private Map<ByteNode<Integer>, Integer> states;
+		private int[] classes;
+		private int shift;
+
+		public Determinizer(List<ByteNode<Integer>> nodes, Map<ByteNode<Integer>, Integer> states, int[] classes, int shift) {
+			this.nodes = nodes;
+			this.states = states;
+			this.classes = classes;
+			this.shift = shift;
+		}
+
+		public DenseByteTrie determinize() {
+			int size = nodes.size();
+			int width = 1 << shift;
+			int[] transitions = new int[size << shift];
+			int[] depths = new int[size];
+			int[] attachments = new int[size];
+			int[][] outputs = new int[size][];
+			for (int state = 0; state < size; state++) {
+				ByteNode<Integer> node = nodes.get(state);
+				int fallback = fallback(node);
+				if (fallback >= 0) {
+					System.arraycopy(transitions, fallback << shift, transitions, state << shift, width);
+				}
+				for (byte b : node.getAlternatives()) {
+					int next = states.get(node.nextNode(b));
+					transitions[(state << shift) | classes[b & 0xff]] = next;
+					depths[next] = depths[state] + 1;
+				}
+				Integer attached = node.getAttached();
+				attachments[state] = attached == null ? NO_ATTACHMENT : attached;
+				outputs[state] = outputs(attached, fallback < 0 ? NO_ATTACHMENTS : outputs[fallback]);
+			}
+			return new DenseByteTrie(classes, shift, transitions, depths, attachments, outputs);
+		}
+
+		private int fallback(ByteNode<Integer> node) {
+			ByteNode<Integer> fallbackNode = ByteFallbackAdaptor.getFallback(node);
+			if (fallbackNode == null) {
+				return -1;
+			}
+			Integer fallback = states.get(fallbackNode);
+			return fallback == null ? -1 : fallback;
+		}
+
+		private static int[] outputs(Integer attached, int[] fallbackOutputs) {
+			if (attached == null || fallbackOutputs.length > 0 && fallbackOutputs[0] == attached) {
+				return fallbackOutputs;
+			}
+			int[] outputs = new int[fallbackOutputs.length + 1];
+			outputs[0] = attached;
+			System.arraycopy(fallbackOutputs, 0, outputs, 1, fallbackOutputs.length);
+			return outputs;
+		}
+
+	}
+
+}
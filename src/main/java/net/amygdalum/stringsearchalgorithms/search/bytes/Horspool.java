@@ -5,12 +5,11 @@ import static net.amygdalum.util.text.ByteEncoding.encode;
 
 import java.nio.charset.Charset;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.ByteProvider;
-import net.amygdalum.util.text.ByteString;
 
 /**
  * An implementation of the String Search Algorithm of Horspool.
@@ -43,17 +42,22 @@ public class Horspool implements StringSearchAlgorithm {
 		return new Finder(bytes, options);
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		new Finder(bytes).search(sink);
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private class Finder extends AbstractStringFinder {
+	private class Finder extends SinglePatternFinder {
 
 		private ByteProvider bytes;
 
 		public Finder(ByteProvider bytes, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.bytes = bytes;
 		}
 
@@ -65,7 +69,7 @@ public class Horspool implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			final int lookahead = patternLength - 1;
 			next: while (!bytes.finished(lookahead)) {
 				int patternPointer = lookahead;
@@ -78,23 +82,19 @@ public class Horspool implements StringSearchAlgorithm {
 							continue next;
 						}
 					}
-					if (patternPointer == 0) {
-						StringMatch match = createMatch();
-						bytes.forward(byteShift.getShift(nextByte));
-						return match;
-					}
+					long start = bytes.current();
+					bytes.forward(byteShift.getShift(nextByte));
+					return start;
 				} else {
 					bytes.forward(byteShift.getShift(nextByte));
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
-		private StringMatch createMatch() {
-			long start = bytes.current();
-			long end = start + patternLength;
-			ByteString s = bytes.slice(start, end);
-			return new StringMatch(start, end, s.getString());
+		@Override
+		protected String text(long start, long end) {
+			return bytes.slice(start, end).getString();
 		}
 	}
 
@@ -5,12 +5,11 @@ import static net.amygdalum.util.text.ByteEncoding.encode;
 
 import java.nio.charset.Charset;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.ByteProvider;
-import net.amygdalum.util.text.ByteString;
 
 /**
  * An implementation of the String Search Algorithm of Knuth-Morris-Pratt.
@@ -60,18 +59,23 @@ public class KnuthMorrisPratt implements StringSearchAlgorithm {
 		return new Finder(bytes, options);
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		new Finder(bytes).search(sink);
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private class Finder extends AbstractStringFinder {
+	private class Finder extends SinglePatternFinder {
 
 		private ByteProvider bytes;
 		private int patternPointer;
 
 		public Finder(ByteProvider bytes, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.bytes = bytes;
 			this.patternPointer = 0;
 		}
@@ -85,7 +89,7 @@ public class KnuthMorrisPratt implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!bytes.finished()) {
 				byte nextByte = bytes.next();
 				while (patternPointer > -1 && pattern[patternPointer] != nextByte) {
@@ -93,19 +97,16 @@ public class KnuthMorrisPratt implements StringSearchAlgorithm {
 				}
 				patternPointer++;
 				if (patternPointer >= patternLength) {
-					StringMatch match = createMatch();
 					patternPointer = next[patternPointer];
-					return match;
+					return bytes.current() - patternLength;
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
-		private StringMatch createMatch() {
-			long end = bytes.current();
-			long start = end - patternPointer;
-			ByteString s = bytes.slice(start, end);
-			return new StringMatch(start, end, s.getString());
+		@Override
+		protected String text(long start, long end) {
+			return bytes.slice(start, end).getString();
 		}
 	}
 
@@ -0,0 +1,80 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import net.amygdalum.stringsearchalgorithms.io.BoundedByteProvider;
+import net.amygdalum.stringsearchalgorithms.io.MappedFileByteProvider;
+import net.amygdalum.stringsearchalgorithms.search.ChunkedSearch;
+import net.amygdalum.stringsearchalgorithms.search.ChunkedSearch.ChunkFinders;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringByteProvider;
+
+/**
+ * Searches a single (large) document in parallel with any StringSearchAlgorithm.
+ *
+ * The document is split into overlapping chunks which are searched on a ForkJoinPool, the results are stitched in order
+ * (see {@link ChunkedSearch}). The result contains the same matches as a sequential search (ordered by start and end).
+ */
+public class ParallelSearch {
+
+	private StringSearchAlgorithm algorithm;
+	private int maxPatternLength;
+	private ForkJoinPool pool;
+	private int chunks;
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param maxPatternLength the maximum length of a match (chunks will overlap by maxPatternLength - 1)
+	 * @param pool the pool to search the chunks on
+	 * @param chunks the number of chunks to split a document into
+	 */
+	public ParallelSearch(StringSearchAlgorithm algorithm, int maxPatternLength, ForkJoinPool pool, int chunks) {
+		this.algorithm = algorithm;
+		this.maxPatternLength = maxPatternLength;
+		this.pool = pool;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * @param bytes the document to search
+	 * @param charset the charset of the document
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return all matches in the given document
+	 */
+	public List<StringMatch> findAll(final byte[] bytes, final Charset charset, final StringFinderOption... options) {
+		ChunkedSearch search = new ChunkedSearch(new ChunkFinders() {
+			@Override
+			public StringFinder createFinder(long start, long end) {
+				return algorithm.createFinder(new BoundedByteProvider(new StringByteProvider(bytes, (int) start, charset), Math.min(end, bytes.length)), options);
+			}
+		}, maxPatternLength, options);
+
+		return search.search(bytes.length, chunks, pool);
+	}
+
+	/**
+	 * @param file the (memory mapped) document to search, each chunk is searched on a duplicate of this provider
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return all matches in the given document
+	 */
+	public List<StringMatch> findAll(final MappedFileByteProvider file, final StringFinderOption... options) {
+		ChunkedSearch search = new ChunkedSearch(new ChunkFinders() {
+			@Override
+			public StringFinder createFinder(long start, long end) {
+				return algorithm.createFinder(new BoundedByteProvider(file.duplicate(start), Math.min(end, file.size())), options);
+			}
+		}, maxPatternLength, options);
+
+		return search.search(file.size(), chunks, pool);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "<" + algorithm.toString() + ">";
+	}
+
+}
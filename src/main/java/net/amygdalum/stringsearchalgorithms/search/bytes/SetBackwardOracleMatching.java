@@ -3,21 +3,26 @@ package net.amygdalum.stringsearchalgorithms.search.bytes;
 import static java.nio.charset.StandardCharsets.UTF_16LE;
 import static java.util.Arrays.asList;
 import static java.util.Arrays.copyOfRange;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 import static net.amygdalum.util.text.ByteUtils.minLength;
 import static net.amygdalum.util.text.ByteUtils.revert;
 import static net.amygdalum.util.text.StringUtils.toByteArray;
 
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.IdentityHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 
 import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchOption;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
@@ -38,25 +43,26 @@ import net.amygdalum.util.text.linkeddawg.LinkedByteDawgCompiler;
  * 
  * This algorithm takes a multiple string patterns as input and generates a finder which can find any of these patterns in documents. 
  */
-public class SetBackwardOracleMatching implements StringSearchAlgorithm {
+public class SetBackwardOracleMatching implements StringSearchAlgorithm, SizedAlgorithm {
 
-	private ByteWordSet<byte[][]> trie;
+	private byte[][] patterns;
+	private ByteWordSet<int[]> trie;
 	private int minLength;
 
 	public SetBackwardOracleMatching(Collection<String> patterns, Charset charset) {
 		byte[][] bytepatterns = toByteArray(patterns, charset).toArray(new byte[0][]);
+		this.patterns = bytepatterns;
 		this.minLength = minLength(bytepatterns);
 		this.trie = computeTrie(bytepatterns, minLength);
 	}
 
-	private static ByteWordSet<byte[][]> computeTrie(byte[][] bytepatterns, int length) {
-		ByteWordSetBuilder<byte[][], ByteDawg<byte[][]>> builder = new ByteWordSetBuilder<>(new LinkedByteDawgCompiler<byte[][]>(), new MergePatterns());
+	private static ByteWordSet<int[]> computeTrie(byte[][] bytepatterns, int length) {
+		ByteWordSetBuilder<int[], ByteDawg<int[]>> builder = new ByteWordSetBuilder<>(new LinkedByteDawgCompiler<int[]>(), new MergePatterns(bytepatterns));
 
-		for (byte[] pattern : bytepatterns) {
-			byte[] prefix = copyOfRange(pattern, 0, length);
+		for (int i = 0; i < bytepatterns.length; i++) {
+			byte[] prefix = copyOfRange(bytepatterns[i], 0, length);
 			byte[] reversePrefix = revert(prefix);
-			byte[] suffix = copyOfRange(pattern, length, pattern.length);
-			builder.extend(reversePrefix, new byte[][] {prefix, suffix});
+			builder.extend(reversePrefix, new int[] {i});
 		}
 		builder.work(new BuildOracle());
 
@@ -65,7 +71,30 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 
 	@Override
 	public StringFinder createFinder(ByteProvider bytes, StringFinderOption... options) {
-		return new Finder(trie, minLength, bytes, options);
+		return new Finder(trie, patterns, minLength, bytes, options);
+	}
+
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		new Finder(trie, patterns, minLength, bytes).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		long size = Sizes.ofLinkedTrie((long) patterns.length * minLength);
+		for (byte[] pattern : patterns) {
+			size += Sizes.REFERENCE + Sizes.HEADER + pattern.length;
+		}
+		return size;
+	}
+
+	private static boolean matches(ByteProvider bytes, byte[] pattern, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (bytes.lookahead(i) != pattern[i]) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
@@ -78,17 +107,29 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	public static class MergePatterns implements JoinStrategy<byte[][]> {
+	public static class MergePatterns implements JoinStrategy<int[]> {
+
+		private byte[][] patterns;
+
+		public MergePatterns(byte[][] patterns) {
+			this.patterns = patterns;
+		}
 
 		@Override
-		public byte[][] join(byte[][] existing, byte[][] next) {
+		public int[] join(int[] existing, int[] next) {
 			if (existing == null) {
 				return next;
 			} else {
-				byte[][] result = new byte[existing.length + 1][];
-				byte[] insert = next[1];
-				int i = 1;
-				while (i < existing.length && existing[i].length > insert.length) {
+				int insert = next[0];
+				for (int i = 0; i < existing.length; i++) {
+					if (Arrays.equals(patterns[existing[i]], patterns[insert])) {
+						existing[i] = insert;
+						return existing;
+					}
+				}
+				int[] result = new int[existing.length + 1];
+				int i = 0;
+				while (i < existing.length && patterns[existing[i]].length > patterns[insert].length) {
 					i++;
 				}
 				System.arraycopy(existing, 0, result, 0, i);
@@ -102,29 +143,29 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 
 	}
 
-	public static class BuildOracle implements ByteTask<byte[][]> {
-		private Map<ByteNode<byte[][]>, ByteNode<byte[][]>> oracle;
-		private ByteNode<byte[][]> init;
+	public static class BuildOracle implements ByteTask<int[]> {
+		private Map<ByteNode<int[]>, ByteNode<int[]>> oracle;
+		private ByteNode<int[]> init;
 
 		public BuildOracle() {
 			oracle = new IdentityHashMap<>();
 		}
 
 		@Override
-		public List<ByteNode<byte[][]>> init(ByteNode<byte[][]> root) {
+		public List<ByteNode<int[]>> init(ByteNode<int[]> root) {
 			this.init = root;
 			return asList(root);
 		}
 
 		@Override
-		public List<ByteNode<byte[][]>> process(ByteNode<byte[][]> node) {
-			List<ByteNode<byte[][]>> nexts = new ArrayList<>();
+		public List<ByteNode<int[]>> process(ByteNode<int[]> node) {
+			List<ByteNode<int[]>> nexts = new ArrayList<>();
 			for (byte b : node.getAlternatives()) {
-				ByteNode<byte[][]> current = node.nextNode(b);
+				ByteNode<int[]> current = node.nextNode(b);
 
-				ByteNode<byte[][]> down = oracle.get(node);
+				ByteNode<int[]> down = oracle.get(node);
 				while (down != null) {
-					ByteNode<byte[][]> next = down.nextNode(b);
+					ByteNode<int[]> next = down.nextNode(b);
 					if (next != null) {
 						oracle.put(current, next);
 						break;
@@ -142,26 +183,30 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 		}
 
 		@SuppressWarnings("unchecked")
-		private void addNextNode(ByteNode<byte[][]> node, byte b, ByteNode<byte[][]> next) {
-			((ByteConnectionAdaptor<byte[][]>) node).addNextNode(b, next);
+		private void addNextNode(ByteNode<int[]> node, byte b, ByteNode<int[]> next) {
+			((ByteConnectionAdaptor<int[]>) node).addNextNode(b, next);
 		}
 	}
 
-	private static class Finder extends AbstractStringFinder {
+	private static class Finder extends AbstractStringFinder implements MatchSink {
 
 		private final int minLength;
 		private final int lookahead;
+		private final boolean longest;
+		private byte[][] patterns;
 		private ByteProvider bytes;
-		private ByteAutomaton<byte[][]> cursor;
+		private ByteAutomaton<int[]> cursor;
 		private Queue<StringMatch> buffer;
 
-		public Finder(ByteWordSet<byte[][]> trie, int minLength, ByteProvider bytes, StringFinderOption... options) {
+		public Finder(ByteWordSet<int[]> trie, byte[][] patterns, int minLength, ByteProvider bytes, StringFinderOption... options) {
 			super(options);
+			this.patterns = patterns;
 			this.minLength = minLength;
 			this.lookahead = minLength - 1;
+			this.longest = LONGEST_MATCH.in(options);
 			this.bytes = bytes;
 			this.cursor = trie.cursor();
-			this.buffer = new LinkedList<>();
+			this.buffer = new ArrayDeque<>();
 		}
 
 		@Override
@@ -172,12 +217,93 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 			buffer.clear();
 		}
 
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
 		@Override
 		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				return findNextNonOverlapping();
+			}
 			if (!buffer.isEmpty()) {
 				return buffer.remove();
 			}
-			next: while (!bytes.finished(lookahead)) {
+			while (!bytes.finished(lookahead)) {
+				scanWindow(this);
+				if (!buffer.isEmpty()) {
+					return buffer.remove();
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * verifies the current window (reporting the matches starting at the window start to the given sink) and moves to the next window
+		 * 
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		protected boolean scanWindow(MatchSink sink) {
+			cursor.reset();
+			int j = lookahead;
+			boolean success = true;
+			while (j >= 0 && success) {
+				success = cursor.accept(bytes.lookahead(j));
+				j--;
+			}
+			if (success && j < 0) {
+				long currentWindowStart = bytes.current();
+				int[] candidates = cursor.iterator().next();
+				if (matches(bytes, patterns[candidates[0]], 0, minLength)) {
+					for (int pattern : candidates) {
+						byte[] candidate = patterns[pattern];
+						if (!bytes.finished(candidate.length - 1)
+							&& matches(bytes, candidate, minLength, candidate.length)
+							&& !sink.match(currentWindowStart, currentWindowStart + candidate.length, pattern)) {
+							return false;
+						}
+					}
+					bytes.next();
+					return true;
+				}
+			}
+			if (j <= 0) {
+				bytes.next();
+			} else {
+				bytes.forward(j + 1);
+			}
+			return true;
+		}
+
+		public void search(MatchSink sink) {
+			while (!bytes.finished(lookahead)) {
+				if (!scanWindow(sink)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			buffer.add(createMatch(start, end, pattern));
+			return true;
+		}
+
+		/**
+		 * finds the next match not overlapping the previous match: the match ending first (or with {@link MatchOption#LONGEST_MATCH} the
+		 * longest of the matches starting first). Windows are scanned by start, so scanning goes on while a window could contain a match
+		 * ending before the best match.
+		 */
+		private StringMatch findNextNonOverlapping() {
+			int best = -1;
+			long start = -1;
+			long end = -1;
+			while (!bytes.finished(lookahead)) {
+				long currentWindowStart = bytes.current();
+				if (best >= 0 && (longest || currentWindowStart + minLength >= end)) {
+					break;
+				}
 				cursor.reset();
 				int j = lookahead;
 				boolean success = true;
@@ -185,32 +311,24 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 					success = cursor.accept(bytes.lookahead(j));
 					j--;
 				}
-				long currentWindowStart = bytes.current();
-				long currentPos = currentWindowStart + j + 1;
-				long currentWindowEnd = currentWindowStart + minLength;
-				byte[] matchedPrefix = bytes.between(currentPos, currentWindowEnd);
 				if (success && j < 0) {
-					byte[][] patterns = cursor.iterator().next();
-					byte[] prefix = patterns[0];
-					if (Arrays.equals(prefix, matchedPrefix)) {
-						for (int i = 1; i < patterns.length; i++) {
-							byte[] suffix = patterns[i];
-							long currentWordEnd = currentWindowEnd + suffix.length;
-							if (!bytes.finished((int) (currentWordEnd - currentWindowStart - 1))) {
-								byte[] matchedSuffix = bytes.between(currentWindowEnd, currentWordEnd);
-								if (Arrays.equals(suffix, matchedSuffix)) {
-									buffer.add(createMatch(currentWindowStart, currentWordEnd));
+					int[] candidates = cursor.iterator().next();
+					if (matches(bytes, patterns[candidates[0]], 0, minLength)) {
+						for (int pattern : candidates) {
+							byte[] candidate = patterns[pattern];
+							long currentEnd = currentWindowStart + candidate.length;
+							if ((best < 0 || currentEnd < end) && !bytes.finished(candidate.length - 1) && matches(bytes, candidate, minLength, candidate.length)) {
+								best = pattern;
+								start = currentWindowStart;
+								end = currentEnd;
+								if (longest) {
+									break;
 								}
 							}
 						}
-						bytes.next();
-						if (buffer.isEmpty()) {
-							continue next;
-						} else {
-							return buffer.remove();
-						}
 					}
-
+					bytes.next();
+					continue;
 				}
 				if (j <= 0) {
 					bytes.next();
@@ -218,12 +336,19 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 					bytes.forward(j + 1);
 				}
 			}
-			return null;
+			if (best < 0) {
+				return null;
+			}
+			bytes.move(end);
+			return createMatch(start, end, best);
 		}
 
-		private StringMatch createMatch(long start, long end) {
+		private StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			ByteString s = bytes.slice(start, end);
-			return new StringMatch(start, end, s.getString());
+			return new StringMatch(start, end, s.getString(), pattern);
 		}
 
 	}
@@ -12,6 +12,9 @@ import java.util.Collection;
 import java.util.List;
 
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
@@ -30,30 +33,32 @@ import net.amygdalum.util.text.doublearraytrie.DoubleArrayByteCompactTrieCompile
  * This algorithm takes a multiple string patterns as input and generates a
  * finder which can find any of these patterns in documents.
  */
-public class SetHorspool implements StringSearchAlgorithm {
+public class SetHorspool implements StringSearchAlgorithm, SizedAlgorithm {
 
-	private ByteWordSet<ByteString> trie;
+	private ByteWordSet<Integer> trie;
+	private long trieSize;
 	private int minLength;
 	private int maxLength;
-	private ByteShift byteShift;
+	private QuickShift byteShift;
 
 	public SetHorspool(Collection<String> patterns, Charset charset) {
 		List<byte[]> bytepatterns = StringUtils.toByteArray(patterns, charset);
-		this.trie = computeTrie(bytepatterns, charset);
+		this.trie = computeTrie(bytepatterns);
+		this.trieSize = Sizes.ofDoubleArrayTrie(Sizes.bytesOf(bytepatterns));
 		this.minLength = minLength(bytepatterns);
 		this.maxLength = maxLength(bytepatterns);
 		this.byteShift = computeByteShift(bytepatterns, minLength);
 	}
 
-	private ByteShift computeByteShift(List<byte[]> bytepatterns, int minLength) {
+	private QuickShift computeByteShift(List<byte[]> bytepatterns, int minLength) {
 		return new QuickShift(bytepatterns, minLength);
 	}
 
-	private static ByteWordSet<ByteString> computeTrie(List<byte[]> bytepatterns, Charset charset) {
-		ByteWordSetBuilder<ByteString, ByteTrie<ByteString>> builder = new ByteWordSetBuilder<>(new DoubleArrayByteCompactTrieCompiler<ByteString>());
+	private static ByteWordSet<Integer> computeTrie(List<byte[]> bytepatterns) {
+		ByteWordSetBuilder<Integer, ByteTrie<Integer>> builder = new ByteWordSetBuilder<>(new DoubleArrayByteCompactTrieCompiler<Integer>());
 
-		for (byte[] pattern : bytepatterns) {
-			builder.extend(revert(pattern), new ByteString(pattern, charset));
+		for (int i = 0; i < bytepatterns.size(); i++) {
+			builder.extend(revert(bytepatterns.get(i)), i);
 		}
 
 		return builder.build();
@@ -68,6 +73,16 @@ public class SetHorspool implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		new NextMatchFinder(trie, minLength, maxLength, byteShift, bytes).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		return trieSize + byteShift.estimatedSize();
+	}
+
 	@Override
 	public int getPatternLength() {
 		return minLength;
@@ -78,40 +93,97 @@ public class SetHorspool implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	private static abstract class Finder extends BufferedStringFinder {
+	private static abstract class Finder extends BufferedStringFinder implements MatchSink {
 
 		protected final int minLength;
 		protected final int maxLength;
 		protected final ByteShift byteShift;
 		protected ByteProvider bytes;
-		protected ByteAutomaton<ByteString> cursor;
+		protected ByteAutomaton<Integer> cursor;
+		protected long lastEnd;
 
-		public Finder(ByteWordSet<ByteString> trie, int minLength, int maxLength, ByteShift byteShift, ByteProvider bytes, StringFinderOption... options) {
+		public Finder(ByteWordSet<Integer> trie, int minLength, int maxLength, ByteShift byteShift, ByteProvider bytes, StringFinderOption... options) {
 			super(options);
 			this.minLength = minLength;
 			this.maxLength = maxLength;
 			this.byteShift = byteShift;
 			this.bytes = bytes;
+			this.lastEnd = nonOverlapping() ? bytes.current() : 0;
 			this.cursor = trie.cursor();
 		}
 
 		@Override
 		public void skipTo(long pos) {
-			long last = removeMatchesBefore(pos);
-			if (last > bytes.current()) {
-				bytes.move(last);
+			dropMatchesBefore(pos);
+			if (pos > lastEnd) {
+				lastEnd = pos;
+			}
+			if (pos > bytes.current()) {
+				bytes.move(pos);
 			}
 		}
 
-		protected StringMatch createMatch(long start, long end) {
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
+		/**
+		 * verifies the current window (reporting the matches ending at the window end) and shifts the window
+		 * 
+		 * @param sink the sink to report the matches to
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		protected boolean scanWindow(MatchSink sink) {
+			int patternPointer = minLength - 1;
+			long pos = bytes.current();
+			byte current = bytes.lookahead(patternPointer);
+
+			cursor.reset();
+			boolean success = cursor.accept(current);
+			while (success) {
+				if (cursor.hasAttachments()) {
+					if (!sink.match(pos + patternPointer, pos + minLength, cursor.iterator().next())) {
+						return false;
+					}
+				}
+				patternPointer--;
+				if (pos + patternPointer < lastEnd) {
+					break;
+				}
+				success = cursor.accept(bytes.lookahead(patternPointer));
+			}
+			bytes.forward(byteShift.getShift(current));
+			return true;
+		}
+
+		public void search(MatchSink sink) {
+			int lookahead = minLength - 1;
+			while (!bytes.finished(lookahead)) {
+				if (!scanWindow(sink)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			push(createMatch(start, end, pattern));
+			return true;
+		}
+
+		protected StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			ByteString slice = bytes.slice(start, end);
-			return new StringMatch(start, end, slice.getString());
+			return new StringMatch(start, end, slice.getString(), pattern);
 		}
 	}
 
 	private static class NextMatchFinder extends Finder {
 
-		public NextMatchFinder(ByteWordSet<ByteString> trie, int minLength, int maxLength, ByteShift byteShift, ByteProvider bytes, StringFinderOption... options) {
+		public NextMatchFinder(ByteWordSet<Integer> trie, int minLength, int maxLength, ByteShift byteShift, ByteProvider bytes, StringFinderOption... options) {
 			super(trie, minLength, maxLength, byteShift, bytes, options);
 		}
 
@@ -122,43 +194,39 @@ public class SetHorspool implements StringSearchAlgorithm {
 			}
 			int lookahead = minLength - 1;
 			while (!bytes.finished(lookahead)) {
-				int patternPointer = lookahead;
-				long pos = bytes.current();
-				byte current = bytes.lookahead(patternPointer);
-
-				cursor.reset();
-				boolean success = cursor.accept(current);
-				while (success) {
-					if (cursor.hasAttachments()) {
-						ByteString match = cursor.iterator().next();
-						long start = bytes.current() + patternPointer;
-						long end = bytes.current() + patternPointer + match.length();
-						push(createMatch(start, end));
-					}
-					patternPointer--;
-					if (pos + patternPointer < 0) {
-						break;
-					}
-					success = cursor.accept(bytes.lookahead(patternPointer));
-				}
-				bytes.forward(byteShift.getShift(current));
+				scanWindow(this);
 				if (!isBufferEmpty()) {
-					return leftMost();
+					return nextMatch();
 				}
 			}
 			return null;
 		}
 
+		private StringMatch nextMatch() {
+			StringMatch match = leftMost();
+			if (nonOverlapping()) {
+				clear();
+				lastEnd = match.end();
+				if (lastEnd > bytes.current()) {
+					bytes.move(lastEnd);
+				}
+			}
+			return match;
+		}
+
 	}
 
 	private static class LongestMatchFinder extends Finder {
 
-		public LongestMatchFinder(ByteWordSet<ByteString> trie, int minLength, int maxLength, ByteShift byteShift, ByteProvider bytes, StringFinderOption... options) {
+		public LongestMatchFinder(ByteWordSet<Integer> trie, int minLength, int maxLength, ByteShift byteShift, ByteProvider bytes, StringFinderOption... options) {
 			super(trie, minLength, maxLength, byteShift, bytes, options);
 		}
 
 		@Override
 		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				dropMatchesBefore(lastEnd);
+			}
 			long lastStart = lastStartFromBuffer();
 			int lookahead = minLength - 1;
 			while (!bytes.finished(lookahead)) {
@@ -170,17 +238,16 @@ public class SetHorspool implements StringSearchAlgorithm {
 				boolean success = cursor.accept(current);
 				while (success) {
 					if (cursor.hasAttachments()) {
-						ByteString match = cursor.iterator().next();
-						long start = bytes.current() + patternPointer;
-						long end = bytes.current() + patternPointer + match.length();
-						StringMatch stringMatch = createMatch(start, end);
+						long start = pos + patternPointer;
+						long end = pos + minLength;
+						StringMatch stringMatch = createMatch(start, end, cursor.iterator().next());
 						if (lastStart < 0) {
 							lastStart = start;
 						}
 						push(stringMatch);
 					}
 					patternPointer--;
-					if (pos + patternPointer < 0) {
+					if (pos + patternPointer < lastEnd) {
 						break;
 					}
 					success = cursor.accept(bytes.lookahead(patternPointer));
@@ -190,7 +257,11 @@ public class SetHorspool implements StringSearchAlgorithm {
 					break;
 				}
 			}
-			return longestLeftMost();
+			StringMatch match = longestLeftMost();
+			if (match != null && nonOverlapping()) {
+				lastEnd = match.end();
+			}
+			return match;
 		}
 
 		public boolean bufferContainsLongestMatch(long lastStart) {
@@ -245,6 +316,10 @@ public class SetHorspool implements StringSearchAlgorithm {
 			return byteShift[b & 0xff];
 		}
 
+		public long estimatedSize() {
+			return 4L * byteShift.length;
+		}
+
 	}
 
 }
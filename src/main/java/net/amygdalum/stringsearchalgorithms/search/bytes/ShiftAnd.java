@@ -6,12 +6,11 @@ import static net.amygdalum.util.text.ByteEncoding.encode;
 
 import java.nio.charset.Charset;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.ByteProvider;
-import net.amygdalum.util.text.ByteString;
 
 /**
  * An implementation of the String Search Algorithm Shift-And (or Baeza-Yates–Gonnet).
@@ -51,27 +50,34 @@ public class ShiftAnd implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		if (states.supportsSingle()) {
+			new LongFinder(bytes).search(sink);
+		} else {
+			new MultiLongFinder(bytes).search(sink);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private abstract class Finder extends AbstractStringFinder {
+	private abstract class Finder extends SinglePatternFinder {
 
 		protected final long finalstate;
 		protected ByteProvider bytes;
 
 		public Finder(ByteProvider bytes, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.finalstate = 1l << ((patternLength - 1) % 64);
 			this.bytes = bytes;
 		}
 
-		protected StringMatch createMatch() {
-			long end = bytes.current();
-			long start = end - patternLength;
-			ByteString s = bytes.slice(start, end);
-			return new StringMatch(start, end, s.getString());
+		@Override
+		protected String text(long start, long end) {
+			return bytes.slice(start, end).getString();
 		}
 
 	}
@@ -94,7 +100,7 @@ public class ShiftAnd implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!bytes.finished()) {
 				byte nextByte = bytes.next();
 				long bits = states.single(nextByte);
@@ -102,10 +108,10 @@ public class ShiftAnd implements StringSearchAlgorithm {
 				state = (state << 1 | 1l) & bits;
 
 				if ((state & finalstate) != 0l) {
-					return createMatch();
+					return bytes.current() - patternLength;
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
 	}
@@ -128,7 +134,7 @@ public class ShiftAnd implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!bytes.finished()) {
 				byte nextByte = bytes.next();
 				long[] bits = states.all(nextByte);
@@ -136,10 +142,10 @@ public class ShiftAnd implements StringSearchAlgorithm {
 				state = next(state, bits);
 
 				if ((state[0] & finalstate) != 0l) {
-					return createMatch();
+					return bytes.current() - patternLength;
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
 		private long[] next(long[] state, long[] bits) {
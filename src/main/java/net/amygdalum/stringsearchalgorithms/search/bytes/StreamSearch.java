@@ -0,0 +1,104 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import java.nio.charset.Charset;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import net.amygdalum.stringsearchalgorithms.io.BoundedByteProvider;
+import net.amygdalum.stringsearchalgorithms.io.MappedFileByteProvider;
+import net.amygdalum.stringsearchalgorithms.search.ChunkedSearch;
+import net.amygdalum.stringsearchalgorithms.search.ChunkedSearch.ChunkFinders;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.ByteProvider;
+import net.amygdalum.util.io.StringByteProvider;
+
+/**
+ * Exposes the matches of any StringSearchAlgorithm as (lazy) Stream.
+ *
+ * Streams on a byte array or a memory mapped file may be searched in parallel: the spliterator splits the document into overlapping chunks
+ * (see {@link ChunkedSearch#spliterator(long, long)}), streams on a ByteProvider are sequential.
+ */
+public class StreamSearch {
+
+	private static final long DEFAULT_MIN_CHUNK = 1 << 16;
+
+	private StringSearchAlgorithm algorithm;
+	private int maxPatternLength;
+	private long minChunk;
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param maxPatternLength the maximum length of a match (chunks will overlap by maxPatternLength - 1)
+	 */
+	public StreamSearch(StringSearchAlgorithm algorithm, int maxPatternLength) {
+		this(algorithm, maxPatternLength, DEFAULT_MIN_CHUNK);
+	}
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param maxPatternLength the maximum length of a match (chunks will overlap by maxPatternLength - 1)
+	 * @param minChunk the minimum size of a chunk when splitting a document
+	 */
+	public StreamSearch(StringSearchAlgorithm algorithm, int maxPatternLength, long minChunk) {
+		this.algorithm = algorithm;
+		this.maxPatternLength = maxPatternLength;
+		this.minChunk = minChunk;
+	}
+
+	/**
+	 * @param bytes the document to search
+	 * @param charset the charset of the document
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return a stream of the matches in the given document, splittable at chunk boundaries (with the exception of {@link net.amygdalum.stringsearchalgorithms.search.MatchOption#NON_OVERLAP})
+	 */
+	public Stream<StringMatch> matches(final byte[] bytes, final Charset charset, final StringFinderOption... options) {
+		ChunkedSearch search = new ChunkedSearch(new ChunkFinders() {
+			@Override
+			public StringFinder createFinder(long start, long end) {
+				return algorithm.createFinder(new BoundedByteProvider(new StringByteProvider(bytes, (int) start, charset), Math.min(end, bytes.length)), options);
+			}
+		}, maxPatternLength, options);
+
+		return StreamSupport.stream(search.spliterator(bytes.length, minChunk), false);
+	}
+
+	/**
+	 * @param file the (memory mapped) document to search, each chunk is searched on a duplicate of this provider
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return a stream of the matches in the given document, splittable at chunk boundaries (with the exception of {@link net.amygdalum.stringsearchalgorithms.search.MatchOption#NON_OVERLAP})
+	 */
+	public Stream<StringMatch> matches(final MappedFileByteProvider file, final StringFinderOption... options) {
+		ChunkedSearch search = new ChunkedSearch(new ChunkFinders() {
+			@Override
+			public StringFinder createFinder(long start, long end) {
+				return algorithm.createFinder(new BoundedByteProvider(file.duplicate(start), Math.min(end, file.size())), options);
+			}
+		}, maxPatternLength, options);
+
+		return StreamSupport.stream(search.spliterator(file.size(), minChunk), false);
+	}
+
+	/**
+	 * @param bytes the document to search (consumed lazily by the stream)
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return a (non splittable) stream of the matches in the given document
+	 */
+	public Stream<StringMatch> matches(final ByteProvider bytes, final StringFinderOption... options) {
+		ChunkedSearch search = new ChunkedSearch(new ChunkFinders() {
+			@Override
+			public StringFinder createFinder(long start, long end) {
+				return algorithm.createFinder(bytes, options);
+			}
+		}, maxPatternLength, options);
+
+		return StreamSupport.stream(search.spliterator(Long.MAX_VALUE, Long.MAX_VALUE), false);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "<" + algorithm.toString() + ">";
+	}
+
+}
@@ -5,12 +5,11 @@ import static net.amygdalum.util.text.ByteEncoding.encode;
 
 import java.nio.charset.Charset;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.ByteProvider;
-import net.amygdalum.util.text.ByteString;
 
 /**
  * An implementation of the String Search Algorithm of Sunday.
@@ -43,17 +42,22 @@ public class Sunday implements StringSearchAlgorithm {
 		return new Finder(bytes, options);
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		new Finder(bytes).search(sink);
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private class Finder extends AbstractStringFinder {
+	private class Finder extends SinglePatternFinder {
 
 		private ByteProvider bytes;
 
 		public Finder(ByteProvider bytes, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.bytes = bytes;
 		}
 
@@ -65,7 +69,7 @@ public class Sunday implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			final int lookahead = patternLength - 1;
 			next: while (!bytes.finished(lookahead)) {
 				int patternPointer = lookahead;
@@ -74,43 +78,34 @@ public class Sunday implements StringSearchAlgorithm {
 					while (patternPointer > 0) {
 						patternPointer--;
 						if (pattern[patternPointer] != bytes.lookahead(patternPointer)) {
-							if (!bytes.finished(patternPointer + 1)) {
-								byte afterNextByte = bytes.lookahead(patternPointer + 1);
-								bytes.forward(byteShift.getShift(afterNextByte));
-							} else {
-								bytes.finish();
-							}
+							shift(patternPointer);
 							continue next;
 						}
 					}
-					if (patternPointer == 0) {
-						StringMatch match = createMatch();
-						if (!bytes.finished(patternPointer + 1)) {
-							byte afterNextByte = bytes.lookahead(patternPointer + 1);
-							bytes.forward(byteShift.getShift(afterNextByte));
-						} else {
-							bytes.finish();
-						}
-						return match;
-					}
+					long start = bytes.current();
+					shift(patternPointer);
+					return start;
 				} else {
-					if (!bytes.finished(patternPointer + 1)) {
-						byte afterNextByte = bytes.lookahead(patternPointer + 1);
-						bytes.forward(byteShift.getShift(afterNextByte));
-					} else {
-						bytes.finish();
-					}
+					shift(patternPointer);
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
-		private StringMatch createMatch() {
-			long start = bytes.current();
-			long end = start + patternLength;
-			ByteString s = bytes.slice(start, end);
-			return new StringMatch(start, end, s.getString());
+		private void shift(int patternPointer) {
+			if (!bytes.finished(patternPointer + 1)) {
+				byte afterNextByte = bytes.lookahead(patternPointer + 1);
+				bytes.forward(byteShift.getShift(afterNextByte));
+			} else {
+				bytes.finish();
+			}
 		}
+
+		@Override
+		protected String text(long start, long end) {
+			return bytes.slice(start, end).getString();
+		}
+
 	}
 
 	public static class Factory implements StringSearchAlgorithmFactory {
@@ -2,20 +2,18 @@ package net.amygdalum.stringsearchalgorithms.search.bytes;
 
 import static java.nio.charset.StandardCharsets.UTF_16LE;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
-import static net.amygdalum.util.text.ByteUtils.lastIndexOf;
 import static net.amygdalum.util.text.ByteUtils.maxLength;
 import static net.amygdalum.util.text.ByteUtils.minLength;
 import static net.amygdalum.util.text.ByteUtils.revert;
 
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
@@ -34,7 +32,7 @@ import net.amygdalum.util.text.doublearraytrie.DoubleArrayByteCompactTrieCompile
  * This algorithm takes a multiple string patterns as input and generates a
  * finder which can find any of these patterns in documents.
  */
-public class WuManber implements StringSearchAlgorithm {
+public class WuManber implements StringSearchAlgorithm, SizedAlgorithm {
 
 	private static final int SHIFT_SEED = 17;
 	private static final int HASH_SEED = 23;
@@ -45,15 +43,27 @@ public class WuManber implements StringSearchAlgorithm {
 	private int maxLength;
 	private int block;
 	private int[] shift;
-	private ByteWordSet<ByteString>[] hash;
+	private ByteWordSet<Integer>[] hash;
+	private long trieSize;
 
 	public WuManber(Collection<String> patterns, Charset charset) {
+		this(patterns, charset, SHIFT_SIZE, HASH_SIZE);
+	}
+
+	/**
+	 * @param patterns the patterns to search for
+	 * @param charset the charset to encode the patterns with
+	 * @param shiftSize the number of buckets of the shift table (more buckets mean less colliding blocks and larger shifts for large pattern sets)
+	 * @param hashSize the number of buckets of the hash table (more buckets mean less patterns to verify for each bucket)
+	 */
+	public WuManber(Collection<String> patterns, Charset charset, int shiftSize, int hashSize) {
 		List<byte[]> bytepatterns = StringUtils.toByteArray(patterns, charset);
 		this.minLength = minLength(bytepatterns);
 		this.maxLength = maxLength(bytepatterns);
 		this.block = blockSize(minLength, bytepatterns.size());
-		this.shift = computeShift(bytepatterns, block, minLength);
-		this.hash = computeHash(bytepatterns, block, charset);
+		this.shift = computeShift(bytepatterns, block, minLength, shiftSize);
+		this.hash = computeHash(bytepatterns, block, hashSize);
+		this.trieSize = Sizes.ofDoubleArrayTrie(Sizes.bytesOf(bytepatterns));
 	}
 
 	private static int blockSize(int minLength, int patterns) {
@@ -67,62 +77,44 @@ public class WuManber implements StringSearchAlgorithm {
 		}
 	}
 
-	private static int[] computeShift(List<byte[]> patterns, int block, int minLength) {
-		int[] shift = new int[SHIFT_SIZE];
+	private static int[] computeShift(List<byte[]> patterns, int block, int minLength, int shiftSize) {
+		int[] shift = new int[shiftSize];
 		for (int i = 0; i < shift.length; i++) {
 			shift[i] = minLength - block + 1;
 		}
-		List<byte[]> patternStrings = new ArrayList<>();
-		Set<byte[]> blocks = new HashSet<>();
 		for (byte[] pattern : patterns) {
-			patternStrings.add(pattern);
 			for (int i = 0; i < pattern.length + 1 - block; i++) {
-				blocks.add(Arrays.copyOfRange(pattern, i, i + block));
-			}
-		}
-		for (byte[] currentBlock : blocks) {
-			int shiftKey = shiftHash(currentBlock);
-			int shiftBy = shift[shiftKey];
-			for (byte[] pattern : patternStrings) {
-				int rightMost = pattern.length - lastIndexOf(pattern, currentBlock) - block;
-				if (rightMost >= 0 && rightMost < shiftBy) {
-					shiftBy = rightMost;
+				int shiftKey = hash(pattern, i, i + block, SHIFT_SEED, shiftSize);
+				int rightMost = pattern.length - i - block;
+				if (rightMost < shift[shiftKey]) {
+					shift[shiftKey] = rightMost;
 				}
 			}
-			shift[shiftKey] = shiftBy;
 		}
 		return shift;
 	}
 
 	public static int shiftHash(byte[] block) {
-		int result = 1;
-		for (byte b : block) {
-			result = SHIFT_SEED * result + b;
-		}
-		int hash = result % SHIFT_SIZE;
-		if (hash < 0) {
-			hash += SHIFT_SIZE;
-		}
-		return hash;
+		return hash(block, 0, block.length, SHIFT_SEED, SHIFT_SIZE);
 	}
 
-	private static ByteWordSet<ByteString>[] computeHash(List<byte[]> bytepatterns, int block, Charset charset) {
+	private static ByteWordSet<Integer>[] computeHash(List<byte[]> bytepatterns, int block, int hashSize) {
 		@SuppressWarnings("unchecked")
-		ByteWordSetBuilder<ByteString, ByteTrie<ByteString>>[] builders = new ByteWordSetBuilder[HASH_SIZE];
-		for (byte[] pattern : bytepatterns) {
-			byte[] lastBlock = Arrays.copyOfRange(pattern, pattern.length - block, pattern.length);
-			int hashKey = hashHash(lastBlock);
-			ByteWordSetBuilder<ByteString, ByteTrie<ByteString>> builder = builders[hashKey];
+		ByteWordSetBuilder<Integer, ByteTrie<Integer>>[] builders = new ByteWordSetBuilder[hashSize];
+		for (int i = 0; i < bytepatterns.size(); i++) {
+			byte[] pattern = bytepatterns.get(i);
+			int hashKey = hash(pattern, pattern.length - block, pattern.length, HASH_SEED, hashSize);
+			ByteWordSetBuilder<Integer, ByteTrie<Integer>> builder = builders[hashKey];
 			if (builder == null) {
-				builder = new ByteWordSetBuilder<>(new DoubleArrayByteCompactTrieCompiler<ByteString>());
+				builder = new ByteWordSetBuilder<>(new DoubleArrayByteCompactTrieCompiler<Integer>());
 				
 				builders[hashKey] = builder;
 			}
-			builder.extend(revert(pattern), new ByteString(pattern, charset));
+			builder.extend(revert(pattern), i);
 		}
 
 		@SuppressWarnings("unchecked")
-		ByteWordSet<ByteString>[] hash = new ByteWordSet[builders.length];
+		ByteWordSet<Integer>[] hash = new ByteWordSet[builders.length];
 		for (int i = 0; i < hash.length; i++) {
 			hash[i] = builders[i] == null ? null : builders[i].build();
 		}
@@ -130,13 +122,29 @@ public class WuManber implements StringSearchAlgorithm {
 	}
 
 	public static int hashHash(byte[] block) {
+		return hash(block, 0, block.length, HASH_SEED, HASH_SIZE);
+	}
+
+	private static int hash(byte[] bytes, int from, int to, int seed, int size) {
 		int result = 1;
-		for (byte b : block) {
-			result = HASH_SEED * result + b;
+		for (int i = from; i < to; i++) {
+			result = seed * result + bytes[i];
 		}
-		int hash = result % HASH_SIZE;
+		return bucket(result, size);
+	}
+
+	private static int hash(ByteProvider bytes, int from, int to, int seed, int size) {
+		int result = 1;
+		for (int i = from; i < to; i++) {
+			result = seed * result + bytes.lookahead(i);
+		}
+		return bucket(result, size);
+	}
+
+	private static int bucket(int result, int size) {
+		int hash = result % size;
 		if (hash < 0) {
-			hash += HASH_SIZE;
+			hash += size;
 		}
 		return hash;
 	}
@@ -150,6 +158,16 @@ public class WuManber implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(ByteProvider bytes, MatchSink sink) {
+		new NextMatchFinder(minLength, maxLength, block, shift, hash, bytes).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		return 4L * shift.length + Sizes.REFERENCE * hash.length + trieSize;
+	}
+
 	@Override
 	public int getPatternLength() {
 		return minLength;
@@ -160,7 +178,7 @@ public class WuManber implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	private static abstract class Finder extends BufferedStringFinder {
+	private static abstract class Finder extends BufferedStringFinder implements MatchSink {
 
 		protected final int minLength;
 		protected final int lookahead;
@@ -168,9 +186,10 @@ public class WuManber implements StringSearchAlgorithm {
 		protected final int block;
 		protected final int[] shift;
 		protected ByteProvider bytes;
-		protected ByteAutomaton<ByteString>[] hash;
+		protected ByteAutomaton<Integer>[] hash;
+		protected long lastEnd;
 
-		public Finder(int minLength, int maxLength, int block, int[] shift, ByteWordSet<ByteString>[] hash, ByteProvider bytes, StringFinderOption... options) {
+		public Finder(int minLength, int maxLength, int block, int[] shift, ByteWordSet<Integer>[] hash, ByteProvider bytes, StringFinderOption... options) {
 			super(options);
 			this.minLength = minLength;
 			this.lookahead = minLength - 1;
@@ -179,13 +198,14 @@ public class WuManber implements StringSearchAlgorithm {
 			this.shift = shift;
 			this.hash = cursor(hash);
 			this.bytes = bytes;
+			this.lastEnd = nonOverlapping() ? bytes.current() : 0;
 		}
 
 		@SuppressWarnings("unchecked")
-		private static ByteAutomaton<ByteString>[] cursor(ByteWordSet<ByteString>[] hash) {
-			ByteAutomaton<ByteString>[] cursors = new ByteAutomaton[hash.length];
+		private static ByteAutomaton<Integer>[] cursor(ByteWordSet<Integer>[] hash) {
+			ByteAutomaton<Integer>[] cursors = new ByteAutomaton[hash.length];
 			for (int i = 0; i < hash.length; i++) {
-				ByteWordSet<ByteString> node = hash[i];
+				ByteWordSet<Integer> node = hash[i];
 				cursors[i] = node == null ? ByteAutomaton.NULL : node.cursor();
 			}
 			return cursors;
@@ -193,22 +213,81 @@ public class WuManber implements StringSearchAlgorithm {
 
 		@Override
 		public void skipTo(long pos) {
-			long last = removeMatchesBefore(pos);
-			if (last > bytes.current()) {
-				bytes.move(last);
+			dropMatchesBefore(pos);
+			if (pos > lastEnd) {
+				lastEnd = pos;
+			}
+			if (pos > bytes.current()) {
+				bytes.move(pos);
+			}
+		}
+
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
+		/**
+		 * verifies the current window if its shift is 0 (reporting the matches ending at the window end) and shifts the window
+		 * 
+		 * @param sink the sink to report the matches to
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		protected boolean scanWindow(MatchSink sink) {
+			long pos = bytes.current();
+			int shiftBy = shift[hash(bytes, minLength - block, minLength, SHIFT_SEED, shift.length)];
+			if (shiftBy == 0) {
+				int hashkey = hash(bytes, minLength - block, minLength, HASH_SEED, hash.length);
+				ByteAutomaton<Integer> cursor = hash[hashkey];
+				cursor.reset();
+				int patternPointer = lookahead;
+				boolean success = cursor.accept(bytes.lookahead(patternPointer));
+				while (success) {
+					if (cursor.hasAttachments()) {
+						if (!sink.match(pos + patternPointer, pos + minLength, cursor.iterator().next())) {
+							return false;
+						}
+					}
+					patternPointer--;
+					if (pos + patternPointer < lastEnd) {
+						break;
+					}
+					success = cursor.accept(bytes.lookahead(patternPointer));
+				}
+				bytes.next();
+			} else {
+				bytes.forward(shiftBy);
 			}
+			return true;
 		}
 
-		protected StringMatch createMatch(long start, long end) {
+		public void search(MatchSink sink) {
+			while (!bytes.finished(lookahead)) {
+				if (!scanWindow(sink)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			push(createMatch(start, end, pattern));
+			return true;
+		}
+
+		protected StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			ByteString slice = bytes.slice(start, end);
-			return new StringMatch(start, end, slice.getString());
+			return new StringMatch(start, end, slice.getString(), pattern);
 		}
 
 	}
 
 	private static class NextMatchFinder extends Finder {
 
-		public NextMatchFinder(int minLength, int maxLength, int block, int[] shift, ByteWordSet<ByteString>[] hash, ByteProvider bytes, StringFinderOption... options) {
+		public NextMatchFinder(int minLength, int maxLength, int block, int[] shift, ByteWordSet<Integer>[] hash, ByteProvider bytes, StringFinderOption... options) {
 			super(minLength, maxLength, block, shift, hash, bytes, options);
 		}
 
@@ -218,75 +297,61 @@ public class WuManber implements StringSearchAlgorithm {
 				return leftMost();
 			}
 			while (!bytes.finished(lookahead)) {
-				long pos = bytes.current();
-				byte[] lastBlock = bytes.between(pos + minLength - block, pos + minLength);
-				int shiftKey = shiftHash(lastBlock);
-				int shiftBy = shift[shiftKey];
-				if (shiftBy == 0) {
-					int hashkey = hashHash(lastBlock);
-					ByteAutomaton<ByteString> cursor = hash[hashkey];
-					cursor.reset();
-					int patternPointer = lookahead;
-					boolean success = cursor.accept(bytes.lookahead(patternPointer));
-					while (success) {
-						if (cursor.hasAttachments()) {
-							ByteString match = cursor.iterator().next();
-							long start = bytes.current() + patternPointer;
-							long end = bytes.current() + patternPointer + match.length();
-							push(createMatch(start, end));
-						}
-						patternPointer--;
-						if (pos + patternPointer < 0) {
-							break;
-						}
-						success = cursor.accept(bytes.lookahead(patternPointer));
-					}
-					bytes.next();
-					if (!isBufferEmpty()) {
-						return leftMost();
-					}
-				} else {
-					bytes.forward(shiftBy);
+				scanWindow(this);
+				if (!isBufferEmpty()) {
+					return nextMatch();
 				}
 			}
 			return null;
 		}
 
+		private StringMatch nextMatch() {
+			StringMatch match = leftMost();
+			if (nonOverlapping()) {
+				clear();
+				lastEnd = match.end();
+				if (lastEnd > bytes.current()) {
+					bytes.move(lastEnd);
+				}
+			}
+			return match;
+		}
+
 	}
 
 	private static class LongestMatchFinder extends Finder {
 
-		public LongestMatchFinder(int minLength, int maxLength, int block, int[] shift, ByteWordSet<ByteString>[] hash, ByteProvider bytes, StringFinderOption... options) {
+		public LongestMatchFinder(int minLength, int maxLength, int block, int[] shift, ByteWordSet<Integer>[] hash, ByteProvider bytes, StringFinderOption... options) {
 			super(minLength, maxLength, block, shift, hash, bytes, options);
 		}
 
 		@Override
 		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				dropMatchesBefore(lastEnd);
+			}
 			long lastStart = lastStartFromBuffer();
 			while (!bytes.finished(lookahead)) {
 				long pos = bytes.current();
-				byte[] lastBlock = bytes.between(pos + minLength - block, pos + minLength);
-				int shiftKey = shiftHash(lastBlock);
-				int shiftBy = shift[shiftKey];
+				int shiftBy = shift[hash(bytes, minLength - block, minLength, SHIFT_SEED, shift.length)];
 				if (shiftBy == 0) {
-					int hashkey = hashHash(lastBlock);
-					ByteAutomaton<ByteString> cursor = hash[hashkey];
+					int hashkey = hash(bytes, minLength - block, minLength, HASH_SEED, hash.length);
+					ByteAutomaton<Integer> cursor = hash[hashkey];
 					cursor.reset();
 					int patternPointer = lookahead;
 					boolean success = cursor.accept(bytes.lookahead(patternPointer));
 					while (success) {
 						if (cursor.hasAttachments()) {
-							ByteString match = cursor.iterator().next();
-							long start = bytes.current() + patternPointer;
-							long end = bytes.current() + patternPointer + match.length();
-							StringMatch stringMatch = createMatch(start, end);
+							long start = pos + patternPointer;
+							long end = pos + minLength;
+							StringMatch stringMatch = createMatch(start, end, cursor.iterator().next());
 							if (lastStart < 0) {
 								lastStart = start;
 							}
 							push(stringMatch);
 						}
 						patternPointer--;
-						if (pos + patternPointer < 0) {
+						if (pos + patternPointer < lastEnd) {
 							break;
 						}
 						success = cursor.accept(bytes.lookahead(patternPointer));
@@ -299,7 +364,11 @@ public class WuManber implements StringSearchAlgorithm {
 					bytes.forward(shiftBy);
 				}
 			}
-			return longestLeftMost();
+			StringMatch match = longestLeftMost();
+			if (match != null && nonOverlapping()) {
+				lastEnd = match.end();
+			}
+			return match;
 		}
 
 		public boolean bufferContainsLongestMatch(long lastStart) {
@@ -312,18 +381,31 @@ public class WuManber implements StringSearchAlgorithm {
 	public static class Factory implements MultiStringSearchAlgorithmFactory {
 
 		private Charset charset;
+		private int shiftSize;
+		private int hashSize;
 
 		public Factory() {
 			this(UTF_16LE);
 		}
 
 		public Factory(Charset charset) {
+			this(charset, SHIFT_SIZE, HASH_SIZE);
+		}
+
+		/**
+		 * @param charset the charset to encode the patterns with
+		 * @param shiftSize the number of buckets of the shift table
+		 * @param hashSize the number of buckets of the hash table
+		 */
+		public Factory(Charset charset, int shiftSize, int hashSize) {
 			this.charset = charset;
+			this.shiftSize = shiftSize;
+			this.hashSize = hashSize;
 		}
 
 		@Override
 		public StringSearchAlgorithm of(Collection<String> patterns) {
-			return new WuManber(patterns, charset);
+			return new WuManber(patterns, charset, shiftSize, hashSize);
 		}
 
 	}
@@ -8,11 +8,20 @@ import static net.amygdalum.util.text.CharFallbackAdaptor.setFallback;
 import static net.amygdalum.util.text.CharUtils.minLength;
 import static net.amygdalum.util.text.StringUtils.toCharArray;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import net.amygdalum.stringsearchalgorithms.io.TableReader;
+import net.amygdalum.stringsearchalgorithms.io.TableWriter;
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
@@ -20,32 +29,43 @@ import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.text.CharAutomaton;
 import net.amygdalum.util.text.CharNode;
 import net.amygdalum.util.text.CharTask;
-import net.amygdalum.util.text.CharTrie;
 import net.amygdalum.util.text.CharWordSet;
 import net.amygdalum.util.text.CharWordSetBuilder;
-import net.amygdalum.util.text.doublearraytrie.DoubleArrayCharFallbackTrieCompiler;
 
 /**
  * An implementation of the Aho-Corasick Algorithm.
  * 
  * This algorithm takes a multiple string patterns as input and generates a finder which can find any of these patterns in documents. 
+ * 
+ * The compiled automaton can be saved (see {@link #save(OutputStream)}) and loaded (see {@link #load(ByteBuffer)}), so large pattern
+ * sets need not be compiled again at startup.
  */
-public class AhoCorasick implements StringSearchAlgorithm {
+public class AhoCorasick implements StringSearchAlgorithm, SizedAlgorithm {
+
+	private static final String TYPE = AhoCorasick.class.getSimpleName();
 
-	private CharWordSet<String> trie;
+	private PackedCharTrie trie;
+	private int[] lengths;
 	private int minLength;
 
 	public AhoCorasick(Collection<String> patterns) {
 		List<char[]> charpatterns = toCharArray(patterns);
 		this.trie = computeTrie(charpatterns);
+		this.lengths = computeLengths(charpatterns);
 		this.minLength = minLength(charpatterns);
 	}
 
-	private static CharWordSet<String> computeTrie(List<char[]> charpatterns) {
-		CharWordSetBuilder<String, CharTrie<String>> builder = new CharWordSetBuilder<>(new DoubleArrayCharFallbackTrieCompiler<String>());
+	private AhoCorasick(PackedCharTrie trie, int[] lengths, int minLength) {
+		this.trie = trie;
+		this.lengths = lengths;
+		this.minLength = minLength;
+	}
 
-		for (char[] pattern : charpatterns) {
-			builder.extend(pattern, new String(pattern));
+	private static PackedCharTrie computeTrie(List<char[]> charpatterns) {
+		CharWordSetBuilder<Integer, PackedCharTrie> builder = new CharWordSetBuilder<>(new PackedCharTrie.Compiler());
+
+		for (int i = 0; i < charpatterns.size(); i++) {
+			builder.extend(charpatterns.get(i), i);
 		}
 
 		return builder
@@ -53,15 +73,87 @@ public class AhoCorasick implements StringSearchAlgorithm {
 			.build();
 	}
 
+	private static int[] computeLengths(List<char[]> charpatterns) {
+		int[] lengths = new int[charpatterns.size()];
+		for (int i = 0; i < lengths.length; i++) {
+			lengths[i] = charpatterns.get(i).length;
+		}
+		return lengths;
+	}
+
+	/**
+	 * loads an algorithm saved with {@link #save(OutputStream)}
+	 * 
+	 * @param buffer the buffer containing the saved tables (e.g. a memory mapped file)
+	 * @return the loaded algorithm
+	 * @throws IllegalArgumentException if the buffer does not contain tables of this algorithm
+	 */
+	public static AhoCorasick load(ByteBuffer buffer) {
+		return load(new TableReader(buffer));
+	}
+
+	/**
+	 * loads an algorithm saved with {@link #save(Path)} (the file is memory mapped)
+	 * 
+	 * @param file the file containing the saved tables
+	 * @return the loaded algorithm
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file does not contain tables of this algorithm
+	 */
+	public static AhoCorasick load(Path file) throws IOException {
+		return load(TableReader.map(file));
+	}
+
+	private static AhoCorasick load(TableReader in) {
+		in.readHeader(TYPE);
+		PackedCharTrie trie = PackedCharTrie.readFrom(in);
+		int[] lengths = in.readInts();
+		int minLength = in.readInt();
+		return new AhoCorasick(trie, lengths, minLength);
+	}
+
+	/**
+	 * @param out the stream to write the compiled tables to (flushed, but not closed)
+	 * @throws IOException if writing fails
+	 */
+	public void save(OutputStream out) throws IOException {
+		TableWriter writer = new TableWriter(out);
+		writer.writeHeader(TYPE);
+		trie.writeTo(writer);
+		writer.writeInts(lengths);
+		writer.writeInt(minLength);
+		writer.flush();
+	}
+
+	/**
+	 * @param file the file to write the compiled tables to
+	 * @throws IOException if writing fails
+	 */
+	public void save(Path file) throws IOException {
+		try (OutputStream out = Files.newOutputStream(file)) {
+			save(out);
+		}
+	}
+
 	@Override
 	public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
 		if (LONGEST_MATCH.in(options)) {
-			return new LongestMatchFinder(trie, chars, options);
+			return new LongestMatchFinder(trie, lengths, chars, options);
 		} else {
-			return new NextMatchFinder(trie, chars, options);
+			return new NextMatchFinder(trie, lengths, chars, options);
 		}
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new NextMatchFinder(trie, lengths, chars).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		return trie.estimatedSize() + 4L * lengths.length;
+	}
+
 	@Override
 	public int getPatternLength() {
 		return minLength;
@@ -72,29 +164,29 @@ public class AhoCorasick implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	private static class FallbackLinks implements CharTask<String> {
+	static class FallbackLinks implements CharTask<Integer> {
 
-		private CharNode<String> root;
+		private CharNode<Integer> root;
 
 		@Override
-		public List<CharNode<String>> init(CharNode<String> root) {
+		public List<CharNode<Integer>> init(CharNode<Integer> root) {
 			this.root = root;
 			setFallback(root, null);
 			return asList(root);
 		}
 
 		@Override
-		public List<CharNode<String>> process(CharNode<String> node) {
-			List<CharNode<String>> nexts = new ArrayList<>();
+		public List<CharNode<Integer>> process(CharNode<Integer> node) {
+			List<CharNode<Integer>> nexts = new ArrayList<>();
 			for (char c : node.getAlternatives()) {
-				CharNode<String> next = node.nextNode(c);
-				CharNode<String> down = getFallback(node);
+				CharNode<Integer> next = node.nextNode(c);
+				CharNode<Integer> down = getFallback(node);
 				nextdown: while (down != null) {
-					CharNode<String> nextNode = down.nextNode(c);
+					CharNode<Integer> nextNode = down.nextNode(c);
 					if (nextNode != null) {
 						setFallback(next, nextNode);
 						if (next.getAttached() == null) {
-							String attachment = nextNode.getAttached();
+							Integer attachment = nextNode.getAttached();
 							if (attachment != null) {
 								attach(next, attachment);
 							}
@@ -116,12 +208,14 @@ public class AhoCorasick implements StringSearchAlgorithm {
 	private static abstract class Finder extends BufferedStringFinder {
 
 		protected CharProvider chars;
-		protected CharAutomaton<String> cursor;
+		protected CharAutomaton<Integer> cursor;
+		protected int[] lengths;
 
-		public Finder(CharWordSet<String> trie, CharProvider chars, StringFinderOption... options) {
+		public Finder(CharWordSet<Integer> trie, int[] lengths, CharProvider chars, StringFinderOption... options) {
 			super(options);
 			this.chars = chars;
 			this.cursor = trie.cursor();
+			this.lengths = lengths;
 		}
 
 		@Override
@@ -133,11 +227,52 @@ public class AhoCorasick implements StringSearchAlgorithm {
 			clear();
 		}
 
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
+		/**
+		 * reads the next char and moves the cursor
+		 * 
+		 * @return true if patterns end at the current position (i.e. the cursor has attachments), false otherwise
+		 */
+		protected boolean advance() {
+			if (!cursor.accept(chars.next())) {
+				cursor.reset();
+			}
+			return cursor.hasAttachments();
+		}
+
+		public void search(MatchSink sink) {
+			while (!chars.finished()) {
+				if (advance()) {
+					long end = chars.current();
+					for (int pattern : cursor) {
+						if (!sink.match(end - lengths[pattern], end, pattern)) {
+							return;
+						}
+					}
+				}
+			}
+		}
+
+		protected StringMatch createLeftMostMatch(long end) {
+			int leftMost = -1;
+			for (int pattern : cursor) {
+				if (leftMost < 0 || lengths[pattern] > lengths[leftMost]) {
+					leftMost = pattern;
+				}
+			}
+			cursor.reset();
+			return createMatch(end - lengths[leftMost], end, leftMost);
+		}
+
 		protected List<StringMatch> createMatches(long end) {
 			List<StringMatch> matches = new ArrayList<>();
-			for (String currentMatch : cursor) {
-				long start = end - currentMatch.length();
-				StringMatch nextMatch = createMatch(start, end);
+			for (int pattern : cursor) {
+				long start = end - lengths[pattern];
+				StringMatch nextMatch = createMatch(start, end, pattern);
 				if (!matches.contains(nextMatch)) {
 					matches.add(nextMatch);
 				}
@@ -145,17 +280,20 @@ public class AhoCorasick implements StringSearchAlgorithm {
 			return matches;
 		}
 
-		private StringMatch createMatch(long start, long end) {
+		protected StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+			return new StringMatch(start, end, s, pattern);
 		}
 
 	}
 
 	private static class NextMatchFinder extends Finder {
 
-		public NextMatchFinder(CharWordSet<String> trie, CharProvider chars, StringFinderOption... options) {
-			super(trie, chars, options);
+		public NextMatchFinder(CharWordSet<Integer> trie, int[] lengths, CharProvider chars, StringFinderOption... options) {
+			super(trie, lengths, chars, options);
 		}
 
 		@Override
@@ -164,12 +302,10 @@ public class AhoCorasick implements StringSearchAlgorithm {
 				return leftMost();
 			}
 			while (!chars.finished()) {
-				char c = chars.next();
-				boolean success = cursor.accept(c);
-				if (!success) {
-					cursor.reset();
-				}
-				if (cursor.hasAttachments()) {
+				if (advance()) {
+					if (nonOverlapping()) {
+						return createLeftMostMatch(chars.current());
+					}
 					push(createMatches(chars.current()));
 					return leftMost();
 				}
@@ -180,12 +316,28 @@ public class AhoCorasick implements StringSearchAlgorithm {
 
 	private static class LongestMatchFinder extends Finder {
 
-		public LongestMatchFinder(CharWordSet<String> trie, CharProvider chars, StringFinderOption... options) {
-			super(trie, chars, options);
+		private int maxLength;
+
+		public LongestMatchFinder(CharWordSet<Integer> trie, int[] lengths, CharProvider chars, StringFinderOption... options) {
+			super(trie, lengths, chars, options);
+			this.maxLength = maxLength(lengths);
+		}
+
+		private static int maxLength(int[] lengths) {
+			int maxLength = 0;
+			for (int length : lengths) {
+				if (length > maxLength) {
+					maxLength = length;
+				}
+			}
+			return maxLength;
 		}
 
 		@Override
 		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				return findNextNonOverlapping();
+			}
 			while (!chars.finished()) {
 				char c = chars.next();
 				boolean success = cursor.lookahead(c);
@@ -204,6 +356,34 @@ public class AhoCorasick implements StringSearchAlgorithm {
 			return longestLeftMost();
 		}
 
+		private StringMatch findNextNonOverlapping() {
+			int leftMost = -1;
+			long start = -1;
+			long end = -1;
+			while (!chars.finished()) {
+				if (leftMost >= 0 && chars.current() >= start + maxLength) {
+					break;
+				}
+				if (advance()) {
+					long current = chars.current();
+					for (int pattern : cursor) {
+						long currentStart = current - lengths[pattern];
+						if (leftMost < 0 || currentStart < start || currentStart == start && current > end) {
+							leftMost = pattern;
+							start = currentStart;
+							end = current;
+						}
+					}
+				}
+			}
+			if (leftMost < 0) {
+				return null;
+			}
+			chars.move(end);
+			cursor.reset();
+			return createMatch(start, end, leftMost);
+		}
+
 	}
 
 	public static class Factory implements MultiStringSearchAlgorithmFactory {
@@ -0,0 +1,90 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A least recently used cache of compiled algorithms, limited by the estimated size of the cached algorithms. Shared by
+ * {@link CachingFactory} and {@link CachingMultiFactory}.
+ */
+class AlgorithmCache {
+
+	private long maxSize;
+	private SizeEstimator estimator;
+
+	private Map<Object, Cached> cache;
+	private long size;
+	private long hits;
+	private long misses;
+
+	public AlgorithmCache(long maxSize, SizeEstimator estimator) {
+		this.maxSize = maxSize;
+		this.estimator = estimator;
+		this.cache = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	public synchronized StringSearchAlgorithm lookup(Object key) {
+		Cached cached = cache.get(key);
+		if (cached == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return cached.algorithm;
+	}
+
+	public StringSearchAlgorithm store(Object key, StringSearchAlgorithm algorithm, List<String> patterns) {
+		long estimatedSize = estimator.estimate(algorithm, patterns);
+		synchronized (this) {
+			Cached cached = cache.get(key);
+			if (cached != null) {
+				return cached.algorithm;
+			}
+			cache.put(key, new Cached(algorithm, estimatedSize));
+			size += estimatedSize;
+			evict();
+			return algorithm;
+		}
+	}
+
+	private void evict() {
+		Iterator<Cached> values = cache.values().iterator();
+		while (size > maxSize && cache.size() > 1) {
+			Cached eldest = values.next();
+			values.remove();
+			size -= eldest.size;
+		}
+	}
+
+	public synchronized long hits() {
+		return hits;
+	}
+
+	public synchronized long misses() {
+		return misses;
+	}
+
+	public synchronized long size() {
+		return size;
+	}
+
+	public synchronized void clear() {
+		cache.clear();
+		size = 0;
+	}
+
+	private static class Cached {
+
+		public StringSearchAlgorithm algorithm;
+		public long size;
+
+		public Cached(StringSearchAlgorithm algorithm, long size) {
+			this.algorithm = algorithm;
+			this.size = size;
+		}
+
+	}
+
+}
@@ -0,0 +1,147 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Collections.singletonList;
+import static net.amygdalum.util.text.CharUtils.computeMaxChar;
+import static net.amygdalum.util.text.CharUtils.computeMinChar;
+import static net.amygdalum.util.text.CharUtils.maxLength;
+import static net.amygdalum.util.text.CharUtils.minLength;
+import static net.amygdalum.util.text.StringUtils.toCharArray;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A factory selecting the algorithm that fits best to the given pattern(s). The selection is based on:
+ * <ul>
+ * <li>the pattern length (for multiple patterns: the min and max length)</li>
+ * <li>the alphabet of the patterns (number of distinct chars and char range)</li>
+ * <li>the number of patterns</li>
+ * <li>the word size of bit parallel algorithms (64 positions)</li>
+ * </ul>
+ * The rules follow the experimental maps of Navarro/Raffinot (Flexible Pattern Matching in Strings): shift based algorithms
+ * for large alphabets, factor based algorithms for small alphabets and long patterns, automata for short patterns.
+ *
+ * Use {@link #select(String)} or {@link #select(Collection)} to get the reason for a selection.
+ */
+public class AlgorithmSelector implements StringSearchAlgorithmFactory, MultiStringSearchAlgorithmFactory {
+
+	private static final int WORD_SIZE = 64;
+	private static final int SHORT_PATTERN = 2;
+	private static final int SMALL_ALPHABET = 8;
+	private static final int FEW_PATTERNS = 8;
+	private static final int LONG_PATTERN = 16;
+	private static final int MANY_PATTERNS = 10000;
+
+	@Override
+	public StringSearchAlgorithm of(String pattern) {
+		return select(pattern).getAlgorithm();
+	}
+
+	@Override
+	public StringSearchAlgorithm of(Collection<String> patterns) {
+		return select(patterns).getAlgorithm();
+	}
+
+	/**
+	 * @param pattern the pattern to search
+	 * @return the selected algorithm (and the reason for selecting it)
+	 */
+	public Selection select(String pattern) {
+		char[] chars = pattern.toCharArray();
+		int length = chars.length;
+		int distinct = distinctChars(singletonList(chars));
+		if (length == 0) {
+			return new Selection(new BOM(pattern), "empty pattern: matches at each position, the factor oracle of BOM is trivial");
+		} else if (length <= SHORT_PATTERN) {
+			return new Selection(new ShiftOr(pattern), "pattern length " + length + " <= " + SHORT_PATTERN + ": no algorithm can skip, bit parallel scanning has the least overhead per char");
+		} else if (length > WORD_SIZE) {
+			return new Selection(new BOM(pattern), "pattern length " + length + " > " + WORD_SIZE + ": exceeds the word size of bit parallel algorithms, the factor oracle skips up to the pattern length");
+		} else if (distinct <= SMALL_ALPHABET) {
+			return new Selection(new BNDM(pattern), "small alphabet (" + distinct + " distinct chars): shifts on single chars are short, BNDM shifts on factors");
+		} else if (!Horspool.isCompactRange(chars)) {
+			return new Selection(new BNDM(pattern), "sparse char range (" + range(singletonList(chars)) + " chars): character tables are maps, BNDM needs less lookups per shift");
+		} else {
+			return new Selection(new Horspool(pattern), "large alphabet (" + distinct + " distinct chars) and pattern length " + length + ": shifts on single chars are long and cheap");
+		}
+	}
+
+	/**
+	 * @param patterns the patterns to search
+	 * @return the selected algorithm (and the reason for selecting it)
+	 * @throws IllegalArgumentException if no patterns are given
+	 */
+	public Selection select(Collection<String> patterns) {
+		if (patterns.isEmpty()) {
+			throw new IllegalArgumentException("expected at least one pattern, but found none");
+		}
+		List<char[]> charpatterns = toCharArray(patterns);
+		int count = charpatterns.size();
+		int minLength = minLength(charpatterns);
+		int maxLength = maxLength(charpatterns);
+		int distinct = distinctChars(charpatterns);
+		if (minLength <= SHORT_PATTERN) {
+			return new Selection(new AhoCorasick(patterns), "min pattern length " + minLength + " <= " + SHORT_PATTERN + ": no algorithm can skip, Aho-Corasick reads each char once");
+		} else if (maxLength > 2 * minLength && minLength < LONG_PATTERN / 2) {
+			return new Selection(new AhoCorasick(patterns), "pattern lengths " + minLength + ".." + maxLength + ": shifts are limited by the short patterns, verification by the long patterns");
+		} else if (count <= FEW_PATTERNS && maxLength <= WORD_SIZE && distinct <= SMALL_ALPHABET) {
+			return new Selection(new QGramShiftOr(patterns), count + " patterns of max length " + maxLength + " <= " + WORD_SIZE + " with small alphabet (" + distinct + " distinct chars): q-grams enlarge the alphabet, all patterns fit into one word");
+		} else if (count <= FEW_PATTERNS) {
+			return new Selection(new SetHorspool(patterns), count + " patterns with large alphabet (" + distinct + " distinct chars): shifts on single chars are long");
+		} else if (minLength >= LONG_PATTERN) {
+			return new Selection(new SetBackwardOracleMatching(patterns), count + " patterns of min length " + minLength + " >= " + LONG_PATTERN + ": the factor oracle skips up to the min pattern length");
+		} else if (count <= MANY_PATTERNS) {
+			return new Selection(new WuManber(patterns), count + " patterns of min length " + minLength + ": shifts on blocks of chars stay long for many patterns");
+		} else {
+			return new Selection(new AhoCorasick(patterns), count + " patterns > " + MANY_PATTERNS + ": shifts of skipping algorithms get short, Aho-Corasick reads each char once");
+		}
+	}
+
+	private static int distinctChars(List<char[]> patterns) {
+		BitSet chars = new BitSet();
+		for (char[] pattern : patterns) {
+			for (char c : pattern) {
+				chars.set(c);
+			}
+		}
+		return chars.cardinality();
+	}
+
+	private static int range(List<char[]> patterns) {
+		return computeMaxChar(patterns) - computeMinChar(patterns) + 1;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+	/**
+	 * The result of a selection: the selected algorithm and the reason for selecting it.
+	 */
+	public static class Selection {
+
+		private StringSearchAlgorithm algorithm;
+		private String reason;
+
+		public Selection(StringSearchAlgorithm algorithm, String reason) {
+			this.algorithm = algorithm;
+			this.reason = reason;
+		}
+
+		public StringSearchAlgorithm getAlgorithm() {
+			return algorithm;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			return algorithm.toString() + ": " + reason;
+		}
+
+	}
+
+}
@@ -5,10 +5,10 @@ import static java.util.Arrays.fill;
 
 import java.util.Arrays;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.map.CharLongMap;
 import net.amygdalum.util.text.CharAlphabet;
@@ -65,25 +65,32 @@ public class BNDM implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		if (states.supportsSingle()) {
+			new LongFinder(chars).search(sink);
+		} else {
+			new MultiLongFinder(chars).search(sink);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private abstract class Finder extends AbstractStringFinder {
+	private abstract class Finder extends SinglePatternFinder {
 
 		protected CharProvider chars;
 
 		public Finder(CharProvider chars, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.chars = chars;
 		}
 
-		protected StringMatch createMatch() {
-			long start = chars.current();
-			long end = start + patternLength;
-			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+		@Override
+		protected String text(long start, long end) {
+			return chars.slice(start, end);
 		}
 
 	}
@@ -111,7 +118,7 @@ public class BNDM implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!chars.finished(patternLength - 1)) {
 				state = activeStates;
 				int j = patternLength - 1;
@@ -124,9 +131,9 @@ public class BNDM implements StringSearchAlgorithm {
 						if (j > 0) {
 							last = j;
 						} else {
-							StringMatch createMatch = createMatch();
+							long start = chars.current();
 							chars.forward(last);
-							return createMatch;
+							return start;
 						}
 					}
 					j--;
@@ -134,7 +141,7 @@ public class BNDM implements StringSearchAlgorithm {
 				}
 				chars.forward(last);
 			}
-			return null;
+			return NO_MATCH;
 		}
 
 	}
@@ -147,10 +154,12 @@ public class BNDM implements StringSearchAlgorithm {
 		private long state;
 		private int segment;
 		private int[] patternLengths;
+		private int[] last;
 
 		public MultiLongFinder(CharProvider chars, StringFinderOption... options) {
 			super(chars, options);
 			this.patternLengths = computePatternLengths();
+			this.last = new int[patternLengths.length];
 			this.finalstate = computeFinalStates();
 			this.activeStates = computeActiveStates();
 			this.segment = 0;
@@ -192,12 +201,11 @@ public class BNDM implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!chars.finished(patternLength - 1)) {
 				segment = 0;
 				state = activeStates[segment];
 				int j = patternLengths[segment] - 1;
-				int[] last = new int[patternLengths.length];
 				System.arraycopy(patternLengths, 0, last, 0, patternLengths.length);
 				nextSegment: while (state != 0l) {
 					char currentChar = chars.lookahead(segment * 64 + j);
@@ -207,9 +215,9 @@ public class BNDM implements StringSearchAlgorithm {
 						if (j > 0) {
 							last[segment] = j;
 						} else if (segment == patternLengths.length - 1) {
-							StringMatch createMatch = createMatch();
+							long start = chars.current();
 							chars.forward(max(last, segment));
-							return createMatch;
+							return start;
 						} else {
 							segment++;
 							state = activeStates[segment];
@@ -222,7 +230,7 @@ public class BNDM implements StringSearchAlgorithm {
 				}
 				chars.forward(max(last, segment));
 			}
-			return null;
+			return NO_MATCH;
 		}
 
 		private int max(int[] values, int last) {
@@ -11,10 +11,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.text.CharAutomaton;
 import net.amygdalum.util.text.CharConnectionAdaptor;
@@ -71,6 +71,11 @@ public class BOM implements StringSearchAlgorithm {
 		return new Finder(trie, patternLength, chars, options);
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new Finder(trie, patternLength, chars).search(sink);
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
@@ -164,14 +169,14 @@ public class BOM implements StringSearchAlgorithm {
 
 	}
 
-	private static class Finder extends AbstractStringFinder {
+	private static class Finder extends SinglePatternFinder {
 
 		private final int lookahead;
 		private CharProvider chars;
 		private CharAutomaton<char[]> cursor;
 
 		public Finder(CharWordSet<char[]> trie, int patternLength, CharProvider chars, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.lookahead = patternLength - 1;
 			this.chars = chars;
 			this.cursor = trie.cursor();
@@ -185,7 +190,7 @@ public class BOM implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!chars.finished(lookahead)) {
 				cursor.reset();
 				int j = lookahead;
@@ -195,13 +200,9 @@ public class BOM implements StringSearchAlgorithm {
 					j--;
 				}
 				if (success && j < 0) {
-					char[] pattern = cursor.iterator().next();
 					long start = chars.current();
-					long end = start + pattern.length;
-					StringMatch match = createMatch(start, end);
-
 					chars.next();
-					return match;
+					return start;
 				}
 				if (j <= 0) {
 					chars.next();
@@ -209,12 +210,12 @@ public class BOM implements StringSearchAlgorithm {
 					chars.forward(j + 2);
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
-		private StringMatch createMatch(long start, long end) {
-			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+		@Override
+		protected String text(long start, long end) {
+			return chars.slice(start, end);
 		}
 
 	}
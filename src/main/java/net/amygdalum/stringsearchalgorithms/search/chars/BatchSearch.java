@@ -0,0 +1,105 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static net.amygdalum.stringsearchalgorithms.search.BatchedSearch.DEFAULT_PENDING_BATCHES;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import net.amygdalum.stringsearchalgorithms.search.BatchedSearch;
+import net.amygdalum.stringsearchalgorithms.search.BatchedSearch.DocumentFinders;
+import net.amygdalum.stringsearchalgorithms.search.BatchedSearch.DocumentSink;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
+
+/**
+ * Searches many documents with one StringSearchAlgorithm in parallel.
+ *
+ * The documents are searched in batches on an Executor (see {@link BatchedSearch}). The compiled algorithm (tries, shift tables, ...) is
+ * shared read-only by all threads, only the finders are created per document.
+ */
+public class BatchSearch {
+
+	private static final int DEFAULT_BATCH_SIZE = 256;
+
+	private StringSearchAlgorithm algorithm;
+	private Executor executor;
+	private int batchSize;
+	private int maxPendingBatches;
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param executor the executor to search the batches on
+	 */
+	public BatchSearch(StringSearchAlgorithm algorithm, Executor executor) {
+		this(algorithm, executor, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param executor the executor to search the batches on
+	 * @param batchSize the number of documents searched by one task
+	 */
+	public BatchSearch(StringSearchAlgorithm algorithm, Executor executor, int batchSize) {
+		this(algorithm, executor, batchSize, DEFAULT_PENDING_BATCHES);
+	}
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param executor the executor to search the batches on
+	 * @param batchSize the number of documents searched by one task
+	 * @param maxPendingBatches the maximum number of batches searched (or waiting to be searched) at the same time
+	 */
+	public BatchSearch(StringSearchAlgorithm algorithm, Executor executor, int batchSize, int maxPendingBatches) {
+		this.algorithm = algorithm;
+		this.executor = executor;
+		this.batchSize = batchSize;
+		this.maxPendingBatches = maxPendingBatches;
+	}
+
+	/**
+	 * @param documents the documents to search
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return the matches of each document (in the order of the documents)
+	 */
+	public List<List<StringMatch>> findAll(Iterable<String> documents, StringFinderOption... options) {
+		return findAll(documents.iterator(), options);
+	}
+
+	/**
+	 * @param documents the documents to search (consumed in the calling thread)
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return the matches of each document (in the order of the documents)
+	 */
+	public List<List<StringMatch>> findAll(Iterator<String> documents, StringFinderOption... options) {
+		return search(options).search(documents, executor);
+	}
+
+	/**
+	 * searches the documents without keeping them in memory (only the pending batches are kept)
+	 *
+	 * @param documents the documents to search (consumed in the calling thread)
+	 * @param sink the sink to report the matches of each document to (in the order of the documents)
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 */
+	public void findAll(Iterator<String> documents, DocumentSink<String> sink, StringFinderOption... options) {
+		search(options).search(documents, executor, sink);
+	}
+
+	private BatchedSearch<String> search(final StringFinderOption... options) {
+		return new BatchedSearch<>(new DocumentFinders<String>() {
+			@Override
+			public StringFinder createFinder(String document) {
+				return algorithm.createFinder(new StringCharProvider(document, 0), options);
+			}
+		}, batchSize, maxPendingBatches);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "<" + algorithm.toString() + ">";
+	}
+
+}
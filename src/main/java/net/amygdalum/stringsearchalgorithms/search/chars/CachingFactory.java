@@ -0,0 +1,81 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * A factory caching the algorithms compiled by another factory, so searching the same pattern again does not compile the pattern again
+ * (for multiple patterns see {@link CachingMultiFactory}).
+ *
+ * Algorithms are cached by the pattern, the options of the algorithms are the options of the wrapped factory (use one CachingFactory per
+ * wrapped factory). The cache is limited by the estimated size of the compiled algorithms (see {@link SizeEstimator}): if the limit is
+ * exceeded, the least recently used algorithms are evicted. Lazily built automata (e.g. the DFA states of {@link
+ * net.amygdalum.stringsearchalgorithms.patternsearch.chars.BPGlushkov}) are cached by the finders, not by the algorithm, so they are not
+ * part of the estimated size.
+ *
+ * A CachingFactory may be used by multiple threads. Cached algorithms are shared by all callers, so the wrapped factory must compile
+ * algorithms that are not modified after compilation (finders are created per search and are not shared).
+ */
+public class CachingFactory implements StringSearchAlgorithmFactory {
+
+	private StringSearchAlgorithmFactory factory;
+	private AlgorithmCache cache;
+
+	/**
+	 * @param factory the factory compiling the algorithms
+	 * @param maxSize the maximum estimated size (in bytes) of all cached algorithms
+	 */
+	public CachingFactory(StringSearchAlgorithmFactory factory, long maxSize) {
+		this(factory, maxSize, SizeEstimator.DEFAULT);
+	}
+
+	/**
+	 * @param factory the factory compiling the algorithms
+	 * @param maxSize the maximum estimated size (in bytes) of all cached algorithms
+	 * @param estimator the estimator for the size of the compiled algorithms
+	 */
+	public CachingFactory(StringSearchAlgorithmFactory factory, long maxSize, SizeEstimator estimator) {
+		this.factory = factory;
+		this.cache = new AlgorithmCache(maxSize, estimator);
+	}
+
+	@Override
+	public StringSearchAlgorithm of(String pattern) {
+		StringSearchAlgorithm algorithm = cache.lookup(pattern);
+		if (algorithm == null) {
+			algorithm = factory.of(pattern);
+			algorithm = cache.store(pattern, algorithm, singletonList(pattern));
+		}
+		return algorithm;
+	}
+
+	/**
+	 * @return the number of requests served from the cache
+	 */
+	public long hits() {
+		return cache.hits();
+	}
+
+	/**
+	 * @return the number of requests that compiled a new algorithm
+	 */
+	public long misses() {
+		return cache.misses();
+	}
+
+	/**
+	 * @return the estimated size of all cached algorithms
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+}
@@ -0,0 +1,86 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A factory caching the algorithms compiled by another factory, so searching the same list of patterns again does not compile the patterns
+ * again (for single patterns see {@link CachingFactory}).
+ *
+ * Algorithms are cached by the list of patterns (the order of patterns matters, since matches report the index of the pattern), the
+ * options of the algorithms are the options of the wrapped factory. The cache is limited by the estimated size of the compiled
+ * algorithms (see {@link SizeEstimator}): if the limit is exceeded, the least recently used algorithms are evicted.
+ *
+ * A CachingMultiFactory may be used by multiple threads. Cached algorithms are shared by all callers, so the wrapped factory must compile
+ * algorithms that are not modified after compilation. Factories of mutable algorithms (e.g. {@link DynamicAhoCorasick}) are rejected.
+ */
+public class CachingMultiFactory implements MultiStringSearchAlgorithmFactory {
+
+	private MultiStringSearchAlgorithmFactory factory;
+	private AlgorithmCache cache;
+
+	/**
+	 * @param factory the factory compiling the algorithms
+	 * @param maxSize the maximum estimated size (in bytes) of all cached algorithms
+	 */
+	public CachingMultiFactory(MultiStringSearchAlgorithmFactory factory, long maxSize) {
+		this(factory, maxSize, SizeEstimator.DEFAULT);
+	}
+
+	/**
+	 * @param factory the factory compiling the algorithms
+	 * @param maxSize the maximum estimated size (in bytes) of all cached algorithms
+	 * @param estimator the estimator for the size of the compiled algorithms
+	 * @throws IllegalArgumentException if the factory compiles mutable algorithms
+	 */
+	public CachingMultiFactory(MultiStringSearchAlgorithmFactory factory, long maxSize, SizeEstimator estimator) {
+		if (factory instanceof DynamicAhoCorasick.Factory) {
+			throw new IllegalArgumentException("cannot cache mutable algorithms of " + factory.getClass().getName());
+		}
+		this.factory = factory;
+		this.cache = new AlgorithmCache(maxSize, estimator);
+	}
+
+	@Override
+	public StringSearchAlgorithm of(Collection<String> patterns) {
+		List<String> key = new ArrayList<>(patterns);
+		StringSearchAlgorithm algorithm = cache.lookup(key);
+		if (algorithm == null) {
+			algorithm = factory.of(key);
+			algorithm = cache.store(key, algorithm, key);
+		}
+		return algorithm;
+	}
+
+	/**
+	 * @return the number of requests served from the cache
+	 */
+	public long hits() {
+		return cache.hits();
+	}
+
+	/**
+	 * @return the number of requests that compiled a new algorithm
+	 */
+	public long misses() {
+		return cache.misses();
+	}
+
+	/**
+	 * @return the estimated size of all cached algorithms
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+}
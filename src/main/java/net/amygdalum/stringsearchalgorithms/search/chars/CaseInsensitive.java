@@ -2,13 +2,18 @@ package net.amygdalum.stringsearchalgorithms.search.chars;
 
 import static java.lang.Character.toLowerCase;
 import static java.lang.Character.toUpperCase;
+import static java.util.Arrays.copyOf;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CaseInsensitiveCharProvider;
 import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.text.CharMapping;
@@ -38,10 +43,16 @@ public class CaseInsensitive implements StringSearchAlgorithm, StringSearchAlgor
 	};
 
 	private StringSearchAlgorithm algorithm;
+	private int[] patterns;
 
 	private CaseInsensitive(StringSearchAlgorithm algorithm) {
 		this.algorithm = algorithm;
 	}
+
+	private CaseInsensitive(StringSearchAlgorithm algorithm, int[] patterns) {
+		this.algorithm = algorithm;
+		this.patterns = patterns;
+	}
 	
 	@Override
 	public StringSearchAlgorithm getAlgorithm() {
@@ -68,7 +79,21 @@ public class CaseInsensitive implements StringSearchAlgorithm, StringSearchAlgor
 
 	@Override
 	public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
-		return algorithm.createFinder(new CaseInsensitiveCharProvider(chars), options);
+		StringFinder finder = algorithm.createFinder(new CaseInsensitiveCharProvider(chars), options);
+		if (patterns == null) {
+			return finder;
+		} else {
+			return new PatternMappingFinder(patterns, finder);
+		}
+	}
+
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		if (patterns == null) {
+			algorithm.search(new CaseInsensitiveCharProvider(chars), sink);
+		} else {
+			algorithm.search(new CaseInsensitiveCharProvider(chars), new PatternMapping(patterns, sink));
+		}
 	}
 
 	@Override
@@ -102,11 +127,76 @@ public class CaseInsensitive implements StringSearchAlgorithm, StringSearchAlgor
 
 		@Override
 		public StringSearchAlgorithm of(Collection<String> patterns) {
-			Set<String> lc = new LinkedHashSet<>();
+			Map<String, Integer> lc = new LinkedHashMap<>();
+			int[] indexes = new int[patterns.size()];
+			int index = 0;
 			for (String pattern : patterns) {
-				lc.add(pattern.toLowerCase());
+				String lcPattern = pattern.toLowerCase();
+				Integer lcIndex = lc.get(lcPattern);
+				if (lcIndex == null) {
+					lcIndex = lc.size();
+					lc.put(lcPattern, lcIndex);
+				}
+				indexes[lcIndex] = index;
+				index++;
 			}
-			return new CaseInsensitive(factory.of(lc));
+			return new CaseInsensitive(factory.of(lc.keySet()), copyOf(indexes, lc.size()));
+		}
+
+	}
+
+	private static class PatternMappingFinder implements StringFinder {
+
+		private int[] patterns;
+		private StringFinder finder;
+
+		public PatternMappingFinder(int[] patterns, StringFinder finder) {
+			this.patterns = patterns;
+			this.finder = finder;
+		}
+
+		@Override
+		public StringMatch findNext() {
+			StringMatch match = finder.findNext();
+			if (match == null) {
+				return null;
+			}
+			return map(match);
+		}
+
+		@Override
+		public List<StringMatch> findAll() {
+			List<StringMatch> matches = new ArrayList<>();
+			for (StringMatch match : finder.findAll()) {
+				matches.add(map(match));
+			}
+			return matches;
+		}
+
+		private StringMatch map(StringMatch match) {
+			return new StringMatch(match.start(), match.end(), match.text(), patterns[match.pattern()]);
+		}
+
+		@Override
+		public void skipTo(long pos) {
+			finder.skipTo(pos);
+		}
+
+	}
+
+	private static class PatternMapping implements MatchSink {
+
+		private int[] patterns;
+		private MatchSink sink;
+
+		public PatternMapping(int[] patterns, MatchSink sink) {
+			this.patterns = patterns;
+			this.sink = sink;
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			return sink.match(start, end, patterns[pattern]);
 		}
 
 	}
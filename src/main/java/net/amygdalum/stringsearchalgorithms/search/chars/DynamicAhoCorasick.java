@@ -0,0 +1,693 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Collections.emptySet;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.CharProvider;
+
+/**
+ * An implementation of the Aho-Corasick Algorithm for a dictionary of patterns that changes over time.
+ *
+ * Patterns can be added ({@link #add(String)}) and removed ({@link #remove(String)}) without rebuilding the automaton: only the states
+ * on the path of the pattern and the states whose fallback or output links pass through this path are updated.
+ *
+ * Each change publishes a new read-only snapshot of the automaton. Finders created by this algorithm switch to the latest snapshot
+ * whenever they are not inside a partial match, finders created by a snapshot (see {@link #snapshot()}) never change. Snapshots share
+ * all unchanged states (in blocks of 256 states), so publishing costs about the size of the change.
+ *
+ * Changes must be made by one thread, finders and snapshots may be used by any number of other threads.
+ */
+public class DynamicAhoCorasick implements StringSearchAlgorithm {
+
+	private static final int NONE = 0;
+	private static final int ROOT = 1;
+	private static final int NO_PATTERN = -1;
+	private static final int CHUNK_BITS = 8;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private Map<String, Integer> ids;
+	private TreeMap<Integer, Integer> lengths;
+	private int nextId;
+
+	private State[][] chunks;
+	private int[] chunkGenerations;
+	private boolean chunksShared;
+	private int generation;
+	private int size;
+	private int[] free;
+	private int freeCount;
+	private List<Set<Integer>> referrers;
+
+	private volatile Snapshot snapshot;
+
+	public DynamicAhoCorasick() {
+		this.ids = new HashMap<>();
+		this.lengths = new TreeMap<>();
+		this.chunks = new State[1][CHUNK_SIZE];
+		this.chunkGenerations = new int[1];
+		this.size = ROOT;
+		this.free = new int[16];
+		this.referrers = new ArrayList<>();
+		this.referrers.add(null);
+		allocate(0);
+		publish();
+	}
+
+	/**
+	 * @param patterns the initial patterns (the index of a pattern is its position in this collection)
+	 */
+	public DynamicAhoCorasick(Collection<String> patterns) {
+		this();
+		addAll(patterns);
+	}
+
+	/**
+	 * adds a pattern and publishes the changed automaton
+	 *
+	 * @param pattern the pattern to add
+	 * @return the index of the pattern (as reported to a {@link MatchSink}), the old index if the pattern was already added
+	 */
+	public int add(String pattern) {
+		int id = insert(pattern, nextId++);
+		publish();
+		return id;
+	}
+
+	/**
+	 * adds all patterns and publishes the changed automaton once
+	 *
+	 * @param patterns the patterns to add (indexes are assigned in the order of this collection)
+	 */
+	public void addAll(Collection<String> patterns) {
+		for (String pattern : patterns) {
+			insert(pattern, nextId++);
+		}
+		publish();
+	}
+
+	/**
+	 * removes a pattern and publishes the changed automaton
+	 *
+	 * @param pattern the pattern to remove
+	 * @return true if the pattern was removed, false if it was not contained
+	 */
+	public boolean remove(String pattern) {
+		boolean removed = delete(pattern);
+		publish();
+		return removed;
+	}
+
+	/**
+	 * removes all patterns and publishes the changed automaton once
+	 *
+	 * @param patterns the patterns to remove
+	 */
+	public void removeAll(Collection<String> patterns) {
+		for (String pattern : patterns) {
+			delete(pattern);
+		}
+		publish();
+	}
+
+	public boolean contains(String pattern) {
+		return ids.containsKey(pattern);
+	}
+
+	/**
+	 * @return the latest published automaton, it will not change if patterns are added or removed later on
+	 */
+	public StringSearchAlgorithm snapshot() {
+		return snapshot;
+	}
+
+	private int insert(String pattern, int id) {
+		Integer existing = ids.get(pattern);
+		if (existing != null) {
+			return existing;
+		}
+		ids.put(pattern, id);
+		count(pattern.length(), 1);
+		int current = ROOT;
+		for (char c : pattern.toCharArray()) {
+			int next = state(current).next(c);
+			if (next == NONE) {
+				next = createChild(current, c);
+			}
+			current = next;
+		}
+		writable(current).pattern = id;
+		updateOutputs(current);
+		return id;
+	}
+
+	private boolean delete(String pattern) {
+		Integer id = ids.remove(pattern);
+		if (id == null) {
+			return false;
+		}
+		count(pattern.length(), -1);
+		char[] chars = pattern.toCharArray();
+		int[] path = new int[chars.length + 1];
+		path[0] = ROOT;
+		for (int i = 0; i < chars.length; i++) {
+			path[i + 1] = state(path[i]).next(chars[i]);
+		}
+		int node = path[chars.length];
+		writable(node).pattern = NO_PATTERN;
+		updateOutputs(node);
+		for (int i = chars.length; i > 0 && state(path[i]).isUnused(); i--) {
+			removeChild(path[i - 1], chars[i - 1], path[i]);
+		}
+		return true;
+	}
+
+	private void count(int length, int delta) {
+		Integer count = lengths.get(length);
+		int newCount = (count == null ? 0 : count) + delta;
+		if (newCount == 0) {
+			lengths.remove(length);
+		} else {
+			lengths.put(length, newCount);
+		}
+	}
+
+	private int createChild(int parent, char c) {
+		int child = allocate(state(parent).depth + 1);
+		int fallback = computeFallback(parent, c);
+		writable(parent).addChild(c, child);
+		link(child, fallback);
+		relinkReferrers(parent, c, child);
+		return child;
+	}
+
+	private int computeFallback(int parent, char c) {
+		for (int down = state(parent).fallback; down != NONE; down = state(down).fallback) {
+			int next = state(down).next(c);
+			if (next != NONE) {
+				return next;
+			}
+		}
+		return ROOT;
+	}
+
+	private void relinkReferrers(int parent, char c, int child) {
+		int depth = state(child).depth;
+		Deque<Integer> todo = new ArrayDeque<>(referrersOf(parent));
+		while (!todo.isEmpty()) {
+			int referrer = todo.pop();
+			int next = state(referrer).next(c);
+			if (next == NONE) {
+				todo.addAll(referrersOf(referrer));
+			} else if (state(state(next).fallback).depth < depth) {
+				link(next, child);
+			}
+		}
+	}
+
+	private void removeChild(int parent, char c, int node) {
+		int fallback = state(node).fallback;
+		writable(parent).removeChild(c);
+		referrersOf(fallback).remove(node);
+		for (int referrer : new ArrayList<>(referrersOf(node))) {
+			link(referrer, fallback);
+		}
+		release(node);
+	}
+
+	private void link(int node, int fallback) {
+		State state = writable(node);
+		if (state.fallback != NONE) {
+			referrersOf(state.fallback).remove(node);
+		}
+		state.fallback = fallback;
+		Set<Integer> fallbackReferrers = referrers.get(fallback);
+		if (fallbackReferrers == null) {
+			fallbackReferrers = new HashSet<>();
+			referrers.set(fallback, fallbackReferrers);
+		}
+		fallbackReferrers.add(node);
+		updateOutput(node);
+	}
+
+	private void updateOutput(int node) {
+		State state = state(node);
+		State fallback = state(state.fallback);
+		int output = fallback.pattern != NO_PATTERN ? state.fallback : fallback.output;
+		if (output != state.output) {
+			writable(node).output = output;
+			updateOutputs(node);
+		}
+	}
+
+	private void updateOutputs(int node) {
+		for (int referrer : referrersOf(node)) {
+			updateOutput(referrer);
+		}
+	}
+
+	private Set<Integer> referrersOf(int node) {
+		Set<Integer> nodeReferrers = referrers.get(node);
+		if (nodeReferrers == null) {
+			return emptySet();
+		}
+		return nodeReferrers;
+	}
+
+	private int allocate(int depth) {
+		int id;
+		if (freeCount > 0) {
+			freeCount--;
+			id = free[freeCount];
+		} else {
+			id = size;
+			size++;
+			referrers.add(null);
+		}
+		int chunk = id >>> CHUNK_BITS;
+		if (chunk >= chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunks.length * 2);
+			chunkGenerations = Arrays.copyOf(chunkGenerations, chunks.length);
+			chunksShared = false;
+			chunks[chunk] = new State[CHUNK_SIZE];
+			chunkGenerations[chunk] = generation;
+		}
+		writableChunk(chunk)[id & CHUNK_MASK] = new State(generation, depth);
+		return id;
+	}
+
+	private void release(int node) {
+		writableChunk(node >>> CHUNK_BITS)[node & CHUNK_MASK] = null;
+		referrers.set(node, null);
+		if (freeCount == free.length) {
+			free = Arrays.copyOf(free, free.length * 2);
+		}
+		free[freeCount] = node;
+		freeCount++;
+	}
+
+	private State state(int id) {
+		return chunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+	}
+
+	private State writable(int id) {
+		State[] chunk = writableChunk(id >>> CHUNK_BITS);
+		State state = chunk[id & CHUNK_MASK];
+		if (state.generation != generation) {
+			state = state.copy(generation);
+			chunk[id & CHUNK_MASK] = state;
+		}
+		return state;
+	}
+
+	private State[] writableChunk(int index) {
+		if (chunksShared) {
+			chunks = chunks.clone();
+			chunksShared = false;
+		}
+		if (chunks[index] == null) {
+			chunks[index] = new State[CHUNK_SIZE];
+			chunkGenerations[index] = generation;
+		} else if (chunkGenerations[index] != generation) {
+			chunks[index] = chunks[index].clone();
+			chunkGenerations[index] = generation;
+		}
+		return chunks[index];
+	}
+
+	private void publish() {
+		int minLength = lengths.isEmpty() ? 0 : lengths.firstKey();
+		snapshot = new Snapshot(chunks, minLength);
+		chunksShared = true;
+		generation++;
+	}
+
+	@Override
+	public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
+		if (LONGEST_MATCH.in(options)) {
+			return new LongestMatchFinder(this, snapshot, chars, options);
+		} else {
+			return new NextMatchFinder(this, snapshot, chars, options);
+		}
+	}
+
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new NextMatchFinder(null, snapshot, chars).search(sink);
+	}
+
+	@Override
+	public int getPatternLength() {
+		return snapshot.getPatternLength();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+
+	private static class State {
+
+		private static final char[] NO_LABELS = new char[0];
+		private static final int[] NO_TARGETS = new int[0];
+
+		public int generation;
+		public int depth;
+		public int pattern;
+		public int fallback;
+		public int output;
+		public char[] labels;
+		public int[] targets;
+
+		public State(int generation, int depth) {
+			this.generation = generation;
+			this.depth = depth;
+			this.pattern = NO_PATTERN;
+			this.labels = NO_LABELS;
+			this.targets = NO_TARGETS;
+		}
+
+		public State copy(int generation) {
+			State state = new State(generation, depth);
+			state.pattern = pattern;
+			state.fallback = fallback;
+			state.output = output;
+			state.labels = labels;
+			state.targets = targets;
+			return state;
+		}
+
+		public int next(char c) {
+			int index = Arrays.binarySearch(labels, c);
+			if (index < 0) {
+				return NONE;
+			}
+			return targets[index];
+		}
+
+		public boolean hasOutput() {
+			return pattern != NO_PATTERN || output != NONE;
+		}
+
+		public boolean isUnused() {
+			return pattern == NO_PATTERN && labels.length == 0;
+		}
+
+		public void addChild(char c, int target) {
+			int index = -Arrays.binarySearch(labels, c) - 1;
+			char[] newLabels = new char[labels.length + 1];
+			int[] newTargets = new int[targets.length + 1];
+			System.arraycopy(labels, 0, newLabels, 0, index);
+			System.arraycopy(targets, 0, newTargets, 0, index);
+			newLabels[index] = c;
+			newTargets[index] = target;
+			System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+			System.arraycopy(targets, index, newTargets, index + 1, targets.length - index);
+			labels = newLabels;
+			targets = newTargets;
+		}
+
+		public void removeChild(char c) {
+			int index = Arrays.binarySearch(labels, c);
+			char[] newLabels = new char[labels.length - 1];
+			int[] newTargets = new int[targets.length - 1];
+			System.arraycopy(labels, 0, newLabels, 0, index);
+			System.arraycopy(targets, 0, newTargets, 0, index);
+			System.arraycopy(labels, index + 1, newLabels, index, newLabels.length - index);
+			System.arraycopy(targets, index + 1, newTargets, index, newTargets.length - index);
+			labels = newLabels;
+			targets = newTargets;
+		}
+
+	}
+
+	private static class Snapshot implements StringSearchAlgorithm {
+
+		private State[][] chunks;
+		private int minLength;
+
+		public Snapshot(State[][] chunks, int minLength) {
+			this.chunks = chunks;
+			this.minLength = minLength;
+		}
+
+		public State state(int id) {
+			return chunks[id >>> CHUNK_BITS][id & CHUNK_MASK];
+		}
+
+		public int accept(int state, char c) {
+			int current = state;
+			while (current != NONE) {
+				State currentState = state(current);
+				int next = currentState.next(c);
+				if (next != NONE) {
+					return next;
+				}
+				current = currentState.fallback;
+			}
+			return ROOT;
+		}
+
+		@Override
+		public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
+			if (LONGEST_MATCH.in(options)) {
+				return new LongestMatchFinder(null, this, chars, options);
+			} else {
+				return new NextMatchFinder(null, this, chars, options);
+			}
+		}
+
+		@Override
+		public void search(CharProvider chars, MatchSink sink) {
+			new NextMatchFinder(null, this, chars).search(sink);
+		}
+
+		@Override
+		public int getPatternLength() {
+			return minLength;
+		}
+
+		@Override
+		public String toString() {
+			return DynamicAhoCorasick.class.getSimpleName();
+		}
+
+	}
+
+	private static abstract class Finder extends BufferedStringFinder implements MatchSink {
+
+		private DynamicAhoCorasick source;
+		protected Snapshot snapshot;
+		protected CharProvider chars;
+		protected int state;
+
+		public Finder(DynamicAhoCorasick source, Snapshot snapshot, CharProvider chars, StringFinderOption... options) {
+			super(options);
+			this.source = source;
+			this.snapshot = snapshot;
+			this.chars = chars;
+			this.state = ROOT;
+		}
+
+		@Override
+		public void skipTo(long pos) {
+			if (pos > chars.current()) {
+				chars.move(pos);
+			}
+			reset();
+			clear();
+		}
+
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
+		protected void reset() {
+			state = ROOT;
+			refresh();
+		}
+
+		protected boolean lookahead(char c) {
+			return snapshot.state(state).next(c) != NONE;
+		}
+
+		protected void accept(char c) {
+			state = snapshot.accept(state, c);
+			if (state == ROOT) {
+				refresh();
+			}
+		}
+
+		private void refresh() {
+			if (source != null) {
+				snapshot = source.snapshot;
+			}
+		}
+
+		protected boolean hasOutput() {
+			return snapshot.state(state).hasOutput();
+		}
+
+		public void search(MatchSink sink) {
+			while (!chars.finished()) {
+				accept(chars.next());
+				if (hasOutput() && !reportMatches(chars.current(), sink)) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * reports all matches of the current state (ending at the given position) to the given sink
+		 * 
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		protected boolean reportMatches(long end, MatchSink sink) {
+			State current = snapshot.state(state);
+			int output = current.pattern != NO_PATTERN ? state : current.output;
+			while (output != NONE) {
+				State outputState = snapshot.state(output);
+				if (!sink.match(end - outputState.depth, end, outputState.pattern)) {
+					return false;
+				}
+				output = outputState.output;
+			}
+			return true;
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			push(createMatch(start, end, pattern));
+			return true;
+		}
+
+		protected StringMatch createLeftMostMatch(long end) {
+			State current = snapshot.state(state);
+			State outputState = snapshot.state(current.pattern != NO_PATTERN ? state : current.output);
+			reset();
+			return createMatch(end - outputState.depth, end, outputState.pattern);
+		}
+
+		protected StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
+			String s = chars.slice(start, end);
+			return new StringMatch(start, end, s, pattern);
+		}
+
+	}
+
+	private static class NextMatchFinder extends Finder {
+
+		public NextMatchFinder(DynamicAhoCorasick source, Snapshot snapshot, CharProvider chars, StringFinderOption... options) {
+			super(source, snapshot, chars, options);
+		}
+
+		@Override
+		public StringMatch findNext() {
+			if (!isBufferEmpty()) {
+				return leftMost();
+			}
+			while (!chars.finished()) {
+				accept(chars.next());
+				if (hasOutput()) {
+					if (nonOverlapping()) {
+						return createLeftMostMatch(chars.current());
+					}
+					reportMatches(chars.current(), this);
+					return leftMost();
+				}
+			}
+			return null;
+		}
+	}
+
+	private static class LongestMatchFinder extends Finder {
+
+		public LongestMatchFinder(DynamicAhoCorasick source, Snapshot snapshot, CharProvider chars, StringFinderOption... options) {
+			super(source, snapshot, chars, options);
+		}
+
+		@Override
+		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				return findNextNonOverlapping();
+			}
+			while (!chars.finished()) {
+				char c = chars.next();
+				if (!lookahead(c) && !isBufferEmpty()) {
+					chars.prev();
+					break;
+				}
+				accept(c);
+				if (hasOutput()) {
+					reportMatches(chars.current(), this);
+				}
+			}
+			return longestLeftMost();
+		}
+
+		private StringMatch findNextNonOverlapping() {
+			int leftMost = NO_PATTERN;
+			long start = -1;
+			long end = -1;
+			while (!chars.finished()) {
+				char c = chars.next();
+				accept(c);
+				long current = chars.current();
+				if (leftMost != NO_PATTERN && current - snapshot.state(state).depth > start) {
+					break;
+				}
+				if (hasOutput()) {
+					State currentState = snapshot.state(state);
+					int output = currentState.pattern != NO_PATTERN ? state : currentState.output;
+					while (output != NONE) {
+						State outputState = snapshot.state(output);
+						long currentStart = current - outputState.depth;
+						if (leftMost == NO_PATTERN || currentStart < start || currentStart == start && current > end) {
+							leftMost = outputState.pattern;
+							start = currentStart;
+							end = current;
+						}
+						output = outputState.output;
+					}
+				}
+			}
+			if (leftMost == NO_PATTERN) {
+				return null;
+			}
+			chars.move(end);
+			reset();
+			return createMatch(start, end, leftMost);
+		}
+
+	}
+
+	public static class Factory implements MultiStringSearchAlgorithmFactory {
+
+		@Override
+		public StringSearchAlgorithm of(Collection<String> patterns) {
+			return new DynamicAhoCorasick(patterns);
+		}
+
+	}
+}
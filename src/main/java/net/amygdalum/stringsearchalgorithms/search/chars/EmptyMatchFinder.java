@@ -11,12 +11,24 @@ import net.amygdalum.util.io.CharProvider;
 public class EmptyMatchFinder extends BufferedStringFinder {
 
 	private StringFinder finder;
+	private int pattern;
 	private CharProvider chars;
 	private boolean longest;
 
 	public EmptyMatchFinder(StringFinder finder, CharProvider chars, StringFinderOption... options) {
+		this(finder, 0, chars, options);
+	}
+
+	/**
+	 * @param finder the finder for non-empty matches
+	 * @param pattern the pattern index of the empty matches
+	 * @param chars the chars to search
+	 * @param options the finder options
+	 */
+	public EmptyMatchFinder(StringFinder finder, int pattern, CharProvider chars, StringFinderOption... options) {
 		super(options);
 		this.finder = finder;
+		this.pattern = pattern;
 		this.chars = chars;
 		this.longest = LONGEST_MATCH.in(options);
 	}
@@ -29,11 +41,11 @@ public class EmptyMatchFinder extends BufferedStringFinder {
 			if (next != null) {
 				push(next);
 				for (long pos = start; pos < next.start(); pos++) {
-					push(new StringMatch(pos, pos, ""));
+					push(new StringMatch(pos, pos, "", pattern));
 				}
 			} else {
 				for (long pos = start; pos < chars.current(); pos++) {
-					push(new StringMatch(pos, pos, ""));
+					push(new StringMatch(pos, pos, "", pattern));
 				}
 			}
 		}
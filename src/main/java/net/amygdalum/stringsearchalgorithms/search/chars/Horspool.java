@@ -3,10 +3,10 @@ package net.amygdalum.stringsearchalgorithms.search.chars;
 import static net.amygdalum.util.text.CharUtils.computeMaxChar;
 import static net.amygdalum.util.text.CharUtils.computeMinChar;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.map.CharIntMap;
 
@@ -57,17 +57,22 @@ public class Horspool implements StringSearchAlgorithm {
 		return new Finder(chars, options);
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new Finder(chars).search(sink);
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private class Finder extends AbstractStringFinder {
+	private class Finder extends SinglePatternFinder {
 
 		private CharProvider chars;
 
 		public Finder(CharProvider chars, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.chars = chars;
 		}
 
@@ -79,7 +84,7 @@ public class Horspool implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			final int lookahead = patternLength - 1;
 			next: while (!chars.finished(lookahead)) {
 				int patternPointer = lookahead;
@@ -92,23 +97,19 @@ public class Horspool implements StringSearchAlgorithm {
 							continue next;
 						}
 					}
-					if (patternPointer == 0) {
-						StringMatch match = createMatch();
-						chars.forward(charShift.getShift(nextChar));
-						return match;
-					}
+					long start = chars.current();
+					chars.forward(charShift.getShift(nextChar));
+					return start;
 				} else {
 					chars.forward(charShift.getShift(nextChar));
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
-		private StringMatch createMatch() {
-			long start = chars.current();
-			long end = start + patternLength;
-			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+		@Override
+		protected String text(long start, long end) {
+			return chars.slice(start, end);
 		}
 	}
 
@@ -1,9 +1,9 @@
 package net.amygdalum.stringsearchalgorithms.search.chars;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
 
 /**
@@ -54,18 +54,23 @@ public class KnuthMorrisPratt implements StringSearchAlgorithm {
 		return new Finder(chars, options);
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new Finder(chars).search(sink);
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private class Finder extends AbstractStringFinder {
+	private class Finder extends SinglePatternFinder {
 
 		private CharProvider chars;
 		private int patternPointer;
 
 		public Finder(CharProvider chars, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.chars = chars;
 			this.patternPointer = 0;
 		}
@@ -79,7 +84,7 @@ public class KnuthMorrisPratt implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!chars.finished()) {
 				char nextChar = chars.next();
 				while (patternPointer > -1 && pattern[patternPointer] != nextChar) {
@@ -87,19 +92,16 @@ public class KnuthMorrisPratt implements StringSearchAlgorithm {
 				}
 				patternPointer++;
 				if (patternPointer >= patternLength) {
-					StringMatch match = createMatch();
 					patternPointer = next[patternPointer];
-					return match;
+					return chars.current() - patternLength;
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
-		private StringMatch createMatch() {
-			long end = chars.current();
-			long start = end - patternPointer;
-			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+		@Override
+		protected String text(long start, long end) {
+			return chars.slice(start, end);
 		}
 	}
 
@@ -2,6 +2,11 @@ package net.amygdalum.stringsearchalgorithms.search.chars;
 
 import java.util.Collection;
 
+/**
+ * A factory of multi string search algorithms. The finders of the created algorithms report the index of the matched pattern (in the
+ * order of the given patterns) with each match (see {@link net.amygdalum.stringsearchalgorithms.search.StringMatch#pattern()}), algorithms
+ * composed of multi string searches (e.g. factor based regex search) rely on this index.
+ */
 public interface MultiStringSearchAlgorithmFactory {
 
 	StringSearchAlgorithm of(Collection<String> patterns);
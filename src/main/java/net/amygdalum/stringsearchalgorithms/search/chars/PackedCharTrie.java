@@ -0,0 +1,385 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+import net.amygdalum.stringsearchalgorithms.io.TableReader;
+import net.amygdalum.stringsearchalgorithms.io.TableWriter;
+import net.amygdalum.util.text.CharAutomaton;
+import net.amygdalum.util.text.CharFallbackAdaptor;
+import net.amygdalum.util.text.CharNode;
+import net.amygdalum.util.text.CharWordGraphCompiler;
+import net.amygdalum.util.text.CharWordSet;
+import net.amygdalum.util.text.NodeResolver;
+import net.amygdalum.util.text.linkeddawg.CharGenericFallbackNode;
+
+/**
+ * A double array trie with int attachments (e.g. pattern indexes) and optional fallback links (e.g. computed by Aho-Corasick).
+ *
+ * All tables of this trie are primitive arrays, so it can be written to a binary format (see {@link #writeTo(TableWriter)}) and read
+ * without being compiled again (see {@link #readFrom(TableReader)}). Use {@link Compiler} to build a PackedCharTrie with a
+ * CharWordSetBuilder.
+ */
+public class PackedCharTrie implements CharWordSet<Integer> {
+
+	private static final int NONE = 0;
+	private static final int ROOT = 1;
+	private static final int LEAF = -1;
+	private static final int NO_ATTACHMENT = -1;
+
+	private int[] base;
+	private int[] check;
+	private int[] fallback;
+	private int[] attachments;
+
+	private PackedCharTrie(int[] base, int[] check, int[] fallback, int[] attachments) {
+		this.base = base;
+		this.check = check;
+		this.fallback = fallback;
+		this.attachments = attachments;
+	}
+
+	private static int key(char c) {
+		return c + 1;
+	}
+
+	/**
+	 * @param in the reader to read the tables from
+	 * @return the trie with the read tables
+	 */
+	public static PackedCharTrie readFrom(TableReader in) {
+		int[] base = in.readInts();
+		int[] check = in.readInts();
+		int[] fallback = in.readInts();
+		int[] attachments = in.readInts();
+		return new PackedCharTrie(base, check, fallback, attachments);
+	}
+
+	/**
+	 * @param out the writer to write the tables to
+	 * @throws IOException if writing fails
+	 */
+	public void writeTo(TableWriter out) throws IOException {
+		out.writeInts(base);
+		out.writeInts(check);
+		out.writeInts(fallback);
+		out.writeInts(attachments);
+	}
+
+	/**
+	 * @return the estimated size (in bytes) of the tables of this trie
+	 */
+	public long estimatedSize() {
+		return 4L * (base.length + check.length + fallback.length + attachments.length);
+	}
+
+	@Override
+	public CharAutomaton<Integer> cursor() {
+		return new Cursor();
+	}
+
+	@Override
+	public boolean contains(char[] chars) {
+		return find(chars) != null;
+	}
+
+	@Override
+	public Integer find(char[] chars) {
+		int state = ROOT;
+		for (char c : chars) {
+			state = next(state, c);
+			if (state == NONE) {
+				return null;
+			}
+		}
+		int attachment = attachments[state];
+		return attachment == NO_ATTACHMENT ? null : attachment;
+	}
+
+	private int next(int state, char c) {
+		int statebase = base[state];
+		if (statebase == LEAF) {
+			return NONE;
+		}
+		int next = statebase + key(c);
+		if (next >= check.length || check[next] != state) {
+			return NONE;
+		}
+		return next;
+	}
+
+	private class Cursor implements CharAutomaton<Integer> {
+
+		private int state;
+		private AttachmentIterator iterator;
+
+		public Cursor() {
+			this.state = ROOT;
+			this.iterator = new AttachmentIterator();
+		}
+
+		@Override
+		public Iterator<Integer> iterator() {
+			iterator.init(state);
+			return iterator;
+		}
+
+		@Override
+		public void reset() {
+			state = ROOT;
+		}
+
+		@Override
+		public boolean lookahead(char c) {
+			return next(state, c) != NONE;
+		}
+
+		@Override
+		public boolean accept(char c) {
+			int current = state;
+			while (current != NONE) {
+				int next = next(current, c);
+				if (next != NONE) {
+					state = next;
+					return true;
+				}
+				current = fallback[current];
+			}
+			reset();
+			return false;
+		}
+
+		@Override
+		public boolean hasAttachments() {
+			return attachments[state] != NO_ATTACHMENT;
+		}
+
+	}
+
+	private class AttachmentIterator implements Iterator<Integer> {
+
+		private int state;
+		private int last;
+
+		public void init(int state) {
+			this.state = state;
+			this.last = NO_ATTACHMENT;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (state != NONE) {
+				int attachment = attachments[state];
+				if (attachment != NO_ATTACHMENT && attachment != last) {
+					return true;
+				}
+				state = fallback[state];
+			}
+			return false;
+		}
+
+		@Override
+		public Integer next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			last = attachments[state];
+			state = fallback[state];
+			return last;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+	/**
+	 * Compiles the nodes of a CharWordSetBuilder to a PackedCharTrie (including the fallback links of the nodes).
+	 */
+	public static class Compiler implements CharWordGraphCompiler<Integer, PackedCharTrie> {
+
+		@Override
+		public CharNode<Integer> create() {
+			return new CharGenericFallbackNode<Integer>();
+		}
+
+		@Override
+		public PackedCharTrie build(CharNode<Integer> node) {
+			return new Packer().pack(node);
+		}
+
+		@Override
+		public NodeResolver<CharNode<Integer>> resolver() {
+			return new NodeResolver<CharNode<Integer>>() {
+
+				@Override
+				public void compile(CharNode<Integer> node) {
+				}
+
+				@Override
+				public void link(CharNode<Integer> node) {
+				}
+
+				@Override
+				public CharNode<Integer> resolve(CharNode<Integer> node) {
+					return node;
+				}
+
+			};
+		}
+
+	}
+
+	private static class Packer {
+
+		private static final int INITIAL_SIZE = 1024;
+
+		private int[] base;
+		private int[] check;
+		private int[] fallback;
+		private int[] attachments;
+		private int size;
+		private int nextCheck;
+
+		public Packer() {
+			this.base = new int[INITIAL_SIZE];
+			this.check = new int[INITIAL_SIZE];
+			this.fallback = new int[INITIAL_SIZE];
+			this.attachments = new int[INITIAL_SIZE];
+			fill(attachments, NO_ATTACHMENT);
+			this.size = ROOT + 1;
+			this.nextCheck = ROOT + 1;
+		}
+
+		public PackedCharTrie pack(CharNode<Integer> root) {
+			Map<CharNode<Integer>, Integer> states = new IdentityHashMap<>();
+			Queue<Assignment> todo = new LinkedList<>();
+			todo.add(new Assignment(ROOT, root));
+			while (!todo.isEmpty()) {
+				Assignment current = todo.remove();
+				int state = current.state;
+				CharNode<Integer> node = current.node;
+				states.put(node, state);
+				char[] alternatives = node.getAlternatives();
+				if (alternatives.length == 0) {
+					base[state] = LEAF;
+				} else {
+					int nodebase = freebase(alternatives);
+					base[state] = nodebase;
+					for (char c : alternatives) {
+						int next = nodebase + key(c);
+						check[next] = state;
+						size = Math.max(size, next + 1);
+						todo.add(new Assignment(next, node.nextNode(c)));
+					}
+				}
+				Integer attached = node.getAttached();
+				if (attached != null) {
+					attachments[state] = attached;
+				}
+			}
+			for (Map.Entry<CharNode<Integer>, Integer> entry : states.entrySet()) {
+				CharNode<Integer> fallbackNode = CharFallbackAdaptor.getFallback(entry.getKey());
+				if (fallbackNode != null) {
+					Integer fallbackState = states.get(fallbackNode);
+					fallback[entry.getValue()] = fallbackState == null ? NONE : fallbackState;
+				}
+			}
+			return new PackedCharTrie(copyOf(base, size), copyOf(check, size), copyOf(fallback, size), copyOf(attachments, size));
+		}
+
+		private int freebase(char[] alternatives) {
+			int minKey = key(min(alternatives));
+			int span = key(max(alternatives)) - minKey;
+			int candidate = Math.max(minKey + 1, nextCheck);
+			ensureCapacity(candidate);
+			while (check[candidate] != 0) {
+				candidate++;
+				ensureCapacity(candidate);
+			}
+			nextCheck = candidate;
+			int blocked = 0;
+			while (true) {
+				ensureCapacity(candidate + span);
+				if (check[candidate] != 0) {
+					blocked++;
+				} else if (fits(candidate - minKey, alternatives)) {
+					break;
+				}
+				candidate++;
+			}
+			int checked = candidate - nextCheck;
+			int free = checked - blocked;
+			if (checked >> 5 > free) {
+				nextCheck = candidate;
+			}
+			return candidate - minKey;
+		}
+
+		private boolean fits(int nodebase, char[] alternatives) {
+			for (char c : alternatives) {
+				if (check[nodebase + key(c)] != 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static char min(char[] chars) {
+			char min = Character.MAX_VALUE;
+			for (char c : chars) {
+				if (c < min) {
+					min = c;
+				}
+			}
+			return min;
+		}
+
+		private static char max(char[] chars) {
+			char max = Character.MIN_VALUE;
+			for (char c : chars) {
+				if (c > max) {
+					max = c;
+				}
+			}
+			return max;
+		}
+
+		private void ensureCapacity(int index) {
+			if (index < check.length) {
+				return;
+			}
+			int oldLength = check.length;
+			int newLength = Math.max(index + 1, oldLength * 2);
+			base = copyOf(base, newLength);
+			check = copyOf(check, newLength);
+			fallback = copyOf(fallback, newLength);
+			attachments = copyOf(attachments, newLength);
+			fill(attachments, oldLength, newLength, NO_ATTACHMENT);
+		}
+
+	}
+
+	private static class Assignment {
+
+		public int state;
+		public CharNode<Integer> node;
+
+		public Assignment(int state, CharNode<Integer> node) {
+			this.state = state;
+			this.node = node;
+		}
+
+	}
+
+}
@@ -0,0 +1,61 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import net.amygdalum.stringsearchalgorithms.io.BoundedCharProvider;
+import net.amygdalum.stringsearchalgorithms.search.ChunkedSearch;
+import net.amygdalum.stringsearchalgorithms.search.ChunkedSearch.ChunkFinders;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
+
+/**
+ * Searches a single (large) document in parallel with any StringSearchAlgorithm.
+ *
+ * The document is split into overlapping chunks which are searched on a ForkJoinPool, the results are stitched in order
+ * (see {@link ChunkedSearch}). The result contains the same matches as a sequential search (ordered by start and end).
+ */
+public class ParallelSearch {
+
+	private StringSearchAlgorithm algorithm;
+	private int maxPatternLength;
+	private ForkJoinPool pool;
+	private int chunks;
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param maxPatternLength the maximum length of a match (chunks will overlap by maxPatternLength - 1)
+	 * @param pool the pool to search the chunks on
+	 * @param chunks the number of chunks to split a document into
+	 */
+	public ParallelSearch(StringSearchAlgorithm algorithm, int maxPatternLength, ForkJoinPool pool, int chunks) {
+		this.algorithm = algorithm;
+		this.maxPatternLength = maxPatternLength;
+		this.pool = pool;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * @param text the document to search
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return all matches in the given document
+	 */
+	public List<StringMatch> findAll(final String text, final StringFinderOption... options) {
+		ChunkedSearch search = new ChunkedSearch(new ChunkFinders() {
+			@Override
+			public StringFinder createFinder(long start, long end) {
+				return algorithm.createFinder(new BoundedCharProvider(new StringCharProvider(text, (int) start), Math.min(end, text.length())), options);
+			}
+		}, maxPatternLength, options);
+
+		return search.search(text.length(), chunks, pool);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "<" + algorithm.toString() + ">";
+	}
+
+}
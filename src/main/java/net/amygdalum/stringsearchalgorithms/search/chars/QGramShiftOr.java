@@ -5,34 +5,46 @@ import static net.amygdalum.util.text.CharUtils.computeMaxChar;
 import static net.amygdalum.util.text.CharUtils.computeMinChar;
 import static net.amygdalum.util.text.CharUtils.maxLength;
 import static net.amygdalum.util.text.CharUtils.minLength;
+import static net.amygdalum.util.text.CharUtils.revert;
 import static net.amygdalum.util.text.StringUtils.toCharArray;
 
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
 import net.amygdalum.stringsearchalgorithms.search.MatchOption;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.Sizes;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
+import net.amygdalum.util.text.CharAutomaton;
 import net.amygdalum.util.text.CharMapping;
+import net.amygdalum.util.text.CharTrie;
+import net.amygdalum.util.text.CharWordSet;
+import net.amygdalum.util.text.CharWordSetBuilder;
 import net.amygdalum.util.text.QGramAlphabet;
 import net.amygdalum.util.text.QGramMapping;
 import net.amygdalum.util.text.StringSet;
+import net.amygdalum.util.text.doublearraytrie.DoubleArrayCharCompactTrieCompiler;
 
 /**
  * An implementation of the String Search Algorithm Shift-Or (or Baeza-Yates–Gonnet).
  * 
  * This algorithm takes a single pattern as input and generates a finder which can find this pattern in documents
  */
-public class QGramShiftOr implements StringSearchAlgorithm {
+public class QGramShiftOr implements StringSearchAlgorithm, SizedAlgorithm {
+
+	private static final int MAX_QGRAM_BITS = 16;
 
 	private int minLength;
 	private int maxLength;
+	private long patternChars;
 	private QGramMapping qmapping;
 	private StringSet patterns;
+	private CharWordSet<Integer> verifier;
 	private BitMapStates states;
 
 	public QGramShiftOr(Collection<String> patterns) {
@@ -47,8 +59,10 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 		List<char[]> charpatterns = toCharArray(patterns);
 		this.minLength = minLength(charpatterns);
 		this.maxLength = maxLength(charpatterns);
+		this.patternChars = Sizes.charsOf(charpatterns);
 		this.qmapping = qmapping;
 		this.patterns = new StringSet(charpatterns);
+		this.verifier = computeVerifier(charpatterns);
 		this.states = computeStates(charpatterns, qmapping, mapping, maxLength);
 	}
 
@@ -67,10 +81,23 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 		if (q > 3) {
 			q = 3;
 		}
-		
+		if (q * bits > MAX_QGRAM_BITS) {
+			bits = MAX_QGRAM_BITS / q;
+		}
+
 		return new QGramMapping(q, bits);
 	}
 
+	private static CharWordSet<Integer> computeVerifier(List<char[]> charpatterns) {
+		CharWordSetBuilder<Integer, CharTrie<Integer>> builder = new CharWordSetBuilder<>(new DoubleArrayCharCompactTrieCompiler<Integer>());
+
+		for (int i = 0; i < charpatterns.size(); i++) {
+			builder.extend(revert(charpatterns.get(i)), i);
+		}
+
+		return builder.build();
+	}
+
 	private static BitMapStates computeStates(List<char[]> patterns, QGramMapping qmapping, CharMapping mapping, int maxLength) {
 		QGramAlphabet alphabet = QGramAlphabet.of(patterns, qmapping);
 		if (maxLength > 64) {
@@ -102,25 +129,64 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		if (states.supportsSingle()) {
+			new LongNextFinder(chars).search(sink);
+		} else {
+			new MultiLongNextFinder(chars).search(sink);
+		}
+	}
+
+	/**
+	 * estimates the q-gram tables (one bit map for each q-gram between the minimal and the maximal q-gram of the patterns, i.e. at most
+	 * 2^16 bit maps), the verifier trie and the pattern set.
+	 */
+	@Override
+	public long estimatedSize() {
+		return states.estimatedSize() + Sizes.ofDoubleArrayTrie(patternChars) + 2 * patternChars;
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private abstract class Finder extends BufferedStringFinder {
+	private abstract class Finder extends BufferedStringFinder implements MatchSink {
 
 		protected int q;
 		protected int q1;
 		protected CharProvider chars;
+		protected char[] qgram;
+		protected CharAutomaton<Integer> cursor;
+		protected long restart;
 
 		public Finder(CharProvider chars, StringFinderOption... options) {
 			super(options);
 			this.q = qmapping.getQ();
 			this.q1 = qmapping.getQ() - 1;
 			this.chars = chars;
+			this.qgram = qmapping.newQGram();
+			this.cursor = verifier.cursor();
+			this.restart = chars.current();
+		}
+
+		public void search(MatchSink sink) {
+			while (!chars.finished(q1)) {
+				if (advance() && !verifyMatches(sink)) {
+					return;
+				}
+			}
 		}
 
-		protected int nextQGram(char[] qgram) {
+		/**
+		 * reads the next q-gram and updates the state
+		 * 
+		 * @return true if the new state is final (i.e. matches may end at the current q-gram), false otherwise
+		 */
+		protected abstract boolean advance();
+
+		protected int nextQGram() {
 			for (int i = 0; i < qgram.length; i++) {
 				qgram[i] = chars.lookahead(i);
 			}
@@ -128,11 +194,71 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 			return qmapping.map(qgram);
 		}
 
-		protected StringMatch createMatch(long start, long end) {
+		protected StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+			return new StringMatch(start, end, s, pattern);
+		}
+
+		protected boolean verifyMatches(MatchSink sink) {
+			long end = chars.current() + q1;
+			long start = end - 1;
+			int i = q1 - 1;
+			cursor.reset();
+			while (start >= restart && cursor.accept(chars.lookahead(i))) {
+				if (cursor.hasAttachments() && !sink.match(start, end, cursor.iterator().next())) {
+					return false;
+				}
+				start--;
+				i--;
+			}
+			return true;
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			push(createMatch(start, end, pattern));
+			return true;
+		}
+
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
+		protected StringMatch nextMatch() {
+			StringMatch match = leftMost();
+			if (nonOverlapping()) {
+				restartAt(match.end());
+			}
+			return match;
+		}
+
+		protected StringMatch longestMatch() {
+			StringMatch match = longestLeftMost();
+			if (match != null && nonOverlapping()) {
+				restartAt(match.end());
+			}
+			return match;
+		}
+
+		/**
+		 * restarts the search at the given position (which may be before the current position if the finder already scanned beyond
+		 * the end of the last match), dropping all buffered matches and all partial matches.
+		 * 
+		 * @param pos the position to restart at
+		 */
+		protected void restartAt(long pos) {
+			clear();
+			chars.move(pos);
+			restart = pos;
+			resetState();
 		}
 
+		protected abstract void resetState();
+
 		protected boolean firstMatchOutOfSubsumptionRange() {
 			long lastStart = lastStartFromBuffer();
 			return chars.current() > lastStart + maxLength;
@@ -162,6 +288,9 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 
 		@Override
 		public void skipTo(long pos) {
+			if (pos > restart) {
+				restart = pos;
+			}
 			long last = removeMatchesBefore(pos);
 			if (last > chars.current()) {
 				chars.move(last);
@@ -174,20 +303,19 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 			}
 		}
 
-		protected final List<StringMatch> verifyMatches() {
-			List<StringMatch> matches = new LinkedList<>();
-			for (int len : patterns.containedLengths()) {
-				int lenQ = len - q;
-				if ((state | ~(1l << lenQ)) != BitMapStates.ALLBITS) {
-					long end = chars.current() + q1;
-					long start = end - len;
-					char[] found = chars.between(start, end);
-					if (patterns.contains(found)) {
-						matches.add(0, createMatch(start, end));
-					}
-				}
-			}
-			return matches;
+		@Override
+		protected void resetState() {
+			state = BitMapStates.ALLBITS;
+		}
+
+		@Override
+		protected boolean advance() {
+			int nextQGram = nextQGram();
+			long bits = states.single(nextQGram);
+
+			state = (state << 1) | bits;
+
+			return isFinalState();
 		}
 
 		protected boolean isFinalState() {
@@ -211,17 +339,11 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 			if (!isBufferEmpty()) {
 				return leftMost();
 			}
-			char[] qgram = qmapping.newQGram();
 			while (!chars.finished(q1)) {
-				int nextQGram = nextQGram(qgram);
-				long bits = states.single(nextQGram);
-
-				state = (state << 1) | bits;
-
-				if (isFinalState()) {
-					push(verifyMatches());
+				if (advance()) {
+					verifyMatches(this);
 					if (!isBufferEmpty()) {
-						return leftMost();
+						return nextMatch();
 					}
 				}
 			}
@@ -238,15 +360,9 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 
 		@Override
 		public StringMatch findNext() {
-			char[] qgram = qmapping.newQGram();
 			while (!chars.finished(q1)) {
-				int nextQGram = nextQGram(qgram);
-				long bits = states.single(nextQGram);
-
-				state = (state << 1) | bits;
-
-				if (isFinalState()) {
-					push(verifyMatches());
+				if (advance()) {
+					verifyMatches(this);
 				}
 				if (!isBufferEmpty()) {
 					if (isZeroState()) {
@@ -256,7 +372,7 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 					}
 				}
 			}
-			return longestLeftMost();
+			return longestMatch();
 		}
 
 	}
@@ -285,6 +401,9 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 
 		@Override
 		public void skipTo(long pos) {
+			if (pos > restart) {
+				restart = pos;
+			}
 			long last = removeMatchesBefore(pos);
 			if (last > chars.current()) {
 				chars.move(last);
@@ -304,25 +423,19 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 			}
 		}
 
-		protected final List<StringMatch> verifyMatches() {
-			List<StringMatch> matches = new LinkedList<>();
-			for (int len : patterns.containedLengths()) {
-				int lenQ = len - q;
-				int lastElement = maxLength - 1;
-				int allslots = lastElement / 64;
-				int slotsFromBeginning = lenQ / 64;
-				int slot = allslots - slotsFromBeginning;
-				int offset = lenQ % 64;
-				if ((state[slot] | ~(1l << offset)) != BitMapStates.ALLBITS) {
-					long end = chars.current() + q1;
-					long start = end - len;
-					char[] found = chars.between(start, end);
-					if (patterns.contains(found)) {
-						matches.add(0, createMatch(start, end));
-					}
-				}
-			}
-			return matches;
+		@Override
+		protected void resetState() {
+			fill(state, BitMapStates.ALLBITS);
+		}
+
+		@Override
+		protected boolean advance() {
+			int nextQGram = nextQGram();
+			long[] bits = states.all(nextQGram);
+
+			state = next(state, bits);
+
+			return isFinalState();
 		}
 
 		protected long[] next(long[] state, long[] bits) {
@@ -365,17 +478,11 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 			if (!isBufferEmpty()) {
 				return leftMost();
 			}
-			char[] qgram = qmapping.newQGram();
 			while (!chars.finished(q1)) {
-				int nextQGram = nextQGram(qgram);
-				long[] bits = states.all(nextQGram);
-
-				state = next(state, bits);
-
-				if (isFinalState()) {
-					push(verifyMatches());
+				if (advance()) {
+					verifyMatches(this);
 					if (!isBufferEmpty()) {
-						return leftMost();
+						return nextMatch();
 					}
 				}
 			}
@@ -392,15 +499,9 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 
 		@Override
 		public StringMatch findNext() {
-			char[] qgram = qmapping.newQGram();
 			while (!chars.finished(q1)) {
-				int nextQGram = nextQGram(qgram);
-				long[] bits = states.all(nextQGram);
-
-				state = next(state, bits);
-
-				if (isFinalState()) {
-					push(verifyMatches());
+				if (advance()) {
+					verifyMatches(this);
 				}
 				if (!isBufferEmpty()) {
 					if (isZeroState()) {
@@ -411,7 +512,7 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 				}
 
 			}
-			return longestLeftMost();
+			return longestMatch();
 		}
 
 	}
@@ -446,6 +547,11 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 
 		long[] all(int qc);
 
+		/**
+		 * @return the estimated size (in bytes) of the bit maps
+		 */
+		long estimatedSize();
+
 	}
 
 	private abstract static class SingleLongBitMapStates implements BitMapStates {
@@ -501,6 +607,11 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 			return characters[c - minQGram];
 		}
 
+		@Override
+		public long estimatedSize() {
+			return 8L * characters.length;
+		}
+
 	}
 
 	private abstract static class MultiLongBitMapStates implements BitMapStates {
@@ -570,6 +681,11 @@ public class QGramShiftOr implements StringSearchAlgorithm {
 			return characters[qc - minQGram];
 		}
 
+		@Override
+		public long estimatedSize() {
+			return characters.length * (Sizes.REFERENCE + Sizes.HEADER + 8L * zero.length) + 8L * zero.length;
+		}
+
 	}
 
 }
@@ -2,23 +2,27 @@ package net.amygdalum.stringsearchalgorithms.search.chars;
 
 import static java.util.Arrays.asList;
 import static java.util.Arrays.copyOfRange;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 import static net.amygdalum.util.text.CharUtils.minLength;
 import static net.amygdalum.util.text.CharUtils.revert;
 import static net.amygdalum.util.text.StringUtils.toCharArray;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
 import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchOption;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
@@ -39,11 +43,15 @@ import net.amygdalum.util.text.linkeddawg.LinkedCharDawgCompiler;
  * 
  * This algorithm takes a multiple string patterns as input and generates a
  * finder which can find any of these patterns in documents.
+ * 
+ * Candidates are verified against the text without copying it: a text char matches a (normalized) pattern char if it is equal to it or
+ * if it is contained in the char class of the pattern char (see {@link CharMapping#map(char)}).
  */
 public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 
-	private CharMapping mapping;
-	private CharWordSet<char[][]> trie;
+	private char[][] patterns;
+	private char[][][] classes;
+	private CharWordSet<int[]> trie;
 	private int minLength;
 
 	public SetBackwardOracleMatching(Collection<String> patterns) {
@@ -52,9 +60,10 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 
 	public SetBackwardOracleMatching(Collection<String> patterns, CharMapping mapping) {
 		List<char[]> charpatterns = toCharArray(patterns);
-		this.mapping = mapping;
 		this.minLength = minLength(charpatterns);
-		this.trie = computeTrie(normalized(mapping, charpatterns), minLength, mapping);
+		this.patterns = normalized(mapping, charpatterns);
+		this.classes = computeClasses(this.patterns, mapping);
+		this.trie = computeTrie(this.patterns, minLength, mapping);
 	}
 
 	private char[][] normalized(CharMapping mapping, List<char[]> charpatterns) {
@@ -65,14 +74,35 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 		return normalized.toArray(new char[0][]);
 	}
 
-	private static CharWordSet<char[][]> computeTrie(char[][] charpatterns, int length, CharMapping mapping) {
-		CharWordSetBuilder<char[][], CharDawg<char[][]>> builder = new CharWordSetBuilder<>(new LinkedCharDawgCompiler<char[][]>(), new MergePatterns());
+	private static char[][][] computeClasses(char[][] patterns, CharMapping mapping) {
+		if (mapping == CharMapping.IDENTITY) {
+			return null;
+		}
+		Map<Character, char[]> charClasses = new HashMap<>();
+		char[][][] classes = new char[patterns.length][][];
+		for (int i = 0; i < patterns.length; i++) {
+			char[] pattern = patterns[i];
+			classes[i] = new char[pattern.length][];
+			for (int j = 0; j < pattern.length; j++) {
+				char c = pattern[j];
+				char[] charClass = charClasses.get(c);
+				if (charClass == null) {
+					charClass = mapping.map(c);
+					charClasses.put(c, charClass);
+				}
+				classes[i][j] = charClass;
+			}
+		}
+		return classes;
+	}
+
+	private static CharWordSet<int[]> computeTrie(char[][] charpatterns, int length, CharMapping mapping) {
+		CharWordSetBuilder<int[], CharDawg<int[]>> builder = new CharWordSetBuilder<>(new LinkedCharDawgCompiler<int[]>(), new MergePatterns(charpatterns));
 
-		for (char[] pattern : charpatterns) {
-			char[] prefix = copyOfRange(pattern, 0, length);
+		for (int i = 0; i < charpatterns.length; i++) {
+			char[] prefix = copyOfRange(charpatterns[i], 0, length);
 			char[] reversePrefix = revert(prefix);
-			char[] suffix = copyOfRange(pattern, length, pattern.length);
-			builder.extend(reversePrefix, new char[][] {prefix, suffix});
+			builder.extend(reversePrefix, new int[] {i});
 		}
 		builder.work(new BuildOracle());
 		builder.work(new UseCharClasses(mapping));
@@ -82,7 +112,32 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 
 	@Override
 	public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
-		return new Finder(trie, minLength, mapping, chars, options);
+		return new Finder(trie, patterns, classes, minLength, chars, options);
+	}
+
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new Finder(trie, patterns, classes, minLength, chars).search(sink);
+	}
+
+	private static boolean matches(CharProvider chars, char[][] patterns, char[][][] classes, int pattern, int from, int to) {
+		char[] candidate = patterns[pattern];
+		for (int i = from; i < to; i++) {
+			char c = chars.lookahead(i);
+			if (c != candidate[i] && (classes == null || !contains(classes[pattern][i], c))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean contains(char[] charClass, char c) {
+		for (int i = 0; i < charClass.length; i++) {
+			if (charClass[i] == c) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	@Override
@@ -95,17 +150,29 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	public static class MergePatterns implements JoinStrategy<char[][]> {
+	public static class MergePatterns implements JoinStrategy<int[]> {
+
+		private char[][] patterns;
+
+		public MergePatterns(char[][] patterns) {
+			this.patterns = patterns;
+		}
 
 		@Override
-		public char[][] join(char[][] existing, char[][] next) {
+		public int[] join(int[] existing, int[] next) {
 			if (existing == null) {
 				return next;
 			} else {
-				char[][] result = new char[existing.length + 1][];
-				char[] insert = next[1];
-				int i = 1;
-				while (i < existing.length && existing[i].length > insert.length) {
+				int insert = next[0];
+				for (int i = 0; i < existing.length; i++) {
+					if (Arrays.equals(patterns[existing[i]], patterns[insert])) {
+						existing[i] = insert;
+						return existing;
+					}
+				}
+				int[] result = new int[existing.length + 1];
+				int i = 0;
+				while (i < existing.length && patterns[existing[i]].length > patterns[insert].length) {
 					i++;
 				}
 				System.arraycopy(existing, 0, result, 0, i);
@@ -119,29 +186,29 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 
 	}
 
-	public static class BuildOracle implements CharTask<char[][]> {
-		private Map<CharNode<char[][]>, CharNode<char[][]>> oracle;
-		private CharNode<char[][]> init;
+	public static class BuildOracle implements CharTask<int[]> {
+		private Map<CharNode<int[]>, CharNode<int[]>> oracle;
+		private CharNode<int[]> init;
 
 		public BuildOracle() {
 			oracle = new IdentityHashMap<>();
 		}
 
 		@Override
-		public List<CharNode<char[][]>> init(CharNode<char[][]> root) {
+		public List<CharNode<int[]>> init(CharNode<int[]> root) {
 			this.init = root;
 			return asList(root);
 		}
 
 		@Override
-		public List<CharNode<char[][]>> process(CharNode<char[][]> node) {
-			List<CharNode<char[][]>> nexts = new ArrayList<>();
+		public List<CharNode<int[]>> process(CharNode<int[]> node) {
+			List<CharNode<int[]>> nexts = new ArrayList<>();
 			for (char c : node.getAlternatives()) {
-				CharNode<char[][]> current = node.nextNode(c);
+				CharNode<int[]> current = node.nextNode(c);
 
-				CharNode<char[][]> down = oracle.get(node);
+				CharNode<int[]> down = oracle.get(node);
 				while (down != null) {
-					CharNode<char[][]> next = down.nextNode(c);
+					CharNode<int[]> next = down.nextNode(c);
 					if (next != null) {
 						oracle.put(current, next);
 						break;
@@ -159,15 +226,15 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 		}
 
 		@SuppressWarnings("unchecked")
-		private void addNextNode(CharNode<char[][]> node, char c, CharNode<char[][]> next) {
-			((CharConnectionAdaptor<char[][]>) node).addNextNode(c, next);
+		private void addNextNode(CharNode<int[]> node, char c, CharNode<int[]> next) {
+			((CharConnectionAdaptor<int[]>) node).addNextNode(c, next);
 		}
 	}
 
-	public static class UseCharClasses implements CharTask<char[][]> {
+	public static class UseCharClasses implements CharTask<int[]> {
 
 		private CharMapping mapping;
-		private Set<CharNode<char[][]>> done;
+		private Set<CharNode<int[]>> done;
 
 		public UseCharClasses(CharMapping mapping) {
 			this.mapping = mapping;
@@ -175,7 +242,7 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public List<CharNode<char[][]>> init(CharNode<char[][]> root) {
+		public List<CharNode<int[]>> init(CharNode<int[]> root) {
 			if (mapping == CharMapping.IDENTITY) {
 				return Collections.emptyList();
 			}
@@ -183,11 +250,11 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public List<CharNode<char[][]>> process(CharNode<char[][]> node) {
-			List<CharNode<char[][]>> nexts = new ArrayList<>();
+		public List<CharNode<int[]>> process(CharNode<int[]> node) {
+			List<CharNode<int[]>> nexts = new ArrayList<>();
 
 			for (char c : node.getAlternatives()) {
-				CharNode<char[][]> next = node.nextNode(c);
+				CharNode<int[]> next = node.nextNode(c);
 				for (char cc : mapping.map(c)) {
 					addNextNode(node, cc, next);
 				}
@@ -200,28 +267,32 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 		}
 
 		@SuppressWarnings("unchecked")
-		private void addNextNode(CharNode<char[][]> node, char c, CharNode<char[][]> next) {
-			((CharConnectionAdaptor<char[][]>) node).addNextNode(c, next);
+		private void addNextNode(CharNode<int[]> node, char c, CharNode<int[]> next) {
+			((CharConnectionAdaptor<int[]>) node).addNextNode(c, next);
 		}
 	}
 
-	private static class Finder extends AbstractStringFinder {
+	private static class Finder extends AbstractStringFinder implements MatchSink {
 
 		private final int minLength;
 		private final int lookahead;
-		private final CharMapping mapping;
+		private final boolean longest;
+		private char[][] patterns;
+		private char[][][] classes;
 		private CharProvider chars;
-		private CharAutomaton<char[][]> cursor;
+		private CharAutomaton<int[]> cursor;
 		private Queue<StringMatch> buffer;
 
-		public Finder(CharWordSet<char[][]> trie, int minLength, CharMapping mapping, CharProvider chars, StringFinderOption... options) {
+		public Finder(CharWordSet<int[]> trie, char[][] patterns, char[][][] classes, int minLength, CharProvider chars, StringFinderOption... options) {
 			super(options);
+			this.patterns = patterns;
+			this.classes = classes;
 			this.minLength = minLength;
 			this.lookahead = minLength - 1;
-			this.mapping = mapping;
+			this.longest = LONGEST_MATCH.in(options);
 			this.chars = chars;
 			this.cursor = trie.cursor();
-			this.buffer = new LinkedList<>();
+			this.buffer = new ArrayDeque<>();
 		}
 
 		@Override
@@ -232,12 +303,93 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 			buffer.clear();
 		}
 
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
 		@Override
 		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				return findNextNonOverlapping();
+			}
 			if (!buffer.isEmpty()) {
 				return buffer.remove();
 			}
-			next: while (!chars.finished(lookahead)) {
+			while (!chars.finished(lookahead)) {
+				scanWindow(this);
+				if (!buffer.isEmpty()) {
+					return buffer.remove();
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * verifies the current window (reporting the matches starting at the window start to the given sink) and moves to the next window
+		 * 
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		protected boolean scanWindow(MatchSink sink) {
+			cursor.reset();
+			int j = lookahead;
+			boolean success = true;
+			while (j >= 0 && success) {
+				success = cursor.accept(chars.lookahead(j));
+				j--;
+			}
+			if (success && j < 0) {
+				long currentWindowStart = chars.current();
+				int[] candidates = cursor.iterator().next();
+				if (matches(chars, patterns, classes, candidates[0], 0, minLength)) {
+					for (int pattern : candidates) {
+						char[] candidate = patterns[pattern];
+						if (!chars.finished(candidate.length - 1)
+							&& matches(chars, patterns, classes, pattern, minLength, candidate.length)
+							&& !sink.match(currentWindowStart, currentWindowStart + candidate.length, pattern)) {
+							return false;
+						}
+					}
+					chars.next();
+					return true;
+				}
+			}
+			if (j <= 0) {
+				chars.next();
+			} else {
+				chars.forward(j + 2);
+			}
+			return true;
+		}
+
+		public void search(MatchSink sink) {
+			while (!chars.finished(lookahead)) {
+				if (!scanWindow(sink)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			buffer.add(createMatch(start, end, pattern));
+			return true;
+		}
+
+		/**
+		 * finds the next match not overlapping the previous match: the match ending first (or with {@link MatchOption#LONGEST_MATCH} the
+		 * longest of the matches starting first). Windows are scanned by start, so scanning goes on while a window could contain a match
+		 * ending before the best match.
+		 */
+		private StringMatch findNextNonOverlapping() {
+			int best = -1;
+			long start = -1;
+			long end = -1;
+			while (!chars.finished(lookahead)) {
+				long currentWindowStart = chars.current();
+				if (best >= 0 && (longest || currentWindowStart + minLength >= end)) {
+					break;
+				}
 				cursor.reset();
 				int j = lookahead;
 				boolean success = true;
@@ -245,32 +397,24 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 					success = cursor.accept(chars.lookahead(j));
 					j--;
 				}
-				long currentWindowStart = chars.current();
-				long currentPos = currentWindowStart + j + 1;
-				long currentWindowEnd = currentWindowStart + minLength;
-				char[] matchedPrefix = chars.between(currentPos, currentWindowEnd);
 				if (success && j < 0) {
-					char[][] patterns = cursor.iterator().next();
-					char[] prefix = patterns[0];
-					if (Arrays.equals(prefix, mapping.normalized(matchedPrefix))) {
-						for (int i = 1; i < patterns.length; i++) {
-							char[] suffix = patterns[i];
-							long currentWordEnd = currentWindowEnd + suffix.length;
-							if (!chars.finished((int) (currentWordEnd - currentWindowStart - 1))) {
-								char[] matchedSuffix = chars.between(currentWindowEnd, currentWordEnd);
-								if (Arrays.equals(suffix, mapping.normalized(matchedSuffix))) {
-									buffer.add(createMatch(currentWindowStart, currentWordEnd));
+					int[] candidates = cursor.iterator().next();
+					if (matches(chars, patterns, classes, candidates[0], 0, minLength)) {
+						for (int pattern : candidates) {
+							char[] candidate = patterns[pattern];
+							long currentEnd = currentWindowStart + candidate.length;
+							if ((best < 0 || currentEnd < end) && !chars.finished(candidate.length - 1) && matches(chars, patterns, classes, pattern, minLength, candidate.length)) {
+								best = pattern;
+								start = currentWindowStart;
+								end = currentEnd;
+								if (longest) {
+									break;
 								}
 							}
 						}
-						chars.next();
-						if (buffer.isEmpty()) {
-							continue next;
-						} else {
-							return buffer.remove();
-						}
 					}
-
+					chars.next();
+					continue;
 				}
 				if (j <= 0) {
 					chars.next();
@@ -278,12 +422,19 @@ public class SetBackwardOracleMatching implements StringSearchAlgorithm {
 					chars.forward(j + 2);
 				}
 			}
-			return null;
+			if (best < 0) {
+				return null;
+			}
+			chars.move(end);
+			return createMatch(start, end, best);
 		}
 
-		private StringMatch createMatch(long start, long end) {
+		private StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+			return new StringMatch(start, end, s, pattern);
 		}
 
 	}
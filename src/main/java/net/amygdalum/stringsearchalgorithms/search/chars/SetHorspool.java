@@ -9,33 +9,47 @@ import static net.amygdalum.util.text.CharUtils.minLength;
 import static net.amygdalum.util.text.CharUtils.revert;
 import static net.amygdalum.util.text.StringUtils.toCharArray;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 
+import net.amygdalum.stringsearchalgorithms.io.TableReader;
+import net.amygdalum.stringsearchalgorithms.io.TableWriter;
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.map.CharIntMap;
 import net.amygdalum.util.text.CharAutomaton;
-import net.amygdalum.util.text.CharTrie;
 import net.amygdalum.util.text.CharWordSet;
 import net.amygdalum.util.text.CharWordSetBuilder;
-import net.amygdalum.util.text.doublearraytrie.DoubleArrayCharCompactTrieCompiler;
 
 /**
  * An implementation of the Set Horspool Algorithm.
  * 
  * This algorithm takes a multiple string patterns as input and generates a
  * finder which can find any of these patterns in documents.
+ * 
+ * The compiled tables can be saved (see {@link #save(OutputStream)}) and loaded (see {@link #load(ByteBuffer)}).
  */
-public class SetHorspool implements StringSearchAlgorithm {
+public class SetHorspool implements StringSearchAlgorithm, SizedAlgorithm {
+
+	private static final String TYPE = SetHorspool.class.getSimpleName();
+	private static final int QUICK_SHIFT = 0;
+	private static final int RELAXED_SHIFT = 1;
+	private static final int SMART_SHIFT = 2;
 
-	private CharWordSet<String> trie;
+	private PackedCharTrie trie;
 	private int minLength;
 	private int maxLength;
-	private CharShift charShift;
+	private PersistentCharShift charShift;
 
 	public SetHorspool(Collection<String> patterns) {
 		this(patterns, false);
@@ -49,7 +63,14 @@ public class SetHorspool implements StringSearchAlgorithm {
 		this.charShift = computeCharacterShift(charpatterns, minLength, relaxed);
 	}
 
-	private CharShift computeCharacterShift(List<char[]> charpatterns, int minLength, boolean relaxed) {
+	private SetHorspool(PackedCharTrie trie, int minLength, int maxLength, PersistentCharShift charShift) {
+		this.trie = trie;
+		this.minLength = minLength;
+		this.maxLength = maxLength;
+		this.charShift = charShift;
+	}
+
+	private PersistentCharShift computeCharacterShift(List<char[]> charpatterns, int minLength, boolean relaxed) {
 		if (isCompactRange(charpatterns, minLength)) {
 			return new QuickShift(charpatterns, minLength);
 		} else if (relaxed) {
@@ -65,16 +86,86 @@ public class SetHorspool implements StringSearchAlgorithm {
 		return maxChar - minChar < 256 || maxChar - minChar < minLength * 2;
 	}
 
-	private static CharWordSet<String> computeTrie(List<char[]> charpatterns) {
-		CharWordSetBuilder<String, CharTrie<String>> builder = new CharWordSetBuilder<>(new DoubleArrayCharCompactTrieCompiler<String>());
+	private static PackedCharTrie computeTrie(List<char[]> charpatterns) {
+		CharWordSetBuilder<Integer, PackedCharTrie> builder = new CharWordSetBuilder<>(new PackedCharTrie.Compiler());
 
-		for (char[] pattern : charpatterns) {
-			builder.extend(revert(pattern), new String(pattern));
+		for (int i = 0; i < charpatterns.size(); i++) {
+			builder.extend(revert(charpatterns.get(i)), i);
 		}
 
 		return builder.build();
 	}
 
+	/**
+	 * loads an algorithm saved with {@link #save(OutputStream)}
+	 * 
+	 * @param buffer the buffer containing the saved tables (e.g. a memory mapped file)
+	 * @return the loaded algorithm
+	 * @throws IllegalArgumentException if the buffer does not contain tables of this algorithm
+	 */
+	public static SetHorspool load(ByteBuffer buffer) {
+		return load(new TableReader(buffer));
+	}
+
+	/**
+	 * loads an algorithm saved with {@link #save(Path)} (the file is memory mapped)
+	 * 
+	 * @param file the file containing the saved tables
+	 * @return the loaded algorithm
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file does not contain tables of this algorithm
+	 */
+	public static SetHorspool load(Path file) throws IOException {
+		return load(TableReader.map(file));
+	}
+
+	private static SetHorspool load(TableReader in) {
+		in.readHeader(TYPE);
+		PackedCharTrie trie = PackedCharTrie.readFrom(in);
+		int minLength = in.readInt();
+		int maxLength = in.readInt();
+		PersistentCharShift charShift = readCharShift(in);
+		return new SetHorspool(trie, minLength, maxLength, charShift);
+	}
+
+	private static PersistentCharShift readCharShift(TableReader in) {
+		int type = in.readInt();
+		switch (type) {
+		case QUICK_SHIFT:
+			return new QuickShift(in);
+		case RELAXED_SHIFT:
+			return new RelaxedShift(in);
+		case SMART_SHIFT:
+			return new SmartShift(in);
+		default:
+			throw new IllegalArgumentException("unknown shift type " + type);
+		}
+	}
+
+	/**
+	 * @param out the stream to write the compiled tables to (flushed, but not closed)
+	 * @throws IOException if writing fails
+	 */
+	public void save(OutputStream out) throws IOException {
+		TableWriter writer = new TableWriter(out);
+		writer.writeHeader(TYPE);
+		trie.writeTo(writer);
+		writer.writeInt(minLength);
+		writer.writeInt(maxLength);
+		charShift.writeTo(writer);
+		writer.flush();
+	}
+
+	/**
+	 * @param file the file to write the compiled tables to
+	 * @throws IOException if writing fails
+	 */
+	public void save(Path file) throws IOException {
+		try (OutputStream out = Files.newOutputStream(file)) {
+			save(out);
+		}
+	}
+
 	@Override
 	public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
 		if (LONGEST_MATCH.in(options)) {
@@ -84,6 +175,16 @@ public class SetHorspool implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new NextMatchFinder(trie, minLength, maxLength, charShift, chars).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		return trie.estimatedSize() + charShift.estimatedSize();
+	}
+
 	@Override
 	public int getPatternLength() {
 		return minLength;
@@ -94,40 +195,97 @@ public class SetHorspool implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	private static abstract class Finder extends BufferedStringFinder {
+	private static abstract class Finder extends BufferedStringFinder implements MatchSink {
 
 		protected final int minLength;
 		protected final int maxLength;
 		protected final CharShift charShift;
 		protected CharProvider chars;
-		protected CharAutomaton<String> cursor;
+		protected CharAutomaton<Integer> cursor;
+		protected long lastEnd;
 
-		public Finder(CharWordSet<String> trie, int minLength, int maxLength, CharShift charShift, CharProvider chars, StringFinderOption... options) {
+		public Finder(CharWordSet<Integer> trie, int minLength, int maxLength, CharShift charShift, CharProvider chars, StringFinderOption... options) {
 			super(options);
 			this.minLength = minLength;
 			this.maxLength = maxLength;
 			this.charShift = charShift;
 			this.chars = chars;
+			this.lastEnd = nonOverlapping() ? chars.current() : 0;
 			this.cursor = trie.cursor();
 		}
 
 		@Override
 		public void skipTo(long pos) {
-			long last = removeMatchesBefore(pos);
-			if (last > chars.current()) {
-				chars.move(last);
+			dropMatchesBefore(pos);
+			if (pos > lastEnd) {
+				lastEnd = pos;
+			}
+			if (pos > chars.current()) {
+				chars.move(pos);
 			}
 		}
 
-		protected StringMatch createMatch(long start, long end) {
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
+		/**
+		 * verifies the current window (reporting the matches ending at the window end) and shifts the window
+		 * 
+		 * @param sink the sink to report the matches to
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		protected boolean scanWindow(MatchSink sink) {
+			int patternPointer = minLength - 1;
+			long pos = chars.current();
+			char current = chars.lookahead(patternPointer);
+
+			cursor.reset();
+			boolean success = cursor.accept(current);
+			while (success) {
+				if (cursor.hasAttachments()) {
+					if (!sink.match(pos + patternPointer, pos + minLength, cursor.iterator().next())) {
+						return false;
+					}
+				}
+				patternPointer--;
+				if (pos + patternPointer < lastEnd) {
+					break;
+				}
+				success = cursor.accept(chars.lookahead(patternPointer));
+			}
+			chars.forward(charShift.getShift(current));
+			return true;
+		}
+
+		public void search(MatchSink sink) {
+			int lookahead = minLength - 1;
+			while (!chars.finished(lookahead)) {
+				if (!scanWindow(sink)) {
+					return;
+				}
+			}
+		}
+
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			push(createMatch(start, end, pattern));
+			return true;
+		}
+
+		protected StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+			return new StringMatch(start, end, s, pattern);
 		}
 	}
 
 	private static class NextMatchFinder extends Finder {
 
-		public NextMatchFinder(CharWordSet<String> trie, int minLength, int maxLength, CharShift charShift, CharProvider chars, StringFinderOption... options) {
+		public NextMatchFinder(CharWordSet<Integer> trie, int minLength, int maxLength, CharShift charShift, CharProvider chars, StringFinderOption... options) {
 			super(trie, minLength, maxLength, charShift, chars, options);
 		}
 
@@ -138,43 +296,39 @@ public class SetHorspool implements StringSearchAlgorithm {
 			}
 			int lookahead = minLength - 1;
 			while (!chars.finished(lookahead)) {
-				int patternPointer = lookahead;
-				long pos = chars.current();
-				char current = chars.lookahead(patternPointer);
-
-				cursor.reset();
-				boolean success = cursor.accept(current);
-				while (success) {
-					if (cursor.hasAttachments()) {
-						String match = cursor.iterator().next();
-						long start = chars.current() + patternPointer;
-						long end = chars.current() + patternPointer + match.length();
-						push(createMatch(start, end));
-					}
-					patternPointer--;
-					if (pos + patternPointer < 0) {
-						break;
-					}
-					success = cursor.accept(chars.lookahead(patternPointer));
-				}
-				chars.forward(charShift.getShift(current));
+				scanWindow(this);
 				if (!isBufferEmpty()) {
-					return leftMost();
+					return nextMatch();
 				}
 			}
 			return null;
 		}
 
+		private StringMatch nextMatch() {
+			StringMatch match = leftMost();
+			if (nonOverlapping()) {
+				clear();
+				lastEnd = match.end();
+				if (lastEnd > chars.current()) {
+					chars.move(lastEnd);
+				}
+			}
+			return match;
+		}
+
 	}
 
 	private static class LongestMatchFinder extends Finder {
 
-		public LongestMatchFinder(CharWordSet<String> trie, int minLength, int maxLength, CharShift charShift, CharProvider chars, StringFinderOption... options) {
+		public LongestMatchFinder(CharWordSet<Integer> trie, int minLength, int maxLength, CharShift charShift, CharProvider chars, StringFinderOption... options) {
 			super(trie, minLength, maxLength, charShift, chars, options);
 		}
 
 		@Override
 		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				dropMatchesBefore(lastEnd);
+			}
 			long lastStart = lastStartFromBuffer();
 			int lookahead = minLength - 1;
 			while (!chars.finished(lookahead)) {
@@ -186,17 +340,16 @@ public class SetHorspool implements StringSearchAlgorithm {
 				boolean success = cursor.accept(current);
 				while (success) {
 					if (cursor.hasAttachments()) {
-						String match = cursor.iterator().next();
-						long start = chars.current() + patternPointer;
-						long end = chars.current() + patternPointer + match.length();
-						StringMatch stringMatch = createMatch(start, end);
+						long start = pos + patternPointer;
+						long end = pos + minLength;
+						StringMatch stringMatch = createMatch(start, end, cursor.iterator().next());
 						if (lastStart < 0) {
 							lastStart = start;
 						}
 						push(stringMatch);
 					}
 					patternPointer--;
-					if (pos + patternPointer < 0) {
+					if (pos + patternPointer < lastEnd) {
 						break;
 					}
 					success = cursor.accept(chars.lookahead(patternPointer));
@@ -206,7 +359,11 @@ public class SetHorspool implements StringSearchAlgorithm {
 					break;
 				}
 			}
-			return longestLeftMost();
+			StringMatch match = longestLeftMost();
+			if (match != null && nonOverlapping()) {
+				lastEnd = match.end();
+			}
+			return match;
 		}
 
 		public boolean bufferContainsLongestMatch(long lastStart) {
@@ -235,7 +392,15 @@ public class SetHorspool implements StringSearchAlgorithm {
 
 	}
 
-	private static class QuickShift implements CharShift {
+	private interface PersistentCharShift extends CharShift {
+
+		void writeTo(TableWriter out) throws IOException;
+
+		long estimatedSize();
+
+	}
+
+	private static class QuickShift implements PersistentCharShift {
 
 		private char minChar;
 		private char maxChar;
@@ -249,6 +414,13 @@ public class SetHorspool implements StringSearchAlgorithm {
 			this.defaultShift = minLength;
 		}
 
+		public QuickShift(TableReader in) {
+			this.minChar = (char) in.readInt();
+			this.maxChar = (char) in.readInt();
+			this.characterShift = in.readInts();
+			this.defaultShift = in.readInt();
+		}
+
 		private static int[] computeCharacterShift(List<char[]> patterns, int minLength, char min, char max) {
 			int[] characters = new int[max - min + 1];
 			for (int i = 0; i < characters.length; i++) {
@@ -270,9 +442,23 @@ public class SetHorspool implements StringSearchAlgorithm {
 			return characterShift[c - minChar];
 		}
 
+		@Override
+		public long estimatedSize() {
+			return 4L * characterShift.length;
+		}
+
+		@Override
+		public void writeTo(TableWriter out) throws IOException {
+			out.writeInt(QUICK_SHIFT);
+			out.writeInt(minChar);
+			out.writeInt(maxChar);
+			out.writeInts(characterShift);
+			out.writeInt(defaultShift);
+		}
+
 	}
 
-	private static class RelaxedShift implements CharShift {
+	private static class RelaxedShift implements PersistentCharShift {
 
 		private int[] characterShift;
 
@@ -280,6 +466,10 @@ public class SetHorspool implements StringSearchAlgorithm {
 			this.characterShift = computeCharacterShift(charpatterns, minLength);
 		}
 
+		public RelaxedShift(TableReader in) {
+			this.characterShift = in.readInts();
+		}
+
 		private static int[] computeCharacterShift(List<char[]> patterns, int minLength) {
 			int[] characters = new int[256];
 			for (int i = 0; i < characters.length; i++) {
@@ -302,9 +492,20 @@ public class SetHorspool implements StringSearchAlgorithm {
 			return characterShift[c % 256];
 		}
 
+		@Override
+		public long estimatedSize() {
+			return 4L * characterShift.length;
+		}
+
+		@Override
+		public void writeTo(TableWriter out) throws IOException {
+			out.writeInt(RELAXED_SHIFT);
+			out.writeInts(characterShift);
+		}
+
 	}
 
-	private static class SmartShift implements CharShift {
+	private static class SmartShift implements PersistentCharShift {
 
 		private CharIntMap characterShift;
 
@@ -312,6 +513,15 @@ public class SetHorspool implements StringSearchAlgorithm {
 			this.characterShift = computeCharacterShift(charpatterns, minLength);
 		}
 
+		public SmartShift(TableReader in) {
+			this.characterShift = new CharIntMap(in.readInt());
+			char[] keys = in.readChars();
+			int[] values = in.readInts();
+			for (int i = 0; i < keys.length; i++) {
+				characterShift.put(keys[i], values[i]);
+			}
+		}
+
 		private static CharIntMap computeCharacterShift(List<char[]> patterns, int minLength) {
 			CharIntMap map = new CharIntMap(minLength);
 			for (char[] pattern : patterns) {
@@ -328,6 +538,24 @@ public class SetHorspool implements StringSearchAlgorithm {
 			return characterShift.get(c);
 		}
 
+		@Override
+		public long estimatedSize() {
+			return 6L * characterShift.size();
+		}
+
+		@Override
+		public void writeTo(TableWriter out) throws IOException {
+			char[] keys = characterShift.keys();
+			int[] values = new int[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				values[i] = characterShift.get(keys[i]);
+			}
+			out.writeInt(SMART_SHIFT);
+			out.writeInt(characterShift.getDefaultValue());
+			out.writeChars(keys);
+			out.writeInts(values);
+		}
+
 	}
 
 }
@@ -3,10 +3,10 @@ package net.amygdalum.stringsearchalgorithms.search.chars;
 import static java.lang.Math.max;
 import static java.util.Arrays.fill;
 
-import net.amygdalum.stringsearchalgorithms.search.AbstractStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SinglePatternFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
-import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.map.CharLongMap;
 import net.amygdalum.util.map.CharObjectMap;
@@ -64,27 +64,34 @@ public class ShiftOr implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		if (states.supportsSingle()) {
+			new LongFinder(chars).search(sink);
+		} else {
+			new MultiLongFinder(chars).search(sink);
+		}
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName();
 	}
 
-	private abstract class Finder extends AbstractStringFinder {
+	private abstract class Finder extends SinglePatternFinder {
 		
 		protected final long finalstate;
 		protected CharProvider chars;
 
 		public Finder(CharProvider chars, StringFinderOption... options) {
-			super(options);
+			super(patternLength, options);
 			this.finalstate = ~(1l << ((patternLength - 1) % 64));
 			this.chars = chars;
 		}
 
-		protected StringMatch createMatch() {
-			long end = chars.current();
-			long start = end - patternLength;
-			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+		@Override
+		protected String text(long start, long end) {
+			return chars.slice(start, end);
 		}
 
 	}
@@ -107,7 +114,7 @@ public class ShiftOr implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!chars.finished()) {
 				char nextChar = chars.next();
 				long bits = states.single(nextChar);
@@ -115,10 +122,10 @@ public class ShiftOr implements StringSearchAlgorithm {
 				state = (state << 1) | bits;
 
 				if ((state | finalstate) != BitMapStates.ALLBITS) {
-					return createMatch();
+					return chars.current() - patternLength;
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
 	}
@@ -142,7 +149,7 @@ public class ShiftOr implements StringSearchAlgorithm {
 		}
 
 		@Override
-		public StringMatch findNext() {
+		protected long nextMatch() {
 			while (!chars.finished()) {
 				char nextChar = chars.next();
 				long[] bits = states.all(nextChar);
@@ -150,10 +157,10 @@ public class ShiftOr implements StringSearchAlgorithm {
 				state = next(state, bits);
 
 				if ((state[0] | finalstate) != BitMapStates.ALLBITS) {
-					return createMatch();
+					return chars.current() - patternLength;
 				}
 			}
-			return null;
+			return NO_MATCH;
 		}
 
 		private long[] next(long[] state, long[] bits) {
@@ -0,0 +1,51 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import java.util.List;
+
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+
+/**
+ * Estimates the memory (in bytes) held by a compiled algorithm, used by {@link CachingFactory} and {@link CachingMultiFactory} to limit the
+ * size of their cache.
+ */
+public interface SizeEstimator {
+
+	/**
+	 * Estimates the size reported by the algorithm (see {@link SizedAlgorithm}), algorithms not reporting a size are estimated by the size
+	 * of their pattern chars.
+	 */
+	SizeEstimator DEFAULT = new SizeEstimator() {
+
+		@Override
+		public long estimate(StringSearchAlgorithm algorithm, List<String> patterns) {
+			if (algorithm instanceof SizedAlgorithm) {
+				return ((SizedAlgorithm) algorithm).estimatedSize();
+			}
+			return PATTERN_CHARS.estimate(algorithm, patterns);
+		}
+
+	};
+
+	/**
+	 * Estimates the size of the pattern chars (2 bytes for each char and for the end of each pattern), independent of the algorithm.
+	 */
+	SizeEstimator PATTERN_CHARS = new SizeEstimator() {
+
+		@Override
+		public long estimate(StringSearchAlgorithm algorithm, List<String> patterns) {
+			long size = 0;
+			for (String pattern : patterns) {
+				size += 2 * (pattern.length() + 1);
+			}
+			return size;
+		}
+
+	};
+
+	/**
+	 * @param algorithm the compiled algorithm
+	 * @param patterns the patterns the algorithm was compiled from
+	 * @return the estimated size (in bytes) of the algorithm
+	 */
+	long estimate(StringSearchAlgorithm algorithm, List<String> patterns);
+}
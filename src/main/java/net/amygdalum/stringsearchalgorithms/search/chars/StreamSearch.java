@@ -0,0 +1,85 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import net.amygdalum.stringsearchalgorithms.io.BoundedCharProvider;
+import net.amygdalum.stringsearchalgorithms.search.ChunkedSearch;
+import net.amygdalum.stringsearchalgorithms.search.ChunkedSearch.ChunkFinders;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.CharProvider;
+import net.amygdalum.util.io.StringCharProvider;
+
+/**
+ * Exposes the matches of any StringSearchAlgorithm as (lazy) Stream.
+ *
+ * Streams on a String may be searched in parallel: the spliterator splits the document into overlapping chunks
+ * (see {@link ChunkedSearch#spliterator(long, long)}), streams on a CharProvider are sequential.
+ */
+public class StreamSearch {
+
+	private static final long DEFAULT_MIN_CHUNK = 1 << 16;
+
+	private StringSearchAlgorithm algorithm;
+	private int maxPatternLength;
+	private long minChunk;
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param maxPatternLength the maximum length of a match (chunks will overlap by maxPatternLength - 1)
+	 */
+	public StreamSearch(StringSearchAlgorithm algorithm, int maxPatternLength) {
+		this(algorithm, maxPatternLength, DEFAULT_MIN_CHUNK);
+	}
+
+	/**
+	 * @param algorithm the algorithm to search with
+	 * @param maxPatternLength the maximum length of a match (chunks will overlap by maxPatternLength - 1)
+	 * @param minChunk the minimum size of a chunk when splitting a document
+	 */
+	public StreamSearch(StringSearchAlgorithm algorithm, int maxPatternLength, long minChunk) {
+		this.algorithm = algorithm;
+		this.maxPatternLength = maxPatternLength;
+		this.minChunk = minChunk;
+	}
+
+	/**
+	 * @param text the document to search
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return a stream of the matches in the given document, splittable at chunk boundaries (with the exception of {@link net.amygdalum.stringsearchalgorithms.search.MatchOption#NON_OVERLAP})
+	 */
+	public Stream<StringMatch> matches(final String text, final StringFinderOption... options) {
+		ChunkedSearch search = new ChunkedSearch(new ChunkFinders() {
+			@Override
+			public StringFinder createFinder(long start, long end) {
+				return algorithm.createFinder(new BoundedCharProvider(new StringCharProvider(text, (int) start), Math.min(end, text.length())), options);
+			}
+		}, maxPatternLength, options);
+
+		return StreamSupport.stream(search.spliterator(text.length(), minChunk), false);
+	}
+
+	/**
+	 * @param chars the document to search (consumed lazily by the stream)
+	 * @param options the configuration options for the search (as for the finders of the algorithm)
+	 * @return a (non splittable) stream of the matches in the given document
+	 */
+	public Stream<StringMatch> matches(final CharProvider chars, final StringFinderOption... options) {
+		ChunkedSearch search = new ChunkedSearch(new ChunkFinders() {
+			@Override
+			public StringFinder createFinder(long start, long end) {
+				return algorithm.createFinder(chars, options);
+			}
+		}, maxPatternLength, options);
+
+		return StreamSupport.stream(search.spliterator(Long.MAX_VALUE, Long.MAX_VALUE), false);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "<" + algorithm.toString() + ">";
+	}
+
+}
@@ -1,7 +1,11 @@
 package net.amygdalum.stringsearchalgorithms.search.chars;
 
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NO_TEXT;
+
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
 
 /**
@@ -19,6 +23,26 @@ public interface StringSearchAlgorithm {
 	 */
 	StringFinder createFinder(CharProvider chars, StringFinderOption... options);
 
+	/**
+	 * searches the pattern (given by the current instance) in the given document and reports all matches to the given sink.
+	 * Matches are reported in the order they are found (overlapping matches included), so they are not necessarily ordered by start.
+	 * 
+	 * The default implementation drives a finder (without match texts). Algorithms override it with a scan that does not create match
+	 * objects at all.
+	 * @param chars the given document wrapped into a CharProvider
+	 * @param sink the sink receiving the matches, the search stops as soon as the sink returns false
+	 */
+	default void search(CharProvider chars, MatchSink sink) {
+		StringFinder finder = createFinder(chars, NO_TEXT);
+		StringMatch match = finder.findNext();
+		while (match != null) {
+			if (!sink.match(match.start(), match.end(), match.pattern())) {
+				return;
+			}
+			match = finder.findNext();
+		}
+	}
+
 	/**
 	 * @return the length of the given pattern (min length in case of a multi string algorithm)
 	 */
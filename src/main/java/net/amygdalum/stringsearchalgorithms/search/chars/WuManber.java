@@ -3,38 +3,44 @@ package net.amygdalum.stringsearchalgorithms.search.chars;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 import static net.amygdalum.util.text.CharUtils.computeMaxChar;
 import static net.amygdalum.util.text.CharUtils.computeMinChar;
-import static net.amygdalum.util.text.CharUtils.lastIndexOf;
 import static net.amygdalum.util.text.CharUtils.maxLength;
 import static net.amygdalum.util.text.CharUtils.minLength;
 import static net.amygdalum.util.text.CharUtils.revert;
 import static net.amygdalum.util.text.StringUtils.toCharArray;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
+import net.amygdalum.stringsearchalgorithms.io.TableReader;
+import net.amygdalum.stringsearchalgorithms.io.TableWriter;
 import net.amygdalum.stringsearchalgorithms.search.BufferedStringFinder;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.util.io.CharProvider;
 import net.amygdalum.util.text.CharAutomaton;
-import net.amygdalum.util.text.CharTrie;
 import net.amygdalum.util.text.CharWordSet;
 import net.amygdalum.util.text.CharWordSetBuilder;
-import net.amygdalum.util.text.doublearraytrie.DoubleArrayCharCompactTrieCompiler;
 
 /**
  * An implementation of the Wu-Manber Algorithm.
  * 
  * This algorithm takes a multiple string patterns as input and generates a
  * finder which can find any of these patterns in documents.
+ * 
+ * The compiled tables can be saved (see {@link #save(OutputStream)}) and loaded (see {@link #load(ByteBuffer)}). For large pattern
+ * sets the shift and hash tables should be larger than the default tables (see {@link #WuManber(Collection, int, int)}).
  */
-public class WuManber implements StringSearchAlgorithm {
+public class WuManber implements StringSearchAlgorithm, SizedAlgorithm {
 
+	private static final String TYPE = WuManber.class.getSimpleName();
 	private static final int SHIFT_SEED = 17;
 	private static final int HASH_SEED = 23;
 	private static final int SHIFT_SIZE = 255;
@@ -44,15 +50,32 @@ public class WuManber implements StringSearchAlgorithm {
 	private int maxLength;
 	private int block;
 	private int[] shift;
-	private CharWordSet<String>[] hash;
+	private PackedCharTrie[] hash;
 
 	public WuManber(Collection<String> patterns) {
+		this(patterns, SHIFT_SIZE, HASH_SIZE);
+	}
+
+	/**
+	 * @param patterns the patterns to search for
+	 * @param shiftSize the number of buckets of the shift table (more buckets mean less colliding blocks and larger shifts for large pattern sets)
+	 * @param hashSize the number of buckets of the hash table (more buckets mean less patterns to verify for each bucket)
+	 */
+	public WuManber(Collection<String> patterns, int shiftSize, int hashSize) {
 		List<char[]> charpatterns = toCharArray(patterns);
 		this.minLength = minLength(charpatterns);
 		this.maxLength = maxLength(charpatterns);
 		this.block = blockSize(minLength, charpatterns);
-		this.shift = computeShift(charpatterns, block, minLength);
-		this.hash = computeHash(charpatterns, block);
+		this.shift = computeShift(charpatterns, block, minLength, shiftSize);
+		this.hash = computeHash(charpatterns, block, hashSize);
+	}
+
+	private WuManber(int minLength, int maxLength, int block, int[] shift, PackedCharTrie[] hash) {
+		this.minLength = minLength;
+		this.maxLength = maxLength;
+		this.block = block;
+		this.shift = shift;
+		this.hash = hash;
 	}
 
 	private static int blockSize(int minLength, List<char[]> charpatterns) {
@@ -68,62 +91,43 @@ public class WuManber implements StringSearchAlgorithm {
 		}
 	}
 
-	private static int[] computeShift(List<char[]> patterns, int block, int minLength) {
-		int[] shift = new int[SHIFT_SIZE];
+	private static int[] computeShift(List<char[]> patterns, int block, int minLength, int shiftSize) {
+		int[] shift = new int[shiftSize];
 		for (int i = 0; i < shift.length; i++) {
 			shift[i] = minLength - block + 1;
 		}
-		List<char[]> patternStrings = new ArrayList<>();
-		Set<char[]> blocks = new HashSet<>();
 		for (char[] pattern : patterns) {
-			patternStrings.add(pattern);
 			for (int i = 0; i < pattern.length + 1 - block; i++) {
-				blocks.add(Arrays.copyOfRange(pattern, i, i + block));
-			}
-		}
-		for (char[] currentBlock : blocks) {
-			int shiftKey = shiftHash(currentBlock);
-			int shiftBy = shift[shiftKey];
-			for (char[] pattern : patternStrings) {
-				int rightMost = pattern.length - lastIndexOf(pattern, currentBlock) - block;
-				if (rightMost >= 0 && rightMost < shiftBy) {
-					shiftBy = rightMost;
+				int shiftKey = hash(pattern, i, i + block, SHIFT_SEED, shiftSize);
+				int rightMost = pattern.length - i - block;
+				if (rightMost < shift[shiftKey]) {
+					shift[shiftKey] = rightMost;
 				}
 			}
-			shift[shiftKey] = shiftBy;
 		}
 		return shift;
 	}
 
 	public static int shiftHash(char[] block) {
-		int result = 1;
-		for (char c : block) {
-			result = SHIFT_SEED * result + c;
-		}
-		int hash = result % SHIFT_SIZE;
-		if (hash < 0) {
-			hash += SHIFT_SIZE;
-		}
-		return hash;
+		return hash(block, 0, block.length, SHIFT_SEED, SHIFT_SIZE);
 	}
 
-	private static CharWordSet<String>[] computeHash(List<char[]> charpatterns, int block) {
+	private static PackedCharTrie[] computeHash(List<char[]> charpatterns, int block, int hashSize) {
 		@SuppressWarnings("unchecked")
-		CharWordSetBuilder<String, CharTrie<String>>[] builders = new CharWordSetBuilder[HASH_SIZE];
-		for (char[] pattern : charpatterns) {
-			char[] lastBlock = Arrays.copyOfRange(pattern, pattern.length - block, pattern.length);
-			int hashKey = hashHash(lastBlock);
-			CharWordSetBuilder<String, CharTrie<String>> builder = builders[hashKey];
+		CharWordSetBuilder<Integer, PackedCharTrie>[] builders = new CharWordSetBuilder[hashSize];
+		for (int i = 0; i < charpatterns.size(); i++) {
+			char[] pattern = charpatterns.get(i);
+			int hashKey = hash(pattern, pattern.length - block, pattern.length, HASH_SEED, hashSize);
+			CharWordSetBuilder<Integer, PackedCharTrie> builder = builders[hashKey];
 			if (builder == null) {
-				builder = new CharWordSetBuilder<>(new DoubleArrayCharCompactTrieCompiler<String>());
+				builder = new CharWordSetBuilder<>(new PackedCharTrie.Compiler());
 
 				builders[hashKey] = builder;
 			}
-			builder.extend(revert(pattern), new String(pattern));
+			builder.extend(revert(pattern), i);
 		}
 
-		@SuppressWarnings("unchecked")
-		CharWordSet<String>[] hash = new CharWordSet[builders.length];
+		PackedCharTrie[] hash = new PackedCharTrie[builders.length];
 		for (int i = 0; i < hash.length; i++) {
 			hash[i] = builders[i] == null ? null : builders[i].build();
 		}
@@ -131,17 +135,102 @@ public class WuManber implements StringSearchAlgorithm {
 	}
 
 	public static int hashHash(char[] block) {
+		return hash(block, 0, block.length, HASH_SEED, HASH_SIZE);
+	}
+
+	private static int hash(char[] chars, int from, int to, int seed, int size) {
+		int result = 1;
+		for (int i = from; i < to; i++) {
+			result = seed * result + chars[i];
+		}
+		return bucket(result, size);
+	}
+
+	private static int hash(CharProvider chars, int from, int to, int seed, int size) {
 		int result = 1;
-		for (char c : block) {
-			result = HASH_SEED * result + c;
+		for (int i = from; i < to; i++) {
+			result = seed * result + chars.lookahead(i);
 		}
-		int hash = result % HASH_SIZE;
+		return bucket(result, size);
+	}
+
+	private static int bucket(int result, int size) {
+		int hash = result % size;
 		if (hash < 0) {
-			hash += HASH_SIZE;
+			hash += size;
 		}
 		return hash;
 	}
 
+	/**
+	 * loads an algorithm saved with {@link #save(OutputStream)}
+	 * 
+	 * @param buffer the buffer containing the saved tables (e.g. a memory mapped file)
+	 * @return the loaded algorithm
+	 * @throws IllegalArgumentException if the buffer does not contain tables of this algorithm
+	 */
+	public static WuManber load(ByteBuffer buffer) {
+		return load(new TableReader(buffer));
+	}
+
+	/**
+	 * loads an algorithm saved with {@link #save(Path)} (the file is memory mapped)
+	 * 
+	 * @param file the file containing the saved tables
+	 * @return the loaded algorithm
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file does not contain tables of this algorithm
+	 */
+	public static WuManber load(Path file) throws IOException {
+		return load(TableReader.map(file));
+	}
+
+	private static WuManber load(TableReader in) {
+		in.readHeader(TYPE);
+		int minLength = in.readInt();
+		int maxLength = in.readInt();
+		int block = in.readInt();
+		int[] shift = in.readInts();
+		PackedCharTrie[] hash = new PackedCharTrie[in.readInt()];
+		for (int i = 0; i < hash.length; i++) {
+			if (in.readBoolean()) {
+				hash[i] = PackedCharTrie.readFrom(in);
+			}
+		}
+		return new WuManber(minLength, maxLength, block, shift, hash);
+	}
+
+	/**
+	 * @param out the stream to write the compiled tables to (flushed, but not closed)
+	 * @throws IOException if writing fails
+	 */
+	public void save(OutputStream out) throws IOException {
+		TableWriter writer = new TableWriter(out);
+		writer.writeHeader(TYPE);
+		writer.writeInt(minLength);
+		writer.writeInt(maxLength);
+		writer.writeInt(block);
+		writer.writeInts(shift);
+		writer.writeInt(hash.length);
+		for (PackedCharTrie trie : hash) {
+			writer.writeBoolean(trie != null);
+			if (trie != null) {
+				trie.writeTo(writer);
+			}
+		}
+		writer.flush();
+	}
+
+	/**
+	 * @param file the file to write the compiled tables to
+	 * @throws IOException if writing fails
+	 */
+	public void save(Path file) throws IOException {
+		try (OutputStream out = Files.newOutputStream(file)) {
+			save(out);
+		}
+	}
+
 	@Override
 	public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
 		if (LONGEST_MATCH.in(options)) {
@@ -151,6 +240,22 @@ public class WuManber implements StringSearchAlgorithm {
 		}
 	}
 
+	@Override
+	public void search(CharProvider chars, MatchSink sink) {
+		new NextMatchFinder(minLength, maxLength, block, shift, hash, chars).search(sink);
+	}
+
+	@Override
+	public long estimatedSize() {
+		long size = 4L * shift.length;
+		for (PackedCharTrie trie : hash) {
+			if (trie != null) {
+				size += trie.estimatedSize();
+			}
+		}
+		return size;
+	}
+
 	@Override
 	public int getPatternLength() {
 		return minLength;
@@ -161,7 +266,7 @@ public class WuManber implements StringSearchAlgorithm {
 		return getClass().getSimpleName();
 	}
 
-	private static abstract class Finder extends BufferedStringFinder {
+	private static abstract class Finder extends BufferedStringFinder implements MatchSink {
 
 		protected final int minLength;
 		protected final int lookahead;
@@ -169,9 +274,10 @@ public class WuManber implements StringSearchAlgorithm {
 		protected final int block;
 		protected final int[] shift;
 		protected CharProvider chars;
-		protected CharAutomaton<String>[] hash;
+		protected CharAutomaton<Integer>[] hash;
+		protected long lastEnd;
 
-		public Finder(int minLength, int maxLength, int block, int[] shift, CharWordSet<String>[] hash, CharProvider chars, StringFinderOption... options) {
+		public Finder(int minLength, int maxLength, int block, int[] shift, CharWordSet<Integer>[] hash, CharProvider chars, StringFinderOption... options) {
 			super(options);
 			this.minLength = minLength;
 			this.lookahead = minLength - 1;
@@ -180,13 +286,14 @@ public class WuManber implements StringSearchAlgorithm {
 			this.shift = shift;
 			this.hash = cursor(hash);
 			this.chars = chars;
+			this.lastEnd = nonOverlapping() ? chars.current() : 0;
 		}
 
 		@SuppressWarnings("unchecked")
-		private static CharAutomaton<String>[] cursor(CharWordSet<String>[] hash) {
-			CharAutomaton<String>[] cursors = new CharAutomaton[hash.length];
+		private static CharAutomaton<Integer>[] cursor(CharWordSet<Integer>[] hash) {
+			CharAutomaton<Integer>[] cursors = new CharAutomaton[hash.length];
 			for (int i = 0; i < hash.length; i++) {
-				CharWordSet<String> node = hash[i];
+				CharWordSet<Integer> node = hash[i];
 				cursors[i] = node == null ? CharAutomaton.NULL : node.cursor();
 			}
 			return cursors;
@@ -194,22 +301,81 @@ public class WuManber implements StringSearchAlgorithm {
 
 		@Override
 		public void skipTo(long pos) {
-			long last = removeMatchesBefore(pos);
-			if (last > chars.current()) {
-				chars.move(last);
+			dropMatchesBefore(pos);
+			if (pos > lastEnd) {
+				lastEnd = pos;
+			}
+			if (pos > chars.current()) {
+				chars.move(pos);
+			}
+		}
+
+		@Override
+		protected boolean skipsOverlaps() {
+			return true;
+		}
+
+		/**
+		 * verifies the current window if its shift is 0 (reporting the matches ending at the window end) and shifts the window
+		 * 
+		 * @param sink the sink to report the matches to
+		 * @return false if the sink stopped the search, true otherwise
+		 */
+		protected boolean scanWindow(MatchSink sink) {
+			long pos = chars.current();
+			int shiftBy = shift[hash(chars, minLength - block, minLength, SHIFT_SEED, shift.length)];
+			if (shiftBy == 0) {
+				int hashkey = hash(chars, minLength - block, minLength, HASH_SEED, hash.length);
+				CharAutomaton<Integer> cursor = hash[hashkey];
+				cursor.reset();
+				int patternPointer = lookahead;
+				boolean success = cursor.accept(chars.lookahead(patternPointer));
+				while (success) {
+					if (cursor.hasAttachments()) {
+						if (!sink.match(pos + patternPointer, pos + minLength, cursor.iterator().next())) {
+							return false;
+						}
+					}
+					patternPointer--;
+					if (pos + patternPointer < lastEnd) {
+						break;
+					}
+					success = cursor.accept(chars.lookahead(patternPointer));
+				}
+				chars.next();
+			} else {
+				chars.forward(shiftBy);
+			}
+			return true;
+		}
+
+		public void search(MatchSink sink) {
+			while (!chars.finished(lookahead)) {
+				if (!scanWindow(sink)) {
+					return;
+				}
 			}
 		}
 
-		protected StringMatch createMatch(long start, long end) {
+		@Override
+		public boolean match(long start, long end, int pattern) {
+			push(createMatch(start, end, pattern));
+			return true;
+		}
+
+		protected StringMatch createMatch(long start, long end, int pattern) {
+			if (!capturesText()) {
+				return new StringMatch(start, end, null, pattern);
+			}
 			String s = chars.slice(start, end);
-			return new StringMatch(start, end, s);
+			return new StringMatch(start, end, s, pattern);
 		}
 
 	}
 
 	private static class NextMatchFinder extends Finder {
 
-		public NextMatchFinder(int minLength, int maxLength, int block, int[] shift, CharWordSet<String>[] hash, CharProvider chars, StringFinderOption... options) {
+		public NextMatchFinder(int minLength, int maxLength, int block, int[] shift, CharWordSet<Integer>[] hash, CharProvider chars, StringFinderOption... options) {
 			super(minLength, maxLength, block, shift, hash, chars, options);
 		}
 
@@ -219,75 +385,61 @@ public class WuManber implements StringSearchAlgorithm {
 				return leftMost();
 			}
 			while (!chars.finished(lookahead)) {
-				long pos = chars.current();
-				char[] lastBlock = chars.between(pos + minLength - block, pos + minLength);
-				int shiftKey = shiftHash(lastBlock);
-				int shiftBy = shift[shiftKey];
-				if (shiftBy == 0) {
-					int hashkey = hashHash(lastBlock);
-					CharAutomaton<String> cursor = hash[hashkey];
-					cursor.reset();
-					int patternPointer = lookahead;
-					boolean success = cursor.accept(chars.lookahead(patternPointer));
-					while (success) {
-						if (cursor.hasAttachments()) {
-							String match = cursor.iterator().next();
-							long start = chars.current() + patternPointer;
-							long end = chars.current() + patternPointer + match.length();
-							push(createMatch(start, end));
-						}
-						patternPointer--;
-						if (pos + patternPointer < 0) {
-							break;
-						}
-						success = cursor.accept(chars.lookahead(patternPointer));
-					}
-					chars.next();
-					if (!isBufferEmpty()) {
-						return leftMost();
-					}
-				} else {
-					chars.forward(shiftBy);
+				scanWindow(this);
+				if (!isBufferEmpty()) {
+					return nextMatch();
 				}
 			}
 			return null;
 		}
 
+		private StringMatch nextMatch() {
+			StringMatch match = leftMost();
+			if (nonOverlapping()) {
+				clear();
+				lastEnd = match.end();
+				if (lastEnd > chars.current()) {
+					chars.move(lastEnd);
+				}
+			}
+			return match;
+		}
+
 	}
 
 	private static class LongestMatchFinder extends Finder {
 
-		public LongestMatchFinder(int minLength, int maxLength, int block, int[] shift, CharWordSet<String>[] hash, CharProvider chars, StringFinderOption... options) {
+		public LongestMatchFinder(int minLength, int maxLength, int block, int[] shift, CharWordSet<Integer>[] hash, CharProvider chars, StringFinderOption... options) {
 			super(minLength, maxLength, block, shift, hash, chars, options);
 		}
 
 		@Override
 		public StringMatch findNext() {
+			if (nonOverlapping()) {
+				dropMatchesBefore(lastEnd);
+			}
 			long lastStart = lastStartFromBuffer();
 			while (!chars.finished(lookahead)) {
 				long pos = chars.current();
-				char[] lastBlock = chars.between(pos + minLength - block, pos + minLength);
-				int shiftKey = shiftHash(lastBlock);
-				int shiftBy = shift[shiftKey];
+				int shiftBy = shift[hash(chars, minLength - block, minLength, SHIFT_SEED, shift.length)];
 				if (shiftBy == 0) {
-					int hashkey = hashHash(lastBlock);
-					CharAutomaton<String> cursor = hash[hashkey];
+					int hashkey = hash(chars, minLength - block, minLength, HASH_SEED, hash.length);
+					CharAutomaton<Integer> cursor = hash[hashkey];
 					cursor.reset();
 					int patternPointer = lookahead;
 					boolean success = cursor.accept(chars.lookahead(patternPointer));
 					while (success) {
 						if (cursor.hasAttachments()) {
-							String match = cursor.iterator().next();
-							long start = chars.current() + patternPointer;
-							long end = chars.current() + patternPointer + match.length();
-							StringMatch stringMatch = createMatch(start, end);
+							long start = pos + patternPointer;
+							long end = pos + minLength;
+							StringMatch stringMatch = createMatch(start, end, cursor.iterator().next());
 							if (lastStart < 0) {
 								lastStart = start;
 							}
 							push(stringMatch);
 						}
 						patternPointer--;
-						if (pos + patternPointer < 0) {
+						if (pos + patternPointer < lastEnd) {
 							break;
 						}
 						success = cursor.accept(chars.lookahead(patternPointer));
@@ -300,7 +452,11 @@ public class WuManber implements StringSearchAlgorithm {
 					chars.forward(shiftBy);
 				}
 			}
-			return longestLeftMost();
+			StringMatch match = longestLeftMost();
+			if (match != null && nonOverlapping()) {
+				lastEnd = match.end();
+			}
+			return match;
 		}
 
 		public boolean bufferContainsLongestMatch(long lastStart) {
@@ -312,9 +468,25 @@ public class WuManber implements StringSearchAlgorithm {
 
 	public static class Factory implements MultiStringSearchAlgorithmFactory {
 
+		private int shiftSize;
+		private int hashSize;
+
+		public Factory() {
+			this(SHIFT_SIZE, HASH_SIZE);
+		}
+
+		/**
+		 * @param shiftSize the number of buckets of the shift table
+		 * @param hashSize the number of buckets of the hash table
+		 */
+		public Factory(int shiftSize, int hashSize) {
+			this.shiftSize = shiftSize;
+			this.hashSize = hashSize;
+		}
+
 		@Override
 		public StringSearchAlgorithm of(Collection<String> patterns) {
-			return new WuManber(patterns);
+			return new WuManber(patterns, shiftSize, hashSize);
 		}
 
 	}
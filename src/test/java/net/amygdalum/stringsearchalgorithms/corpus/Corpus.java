@@ -0,0 +1,154 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import net.amygdalum.stringsearchalgorithms.search.SearchCorpus;
+import net.amygdalum.util.io.ByteProvider;
+import net.amygdalum.util.io.CharProvider;
+import net.amygdalum.util.io.StringByteProvider;
+import net.amygdalum.util.io.StringCharProvider;
+
+/**
+ * A deterministic source of documents and pattern sets. Each sample is derived from the seed and the sample parameters only, so equal parameters
+ * always yield equal samples.
+ */
+public class Corpus {
+
+	private static final int MAX_ATTEMPTS = 100;
+
+	private TextGenerator generator;
+	private long seed;
+
+	public Corpus(TextGenerator generator, long seed) {
+		this.generator = generator;
+		this.seed = seed;
+	}
+
+	public static Corpus naturalLanguage(long seed) {
+		return new Corpus(new NaturalLanguageText(), seed);
+	}
+
+	public static Corpus dna(long seed) {
+		return new Corpus(new RandomText(RandomText.DNA), seed);
+	}
+
+	public static Corpus protein(long seed) {
+		return new Corpus(new RandomText(RandomText.PROTEIN), seed);
+	}
+
+	public static Corpus binary(long seed) {
+		return new Corpus(RandomText.range((char) 0, (char) 255), seed);
+	}
+
+	public static Corpus serverLog(long seed) {
+		return new Corpus(new ServerLogText(), seed);
+	}
+
+	public static Corpus mixedCjk(long seed) {
+		return new Corpus(new MixedCjkText(), seed);
+	}
+
+	public static Sample sample(CorpusKind kind, SearchCorpus searchCorpus) {
+		return kind.corpus(searchCorpus.seed())
+			.sample(searchCorpus.length(), searchCorpus.patterns(), searchCorpus.patternLength(), searchCorpus.hitRate());
+	}
+
+	public String text(int length) {
+		return generator.generate(new Random(seed), length);
+	}
+
+	/**
+	 * samples a text and a set of patterns.
+	 * 
+	 * @param length the length of the text
+	 * @param patternCount the number of patterns (might be less if the text does not contain enough distinct patterns)
+	 * @param patternLength the length of each pattern
+	 * @param hitRate the fraction of patterns that occur in the text (all other patterns do not occur in the text)
+	 * @return a sample containing text and patterns
+	 */
+	public Sample sample(int length, int patternCount, int patternLength, double hitRate) {
+		if (patternLength > length) {
+			throw new IllegalArgumentException("pattern length must not exceed text length");
+		}
+		String text = text(length);
+		Random random = new Random(seed * 31 + patternCount * 17 + patternLength);
+		int hits = (int) Math.round(patternCount * hitRate);
+
+		Set<String> patterns = new LinkedHashSet<>();
+		for (int attempts = 0; patterns.size() < hits && attempts < hits * MAX_ATTEMPTS; attempts++) {
+			int start = random.nextInt(length - patternLength + 1);
+			patterns.add(text.substring(start, start + patternLength));
+		}
+		char absent = absentChar(text);
+		for (int attempts = 0; patterns.size() < patternCount && attempts < patternCount * MAX_ATTEMPTS; attempts++) {
+			patterns.add(missingPattern(text, random, patternLength, absent));
+		}
+		return new Sample(text, new ArrayList<>(patterns));
+	}
+
+	private String missingPattern(String text, Random random, int patternLength, char absent) {
+		String pattern = null;
+		for (int i = 0; i < MAX_ATTEMPTS; i++) {
+			String candidates = generator.generate(random, patternLength * 16);
+			int start = random.nextInt(candidates.length() - patternLength + 1);
+			pattern = candidates.substring(start, start + patternLength);
+			if (!text.contains(pattern)) {
+				return pattern;
+			}
+		}
+		char[] chars = pattern.toCharArray();
+		chars[random.nextInt(chars.length)] = absent;
+		return new String(chars);
+	}
+
+	private static char absentChar(String text) {
+		boolean[] present = new boolean[Character.MAX_VALUE + 1];
+		for (int i = 0; i < text.length(); i++) {
+			present[text.charAt(i)] = true;
+		}
+		for (char c = ' '; c < Character.MAX_VALUE; c++) {
+			if (!present[c] && !Character.isSurrogate(c)) {
+				return c;
+			}
+		}
+		throw new IllegalStateException("text contains all chars");
+	}
+
+	public static class Sample {
+
+		private String text;
+		private List<String> patterns;
+
+		public Sample(String text, List<String> patterns) {
+			this.text = text;
+			this.patterns = patterns;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public List<String> getPatterns() {
+			return patterns;
+		}
+
+		public String getPattern() {
+			return patterns.get(0);
+		}
+
+		public CharProvider chars() {
+			return new StringCharProvider(text, 0);
+		}
+
+		public ByteProvider bytes(Charset charset) {
+			return new StringByteProvider(text, 0, charset);
+		}
+
+	}
+
+}
@@ -0,0 +1,43 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+public enum CorpusKind {
+	NATURAL_LANGUAGE {
+		@Override
+		public Corpus corpus(long seed) {
+			return Corpus.naturalLanguage(seed);
+		}
+	},
+	DNA {
+		@Override
+		public Corpus corpus(long seed) {
+			return Corpus.dna(seed);
+		}
+	},
+	PROTEIN {
+		@Override
+		public Corpus corpus(long seed) {
+			return Corpus.protein(seed);
+		}
+	},
+	BINARY {
+		@Override
+		public Corpus corpus(long seed) {
+			return Corpus.binary(seed);
+		}
+	},
+	SERVER_LOG {
+		@Override
+		public Corpus corpus(long seed) {
+			return Corpus.serverLog(seed);
+		}
+	},
+	MIXED_CJK {
+		@Override
+		public Corpus corpus(long seed) {
+			return Corpus.mixedCjk(seed);
+		}
+	};
+
+	public abstract Corpus corpus(long seed);
+
+}
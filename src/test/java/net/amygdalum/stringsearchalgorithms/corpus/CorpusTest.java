@@ -0,0 +1,74 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+
+public class CorpusTest {
+
+	@Test
+	public void testTextIsDeterministic() throws Exception {
+		for (CorpusKind kind : CorpusKind.values()) {
+			assertThat(kind.corpus(42).text(1000), equalTo(kind.corpus(42).text(1000)));
+			assertThat(kind.corpus(42).text(1000), not(equalTo(kind.corpus(43).text(1000))));
+		}
+	}
+
+	@Test
+	public void testTextLength() throws Exception {
+		for (CorpusKind kind : CorpusKind.values()) {
+			assertThat(kind.corpus(42).text(1234).length(), equalTo(1234));
+		}
+	}
+
+	@Test
+	public void testDnaAlphabet() throws Exception {
+		assertThat(Corpus.dna(42).text(1000).replaceAll("[ACGT]", ""), equalTo(""));
+	}
+
+	@Test
+	public void testProteinAlphabet() throws Exception {
+		assertThat(Corpus.protein(42).text(1000).replaceAll("[ACDEFGHIKLMNPQRSTVWY]", ""), equalTo(""));
+	}
+
+	@Test
+	public void testSampleIsDeterministic() throws Exception {
+		Sample sample1 = Corpus.serverLog(42).sample(5000, 20, 6, 0.5);
+		Sample sample2 = Corpus.serverLog(42).sample(5000, 20, 6, 0.5);
+
+		assertThat(sample1.getText(), equalTo(sample2.getText()));
+		assertThat(sample1.getPatterns(), equalTo(sample2.getPatterns()));
+	}
+
+	@Test
+	public void testSampleHitRate() throws Exception {
+		for (CorpusKind kind : CorpusKind.values()) {
+			Sample sample = kind.corpus(42).sample(10000, 20, 8, 0.25);
+
+			assertThat(sample.getPatterns(), hasSize(20));
+			int hits = 0;
+			for (String pattern : sample.getPatterns()) {
+				assertThat(pattern.length(), equalTo(8));
+				if (sample.getText().contains(pattern)) {
+					hits++;
+				}
+			}
+			assertThat(kind.name(), hits, equalTo(5));
+		}
+	}
+
+	@Test
+	public void testSampleWithoutHits() throws Exception {
+		Sample sample = Corpus.dna(42).sample(10000, 10, 4, 0);
+
+		for (String pattern : sample.getPatterns()) {
+			assertThat(sample.getText().contains(pattern), equalTo(false));
+		}
+	}
+
+}
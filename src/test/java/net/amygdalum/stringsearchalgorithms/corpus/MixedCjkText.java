@@ -0,0 +1,46 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+import java.util.Random;
+
+/**
+ * Generates text mixing chinese/japanese/korean scripts with latin words, digits and punctuation. All chars are from the basic multilingual plane.
+ */
+public class MixedCjkText implements TextGenerator {
+
+	private static final String HAN = "的一是不了人我在有他这中大来上国个到说们为子和你地出道也时年得就那要下以生会自着去之过家学对可她里后小么心多天而能好都然没日于起还发成事只作当想看文无开手十用主行方又如前所本见经头面公同三已老从动两长知民样现分将外但身些与高意进把法此实回二理美点月明其种声全工己话儿者向情部正名定女问力机给等几很业最间新什打便位因重被走电四第门相次东政海口使教西再平真听世气信北少关并内加化由却代军产入先山五太水万市眼体别处总才场师书比住员九笑性通目华报立马命张活难神数件安表原车白应路期叫死常提感金何更反合放做系计或司利受光王果亲界及今京务制解各任至清物台象记边共风战干接它许八特觉望直服毛林题建南度统色字请交爱让认算论百吃义科怎元社术结六功指思非流每青管夫连远资队跟带花快条院变联言权往展该领传近留红治决周保达办运武半候七必城父强步完革深区即求品士转量空甚众技轻程告江语英基派满式李息写呢识极令黄德收脸钱党倒未持取设始版双历越史商千片容研像找友孩站广改议形委早房音火际则首单手";
+	private static final char[] PUNCTUATION = {'。', '、', '，', '！', '？', '「', '」', ' '};
+	private static final String[] LATIN = {"API", "Java", "OK", "2024", "iPhone", "USB", "http", "v2", "GPU", "DNA", "CEO", "Tokyo"};
+
+	@Override
+	public String generate(Random random, int length) {
+		StringBuilder buffer = new StringBuilder(length + 16);
+		while (buffer.length() < length) {
+			int script = random.nextInt(10);
+			int runLength = 1 + random.nextInt(8);
+			if (script < 4) {
+				for (int i = 0; i < runLength; i++) {
+					buffer.append(HAN.charAt(random.nextInt(HAN.length())));
+				}
+			} else if (script < 6) {
+				for (int i = 0; i < runLength; i++) {
+					buffer.append((char) (0x3041 + random.nextInt(0x3096 - 0x3041 + 1)));
+				}
+			} else if (script < 7) {
+				for (int i = 0; i < runLength; i++) {
+					buffer.append((char) (0x30A1 + random.nextInt(0x30FA - 0x30A1 + 1)));
+				}
+			} else if (script < 8) {
+				for (int i = 0; i < runLength; i++) {
+					buffer.append((char) (0xAC00 + random.nextInt(0xD7A3 - 0xAC00 + 1)));
+				}
+			} else if (script < 9) {
+				buffer.append(LATIN[random.nextInt(LATIN.length)]);
+			} else {
+				buffer.append(PUNCTUATION[random.nextInt(PUNCTUATION.length)]);
+			}
+		}
+		buffer.setLength(length);
+		return buffer.toString();
+	}
+
+}
@@ -0,0 +1,82 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+import java.util.Random;
+
+/**
+ * Generates english-like text: sentences of words drawn with a zipfian distribution from a small vocabulary.
+ */
+public class NaturalLanguageText implements TextGenerator {
+
+	private static final String[] WORDS = {
+		"the", "of", "and", "to", "a", "in", "is", "it", "you", "that",
+		"he", "was", "for", "on", "are", "with", "as", "his", "they", "be",
+		"at", "one", "have", "this", "from", "or", "had", "by", "not", "word",
+		"but", "what", "some", "we", "can", "out", "other", "were", "all", "there",
+		"when", "up", "use", "your", "how", "said", "an", "each", "she", "which",
+		"do", "their", "time", "if", "will", "way", "about", "many", "then", "them",
+		"write", "would", "like", "so", "these", "her", "long", "make", "thing", "see",
+		"him", "two", "has", "look", "more", "day", "could", "go", "come", "did",
+		"number", "sound", "no", "most", "people", "my", "over", "know", "water", "than",
+		"call", "first", "who", "may", "down", "side", "been", "now", "find", "any",
+		"new", "work", "part", "take", "get", "place", "made", "live", "where", "after",
+		"back", "little", "only", "round", "man", "year", "came", "show", "every", "good",
+		"me", "give", "our", "under", "name", "very", "through", "just", "form", "sentence",
+		"great", "think", "say", "help", "low", "line", "differ", "turn", "cause", "much",
+		"mean", "before", "move", "right", "boy", "old", "too", "same", "tell", "does",
+		"set", "three", "want", "air", "well", "also", "play", "small", "end", "put",
+		"home", "read", "hand", "port", "large", "spell", "add", "even", "land", "here",
+		"must", "big", "high", "such", "follow", "act", "why", "ask", "men", "change",
+		"went", "light", "kind", "off", "need", "house", "picture", "try", "us", "again",
+		"animal", "point", "mother", "world", "near", "build", "self", "earth", "father", "head"
+	};
+
+	private static final double[] CUMULATIVE = cumulativeZipf(WORDS.length);
+
+	private static double[] cumulativeZipf(int size) {
+		double[] cumulative = new double[size];
+		double sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += 1d / (i + 1);
+			cumulative[i] = sum;
+		}
+		for (int i = 0; i < size; i++) {
+			cumulative[i] /= sum;
+		}
+		return cumulative;
+	}
+
+	@Override
+	public String generate(Random random, int length) {
+		StringBuilder buffer = new StringBuilder(length + 32);
+		while (buffer.length() < length) {
+			int words = 4 + random.nextInt(16);
+			for (int i = 0; i < words; i++) {
+				String word = word(random);
+				if (i == 0) {
+					buffer.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+				} else {
+					buffer.append(word);
+				}
+				if (i == words - 1) {
+					buffer.append(random.nextInt(8) == 0 ? '?' : '.');
+				} else if (random.nextInt(10) == 0) {
+					buffer.append(',');
+				}
+				buffer.append(i == words - 1 && random.nextInt(6) == 0 ? '\n' : ' ');
+			}
+		}
+		buffer.setLength(length);
+		return buffer.toString();
+	}
+
+	private static String word(Random random) {
+		double value = random.nextDouble();
+		for (int i = 0; i < CUMULATIVE.length; i++) {
+			if (value < CUMULATIVE[i]) {
+				return WORDS[i];
+			}
+		}
+		return WORDS[WORDS.length - 1];
+	}
+
+}
@@ -0,0 +1,40 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+import java.util.Random;
+
+/**
+ * Generates uniformly distributed text over a fixed alphabet.
+ */
+public class RandomText implements TextGenerator {
+
+	public static final String DNA = "ACGT";
+	public static final String PROTEIN = "ACDEFGHIKLMNPQRSTVWY";
+
+	private char[] alphabet;
+
+	public RandomText(String alphabet) {
+		this(alphabet.toCharArray());
+	}
+
+	public RandomText(char[] alphabet) {
+		this.alphabet = alphabet;
+	}
+
+	public static RandomText range(char from, char to) {
+		char[] alphabet = new char[to - from + 1];
+		for (int i = 0; i < alphabet.length; i++) {
+			alphabet[i] = (char) (from + i);
+		}
+		return new RandomText(alphabet);
+	}
+
+	@Override
+	public String generate(Random random, int length) {
+		char[] text = new char[length];
+		for (int i = 0; i < text.length; i++) {
+			text[i] = alphabet[random.nextInt(alphabet.length)];
+		}
+		return new String(text);
+	}
+
+}
@@ -0,0 +1,110 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+
+/**
+ * A naive search computing the expected matches (all matches, overlapping, ordered by start and end) for a given text and pattern set.
+ */
+public final class ReferenceSearch {
+
+	private ReferenceSearch() {
+	}
+
+	public static List<StringMatch> findAll(String text, Collection<String> patterns) {
+		SortedSet<StringMatch> matches = new TreeSet<>();
+		for (String pattern : new LinkedHashSet<>(patterns)) {
+			int start = text.indexOf(pattern);
+			while (start >= 0) {
+				matches.add(new StringMatch(start, start + pattern.length(), pattern));
+				start = text.indexOf(pattern, start + 1);
+			}
+		}
+		return new ArrayList<>(matches);
+	}
+
+	public static List<StringMatch> findAll(String text, Collection<String> patterns, Charset charset) {
+		byte[] bytes = text.getBytes(charset);
+		SortedSet<StringMatch> matches = new TreeSet<>();
+		for (String pattern : new LinkedHashSet<>(patterns)) {
+			byte[] patternBytes = pattern.getBytes(charset);
+			for (int start = 0; start <= bytes.length - patternBytes.length; start++) {
+				if (matchesAt(bytes, start, patternBytes)) {
+					matches.add(new StringMatch(start, start + patternBytes.length, new String(bytes, start, patternBytes.length, charset)));
+				}
+			}
+		}
+		return new ArrayList<>(matches);
+	}
+
+	/**
+	 * @param matches all matches (as computed by findAll)
+	 * @return the non overlapping matches, choosing the match ending first (and of these the longest) after the previous match
+	 */
+	public static List<StringMatch> nonOverlapping(List<StringMatch> matches) {
+		List<StringMatch> sorted = new ArrayList<>(matches);
+		Collections.sort(sorted, new Comparator<StringMatch>() {
+
+			@Override
+			public int compare(StringMatch o1, StringMatch o2) {
+				int end = Long.compare(o1.end(), o2.end());
+				if (end != 0) {
+					return end;
+				}
+				return Long.compare(o1.start(), o2.start());
+			}
+		});
+		return skipOverlaps(sorted);
+	}
+
+	/**
+	 * @param matches all matches (as computed by findAll)
+	 * @return the non overlapping matches, choosing the match starting first (and of these the longest) after the previous match
+	 */
+	public static List<StringMatch> longestNonOverlapping(List<StringMatch> matches) {
+		List<StringMatch> sorted = new ArrayList<>(matches);
+		Collections.sort(sorted, new Comparator<StringMatch>() {
+
+			@Override
+			public int compare(StringMatch o1, StringMatch o2) {
+				int start = Long.compare(o1.start(), o2.start());
+				if (start != 0) {
+					return start;
+				}
+				return Long.compare(o2.end(), o1.end());
+			}
+		});
+		return skipOverlaps(sorted);
+	}
+
+	private static List<StringMatch> skipOverlaps(List<StringMatch> matches) {
+		List<StringMatch> nonOverlapping = new ArrayList<>();
+		long last = 0;
+		for (StringMatch match : matches) {
+			if (match.start() >= last) {
+				nonOverlapping.add(match);
+				last = match.end();
+			}
+		}
+		return nonOverlapping;
+	}
+
+	private static boolean matchesAt(byte[] bytes, int start, byte[] pattern) {
+		for (int i = 0; i < pattern.length; i++) {
+			if (bytes[start + i] != pattern[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,42 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Generates access/application log lines like they are written by a web server.
+ */
+public class ServerLogText implements TextGenerator {
+
+	private static final long START = 1500000000000l;
+	private static final String[] LEVELS = {"INFO ", "INFO ", "INFO ", "INFO ", "INFO ", "INFO ", "INFO ", "DEBUG", "WARN ", "ERROR"};
+	private static final String[] METHODS = {"GET", "GET", "GET", "POST", "PUT", "DELETE"};
+	private static final String[] PATHS = {"/api/v1/users/", "/api/v1/orders/", "/api/v2/search?q=", "/static/js/app.", "/login", "/health", "/api/v1/items/", "/admin/reports/"};
+	private static final int[] STATUS = {200, 200, 200, 200, 201, 204, 301, 304, 400, 401, 403, 404, 500, 503};
+	private static final String[] MESSAGES = {"request completed", "cache miss", "slow query detected", "connection reset by peer", "session expired", "retrying request"};
+
+	@Override
+	public String generate(Random random, int length) {
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		StringBuilder buffer = new StringBuilder(length + 256);
+		long time = START;
+		while (buffer.length() < length) {
+			time += random.nextInt(2000);
+			buffer.append(format.format(new Date(time))).append(' ')
+				.append(LEVELS[random.nextInt(LEVELS.length)]).append(' ')
+				.append("[worker-").append(random.nextInt(16)).append("] ")
+				.append(random.nextInt(256)).append('.').append(random.nextInt(256)).append('.').append(random.nextInt(256)).append('.').append(random.nextInt(256)).append(' ')
+				.append(METHODS[random.nextInt(METHODS.length)]).append(' ')
+				.append(PATHS[random.nextInt(PATHS.length)]).append(random.nextInt(100000)).append(' ')
+				.append(STATUS[random.nextInt(STATUS.length)]).append(' ')
+				.append(random.nextInt(2000)).append("ms ")
+				.append(MESSAGES[random.nextInt(MESSAGES.length)]).append('\n');
+		}
+		buffer.setLength(length);
+		return buffer.toString();
+	}
+
+}
@@ -0,0 +1,12 @@
+package net.amygdalum.stringsearchalgorithms.corpus;
+
+import java.util.Random;
+
+/**
+ * Generates text of a certain kind. Generators are stateless, all randomness is drawn from the given random, so equal seeds yield equal texts.
+ */
+public interface TextGenerator {
+
+	String generate(Random random, int length);
+
+}
@@ -0,0 +1,147 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.stringsearchalgorithms.search.bytes.AhoCorasick;
+import net.amygdalum.stringsearchalgorithms.search.bytes.BNDM;
+import net.amygdalum.stringsearchalgorithms.search.bytes.Horspool;
+import net.amygdalum.stringsearchalgorithms.search.bytes.SetHorspool;
+import net.amygdalum.stringsearchalgorithms.search.bytes.StringSearchAlgorithm;
+import net.amygdalum.util.io.OutOfBufferException;
+import net.amygdalum.util.io.StringByteProvider;
+
+public class ChannelByteProviderTest {
+
+	private static final String TEXT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+	@Test
+	public void testNextAcrossChunks() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+
+		StringBuilder buffer = new StringBuilder();
+		while (!provider.finished()) {
+			buffer.append((char) provider.next());
+		}
+
+		assertThat(buffer.toString(), equalTo(TEXT));
+		assertThat(provider.current(), equalTo((long) TEXT.length()));
+	}
+
+	@Test
+	public void testLookaheadAcrossChunks() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+
+		assertThat(provider.lookahead(), equalTo((byte) '0'));
+		assertThat(provider.lookahead(11), equalTo((byte) 'b'));
+		provider.forward(9);
+		assertThat(provider.lookahead(-1), equalTo((byte) '8'));
+		assertThat(provider.lookbehind(1), equalTo((byte) '7'));
+		assertThat(provider.current(), equalTo(9L));
+	}
+
+	@Test
+	public void testPrevWithinLookback() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+		provider.move(20);
+		provider.next();
+
+		assertThat(provider.prev(), equalTo((byte) 'k'));
+		assertThat(provider.prev(), equalTo((byte) 'j'));
+	}
+
+	@Test(expected = OutOfBufferException.class)
+	public void testAtBeforeLookbackFails() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+		provider.move(20);
+		provider.next();
+		provider.finished(8);
+
+		provider.at(3);
+	}
+
+	@Test
+	public void testMoveAndAt() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+
+		provider.move(20);
+		assertThat(provider.next(), equalTo((byte) 'k'));
+		assertThat(provider.at(19), equalTo((byte) 'j'));
+		assertThat(provider.at(30), equalTo((byte) 'u'));
+	}
+
+	@Test
+	public void testFinished() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+		provider.move(30);
+
+		assertThat(provider.finished(), is(false));
+		assertThat(provider.finished(5), is(false));
+		assertThat(provider.finished(6), is(true));
+		provider.finish();
+		assertThat(provider.finished(), is(true));
+		assertThat(provider.current(), equalTo((long) TEXT.length()));
+	}
+
+	@Test
+	public void testBetweenAndSliceAcrossChunks() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+		provider.move(6);
+
+		assertThat(new String(provider.between(6, 27), UTF_8), equalTo("6789abcdefghijklmnopq"));
+		assertThat(provider.slice(4, 9).getString(), equalTo("45678"));
+		assertThat(provider.slice(7, 7).getString(), equalTo(""));
+		assertThat(provider.current(), equalTo(6L));
+	}
+
+	@Test
+	public void testChanged() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+
+		assertThat(provider.changed(), is(false));
+		provider.mark();
+		assertThat(provider.changed(), is(false));
+		provider.mark();
+		provider.next();
+		assertThat(provider.changed(), is(true));
+	}
+
+	@Test
+	public void testToString() throws Exception {
+		ChannelByteProvider provider = provider(TEXT, 4, 2);
+		provider.move(10);
+		provider.finished(2);
+
+		assertThat(provider.toString(), equalTo("...89|ab..."));
+	}
+
+	@Test
+	public void testSearchWithSmallChunks() throws Exception {
+		Sample sample = Corpus.naturalLanguage(42).sample(20_000, 3, 8, 0.5);
+		String pattern = sample.getPattern();
+		List<String> patterns = sample.getPatterns();
+		for (StringSearchAlgorithm algorithm : asList(new Horspool(pattern, UTF_8), new BNDM(pattern, UTF_8), new SetHorspool(patterns, UTF_8), new AhoCorasick(patterns, UTF_8))) {
+			ChannelByteProvider provider = provider(sample.getText(), 7, 8);
+
+			List<StringMatch> matches = algorithm.createFinder(provider).findAll();
+
+			assertThat(algorithm.toString(), matches, equalTo(algorithm.createFinder(new StringByteProvider(sample.getText(), 0, UTF_8)).findAll()));
+		}
+	}
+
+	private static ChannelByteProvider provider(String text, int chunk, int lookback) {
+		return new ChannelByteProvider(new ByteArrayInputStream(text.getBytes(UTF_8)), UTF_8, chunk, lookback);
+	}
+
+}
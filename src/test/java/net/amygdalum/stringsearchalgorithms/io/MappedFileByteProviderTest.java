@@ -0,0 +1,154 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.stringsearchalgorithms.search.bytes.AhoCorasick;
+import net.amygdalum.stringsearchalgorithms.search.bytes.Horspool;
+import net.amygdalum.stringsearchalgorithms.search.bytes.StringSearchAlgorithm;
+import net.amygdalum.util.io.StringByteProvider;
+
+public class MappedFileByteProviderTest {
+
+	private static final String TEXT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path file;
+	private FileChannel channel;
+
+	@Before
+	public void before() throws Exception {
+		File newFile = folder.newFile();
+		file = newFile.toPath();
+		Files.write(file, TEXT.getBytes(UTF_8));
+		channel = FileChannel.open(file, READ);
+	}
+
+	@After
+	public void after() throws Exception {
+		channel.close();
+	}
+
+	@Test
+	public void testNextAcrossSegments() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(channel, 0, UTF_8, 3);
+
+		StringBuilder buffer = new StringBuilder();
+		while (!provider.finished()) {
+			buffer.append((char) provider.next());
+		}
+
+		assertThat(buffer.toString(), equalTo(TEXT));
+		assertThat(provider.current(), equalTo((long) TEXT.length()));
+	}
+
+	@Test
+	public void testPrevAcrossSegments() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(channel, 9, UTF_8, 3);
+
+		assertThat(provider.prev(), equalTo((byte) '8'));
+		assertThat(provider.prev(), equalTo((byte) '7'));
+		assertThat(provider.current(), equalTo(7L));
+	}
+
+	@Test
+	public void testLookaheadAndLookbehind() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(channel, 8, UTF_8, 3);
+
+		assertThat(provider.lookahead(), equalTo((byte) '8'));
+		assertThat(provider.lookahead(3), equalTo((byte) 'b'));
+		assertThat(provider.lookahead(-1), equalTo((byte) '7'));
+		assertThat(provider.lookbehind(), equalTo((byte) '7'));
+		assertThat(provider.lookbehind(2), equalTo((byte) '5'));
+		assertThat(provider.current(), equalTo(8L));
+	}
+
+	@Test
+	public void testMoveAndForward() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(channel, 0, UTF_8, 3);
+
+		provider.move(20);
+		assertThat(provider.next(), equalTo((byte) 'k'));
+		provider.forward(5);
+		assertThat(provider.next(), equalTo((byte) 'q'));
+		assertThat(provider.at(1), equalTo((byte) '1'));
+	}
+
+	@Test
+	public void testFinished() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(channel, 30, UTF_8, 3);
+
+		assertThat(provider.finished(), is(false));
+		assertThat(provider.finished(5), is(false));
+		assertThat(provider.finished(6), is(true));
+		provider.finish();
+		assertThat(provider.finished(), is(true));
+	}
+
+	@Test
+	public void testBetweenAndSliceAcrossSegments() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(channel, 0, UTF_8, 3);
+
+		assertThat(new String(provider.between(6, 27), UTF_8), equalTo("6789abcdefghijklmnopq"));
+		assertThat(provider.slice(7, 9).getString(), equalTo("78"));
+		assertThat(provider.slice(3, 3).getString(), equalTo(""));
+		assertThat(provider.current(), equalTo(0L));
+	}
+
+	@Test
+	public void testChanged() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(channel, 0, UTF_8, 3);
+
+		assertThat(provider.changed(), is(false));
+		provider.mark();
+		assertThat(provider.changed(), is(false));
+		provider.mark();
+		provider.next();
+		assertThat(provider.changed(), is(true));
+	}
+
+	@Test
+	public void testSize() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(file, 0, UTF_8);
+
+		assertThat(provider.size(), equalTo((long) TEXT.length()));
+	}
+
+	@Test
+	public void testToString() throws Exception {
+		MappedFileByteProvider provider = new MappedFileByteProvider(file, 3, UTF_8);
+
+		assertThat(provider.toString(), equalTo("012|3456789abcdefghijklmnopqrstuvwxy..."));
+	}
+
+	@Test
+	public void testSearchAcrossSegments() throws Exception {
+		for (StringSearchAlgorithm algorithm : new StringSearchAlgorithm[] { new Horspool("789ab", UTF_8), new AhoCorasick(asList("789ab", "fgh", "6"), UTF_8) }) {
+			MappedFileByteProvider provider = new MappedFileByteProvider(channel, 0, UTF_8, 3);
+
+			List<StringMatch> matches = algorithm.createFinder(provider).findAll();
+
+			assertThat(matches, equalTo(algorithm.createFinder(new StringByteProvider(TEXT, 0, UTF_8)).findAll()));
+		}
+	}
+
+}
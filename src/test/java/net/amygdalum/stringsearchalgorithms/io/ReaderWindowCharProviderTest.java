@@ -0,0 +1,161 @@
+package net.amygdalum.stringsearchalgorithms.io;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.stringsearchalgorithms.search.chars.AhoCorasick;
+import net.amygdalum.stringsearchalgorithms.search.chars.BNDM;
+import net.amygdalum.stringsearchalgorithms.search.chars.Horspool;
+import net.amygdalum.stringsearchalgorithms.search.chars.QGramShiftOr;
+import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithm;
+import net.amygdalum.stringsearchalgorithms.search.chars.Sunday;
+import net.amygdalum.stringsearchalgorithms.search.chars.WuManber;
+import net.amygdalum.util.io.OutOfBufferException;
+import net.amygdalum.util.io.StringCharProvider;
+
+public class ReaderWindowCharProviderTest {
+
+	private static final String TEXT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+	@Test
+	public void testNextAcrossChunks() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+
+		StringBuilder buffer = new StringBuilder();
+		while (!provider.finished()) {
+			buffer.append(provider.next());
+		}
+
+		assertThat(buffer.toString(), equalTo(TEXT));
+		assertThat(provider.current(), equalTo((long) TEXT.length()));
+	}
+
+	@Test
+	public void testLookaheadAcrossChunks() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+
+		assertThat(provider.lookahead(), equalTo('0'));
+		assertThat(provider.lookahead(11), equalTo('b'));
+		provider.forward(9);
+		assertThat(provider.lookahead(-1), equalTo('8'));
+		assertThat(provider.lookbehind(1), equalTo('7'));
+		assertThat(provider.current(), equalTo(9L));
+	}
+
+	@Test
+	public void testPrevWithinLookback() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+		provider.move(20);
+		provider.next();
+
+		assertThat(provider.prev(), equalTo('k'));
+		assertThat(provider.prev(), equalTo('j'));
+	}
+
+	@Test(expected = OutOfBufferException.class)
+	public void testAtBeforeLookbackFails() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+		provider.move(20);
+		provider.next();
+		provider.finished(8);
+
+		provider.at(3);
+	}
+
+	@Test
+	public void testMoveAndAt() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+
+		provider.move(20);
+		assertThat(provider.next(), equalTo('k'));
+		assertThat(provider.at(19), equalTo('j'));
+		assertThat(provider.at(30), equalTo('u'));
+	}
+
+	@Test
+	public void testFinished() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+		provider.move(30);
+
+		assertThat(provider.finished(), is(false));
+		assertThat(provider.finished(5), is(false));
+		assertThat(provider.finished(6), is(true));
+		provider.finish();
+		assertThat(provider.finished(), is(true));
+		assertThat(provider.current(), equalTo((long) TEXT.length()));
+	}
+
+	@Test
+	public void testBetweenAndSliceAcrossChunks() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+		provider.move(6);
+
+		assertThat(new String(provider.between(6, 27)), equalTo("6789abcdefghijklmnopq"));
+		assertThat(provider.slice(4, 9), equalTo("45678"));
+		assertThat(provider.slice(7, 7), equalTo(""));
+		assertThat(provider.current(), equalTo(6L));
+	}
+
+	@Test
+	public void testChanged() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+
+		assertThat(provider.changed(), is(false));
+		provider.mark();
+		assertThat(provider.changed(), is(false));
+		provider.mark();
+		provider.next();
+		assertThat(provider.changed(), is(true));
+	}
+
+	@Test
+	public void testToString() throws Exception {
+		ReaderWindowCharProvider provider = provider(TEXT, 4, 2);
+		provider.move(10);
+		provider.finished(2);
+
+		assertThat(provider.toString(), equalTo("...89|ab..."));
+	}
+
+	@Test
+	public void testSearchWithSmallChunks() throws Exception {
+		Sample sample = Corpus.naturalLanguage(42).sample(20_000, 3, 8, 0.5);
+		String pattern = sample.getPattern();
+		List<String> patterns = sample.getPatterns();
+		for (StringSearchAlgorithm algorithm : asList(new Horspool(pattern), new Sunday(pattern), new BNDM(pattern), new AhoCorasick(patterns), new WuManber(patterns))) {
+			ReaderWindowCharProvider provider = provider(sample.getText(), 7, 8);
+
+			List<StringMatch> matches = algorithm.createFinder(provider).findAll();
+
+			assertThat(algorithm.toString(), matches, equalTo(algorithm.createFinder(new StringCharProvider(sample.getText(), 0)).findAll()));
+		}
+	}
+
+	@Test
+	public void testLongestNonOverlappingSearchStaysInLookback() throws Exception {
+		StringSearchAlgorithm algorithm = new QGramShiftOr(asList("babb", "b"));
+		String text = "aabbbaabbab";
+		ReaderWindowCharProvider provider = provider(text, 1, 5);
+
+		List<StringMatch> matches = algorithm.createFinder(provider, LONGEST_MATCH, NON_OVERLAP).findAll();
+
+		assertThat(matches, equalTo(algorithm.createFinder(new StringCharProvider(text, 0), LONGEST_MATCH, NON_OVERLAP).findAll()));
+	}
+
+	private static ReaderWindowCharProvider provider(String text, int chunk, int lookback) {
+		return new ReaderWindowCharProvider(new StringReader(text), chunk, lookback);
+	}
+
+}
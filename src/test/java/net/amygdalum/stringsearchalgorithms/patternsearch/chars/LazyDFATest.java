@@ -0,0 +1,175 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import static net.amygdalum.stringsearchalgorithms.patternsearch.chars.GlushkovAnalyzerOption.SELF_LOOP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import net.amygdalum.regexparser.RegexNode;
+import net.amygdalum.regexparser.RegexParser;
+import net.amygdalum.util.bits.BitSet;
+import net.amygdalum.util.io.CharClassMapper;
+
+public class LazyDFATest {
+
+	@Test
+	public void testNextEqualsAutomaton() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("a(b|c)*d");
+		GlushkovAutomaton automaton = analyzer.buildAutomaton(SELF_LOOP);
+		CharClassMapper mapper = analyzer.mapper();
+		LazyDFA dfa = new LazyDFA(automaton, mapper, 16);
+
+		int state = dfa.getInitial();
+		BitSet expected = automaton.getInitial();
+		for (char c : "xabcbdabbxad".toCharArray()) {
+			state = dfa.next(state, c);
+			expected = automaton.next(expected, mapper.representative(c));
+
+			assertThat(dfa.getState(state), equalTo(expected));
+			assertThat(dfa.isFinal(state), equalTo(automaton.isFinal(expected)));
+			assertThat(dfa.isInitial(state), equalTo(automaton.isInitial(expected)));
+		}
+		assertThat(dfa.flushes(), equalTo(0));
+	}
+
+	@Test
+	public void testNextIsCached() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("ab");
+		LazyDFA dfa = new LazyDFA(analyzer.buildAutomaton(SELF_LOOP), analyzer.mapper(), 16);
+
+		int first = dfa.next(dfa.getInitial(), 'a');
+		int size = dfa.size();
+		int second = dfa.next(dfa.getInitial(), 'a');
+
+		assertThat(second, equalTo(first));
+		assertThat(dfa.size(), equalTo(size));
+	}
+
+	@Test
+	public void testFlushOnFullCache() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("abcdef");
+		GlushkovAutomaton automaton = analyzer.buildAutomaton(SELF_LOOP);
+		CharClassMapper mapper = analyzer.mapper();
+		LazyDFA dfa = new LazyDFA(automaton, mapper, 3);
+
+		int state = dfa.getInitial();
+		BitSet expected = automaton.getInitial();
+		for (char c : "abcdefabcdef".toCharArray()) {
+			state = dfa.next(state, c);
+			expected = automaton.next(expected, mapper.representative(c));
+
+			assertThat(dfa.getState(state), equalTo(expected));
+			assertThat(dfa.size(), lessThanOrEqualTo(3));
+		}
+		assertThat(dfa.isFinal(state), equalTo(true));
+		assertThat(dfa.flushes(), greaterThan(0));
+	}
+
+	@Test
+	public void testEnter() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("a(b|c)*d");
+		DualGlushkovAutomaton automaton = analyzer.buildReverseAutomaton();
+		CharClassMapper mapper = analyzer.mapper();
+		LazyDFA dfa = new LazyDFA(automaton, mapper, 16);
+
+		BitSet expected = automaton.getInitial();
+		int state = dfa.enter(expected);
+		for (char c : "dbca".toCharArray()) {
+			state = dfa.next(state, c);
+			expected = automaton.next(expected, mapper.representative(c));
+
+			assertThat(dfa.getState(state), equalTo(expected));
+			assertThat(dfa.isEmpty(state), equalTo(expected.isEmpty()));
+		}
+		assertThat(dfa.isFinal(state), equalTo(true));
+		assertThat(dfa.enter(expected), equalTo(state));
+	}
+
+	@Test
+	public void testEnterOnFullCache() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("abc");
+		GlushkovAutomaton automaton = analyzer.buildAutomaton(SELF_LOOP);
+		CharClassMapper mapper = analyzer.mapper();
+		LazyDFA dfa = new LazyDFA(automaton, mapper, 2);
+		BitSet afterA = automaton.next(automaton.getInitial(), mapper.representative('a'));
+		BitSet afterAB = automaton.next(afterA, mapper.representative('b'));
+
+		dfa.enter(afterA);
+		int state = dfa.enter(afterAB);
+
+		assertThat(dfa.getState(state), equalTo(afterAB));
+		assertThat(dfa.flushes(), equalTo(1));
+	}
+
+	@Test
+	public void testSharedStates() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("a(b|c)*d");
+		LazyDFA.States states = new LazyDFA.States(analyzer.buildAutomaton(SELF_LOOP), analyzer.mapper(), 16);
+		LazyDFA first = states.createDFA();
+		LazyDFA second = states.createDFA();
+
+		int state = first.next(first.getInitial(), 'a');
+		int size = states.size();
+
+		assertThat(second.next(second.getInitial(), 'a'), equalTo(state));
+		assertThat(states.size(), equalTo(size));
+	}
+
+	@Test
+	public void testSharedStatesInParallel() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("a(b|c)*d(ab|cd)");
+		final GlushkovAutomaton automaton = analyzer.buildAutomaton(SELF_LOOP);
+		final CharClassMapper mapper = analyzer.mapper();
+		final LazyDFA.States states = new LazyDFA.States(automaton, mapper, 4);
+		final String text = "xabcbdabbxadcdabdababcdcbdcdxxabdab";
+		final List<Throwable> failures = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int run = 0; run < 200; run++) {
+							LazyDFA dfa = states.createDFA();
+							int state = dfa.getInitial();
+							BitSet expected = automaton.getInitial();
+							for (char c : text.toCharArray()) {
+								state = dfa.next(state, c);
+								expected = automaton.next(expected, mapper.representative(c));
+
+								assertThat(dfa.getState(state), equalTo(expected));
+								assertThat(dfa.isFinal(state), equalTo(automaton.isFinal(expected)));
+							}
+						}
+					} catch (Throwable e) {
+						failures.add(e);
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(failures, empty());
+		assertThat(states.flushes(), greaterThan(0));
+	}
+
+	private static GlushkovAnalyzer analyze(String pattern) {
+		RegexNode root = new RegexParser(pattern).parse();
+		root = root.accept(new GlushkovNormalizer());
+		return new GlushkovAnalyzer(root).analyze();
+	}
+
+}
@@ -0,0 +1,107 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import static net.amygdalum.stringsearchalgorithms.patternsearch.chars.GlushkovAnalyzerOption.SELF_LOOP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import org.junit.Test;
+
+import net.amygdalum.regexparser.RegexNode;
+import net.amygdalum.regexparser.RegexParser;
+import net.amygdalum.util.bits.BitSet;
+import net.amygdalum.util.io.CharClassMapper;
+
+public class LongGlushkovAutomatonTest {
+
+	@Test
+	public void testNextEqualsGlushkovAutomaton() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("a(b|c)*d|[b-d]x?");
+		GlushkovAutomaton automaton = analyzer.buildAutomaton(SELF_LOOP);
+		LongGlushkovAutomaton longAutomaton = analyzer.buildLongAutomaton(SELF_LOOP);
+
+		BitSet expected = automaton.getInitial();
+		long state = longAutomaton.getInitial();
+		assertThat(state, equalTo(toLong(expected)));
+		for (char c : "xabcbdabbxadcxz".toCharArray()) {
+			expected = automaton.next(expected, c);
+			state = longAutomaton.next(state, c);
+
+			assertThat(state, equalTo(toLong(expected)));
+			assertThat(longAutomaton.isFinal(state), equalTo(automaton.isFinal(expected)));
+			assertThat(longAutomaton.isInitial(state), equalTo(automaton.isInitial(expected)));
+		}
+	}
+
+	@Test
+	public void testNextEqualsDualGlushkovAutomaton() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("a(b|c)*d|[b-d]x?");
+		DualGlushkovAutomaton automaton = analyzer.buildReverseAutomaton();
+		LongDualGlushkovAutomaton longAutomaton = analyzer.buildLongReverseAutomaton();
+
+		BitSet expected = automaton.getInitial();
+		long state = longAutomaton.getInitial();
+		assertThat(state, equalTo(toLong(expected)));
+		for (char c : "dcbca".toCharArray()) {
+			expected = automaton.next(expected, c);
+			state = longAutomaton.next(state, c);
+
+			assertThat(state, equalTo(toLong(expected)));
+			assertThat(longAutomaton.isFinal(state), equalTo(automaton.isFinal(expected)));
+		}
+		assertThat(longAutomaton.isFinal(state), equalTo(true));
+	}
+
+	@Test
+	public void testFitsInLong() throws Exception {
+		assertThat(analyze(repeat('a', 63)).fitsInLong(), equalTo(true));
+		assertThat(analyze(repeat('a', 64)).fitsInLong(), equalTo(false));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBuildLongAutomatonFailsOnTooManyPositions() throws Exception {
+		analyze(repeat('a', 64)).buildLongAutomaton(SELF_LOOP);
+	}
+
+	@Test
+	public void testLongLazyDFA() throws Exception {
+		GlushkovAnalyzer analyzer = analyze("abcdef");
+		LongGlushkovAutomaton automaton = analyzer.buildLongAutomaton(SELF_LOOP);
+		CharClassMapper mapper = analyzer.mapper();
+		LongLazyDFA dfa = new LongLazyDFA(automaton, mapper, 3);
+
+		int state = dfa.getInitial();
+		long expected = automaton.getInitial();
+		for (char c : "abcdefabcdef".toCharArray()) {
+			state = dfa.next(state, c);
+			expected = automaton.next(expected, c);
+
+			assertThat(dfa.getState(state), equalTo(expected));
+			assertThat(dfa.isFinal(state), equalTo(automaton.isFinal(expected)));
+		}
+		assertThat(dfa.isFinal(state), equalTo(true));
+		assertThat(dfa.flushes() > 0, equalTo(true));
+	}
+
+	private static long toLong(BitSet bits) {
+		long value = 0;
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			value |= 1L << i;
+		}
+		return value;
+	}
+
+	private static String repeat(char c, int times) {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < times; i++) {
+			buffer.append(c);
+		}
+		return buffer.toString();
+	}
+
+	private static GlushkovAnalyzer analyze(String pattern) {
+		RegexNode root = new RegexParser(pattern).parse();
+		root = root.accept(new GlushkovNormalizer());
+		return new GlushkovAnalyzer(root).analyze();
+	}
+
+}
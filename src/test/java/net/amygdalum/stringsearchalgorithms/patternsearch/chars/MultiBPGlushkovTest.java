@@ -0,0 +1,94 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.search.RecordingSink;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
+
+public class MultiBPGlushkovTest {
+
+	@Test
+	public void testSearchReportsPatternIndex() throws Exception {
+		MultiBPGlushkov algorithm = new MultiBPGlushkov(asList("a+b", "c(d|e)", "x"));
+		RecordingSink sink = new RecordingSink();
+
+		algorithm.search(new StringCharProvider("xaabce", 0), sink);
+
+		assertThat(sink.size(), equalTo(4));
+		assertThat(match(sink, 0), equalTo("0:1@2"));
+		assertThat(match(sink, 1), equalTo("2:4@0"));
+		assertThat(match(sink, 2), equalTo("1:4@0"));
+		assertThat(match(sink, 3), equalTo("4:6@1"));
+	}
+
+	@Test
+	public void testSearchReportsEachPatternOfEqualMatches() throws Exception {
+		MultiBPGlushkov algorithm = new MultiBPGlushkov(asList("ab", "a[a-c]", "ab"));
+		RecordingSink sink = new RecordingSink();
+
+		algorithm.search(new StringCharProvider("xabx", 0), sink);
+
+		assertThat(sink.size(), equalTo(3));
+		assertThat(match(sink, 0), equalTo("1:3@0"));
+		assertThat(match(sink, 1), equalTo("1:3@1"));
+		assertThat(match(sink, 2), equalTo("1:3@2"));
+	}
+
+	@Test
+	public void testSearchReportsEmptyPatterns() throws Exception {
+		MultiBPGlushkov algorithm = new MultiBPGlushkov(asList("b", "a*"));
+		RecordingSink sink = new RecordingSink();
+
+		algorithm.search(new StringCharProvider("ab", 0), sink);
+
+		assertThat(sink.size(), equalTo(5));
+		assertThat(match(sink, 0), equalTo("0:0@1"));
+		assertThat(match(sink, 1), equalTo("1:1@1"));
+		assertThat(match(sink, 2), equalTo("0:1@1"));
+		assertThat(match(sink, 3), equalTo("1:2@0"));
+		assertThat(match(sink, 4), equalTo("2:2@1"));
+	}
+
+	@Test
+	public void testNonOverlappingAtEnd() throws Exception {
+		MultiBPGlushkov algorithm = new MultiBPGlushkov(asList("a", "ab"));
+
+		List<StringMatch> matches = algorithm.createFinder(new StringCharProvider("ab", 0), NON_OVERLAP).findAll();
+
+		assertThat(matches, contains(new StringMatch(0, 1, "a")));
+	}
+
+	@Test
+	public void testManyPatterns() throws Exception {
+		List<String> patterns = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			patterns.add("id" + i + "=[a-z]+;");
+		}
+		MultiBPGlushkov algorithm = new MultiBPGlushkov(patterns);
+		RecordingSink sink = new RecordingSink();
+
+		algorithm.search(new StringCharProvider("x id42=foo; id999=bar;", 0), sink);
+
+		assertThat(sink.size(), equalTo(2));
+		assertThat(match(sink, 0), equalTo("2:11@42"));
+		assertThat(match(sink, 1), equalTo("12:22@999"));
+		assertThat(algorithm.createFinder(new StringCharProvider("x id42=foo; id999=bar;", 0)).findAll(), contains(
+			new StringMatch(2, 11, "id42=foo;"),
+			new StringMatch(12, 22, "id999=bar;")));
+	}
+
+	private static String match(RecordingSink sink, int i) {
+		return sink.start(i) + ":" + sink.end(i) + "@" + sink.pattern(i);
+	}
+
+}
@@ -169,6 +169,11 @@ public class MultiFactorRESinglePatternTest {
 			new StringMatch(3, 5, "bc")));
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsFactorSearchWithoutPatternIndexes() throws Exception {
+		new MultiFactorRE(new UnindexedFactory(new AhoCorasick.Factory()), new GlushkovFactorExtender.Factory(), 2, "ab|cd");
+	}
+
 	private StringFinder findIn(String in, String pattern, RegexParserOption... options) {
 		MultiFactorRE algorithm = new MultiFactorRE(new AhoCorasick.Factory(), new GlushkovFactorExtender.Factory(options), pattern);
 		return algorithm.createFinder(new StringCharProvider(in, 0));
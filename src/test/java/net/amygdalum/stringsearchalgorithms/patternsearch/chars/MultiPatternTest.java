@@ -5,21 +5,29 @@ import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_EMPTY;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Rule;
 import org.junit.Test;
 
+import net.amygdalum.stringsearchalgorithms.search.RecordingSink;
 import net.amygdalum.stringsearchalgorithms.search.SearchFor;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.stringsearchalgorithms.search.chars.AhoCorasick;
+import net.amygdalum.util.io.StringCharProvider;
 
 public class MultiPatternTest {
 
 	@Rule
 	public MultiPatternSearchRule searcher = new MultiPatternSearchRule(
 		new MultiFactorRE.Factory(new AhoCorasick.Factory(), new GlushkovPrefixExtender.Factory(), 2),
-		new MultiFactorRE.Factory(new AhoCorasick.Factory(), new GlushkovFactorExtender.Factory(), 2)
+		new MultiFactorRE.Factory(new AhoCorasick.Factory(), new GlushkovFactorExtender.Factory(), 2),
+		new MultiBPGlushkov.Factory(),
+		new MultiBPGlushkov.Factory(2)
 		);
 
 	@Test
@@ -39,6 +47,13 @@ public class MultiPatternTest {
 			new StringMatch(28, 29, "d")));
 	}
 
+	@Test
+	@SearchFor({ "a+", "b+", "c+", "d+" })
+	public void testPatternIndex() throws Exception {
+		StringFinder finder = searcher.createSearcher("xxxccaaxbdddccccdxaaxbbaaaxxd", LONGEST_MATCH, NON_OVERLAP);
+		assertThat(patterns(finder.findAll()), contains(2, 0, 1, 3, 2, 3, 0, 1, 0, 3));
+	}
+
 	@Test
 	@SearchFor({ "c{1,2}(a|d)+", "d+c{3}?", "(b|d)+c" })
 	public void testRegexComplex2() throws Exception {
@@ -105,4 +120,19 @@ public class MultiPatternTest {
 			new StringMatch(51, 95, "atagacaacatagacatagacatagacatagacatagacataga")));
 	}
 
+	@Test
+	@SearchFor({ "a(b|c)+", "cb+" })
+	public void testSearch() throws Exception {
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(new StringCharProvider("xabcbbxacx", 0), sink);
+		assertThat(sink.toMatches("xabcbbxacx"), containsInAnyOrder(searcher.createSearcher("xabcbbxacx").findAll().toArray()));
+	}
+
+	private static List<Integer> patterns(List<StringMatch> matches) {
+		List<Integer> patterns = new ArrayList<>();
+		for (StringMatch match : matches) {
+			patterns.add(match.pattern());
+		}
+		return patterns;
+	}
 }
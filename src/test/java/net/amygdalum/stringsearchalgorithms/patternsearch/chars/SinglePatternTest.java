@@ -3,23 +3,29 @@ package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_EMPTY;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NO_TEXT;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 
 import org.junit.Rule;
 import org.junit.Test;
 
 import net.amygdalum.regexparser.RegexParserOption;
+import net.amygdalum.stringsearchalgorithms.search.RecordingSink;
 import net.amygdalum.stringsearchalgorithms.search.SearchFor;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
 import net.amygdalum.stringsearchalgorithms.search.chars.AhoCorasick;
+import net.amygdalum.util.io.StringCharProvider;
 
 public class SinglePatternTest {
 
 	@Rule
 	public SinglePatternSearchRule searcher = new SinglePatternSearchRule(
 		new BPGlushkov.Factory(RegexParserOption.DOT_ALL),
+		new BPGlushkov.Factory(2, RegexParserOption.DOT_ALL),
+		new MultiBPGlushkov.Factory(RegexParserOption.DOT_ALL),
 		new MultiFactorRE.Factory(new AhoCorasick.Factory(), new GlushkovPrefixExtender.Factory(RegexParserOption.DOT_ALL), 4),
 		new MultiFactorRE.Factory(new AhoCorasick.Factory(), new GlushkovFactorExtender.Factory(RegexParserOption.DOT_ALL), 2));
 
@@ -49,6 +55,15 @@ public class SinglePatternTest {
 			new StringMatch(3, 6, "aba")));
 	}
 
+	@Test
+	@SearchFor("a|ab")
+	public void testRegexPrefixAlternativesNonOverlappingAtEnd() throws Exception {
+		StringFinder finder = searcher.createSearcher("ab", NON_OVERLAP);
+
+		assertThat(finder.findAll(), contains(
+			new StringMatch(0, 1, "a")));
+	}
+
 	@Test
 	@SearchFor("ab|ac")
 	public void testRegexAlternatives() throws Exception {
@@ -571,4 +586,38 @@ public class SinglePatternTest {
 			new StringMatch(13, 21, "acggtgcg")));
 	}
 
+	@Test
+	@SearchFor("(abcdefghij){7}[xy]")
+	public void testRegexWithMoreThan64Positions() throws Exception {
+		String text = "xx" + repeat("abcdefghij", 8) + "yy";
+		StringFinder finder = searcher.createSearcher(text);
+		assertThat(finder.findAll(), contains(
+			new StringMatch(12, 83, repeat("abcdefghij", 7) + "y")));
+	}
+
+	@Test
+	@SearchFor("a(b|c)+")
+	public void testSearch() throws Exception {
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(new StringCharProvider("xabcbbxacx", 0), sink);
+		assertThat(sink.toMatches("xabcbbxacx"), containsInAnyOrder(searcher.createSearcher("xabcbbxacx").findAll().toArray()));
+	}
+
+	@Test
+	@SearchFor("a(b|c)+")
+	public void testNoText() throws Exception {
+		StringFinder finder = searcher.createSearcher("xabcbbxacx", LONGEST_MATCH, NON_OVERLAP, NO_TEXT);
+		assertThat(finder.findAll(), contains(
+			new StringMatch(1, 6),
+			new StringMatch(7, 9)));
+	}
+
+	private static String repeat(String s, int times) {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < times; i++) {
+			buffer.append(s);
+		}
+		return buffer.toString();
+	}
+
 }
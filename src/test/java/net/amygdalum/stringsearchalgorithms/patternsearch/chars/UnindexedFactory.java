@@ -0,0 +1,89 @@
+package net.amygdalum.stringsearchalgorithms.patternsearch.chars;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.stringsearchalgorithms.search.chars.MultiStringSearchAlgorithmFactory;
+import net.amygdalum.stringsearchalgorithms.search.chars.StringSearchAlgorithm;
+import net.amygdalum.util.io.CharProvider;
+
+/**
+ * A factory wrapping another factory, the finders of the wrapped algorithms do not report pattern indexes (i.e. all matches have index 0).
+ */
+public class UnindexedFactory implements MultiStringSearchAlgorithmFactory {
+
+	private MultiStringSearchAlgorithmFactory factory;
+
+	public UnindexedFactory(MultiStringSearchAlgorithmFactory factory) {
+		this.factory = factory;
+	}
+
+	@Override
+	public StringSearchAlgorithm of(Collection<String> patterns) {
+		final StringSearchAlgorithm algorithm = factory.of(patterns);
+		return new StringSearchAlgorithm() {
+
+			@Override
+			public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
+				return new UnindexedFinder(algorithm.createFinder(chars, options));
+			}
+
+			@Override
+			public void search(final CharProvider chars, final MatchSink sink) {
+				algorithm.search(chars, new MatchSink() {
+
+					@Override
+					public boolean match(long start, long end, int pattern) {
+						return sink.match(start, end, 0);
+					}
+				});
+			}
+
+			@Override
+			public int getPatternLength() {
+				return algorithm.getPatternLength();
+			}
+		};
+	}
+
+	private static class UnindexedFinder implements StringFinder {
+
+		private StringFinder finder;
+
+		public UnindexedFinder(StringFinder finder) {
+			this.finder = finder;
+		}
+
+		@Override
+		public StringMatch findNext() {
+			StringMatch match = finder.findNext();
+			if (match == null) {
+				return null;
+			}
+			return new StringMatch(match.start(), match.end(), match.text());
+		}
+
+		@Override
+		public List<StringMatch> findAll() {
+			List<StringMatch> matches = new ArrayList<>();
+			StringMatch match = findNext();
+			while (match != null) {
+				matches.add(match);
+				match = findNext();
+			}
+			return matches;
+		}
+
+		@Override
+		public void skipTo(long pos) {
+			finder.skipTo(pos);
+		}
+
+	}
+
+}
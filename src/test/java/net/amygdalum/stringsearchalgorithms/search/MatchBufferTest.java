@@ -0,0 +1,142 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MatchBufferTest {
+
+	@Test
+	public void testEmpty() throws Exception {
+		MatchBuffer buffer = new MatchBuffer();
+
+		assertThat(buffer.isEmpty(), is(true));
+		assertThat(buffer.size(), equalTo(0));
+		assertThat(buffer.first(), nullValue());
+		assertThat(buffer.maxEnd(), equalTo(-1L));
+	}
+
+	@Test
+	public void testAddInOrder() throws Exception {
+		MatchBuffer buffer = new MatchBuffer();
+
+		buffer.add(new StringMatch(0, 2, "ab"));
+		buffer.add(new StringMatch(1, 3, "bc"));
+		buffer.add(new StringMatch(1, 4, "bcd"));
+
+		assertThat(removeAll(buffer), contains(
+			new StringMatch(0, 2, "ab"),
+			new StringMatch(1, 3, "bc"),
+			new StringMatch(1, 4, "bcd")));
+	}
+
+	@Test
+	public void testAddOutOfOrder() throws Exception {
+		MatchBuffer buffer = new MatchBuffer();
+
+		buffer.add(new StringMatch(2, 4, "cd"));
+		buffer.add(new StringMatch(1, 4, "bcd"));
+		buffer.add(new StringMatch(0, 4, "abcd"));
+		buffer.add(new StringMatch(1, 3, "bc"));
+
+		assertThat(removeAll(buffer), contains(
+			new StringMatch(0, 4, "abcd"),
+			new StringMatch(1, 3, "bc"),
+			new StringMatch(1, 4, "bcd"),
+			new StringMatch(2, 4, "cd")));
+	}
+
+	@Test
+	public void testAddEqualKeepsInsertionOrder() throws Exception {
+		MatchBuffer buffer = new MatchBuffer();
+
+		buffer.add(new StringMatch(0, 2, "ab", 1));
+		buffer.add(new StringMatch(0, 2, "ab", 0));
+
+		assertThat(buffer.removeFirst().pattern(), equalTo(1));
+		assertThat(buffer.removeFirst().pattern(), equalTo(0));
+	}
+
+	@Test
+	public void testClear() throws Exception {
+		MatchBuffer buffer = new MatchBuffer();
+		buffer.add(new StringMatch(0, 2, "ab"));
+		buffer.add(new StringMatch(1, 3, "bc"));
+
+		buffer.clear();
+		buffer.add(new StringMatch(4, 5, "e"));
+
+		assertThat(removeAll(buffer), contains(new StringMatch(4, 5, "e")));
+	}
+
+	@Test
+	public void testMaxEnd() throws Exception {
+		MatchBuffer buffer = new MatchBuffer();
+		buffer.add(new StringMatch(0, 6, "abcdef"));
+		buffer.add(new StringMatch(1, 3, "bc"));
+		buffer.add(new StringMatch(2, 4, "cd"));
+
+		assertThat(buffer.maxEnd(), equalTo(6L));
+		buffer.removeFirst();
+		assertThat(buffer.maxEnd(), equalTo(4L));
+		buffer.add(new StringMatch(1, 5, "bcde"));
+		assertThat(buffer.maxEnd(), equalTo(5L));
+		buffer.removeFirst();
+		buffer.removeFirst();
+		assertThat(buffer.maxEnd(), equalTo(4L));
+		buffer.removeFirst();
+		assertThat(buffer.maxEnd(), equalTo(-1L));
+	}
+
+	@Test
+	public void testRandomAddAndRemove() throws Exception {
+		Random random = new Random(13);
+		MatchBuffer buffer = new MatchBuffer();
+		PriorityQueue<StringMatch> expected = new PriorityQueue<>();
+		long end = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (random.nextInt(3) > 0) {
+				end += random.nextInt(3);
+				StringMatch match = new StringMatch(end - random.nextInt(50), end, null);
+				buffer.add(match);
+				expected.add(match);
+			} else if (!expected.isEmpty()) {
+				assertThat(buffer.removeFirst(), equalTo(expected.remove()));
+			}
+			assertThat(buffer.size(), equalTo(expected.size()));
+			assertThat(buffer.maxEnd(), equalTo(maxEnd(expected)));
+		}
+		List<StringMatch> rest = new ArrayList<>();
+		while (!expected.isEmpty()) {
+			rest.add(expected.remove());
+		}
+		assertThat(removeAll(buffer), equalTo(rest));
+	}
+
+	private static long maxEnd(Collection<StringMatch> matches) {
+		long maxEnd = -1;
+		for (StringMatch match : matches) {
+			maxEnd = Math.max(maxEnd, match.end());
+		}
+		return maxEnd;
+	}
+
+	private static List<StringMatch> removeAll(MatchBuffer buffer) {
+		List<StringMatch> matches = new ArrayList<>();
+		while (!buffer.isEmpty()) {
+			matches.add(buffer.removeFirst());
+		}
+		return matches;
+	}
+
+}
@@ -0,0 +1,26 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+public class MatchCounterTest {
+
+	@Test
+	public void testGetCountInitial() throws Exception {
+		assertThat(new MatchCounter().getCount(), equalTo(0L));
+	}
+
+	@Test
+	public void testMatch() throws Exception {
+		MatchCounter counter = new MatchCounter();
+
+		assertThat(counter.match(0, 2, 0), is(true));
+		assertThat(counter.match(1, 3, 1), is(true));
+
+		assertThat(counter.getCount(), equalTo(2L));
+	}
+
+}
@@ -0,0 +1,24 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+public class MatchDetectorTest {
+
+	@Test
+	public void testIsFoundInitial() throws Exception {
+		assertThat(new MatchDetector().isFound(), is(false));
+	}
+
+	@Test
+	public void testMatch() throws Exception {
+		MatchDetector detector = new MatchDetector();
+
+		assertThat(detector.match(0, 2, 0), is(false));
+
+		assertThat(detector.isFound(), is(true));
+	}
+
+}
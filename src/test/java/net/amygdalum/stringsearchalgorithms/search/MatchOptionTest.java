@@ -12,7 +12,7 @@ public class MatchOptionTest {
 
 	@Test
 	public void testMatchOption() throws Exception {
-		assertThat(MatchOption.class, isEnum().withElements(3));
+		assertThat(MatchOption.class, isEnum().withElements(4));
 	}
 	
 	@Test
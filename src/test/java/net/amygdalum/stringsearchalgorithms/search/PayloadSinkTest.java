@@ -0,0 +1,53 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.search.chars.AhoCorasick;
+import net.amygdalum.util.io.StringCharProvider;
+
+public class PayloadSinkTest {
+
+	@Test
+	public void testMatch() throws Exception {
+		final List<String> found = new ArrayList<>();
+		PayloadSink<String> sink = new PayloadSink<String>(asList("first", "second")) {
+
+			@Override
+			public boolean match(long start, long end, String payload) {
+				found.add(start + ":" + payload);
+				return true;
+			}
+		};
+
+		assertThat(sink.match(0, 2, 1), is(true));
+		assertThat(sink.match(1, 3, 0), is(true));
+
+		assertThat(found, contains("0:second", "1:first"));
+	}
+
+	@Test
+	public void testSearch() throws Exception {
+		final List<String> found = new ArrayList<>();
+		AhoCorasick algorithm = new AhoCorasick(asList("he", "she", "his", "hers"));
+
+		algorithm.search(new StringCharProvider("ushers", 0), new PayloadSink<String>(asList("HE", "SHE", "HIS", "HERS")) {
+
+			@Override
+			public boolean match(long start, long end, String payload) {
+				found.add(payload);
+				return true;
+			}
+		});
+
+		assertThat(found, contains("SHE", "HE", "HERS"));
+	}
+
+}
@@ -0,0 +1,77 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A MatchSink recording all reported matches (optionally stopping after a given number of matches).
+ */
+public class RecordingSink implements MatchSink {
+
+	private int limit;
+	private List<long[]> matches;
+	private List<Integer> patterns;
+
+	public RecordingSink() {
+		this(Integer.MAX_VALUE);
+	}
+
+	public RecordingSink(int limit) {
+		this.limit = limit;
+		this.matches = new ArrayList<>();
+		this.patterns = new ArrayList<>();
+	}
+
+	@Override
+	public boolean match(long start, long end, int pattern) {
+		matches.add(new long[] { start, end });
+		patterns.add(pattern);
+		return matches.size() < limit;
+	}
+
+	public int size() {
+		return matches.size();
+	}
+
+	public long start(int i) {
+		return matches.get(i)[0];
+	}
+
+	public long end(int i) {
+		return matches.get(i)[1];
+	}
+
+	public int pattern(int i) {
+		return patterns.get(i);
+	}
+
+	/**
+	 * @param text the searched text
+	 * @return the recorded matches as StringMatch (ordered by start and end), to be comparable with the results of a StringFinder
+	 */
+	public List<StringMatch> toMatches(String text) {
+		List<StringMatch> result = new ArrayList<>();
+		for (long[] match : matches) {
+			result.add(new StringMatch(match[0], match[1], text.substring((int) match[0], (int) match[1])));
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	/**
+	 * @param bytes the searched bytes
+	 * @param charset the charset of the searched bytes
+	 * @return the recorded matches as StringMatch (ordered by start and end), to be comparable with the results of a StringFinder
+	 */
+	public List<StringMatch> toMatches(byte[] bytes, Charset charset) {
+		List<StringMatch> result = new ArrayList<>();
+		for (long[] match : matches) {
+			result.add(new StringMatch(match[0], match[1], new String(bytes, (int) match[0], (int) (match[1] - match[0]), charset)));
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+}
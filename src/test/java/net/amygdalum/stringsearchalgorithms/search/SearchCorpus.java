@@ -0,0 +1,35 @@
+package net.amygdalum.stringsearchalgorithms.search;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import net.amygdalum.stringsearchalgorithms.corpus.CorpusKind;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface SearchCorpus {
+
+	/**
+	 * the corpora to sample (the test is run once for each corpus), all corpora by default
+	 */
+	CorpusKind[] value() default {
+		CorpusKind.NATURAL_LANGUAGE,
+		CorpusKind.DNA,
+		CorpusKind.PROTEIN,
+		CorpusKind.BINARY,
+		CorpusKind.SERVER_LOG,
+		CorpusKind.MIXED_CJK
+	};
+
+	long seed() default 42;
+
+	int length() default 10000;
+
+	int patterns() default 10;
+
+	int patternLength() default 8;
+
+	double hitRate() default 0.5;
+}
@@ -6,11 +6,11 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.comparesEqualTo;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.number.OrderingComparison.lessThan;
 
 import org.junit.Test;
 
-
 public class StringMatchTest {
 
 	@Test
@@ -28,6 +28,19 @@ public class StringMatchTest {
 		assertThat(new StringMatch(0, 2, "ab").text(), equalTo("ab"));
 	}
 
+	@Test
+	public void testTextWithoutText() throws Exception {
+		assertThat(new StringMatch(0, 2).text(), nullValue());
+		assertThat(new StringMatch(0, 2).hasText(), is(false));
+		assertThat(new StringMatch(0, 2, "ab").hasText(), is(true));
+	}
+
+	@Test
+	public void testLength() throws Exception {
+		assertThat(new StringMatch(0, 2, "ab").length(), equalTo(2));
+		assertThat(new StringMatch(2, 5).length(), equalTo(3));
+	}
+
 	@Test
 	public void testIsEmptyIfStartEqualsEnd() throws Exception {
 		assertThat(new StringMatch(0, 0, "").isEmpty(), is(true));
@@ -52,6 +65,19 @@ public class StringMatchTest {
 		assertThat(new StringMatch(0, 2, "ab").toString(), equalTo("0:2(ab)"));
 	}
 
+	@Test
+	public void testToStringWithoutText() throws Exception {
+		assertThat(new StringMatch(0, 2).toString(), equalTo("0:2"));
+	}
+
+	@Test
+	public void testEqualsWithoutText() throws Exception {
+		assertThat(new StringMatch(0, 2), satisfiesDefaultEquality()
+			.andEqualTo(new StringMatch(0, 2))
+			.andNotEqualTo(new StringMatch(0, 1))
+			.andNotEqualTo(new StringMatch(0, 2, "ab")));
+	}
+
 	@Test
 	public void testEquals() throws Exception {
 		assertThat(new StringMatch(0, 2, "ab"), satisfiesDefaultEquality()
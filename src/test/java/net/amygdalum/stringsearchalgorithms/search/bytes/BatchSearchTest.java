@@ -0,0 +1,73 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOfRange;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringByteProvider;
+
+public class BatchSearchTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void before() throws Exception {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void after() throws Exception {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testFindAll() throws Exception {
+		BatchSearch search = new BatchSearch(new AhoCorasick(asList("ab", "bc"), UTF_8), executor);
+
+		List<List<StringMatch>> matches = search.findAll(asList("abc".getBytes(UTF_8), new byte[0], "cbab".getBytes(UTF_8)), UTF_8);
+
+		List<List<StringMatch>> expected = new ArrayList<>();
+		expected.add(asList(new StringMatch(0, 2, "ab"), new StringMatch(1, 3, "bc")));
+		expected.add(Collections.<StringMatch> emptyList());
+		expected.add(asList(new StringMatch(2, 4, "ab")));
+		assertThat(matches, equalTo(expected));
+	}
+
+	@Test
+	public void testFindAllManyDocuments() throws Exception {
+		Sample sample = Corpus.naturalLanguage(13).sample(50_000, 5, 4, 0.8);
+		byte[] text = sample.getText().getBytes(UTF_8);
+		List<byte[]> documents = new ArrayList<>();
+		for (int i = 0; i < text.length; i += 37) {
+			documents.add(copyOfRange(text, i, Math.min(text.length, i + 37)));
+		}
+		List<String> patterns = sample.getPatterns();
+		for (StringSearchAlgorithm algorithm : asList(new AhoCorasick(patterns, UTF_8), new WuManber(patterns, UTF_8), new SetHorspool(patterns, UTF_8))) {
+			BatchSearch search = new BatchSearch(algorithm, executor, 10);
+
+			List<List<StringMatch>> matches = search.findAll(documents, UTF_8);
+
+			List<List<StringMatch>> expected = new ArrayList<>();
+			for (byte[] document : documents) {
+				expected.add(algorithm.createFinder(new StringByteProvider(document, 0, UTF_8)).findAll());
+			}
+			assertThat(search.toString(), matches, equalTo(expected));
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.util.text.ByteAutomaton;
+import net.amygdalum.util.text.ByteWordSet;
+import net.amygdalum.util.text.ByteWordSetBuilder;
+
+public class DenseByteTrieTest {
+
+	@Test
+	public void testFind() throws Exception {
+		ByteWordSet<Integer> trie = compile(1 << 20, "abc", "bc", "abd");
+
+		assertThat(trie, instanceOf(DenseByteTrie.class));
+		assertThat(trie.find("abc".getBytes(UTF_8)), equalTo(0));
+		assertThat(trie.find("bc".getBytes(UTF_8)), equalTo(1));
+		assertThat(trie.find("abd".getBytes(UTF_8)), equalTo(2));
+		assertThat(trie.find("bd".getBytes(UTF_8)), nullValue());
+		assertThat(trie.contains("abe".getBytes(UTF_8)), is(false));
+	}
+
+	@Test
+	public void testCursor() throws Exception {
+		ByteWordSet<Integer> trie = compile(1 << 20, "abc", "bc", "c");
+		ByteAutomaton<Integer> cursor = trie.cursor();
+
+		assertThat(cursor.accept((byte) 'a'), is(true));
+		assertThat(cursor.lookahead((byte) 'b'), is(true));
+		assertThat(cursor.lookahead((byte) 'c'), is(false));
+		assertThat(cursor.accept((byte) 'b'), is(true));
+		assertThat(cursor.accept((byte) 'c'), is(true));
+		assertThat(cursor.hasAttachments(), is(true));
+		assertThat(attachments(cursor), contains(0, 1, 2));
+		assertThat(cursor.accept((byte) 'x'), is(false));
+		assertThat(cursor.hasAttachments(), is(false));
+	}
+
+	@Test
+	public void testFallbackIfTooLarge() throws Exception {
+		ByteWordSet<Integer> trie = compile(64, "abc", "bc", "abd");
+
+		assertThat(trie, not(instanceOf(DenseByteTrie.class)));
+		assertThat(trie.find("abc".getBytes(UTF_8)), equalTo(0));
+	}
+
+	@Test
+	public void testEstimatedSize() throws Exception {
+		DenseByteTrie small = (DenseByteTrie) compile(1 << 20, "abc", "bc");
+		DenseByteTrie large = (DenseByteTrie) compile(1 << 20, "abc", "bc", "abd", "xyz");
+
+		assertThat(large.estimatedSize(), greaterThan(small.estimatedSize()));
+		assertThat(small.estimatedSize(), greaterThan(4L * 6));
+	}
+
+	private static ByteWordSet<Integer> compile(long maxSize, String... patterns) {
+		ByteWordSetBuilder<Integer, ByteWordSet<Integer>> builder = new ByteWordSetBuilder<>(new DenseByteTrie.Compiler(maxSize));
+		for (int i = 0; i < patterns.length; i++) {
+			builder.extend(patterns[i].getBytes(UTF_8), i);
+		}
+		return builder
+			.work(new AhoCorasick.FallbackLinks())
+			.build();
+	}
+
+	private static List<Integer> attachments(ByteAutomaton<Integer> cursor) {
+		List<Integer> attachments = new ArrayList<>();
+		for (Integer attachment : cursor) {
+			attachments.add(attachment);
+		}
+		return attachments;
+	}
+
+}
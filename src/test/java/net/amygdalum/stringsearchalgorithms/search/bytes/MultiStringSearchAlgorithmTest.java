@@ -1,28 +1,48 @@
 package net.amygdalum.stringsearchalgorithms.search.bytes;
 
+import static java.nio.charset.StandardCharsets.UTF_16LE;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NO_TEXT;
 import static net.amygdalum.stringsearchalgorithms.search.bytes.MultiStringSearchAlgorithmMatcher.isMultiStringSearchAlgorithm;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.isIn;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import org.junit.Rule;
 import org.junit.Test;
 
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.corpus.CorpusKind;
+import net.amygdalum.stringsearchalgorithms.corpus.ReferenceSearch;
+import net.amygdalum.stringsearchalgorithms.search.MatchCounter;
+import net.amygdalum.stringsearchalgorithms.search.MatchDetector;
+import net.amygdalum.stringsearchalgorithms.search.RecordingSink;
+import net.amygdalum.stringsearchalgorithms.search.SearchCorpus;
 import net.amygdalum.stringsearchalgorithms.search.SearchFor;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringByteProvider;
 
 public class MultiStringSearchAlgorithmTest {
 
 	@Rule
 	public MultiStringSearchRule searcher = new MultiStringSearchRule(
 		new AhoCorasick.Factory(),
+		new AhoCorasick.Factory(UTF_16LE, 1 << 20),
 		new SetHorspool.Factory(),
 		new WuManber.Factory(),
+		new WuManber.Factory(UTF_16LE, 4093, 2039),
 		new SetBackwardOracleMatching.Factory());
 
 	@Test
@@ -55,6 +75,13 @@ public class MultiStringSearchAlgorithmTest {
 			new StringMatch(12, 16, "ab")));
 	}
 	
+	@Test
+	@SearchFor({"abc", "bcd"})
+	public void testPatternIndex() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("abcacbcdacabcdaabc").findAll();
+		assertThat(patterns(matches), contains(0, 1, 0, 1, 0));
+	}
+
 	@Test
 	@SearchFor({"abc","bcd"})
 	public void testPattern3() throws Exception {
@@ -158,6 +185,15 @@ public class MultiStringSearchAlgorithmTest {
 		assertThat(matches, containsInAnyOrder(new StringMatch(0, 6, "abc")));
 	}
 
+	@Test
+	@SearchFor({"bc", "cdefg"})
+	public void testNonOverlappingPatternsOfDifferentLength() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("abcdefgbc", NON_OVERLAP).findAll();
+		assertThat(matches, contains(
+			new StringMatch(2, 6, "bc"),
+			new StringMatch(14, 18, "bc")));
+	}
+
 	@Test
 	@SearchFor({"a","b"})
 	public void testOverlappingPattern1() throws Exception {
@@ -333,4 +369,209 @@ public class MultiStringSearchAlgorithmTest {
 		assertThat(searcher.getAlgorithm().getPatternLength(), equalTo(10));
 	}
 
+	@Test
+	@SearchCorpus
+	public void testCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		List<StringMatch> matches = searcher.createSearcher(sample.bytes(UTF_16LE)).findAll();
+		assertThat(matches, equalTo(ReferenceSearch.findAll(sample.getText(), sample.getPatterns(), UTF_16LE)));
+	}
+
+	@Test
+	@SearchCorpus(CorpusKind.DNA)
+	public void testDnaCorpusNonOverlapping() throws Exception {
+		Sample sample = searcher.getSample();
+		List<StringMatch> matches = searcher.createSearcher(sample.bytes(UTF_16LE), NON_OVERLAP).findAll();
+		assertThat(matches, equalTo(ReferenceSearch.nonOverlapping(ReferenceSearch.findAll(sample.getText(), sample.getPatterns(), UTF_16LE))));
+	}
+
+	@Test
+	@SearchCorpus(CorpusKind.DNA)
+	public void testDnaCorpusLongestNonOverlapping() throws Exception {
+		Sample sample = searcher.getSample();
+		List<StringMatch> matches = searcher.createSearcher(sample.bytes(UTF_16LE), LONGEST_MATCH, NON_OVERLAP).findAll();
+		assertThat(matches, equalTo(ReferenceSearch.longestNonOverlapping(ReferenceSearch.findAll(sample.getText(), sample.getPatterns(), UTF_16LE))));
+	}
+
+	@Test
+	@SearchFor({"b", "bcca", "caac"})
+	public void testLongestNonOverlappingAfterPartialMatch() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("bcaac", LONGEST_MATCH, NON_OVERLAP).findAll();
+		assertThat(matches, contains(
+			new StringMatch(0, 2, "b"),
+			new StringMatch(2, 10, "caac")));
+	}
+
+	@Test
+	@SearchFor({"cc", "ccc"})
+	public void testNonOverlappingPrefixPatterns() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("ccc", NON_OVERLAP).findAll();
+		assertThat(matches, contains(new StringMatch(0, 4, "cc")));
+	}
+
+	@Test
+	@SearchFor({"cc", "bac", "cccc", "acbc"})
+	public void testLongestNonOverlappingPrefixPatterns() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("xccbccccx", LONGEST_MATCH, NON_OVERLAP).findAll();
+		assertThat(matches, contains(
+			new StringMatch(2, 6, "cc"),
+			new StringMatch(8, 16, "cccc")));
+	}
+
+	@Test
+	@SearchFor({"x"})
+	public void testRandomMixedLengthsNonOverlapping() throws Exception {
+		Random random = new Random(17);
+		for (int i = 0; i < 500; i++) {
+			List<String> patterns = randomPatterns(random);
+			String text = randomText(random);
+			List<StringMatch> matches = searcher.createAlgorithm(patterns).createFinder(new StringByteProvider(text, 0), NON_OVERLAP).findAll();
+			assertThat(patterns + " in " + text, matches, equalTo(ReferenceSearch.nonOverlapping(ReferenceSearch.findAll(text, patterns, UTF_16LE))));
+		}
+	}
+
+	@Test
+	@SearchFor({"x"})
+	public void testRandomMixedLengthsLongestNonOverlapping() throws Exception {
+		Random random = new Random(19);
+		for (int i = 0; i < 500; i++) {
+			List<String> patterns = randomPatterns(random);
+			String text = randomText(random);
+			List<StringMatch> matches = searcher.createAlgorithm(patterns).createFinder(new StringByteProvider(text, 0), LONGEST_MATCH, NON_OVERLAP).findAll();
+			assertThat(patterns + " in " + text, matches, equalTo(ReferenceSearch.longestNonOverlapping(ReferenceSearch.findAll(text, patterns, UTF_16LE))));
+		}
+	}
+
+	@Test
+	@SearchFor({"x"})
+	public void testRandomMixedLengthsFindAllAgreesWithSearch() throws Exception {
+		Random random = new Random(23);
+		for (int i = 0; i < 500; i++) {
+			List<String> patterns = randomPatterns(random);
+			String text = randomText(random);
+			StringSearchAlgorithm algorithm = searcher.createAlgorithm(patterns);
+			RecordingSink sink = new RecordingSink();
+			algorithm.search(new StringByteProvider(text, 0), sink);
+			List<StringMatch> all = sink.toMatches(text.getBytes(UTF_16LE), UTF_16LE);
+
+			assertThat(patterns + " in " + text, findAll(algorithm, text), containsInAnyOrder(all.toArray()));
+			assertThat(patterns + " in " + text, findAll(algorithm, text, LONGEST_MATCH), everyItem(isIn(all)));
+			assertThat(patterns + " in " + text, findAll(algorithm, text, NON_OVERLAP), equalTo(ReferenceSearch.nonOverlapping(all)));
+			assertThat(patterns + " in " + text, findAll(algorithm, text, LONGEST_MATCH, NON_OVERLAP), equalTo(ReferenceSearch.longestNonOverlapping(all)));
+		}
+	}
+
+	private static List<StringMatch> findAll(StringSearchAlgorithm algorithm, String text, StringFinderOption... options) {
+		return algorithm.createFinder(new StringByteProvider(text, 0), options).findAll();
+	}
+
+	private static List<String> randomPatterns(Random random) {
+		Set<String> patterns = new LinkedHashSet<>();
+		int size = 1 + random.nextInt(4);
+		while (patterns.size() < size) {
+			patterns.add(randomText(random, 1 + random.nextInt(5)));
+		}
+		return new ArrayList<>(patterns);
+	}
+
+	private static String randomText(Random random) {
+		return randomText(random, random.nextInt(30));
+	}
+
+	private static String randomText(Random random, int length) {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			buffer.append((char) ('a' + random.nextInt(3)));
+		}
+		return buffer.toString();
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testSearch() throws Exception {
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(new StringByteProvider("abababab", 0), sink);
+		assertThat(sink.toMatches("abababab".getBytes(UTF_16LE), UTF_16LE), containsInAnyOrder(searcher.createSearcher("abababab").findAll().toArray()));
+	}
+
+	@Test
+	@SearchFor({"ab", "cd"})
+	public void testSearchStopsIfSinkRejects() throws Exception {
+		RecordingSink sink = new RecordingSink(2);
+		searcher.getAlgorithm().search(new StringByteProvider("abcdabcd", 0), sink);
+		assertThat(sink.size(), equalTo(2));
+	}
+
+	@Test
+	@SearchCorpus(CorpusKind.NATURAL_LANGUAGE)
+	public void testSearchNaturalLanguageCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		byte[] bytes = sample.getText().getBytes(UTF_16LE);
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(sample.bytes(UTF_16LE), sink);
+		assertThat(sink.toMatches(bytes, UTF_16LE), equalTo(ReferenceSearch.findAll(sample.getText(), sample.getPatterns(), UTF_16LE)));
+		for (int i = 0; i < sink.size(); i++) {
+			assertThat(new String(bytes, (int) sink.start(i), (int) (sink.end(i) - sink.start(i)), UTF_16LE), equalTo(sample.getPatterns().get(sink.pattern(i))));
+		}
+	}
+
+	@Test
+	@SearchCorpus(CorpusKind.BINARY)
+	public void testSearchBinaryCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(sample.bytes(UTF_16LE), sink);
+		assertThat(sink.toMatches(sample.getText().getBytes(UTF_16LE), UTF_16LE), equalTo(ReferenceSearch.findAll(sample.getText(), sample.getPatterns(), UTF_16LE)));
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testNoText() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("ababab", NO_TEXT).findAll();
+		assertThat(matches, equalTo(positionsOf(searcher.createSearcher("ababab").findAll())));
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testNoTextLongestNonOverlapping() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("ababab", LONGEST_MATCH, NON_OVERLAP, NO_TEXT).findAll();
+		assertThat(matches, equalTo(positionsOf(searcher.createSearcher("ababab", LONGEST_MATCH, NON_OVERLAP).findAll())));
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testCount() throws Exception {
+		MatchCounter counter = new MatchCounter();
+		searcher.getAlgorithm().search(new StringByteProvider("ababab", 0), counter);
+		assertThat(counter.getCount(), equalTo(7L));
+		assertThat(counter.getCount(), equalTo((long) searcher.createSearcher("ababab").findAll().size()));
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testExists() throws Exception {
+		MatchDetector found = new MatchDetector();
+		searcher.getAlgorithm().search(new StringByteProvider("ababab", 0), found);
+		assertThat(found.isFound(), is(true));
+
+		MatchDetector notFound = new MatchDetector();
+		searcher.getAlgorithm().search(new StringByteProvider("bbbbbbbb", 0), notFound);
+		assertThat(notFound.isFound(), is(false));
+	}
+
+	private static List<StringMatch> positionsOf(List<StringMatch> matches) {
+		List<StringMatch> positions = new ArrayList<>();
+		for (StringMatch match : matches) {
+			positions.add(new StringMatch(match.start(), match.end()));
+		}
+		return positions;
+	}
+
+	private static List<Integer> patterns(List<StringMatch> matches) {
+		List<Integer> patterns = new ArrayList<>();
+		for (StringMatch match : matches) {
+			patterns.add(match.pattern());
+		}
+		return patterns;
+	}
 }
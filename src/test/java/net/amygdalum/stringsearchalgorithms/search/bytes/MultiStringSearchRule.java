@@ -1,6 +1,7 @@
 package net.amygdalum.stringsearchalgorithms.search.bytes;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
@@ -11,6 +12,10 @@ import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.corpus.CorpusKind;
+import net.amygdalum.stringsearchalgorithms.search.SearchCorpus;
 import net.amygdalum.stringsearchalgorithms.search.SearchFor;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
@@ -19,7 +24,9 @@ import net.amygdalum.util.io.StringByteProvider;
 
 public class MultiStringSearchRule implements TestRule {
 
+	private MultiStringSearchAlgorithmFactory algorithmFactory;
 	private StringSearchAlgorithm algorithm;
+	private Sample sample;
 	private List<MultiStringSearchAlgorithmFactory> algorithmFactories;
 	
 	public MultiStringSearchRule(MultiStringSearchAlgorithmFactory... algorithmFactories) {
@@ -43,23 +50,28 @@ public class MultiStringSearchRule implements TestRule {
 		return new Statement() {
 			@Override
 			public void evaluate() throws Throwable {
-				String[] patterns = extractPattern(description);
-				List<StringSearchAlgorithm> algorithms = getAlgorithms(patterns);
 				Map<StringSearchAlgorithm, String> failures = new IdentityHashMap<StringSearchAlgorithm, String>();
 				StackTraceElement[] stackTrace = null;
-				for (StringSearchAlgorithm algorithm : algorithms) {
-					MultiStringSearchRule.this.algorithm = algorithm;
-					try {
-						base.evaluate();
-					} catch (AssertionError e) {
-						String message = e.getMessage() == null ? "" : e.getMessage();
-						failures.put(algorithm, message);
-						if (stackTrace == null) {
-							stackTrace = e.getStackTrace();
+				for (CorpusKind kind : corpusKinds(description)) {
+					String[] patterns = extractPattern(description, kind);
+					String corpus = kind == null ? "" : "in corpus <" + kind + ">: ";
+					List<StringSearchAlgorithm> algorithms = getAlgorithms(patterns);
+					for (int i = 0; i < algorithms.size(); i++) {
+						StringSearchAlgorithm algorithm = algorithms.get(i);
+						MultiStringSearchRule.this.algorithmFactory = algorithmFactories.get(i);
+						MultiStringSearchRule.this.algorithm = algorithm;
+						try {
+							base.evaluate();
+						} catch (AssertionError e) {
+							String message = e.getMessage() == null ? "" : e.getMessage();
+							failures.put(algorithm, corpus + message);
+							if (stackTrace == null) {
+								stackTrace = e.getStackTrace();
+							}
+						} catch (Throwable e) {
+							String message = e.getMessage() == null ? "" : e.getMessage();
+							throw new RuntimeException("In mode " + algorithm.toString() + ": " + corpus + message, e);
 						}
-					} catch (Throwable e) {
-						String message = e.getMessage() == null ? "" : e.getMessage();
-						throw new RuntimeException("In mode " + algorithm.toString() + ": " + message, e);
 					}
 				}
 				if (!failures.isEmpty()) {
@@ -72,10 +84,22 @@ public class MultiStringSearchRule implements TestRule {
 		};
 	}
 
-	private String[] extractPattern(final Description description) throws AssertionError {
+	private List<CorpusKind> corpusKinds(Description description) {
+		SearchCorpus searchCorpus = description.getAnnotation(SearchCorpus.class);
+		if (searchCorpus == null) {
+			return singletonList(null);
+		}
+		return asList(searchCorpus.value());
+	}
+
+	private String[] extractPattern(Description description, CorpusKind kind) throws AssertionError {
+		if (kind != null) {
+			sample = Corpus.sample(kind, description.getAnnotation(SearchCorpus.class));
+			return sample.getPatterns().toArray(new String[0]);
+		}
 		SearchFor searchFor = description.getAnnotation(SearchFor.class);
 		if (searchFor == null) {
-			throw new AssertionError("expected @SearchFor annotation");
+			throw new AssertionError("expected @SearchFor or @SearchCorpus annotation");
 		}
 		return searchFor.value();
 	}
@@ -100,4 +124,16 @@ public class MultiStringSearchRule implements TestRule {
 		return algorithm;
 	}
 
+	/**
+	 * @param patterns the patterns to search
+	 * @return a new algorithm for the given patterns, created by the factory of the current algorithm
+	 */
+	public StringSearchAlgorithm createAlgorithm(List<String> patterns) {
+		return algorithmFactory.of(patterns);
+	}
+
+	public Sample getSample() {
+		return sample;
+	}
+
 }
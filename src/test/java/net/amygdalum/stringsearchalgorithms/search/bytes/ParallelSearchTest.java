@@ -0,0 +1,115 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.io.MappedFileByteProvider;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringByteProvider;
+
+public class ParallelSearchTest {
+
+	private static final StringFinderOption[][] OPTIONS = {
+		{},
+		{ LONGEST_MATCH },
+		{ NON_OVERLAP },
+		{ LONGEST_MATCH, NON_OVERLAP }
+	};
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ForkJoinPool pool;
+
+	@Before
+	public void before() throws Exception {
+		pool = new ForkJoinPool(4);
+	}
+
+	@After
+	public void after() throws Exception {
+		pool.shutdown();
+	}
+
+	@Test
+	public void testFindAllSinglePattern() throws Exception {
+		Sample sample = Corpus.naturalLanguage(7).sample(20_000, 1, 6, 0.8);
+		String pattern = sample.getPattern();
+		byte[] bytes = sample.getText().getBytes(UTF_8);
+		for (StringSearchAlgorithm algorithm : asList(new Horspool(pattern, UTF_8), new Sunday(pattern, UTF_8), new BNDM(pattern, UTF_8), new KnuthMorrisPratt(pattern, UTF_8))) {
+			assertParallelEqualsSequential(algorithm, pattern.length(), bytes);
+		}
+	}
+
+	@Test
+	public void testFindAllMultiPattern() throws Exception {
+		byte[] bytes = "xxabcdxxabcdexxxbcdexxcdexxaaaaabcdeaaaa".getBytes(UTF_8);
+		List<String> patterns = asList("abcde", "abcd", "bcd", "bc", "cd", "cde", "aa", "aaa");
+		for (StringSearchAlgorithm algorithm : asList(new AhoCorasick(patterns, UTF_8), new SetBackwardOracleMatching(patterns, UTF_8), new SetHorspool(patterns, UTF_8), new WuManber(patterns, UTF_8))) {
+			assertParallelEqualsSequential(algorithm, 5, bytes);
+		}
+	}
+
+	@Test
+	public void testFindAllMappedFile() throws Exception {
+		Path file = folder.newFile().toPath();
+		Files.write(file, "abababababab".getBytes(UTF_8));
+		ParallelSearch search = new ParallelSearch(new Horspool("abab", UTF_8), 4, pool, 4);
+
+		List<StringMatch> matches = search.findAll(new MappedFileByteProvider(file, 0, UTF_8), NON_OVERLAP);
+
+		assertThat(matches, contains(
+			new StringMatch(0, 4, "abab"),
+			new StringMatch(4, 8, "abab"),
+			new StringMatch(8, 12, "abab")));
+	}
+
+	@Test
+	public void testFindAllSkippingAlgorithmAtDocumentEnd() throws Exception {
+		byte[] bytes = "ccccababaccb".getBytes(UTF_8);
+		for (StringSearchAlgorithm algorithm : asList(new Sunday("aba", UTF_8), new Horspool("aba", UTF_8))) {
+			for (int chunks : new int[] { 2, 3, 4, 5 }) {
+				ParallelSearch search = new ParallelSearch(algorithm, 3, pool, chunks);
+
+				List<StringMatch> matches = search.findAll(bytes, UTF_8, NON_OVERLAP);
+
+				assertThat(algorithm + " in " + chunks + " chunks", matches, contains(new StringMatch(4, 7, "aba")));
+			}
+		}
+	}
+
+	private void assertParallelEqualsSequential(StringSearchAlgorithm algorithm, int maxLength, byte[] bytes) {
+		for (StringFinderOption[] options : OPTIONS) {
+			for (int chunks : new int[] { 1, 3, 5, 17, 64 }) {
+				ParallelSearch search = new ParallelSearch(algorithm, maxLength, pool, chunks);
+
+				List<StringMatch> matches = search.findAll(bytes, UTF_8, options);
+
+				List<StringMatch> expected = algorithm.createFinder(new StringByteProvider(bytes, 0, UTF_8), options).findAll();
+				Collections.sort(expected);
+				assertThat(algorithm + " " + asList(options) + " in " + chunks + " chunks", matches, equalTo(expected));
+			}
+		}
+	}
+
+}
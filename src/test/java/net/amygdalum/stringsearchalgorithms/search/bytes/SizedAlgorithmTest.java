@@ -0,0 +1,53 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.search.SizedAlgorithm;
+
+public class SizedAlgorithmTest {
+
+	private static final List<String> SMALL = asList("abc", "bcd");
+	private static final List<String> LARGE = asList("abcdef", "bcdefg", "cdefgh", "defghi");
+
+	@Test
+	public void testAhoCorasickEstimatesTrie() throws Exception {
+		SizedAlgorithm small = new AhoCorasick(SMALL, UTF_8);
+		SizedAlgorithm large = new AhoCorasick(LARGE, UTF_8);
+
+		assertThat(large.estimatedSize(), greaterThan(small.estimatedSize()));
+	}
+
+	@Test
+	public void testSetHorspoolEstimatesShiftTableAndTrie() throws Exception {
+		SizedAlgorithm small = new SetHorspool(SMALL, UTF_8);
+		SizedAlgorithm large = new SetHorspool(LARGE, UTF_8);
+
+		assertThat(large.estimatedSize(), greaterThan(small.estimatedSize()));
+		assertThat(small.estimatedSize(), greaterThan(4L * 256));
+	}
+
+	@Test
+	public void testWuManberEstimatesShiftAndHashTables() throws Exception {
+		SizedAlgorithm small = new WuManber(SMALL, UTF_8, 1024, 512);
+		SizedAlgorithm large = new WuManber(SMALL, UTF_8, 4093, 2039);
+
+		assertThat(large.estimatedSize(), greaterThan(small.estimatedSize()));
+		assertThat(small.estimatedSize(), greaterThan(4L * 1024));
+	}
+
+	@Test
+	public void testSetBackwardOracleMatchingEstimatesOracle() throws Exception {
+		SizedAlgorithm small = new SetBackwardOracleMatching(SMALL, UTF_8);
+		SizedAlgorithm large = new SetBackwardOracleMatching(LARGE, UTF_8);
+
+		assertThat(large.estimatedSize(), greaterThan(small.estimatedSize()));
+	}
+
+}
@@ -0,0 +1,70 @@
+package net.amygdalum.stringsearchalgorithms.search.bytes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.io.MappedFileByteProvider;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringByteProvider;
+
+public class StreamSearchTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMatchesParallel() throws Exception {
+		StreamSearch search = new StreamSearch(new Horspool("abab", UTF_8), 4, 2);
+
+		List<StringMatch> matches = search.matches("abababababab".getBytes(UTF_8), UTF_8).parallel().collect(toList());
+
+		assertThat(matches, contains(
+			new StringMatch(0, 4, "abab"),
+			new StringMatch(2, 6, "abab"),
+			new StringMatch(4, 8, "abab"),
+			new StringMatch(6, 10, "abab"),
+			new StringMatch(8, 12, "abab")));
+	}
+
+	@Test
+	public void testMatchesSkippingAlgorithmAtDocumentEnd() throws Exception {
+		StreamSearch search = new StreamSearch(new Sunday("aba", UTF_8), 3, 3);
+
+		List<StringMatch> matches = search.matches("ccccababaccb".getBytes(UTF_8), UTF_8).parallel().collect(toList());
+
+		assertThat(matches, contains(
+			new StringMatch(4, 7, "aba"),
+			new StringMatch(6, 9, "aba")));
+	}
+
+	@Test
+	public void testMatchesMappedFileParallelEqualsSequential() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(50_000, 4, 5, 0.8);
+		byte[] bytes = sample.getText().getBytes(UTF_8);
+		Path file = folder.newFile().toPath();
+		Files.write(file, bytes);
+		AhoCorasick algorithm = new AhoCorasick(sample.getPatterns(), UTF_8);
+		StreamSearch search = new StreamSearch(algorithm, 5, 128);
+
+		List<StringMatch> matches = search.matches(new MappedFileByteProvider(file, 0, UTF_8)).parallel().sorted().collect(toList());
+
+		List<StringMatch> expected = algorithm.createFinder(new StringByteProvider(bytes, 0, UTF_8)).findAll();
+		Collections.sort(expected);
+		assertThat(matches, equalTo(expected));
+	}
+
+}
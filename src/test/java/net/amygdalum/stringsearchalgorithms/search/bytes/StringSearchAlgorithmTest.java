@@ -1,20 +1,32 @@
 package net.amygdalum.stringsearchalgorithms.search.bytes;
 
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.util.Arrays.asList;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NO_TEXT;
 import static net.amygdalum.stringsearchalgorithms.search.bytes.StringSearchAlgorithmMatcher.isByteStringSearchAlgorithm;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Rule;
 import org.junit.Test;
 
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.corpus.CorpusKind;
+import net.amygdalum.stringsearchalgorithms.corpus.ReferenceSearch;
+import net.amygdalum.stringsearchalgorithms.search.MatchCounter;
+import net.amygdalum.stringsearchalgorithms.search.MatchDetector;
+import net.amygdalum.stringsearchalgorithms.search.RecordingSink;
+import net.amygdalum.stringsearchalgorithms.search.SearchCorpus;
 import net.amygdalum.stringsearchalgorithms.search.SearchFor;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
-
+import net.amygdalum.util.io.StringByteProvider;
 
 public class StringSearchAlgorithmTest {
 
@@ -199,4 +211,90 @@ public class StringSearchAlgorithmTest {
 		assertThat(searcher.getAlgorithm().getPatternLength(), equalTo(10));
 	}
 
+	@Test
+	@SearchCorpus(patterns = 1, hitRate = 1)
+	public void testCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		List<StringMatch> matches = searcher.createSearcher(sample.bytes(UTF_16LE)).findAll();
+		assertThat(matches, equalTo(ReferenceSearch.findAll(sample.getText(), asList(sample.getPattern()), UTF_16LE)));
+	}
+
+	@Test
+	@SearchFor("aba")
+	public void testSearch() throws Exception {
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(new StringByteProvider("abababab", 0), sink);
+		assertThat(sink.toMatches("abababab".getBytes(UTF_16LE), UTF_16LE), equalTo(searcher.createSearcher("abababab").findAll()));
+		assertThat(sink.pattern(0), equalTo(0));
+	}
+
+	@Test
+	@SearchFor("ab")
+	public void testSearchStopsIfSinkRejects() throws Exception {
+		RecordingSink sink = new RecordingSink(2);
+		searcher.getAlgorithm().search(new StringByteProvider("abababab", 0), sink);
+		assertThat(sink.size(), equalTo(2));
+	}
+
+	@Test
+	@SearchCorpus(value = CorpusKind.NATURAL_LANGUAGE, patterns = 1, hitRate = 1)
+	public void testSearchNaturalLanguageCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(sample.bytes(UTF_16LE), sink);
+		assertThat(sink.toMatches(sample.getText().getBytes(UTF_16LE), UTF_16LE), equalTo(ReferenceSearch.findAll(sample.getText(), asList(sample.getPattern()), UTF_16LE)));
+	}
+
+	@Test
+	@SearchCorpus(value = CorpusKind.DNA, patterns = 1, hitRate = 1)
+	public void testSearchDnaCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(sample.bytes(UTF_16LE), sink);
+		assertThat(sink.toMatches(sample.getText().getBytes(UTF_16LE), UTF_16LE), equalTo(ReferenceSearch.findAll(sample.getText(), asList(sample.getPattern()), UTF_16LE)));
+	}
+
+	@Test
+	@SearchFor("aba")
+	public void testNoText() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("abababab", NO_TEXT).findAll();
+		assertThat(matches, equalTo(positionsOf(searcher.createSearcher("abababab").findAll())));
+	}
+
+	@Test
+	@SearchFor("aba")
+	public void testNoTextLongestNonOverlapping() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("abababab", LONGEST_MATCH, NON_OVERLAP, NO_TEXT).findAll();
+		assertThat(matches, equalTo(positionsOf(searcher.createSearcher("abababab", LONGEST_MATCH, NON_OVERLAP).findAll())));
+	}
+
+	@Test
+	@SearchFor("aba")
+	public void testCount() throws Exception {
+		MatchCounter counter = new MatchCounter();
+		searcher.getAlgorithm().search(new StringByteProvider("abababab", 0), counter);
+		assertThat(counter.getCount(), equalTo(3L));
+		assertThat(counter.getCount(), equalTo((long) searcher.createSearcher("abababab").findAll().size()));
+	}
+
+	@Test
+	@SearchFor("aba")
+	public void testExists() throws Exception {
+		MatchDetector found = new MatchDetector();
+		searcher.getAlgorithm().search(new StringByteProvider("abababab", 0), found);
+		assertThat(found.isFound(), is(true));
+
+		MatchDetector notFound = new MatchDetector();
+		searcher.getAlgorithm().search(new StringByteProvider("bbbbbbbb", 0), notFound);
+		assertThat(notFound.isFound(), is(false));
+	}
+
+	private static List<StringMatch> positionsOf(List<StringMatch> matches) {
+		List<StringMatch> positions = new ArrayList<>();
+		for (StringMatch match : matches) {
+			positions.add(new StringMatch(match.start(), match.end()));
+		}
+		return positions;
+	}
+
 }
@@ -1,6 +1,7 @@
 package net.amygdalum.stringsearchalgorithms.search.bytes;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
@@ -11,6 +12,10 @@ import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.corpus.CorpusKind;
+import net.amygdalum.stringsearchalgorithms.search.SearchCorpus;
 import net.amygdalum.stringsearchalgorithms.search.SearchFor;
 import net.amygdalum.stringsearchalgorithms.search.StringFinder;
 import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
@@ -20,6 +25,7 @@ import net.amygdalum.util.io.StringByteProvider;
 public class StringSearchRule implements TestRule {
 
 	private StringSearchAlgorithm algorithm;
+	private Sample sample;
 	private List<StringSearchAlgorithmFactory> algorithmFactories;
 
 	public StringSearchRule(StringSearchAlgorithmFactory... algorithmFactories) {
@@ -39,23 +45,26 @@ public class StringSearchRule implements TestRule {
 		return new Statement() {
 			@Override
 			public void evaluate() throws Throwable {
-				String pattern = extractPattern(description);
-				List<StringSearchAlgorithm> algorithms = getAlgorithms(pattern);
 				Map<StringSearchAlgorithm, String> failures = new IdentityHashMap<StringSearchAlgorithm, String>();
 				StackTraceElement[] stackTrace = null;
-				for (StringSearchAlgorithm algorithm : algorithms) {
-					StringSearchRule.this.algorithm = algorithm;
-					try {
-						base.evaluate();
-					} catch (AssertionError e) {
-						String message = e.getMessage() == null ? "" : e.getMessage();
-						failures.put(algorithm, message);
-						if (stackTrace == null) {
-							stackTrace = e.getStackTrace();
+				for (CorpusKind kind : corpusKinds(description)) {
+					String pattern = extractPattern(description, kind);
+					String corpus = kind == null ? "" : "in corpus <" + kind + ">: ";
+					List<StringSearchAlgorithm> algorithms = getAlgorithms(pattern);
+					for (StringSearchAlgorithm algorithm : algorithms) {
+						StringSearchRule.this.algorithm = algorithm;
+						try {
+							base.evaluate();
+						} catch (AssertionError e) {
+							String message = e.getMessage() == null ? "" : e.getMessage();
+							failures.put(algorithm, corpus + message);
+							if (stackTrace == null) {
+								stackTrace = e.getStackTrace();
+							}
+						} catch (Throwable e) {
+							String message = e.getMessage() == null ? "" : e.getMessage();
+							throw new RuntimeException("In mode " + algorithm.toString() + ": " + corpus + message, e);
 						}
-					} catch (Throwable e) {
-						String message = e.getMessage() == null ? "" : e.getMessage();
-						throw new RuntimeException("In mode " + algorithm.toString() + ": " + message, e);
 					}
 				}
 				if (!failures.isEmpty()) {
@@ -68,10 +77,22 @@ public class StringSearchRule implements TestRule {
 		};
 	}
 
-	private String extractPattern(final Description description) throws AssertionError {
+	private List<CorpusKind> corpusKinds(Description description) {
+		SearchCorpus searchCorpus = description.getAnnotation(SearchCorpus.class);
+		if (searchCorpus == null) {
+			return singletonList(null);
+		}
+		return asList(searchCorpus.value());
+	}
+
+	private String extractPattern(Description description, CorpusKind kind) throws AssertionError {
+		if (kind != null) {
+			sample = Corpus.sample(kind, description.getAnnotation(SearchCorpus.class));
+			return sample.getPattern();
+		}
 		SearchFor searchFor = description.getAnnotation(SearchFor.class);
 		if (searchFor == null) {
-			throw new AssertionError("expected @SearchFor annotation");
+			throw new AssertionError("expected @SearchFor or @SearchCorpus annotation");
 		}
 		String[] pattern = searchFor.value();
 		if (pattern.length != 1) {
@@ -100,4 +121,8 @@ public class StringSearchRule implements TestRule {
 		return algorithm;
 	}
 
+	public Sample getSample() {
+		return sample;
+	}
+
 }
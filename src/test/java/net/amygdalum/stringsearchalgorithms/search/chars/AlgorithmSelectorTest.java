@@ -0,0 +1,158 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.search.chars.AlgorithmSelector.Selection;
+
+public class AlgorithmSelectorTest {
+
+	private AlgorithmSelector selector = new AlgorithmSelector();
+
+	@Test
+	public void testSelectShortPattern() throws Exception {
+		Selection selection = selector.select("ab");
+
+		assertThat(selection.getAlgorithm(), instanceOf(ShiftOr.class));
+		assertThat(selection.getReason(), containsString("pattern length 2"));
+	}
+
+	@Test
+	public void testSelectEmptyPattern() throws Exception {
+		Selection selection = selector.select("");
+
+		assertThat(selection.getAlgorithm(), instanceOf(BOM.class));
+		assertThat(selection.getReason(), containsString("empty pattern"));
+	}
+
+	@Test
+	public void testSelectLongPattern() throws Exception {
+		Selection selection = selector.select(repeat("abcdefghij", 7));
+
+		assertThat(selection.getAlgorithm(), instanceOf(BOM.class));
+		assertThat(selection.getReason(), containsString("pattern length 70 > 64"));
+	}
+
+	@Test
+	public void testSelectSmallAlphabet() throws Exception {
+		Selection selection = selector.select("acgtacgatcgatcga");
+
+		assertThat(selection.getAlgorithm(), instanceOf(BNDM.class));
+		assertThat(selection.getReason(), containsString("4 distinct chars"));
+	}
+
+	@Test
+	public void testSelectSparseRange() throws Exception {
+		Selection selection = selector.select("abcdefghi中文");
+
+		assertThat(selection.getAlgorithm(), instanceOf(BNDM.class));
+		assertThat(selection.getReason(), containsString("sparse char range"));
+	}
+
+	@Test
+	public void testSelectLargeAlphabet() throws Exception {
+		Selection selection = selector.select("pattern matching");
+
+		assertThat(selection.getAlgorithm(), instanceOf(Horspool.class));
+		assertThat(selection.getReason(), containsString("large alphabet"));
+	}
+
+	@Test
+	public void testSelectShortPatterns() throws Exception {
+		Selection selection = selector.select(asList("ab", "pattern"));
+
+		assertThat(selection.getAlgorithm(), instanceOf(AhoCorasick.class));
+		assertThat(selection.getReason(), containsString("min pattern length 2"));
+	}
+
+	@Test
+	public void testSelectSpreadPatterns() throws Exception {
+		Selection selection = selector.select(asList("abc", "pattern matching"));
+
+		assertThat(selection.getAlgorithm(), instanceOf(AhoCorasick.class));
+		assertThat(selection.getReason(), containsString("pattern lengths 3..16"));
+	}
+
+	@Test
+	public void testSelectFewPatternsSmallAlphabet() throws Exception {
+		Selection selection = selector.select(asList("acgtt", "ttgca", "gattaca"));
+
+		assertThat(selection.getAlgorithm(), instanceOf(QGramShiftOr.class));
+		assertThat(selection.getReason(), containsString("3 patterns"));
+	}
+
+	@Test
+	public void testSelectFewPatternsLargeAlphabet() throws Exception {
+		Selection selection = selector.select(asList("pattern", "matching", "strings"));
+
+		assertThat(selection.getAlgorithm(), instanceOf(SetHorspool.class));
+	}
+
+	@Test
+	public void testSelectManyLongPatterns() throws Exception {
+		Selection selection = selector.select(patterns(20, 16));
+
+		assertThat(selection.getAlgorithm(), instanceOf(SetBackwardOracleMatching.class));
+		assertThat(selection.getReason(), containsString("min length 16 >= 16"));
+	}
+
+	@Test
+	public void testSelectManyPatterns() throws Exception {
+		Selection selection = selector.select(patterns(20, 5));
+
+		assertThat(selection.getAlgorithm(), instanceOf(WuManber.class));
+	}
+
+	@Test
+	public void testSelectVeryManyPatterns() throws Exception {
+		Selection selection = selector.select(patterns(10001, 5));
+
+		assertThat(selection.getAlgorithm(), instanceOf(AhoCorasick.class));
+		assertThat(selection.getReason(), containsString("10001 patterns"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSelectNoPatterns() throws Exception {
+		selector.select(emptyList());
+	}
+
+	@Test
+	public void testSelectionToString() throws Exception {
+		assertThat(selector.select("ab").toString(), containsString("ShiftOr: pattern length 2"));
+	}
+
+	@Test
+	public void testToString() throws Exception {
+		assertThat(selector.toString(), equalTo("AlgorithmSelector"));
+	}
+
+	private static String repeat(String s, int times) {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < times; i++) {
+			buffer.append(s);
+		}
+		return buffer.toString();
+	}
+
+	private static List<String> patterns(int count, int length) {
+		List<String> patterns = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			StringBuilder buffer = new StringBuilder(Integer.toString(i, 36));
+			while (buffer.length() < length) {
+				buffer.append((char) ('a' + buffer.length()));
+			}
+			patterns.add(buffer.toString());
+		}
+		return patterns;
+	}
+
+}
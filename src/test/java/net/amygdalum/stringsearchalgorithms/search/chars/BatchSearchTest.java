@@ -0,0 +1,187 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.search.BatchedSearch.DocumentSink;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.CharProvider;
+import net.amygdalum.util.io.StringCharProvider;
+
+public class BatchSearchTest {
+
+	private ExecutorService executor;
+
+	@Before
+	public void before() throws Exception {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void after() throws Exception {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testFindAll() throws Exception {
+		BatchSearch search = new BatchSearch(new AhoCorasick(asList("ab", "bc")), executor);
+
+		List<List<StringMatch>> matches = search.findAll(asList("abc", "", "xyz", "cbab"));
+
+		List<List<StringMatch>> expected = new ArrayList<>();
+		expected.add(asList(new StringMatch(0, 2, "ab"), new StringMatch(1, 3, "bc")));
+		expected.add(Collections.<StringMatch> emptyList());
+		expected.add(Collections.<StringMatch> emptyList());
+		expected.add(asList(new StringMatch(2, 4, "ab")));
+		assertThat(matches, equalTo(expected));
+	}
+
+	@Test
+	public void testFindAllNoDocuments() throws Exception {
+		BatchSearch search = new BatchSearch(new AhoCorasick(asList("ab", "bc")), executor);
+
+		List<List<StringMatch>> matches = search.findAll(Collections.<String> emptyList());
+
+		assertThat(matches, empty());
+	}
+
+	@Test
+	public void testFindAllManyDocuments() throws Exception {
+		Sample sample = Corpus.naturalLanguage(13).sample(50_000, 5, 4, 0.8);
+		List<String> documents = split(sample.getText(), 37);
+		List<String> patterns = sample.getPatterns();
+		for (StringSearchAlgorithm algorithm : asList(new AhoCorasick(patterns), new WuManber(patterns), new SetHorspool(patterns), new SetBackwardOracleMatching(patterns))) {
+			for (StringFinderOption[] options : new StringFinderOption[][] { {}, { LONGEST_MATCH, NON_OVERLAP } }) {
+				for (int batchSize : new int[] { 1, 10, 1000 }) {
+					BatchSearch search = new BatchSearch(algorithm, executor, batchSize);
+
+					List<List<StringMatch>> matches = search.findAll(documents, options);
+
+					assertThat(search + " " + batchSize, matches, equalTo(sequential(algorithm, documents, options)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFindAllToSinkBoundsPendingDocuments() throws Exception {
+		Sample sample = Corpus.naturalLanguage(13).sample(50_000, 5, 4, 0.8);
+		List<String> documents = split(sample.getText(), 37);
+		AhoCorasick algorithm = new AhoCorasick(sample.getPatterns());
+		final CountingIterator iterator = new CountingIterator(documents.iterator());
+		final List<String> reported = new ArrayList<>();
+		final List<List<StringMatch>> matches = new ArrayList<>();
+		final int[] maxPending = new int[1];
+		BatchSearch search = new BatchSearch(algorithm, executor, 10, 3);
+
+		search.findAll(iterator, new DocumentSink<String>() {
+
+			@Override
+			public void matches(String document, List<StringMatch> documentMatches) {
+				reported.add(document);
+				matches.add(documentMatches);
+				maxPending[0] = Math.max(maxPending[0], iterator.count - reported.size());
+			}
+		});
+
+		assertThat(reported, equalTo(documents));
+		assertThat(matches, equalTo(sequential(algorithm, documents)));
+		assertThat(maxPending[0], lessThanOrEqualTo(30));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFindAllPropagatesExceptions() throws Exception {
+		BatchSearch search = new BatchSearch(new FailingAlgorithm(), executor);
+
+		search.findAll(asList("abc", "def"));
+	}
+
+	@Test
+	public void testToString() throws Exception {
+		assertThat(new BatchSearch(new AhoCorasick(asList("ab")), executor).toString(), equalTo("BatchSearch<AhoCorasick>"));
+	}
+
+	private static List<String> split(String text, int length) {
+		List<String> documents = new ArrayList<>();
+		for (int i = 0; i < text.length(); i += length) {
+			documents.add(text.substring(i, Math.min(text.length(), i + length)));
+		}
+		return documents;
+	}
+
+	private static List<List<StringMatch>> sequential(StringSearchAlgorithm algorithm, List<String> documents, StringFinderOption... options) {
+		List<List<StringMatch>> matches = new ArrayList<>();
+		for (String document : documents) {
+			matches.add(algorithm.createFinder(new StringCharProvider(document, 0), options).findAll());
+		}
+		return matches;
+	}
+
+	private static class FailingAlgorithm implements StringSearchAlgorithm {
+
+		@Override
+		public StringFinder createFinder(CharProvider chars, StringFinderOption... options) {
+			throw new IllegalArgumentException();
+		}
+
+		@Override
+		public void search(CharProvider chars, MatchSink sink) {
+			throw new IllegalArgumentException();
+		}
+
+		@Override
+		public int getPatternLength() {
+			return 1;
+		}
+
+	}
+
+	private static class CountingIterator implements Iterator<String> {
+
+		private Iterator<String> documents;
+		private int count;
+
+		public CountingIterator(Iterator<String> documents) {
+			this.documents = documents;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return documents.hasNext();
+		}
+
+		@Override
+		public String next() {
+			count++;
+			return documents.next();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
@@ -0,0 +1,109 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.regexparser.RegexParserOption;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.BPGlushkov;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.MultiBPGlushkov;
+
+public class CachingFactoryTest {
+
+	@Test
+	public void testOfPattern() throws Exception {
+		CachingFactory factory = new CachingFactory(new BPGlushkov.Factory(RegexParserOption.DOT_ALL), 100, SizeEstimator.PATTERN_CHARS);
+
+		StringSearchAlgorithm first = factory.of("a.*b");
+		StringSearchAlgorithm second = factory.of("a.*b");
+		StringSearchAlgorithm other = factory.of("a.*c");
+
+		assertThat(second, sameInstance(first));
+		assertThat(other, not(sameInstance(first)));
+		assertThat(factory.hits(), equalTo(1L));
+		assertThat(factory.misses(), equalTo(2L));
+		assertThat(factory.size(), equalTo(20L));
+	}
+
+	@Test
+	public void testSizeOfLazyDfas() throws Exception {
+		CachingFactory small = new CachingFactory(new BPGlushkov.Factory(16), Long.MAX_VALUE);
+		CachingFactory large = new CachingFactory(new BPGlushkov.Factory(1024), Long.MAX_VALUE);
+
+		small.of("a.*b");
+		large.of("a.*b");
+
+		assertThat(large.size(), greaterThan(small.size()));
+		assertThat(small.size(), greaterThan(2L * 16 * 4));
+	}
+
+	@Test
+	public void testOfPatternWithMultiFactory() throws Exception {
+		CachingFactory factory = new CachingFactory(new MultiBPGlushkov.Factory(), 100);
+
+		StringSearchAlgorithm single = factory.of("ab");
+
+		assertThat(factory.of("ab"), sameInstance(single));
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() throws Exception {
+		CachingFactory factory = new CachingFactory(new Horspool.Factory(), 24);
+
+		StringSearchAlgorithm abc = factory.of("abc");
+		StringSearchAlgorithm def = factory.of("def");
+		StringSearchAlgorithm ghi = factory.of("ghi");
+		factory.of("abc");
+		factory.of("jkl");
+
+		assertThat(factory.size(), equalTo(24L));
+		assertThat(factory.of("abc"), sameInstance(abc));
+		assertThat(factory.of("ghi"), sameInstance(ghi));
+		assertThat(factory.of("def"), not(sameInstance(def)));
+	}
+
+	@Test
+	public void testKeepsLargeAlgorithmUntilNext() throws Exception {
+		CachingFactory factory = new CachingFactory(new Horspool.Factory(), 4);
+
+		StringSearchAlgorithm large = factory.of("large");
+
+		assertThat(factory.of("large"), sameInstance(large));
+		factory.of("x");
+		assertThat(factory.size(), equalTo(4L));
+	}
+
+	@Test
+	public void testClear() throws Exception {
+		CachingFactory factory = new CachingFactory(new Horspool.Factory(), 24);
+		StringSearchAlgorithm abc = factory.of("abc");
+
+		factory.clear();
+
+		assertThat(factory.size(), equalTo(0L));
+		assertThat(factory.of("abc"), not(sameInstance(abc)));
+	}
+
+	@Test
+	public void testCustomEstimator() throws Exception {
+		CachingFactory factory = new CachingFactory(new Horspool.Factory(), 100, new SizeEstimator() {
+
+			@Override
+			public long estimate(StringSearchAlgorithm algorithm, List<String> patterns) {
+				return 60;
+			}
+		});
+		StringSearchAlgorithm abc = factory.of("abc");
+		factory.of("def");
+
+		assertThat(factory.size(), equalTo(60L));
+		assertThat(factory.of("abc"), not(sameInstance(abc)));
+	}
+
+}
@@ -0,0 +1,105 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.GlushkovFactorExtender;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.MultiBPGlushkov;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.MultiFactorRE;
+
+public class CachingMultiFactoryTest {
+
+	@Test
+	public void testOfPatterns() throws Exception {
+		CachingMultiFactory factory = new CachingMultiFactory(new AhoCorasick.Factory(), 10_000);
+
+		StringSearchAlgorithm first = factory.of(asList("he", "she"));
+		StringSearchAlgorithm second = factory.of(asList("he", "she"));
+		StringSearchAlgorithm other = factory.of(asList("she", "he"));
+
+		assertThat(second, sameInstance(first));
+		assertThat(other, not(sameInstance(first)));
+		assertThat(factory.hits(), equalTo(1L));
+		assertThat(factory.misses(), equalTo(2L));
+	}
+
+	@Test
+	public void testOfPatternsWithSingleFactory() throws Exception {
+		CachingMultiFactory factory = new CachingMultiFactory(new MultiBPGlushkov.Factory(), 100, SizeEstimator.PATTERN_CHARS);
+
+		StringSearchAlgorithm multi = factory.of(asList("ab"));
+
+		assertThat(factory.of(asList("ab")), sameInstance(multi));
+		assertThat(factory.size(), equalTo(6L));
+	}
+
+	@Test
+	public void testSizeOfCompiledTables() throws Exception {
+		CachingMultiFactory small = new CachingMultiFactory(new WuManber.Factory(), Long.MAX_VALUE);
+		CachingMultiFactory large = new CachingMultiFactory(new WuManber.Factory(4093, 2039), Long.MAX_VALUE);
+
+		small.of(asList("abc", "bcd"));
+		large.of(asList("abc", "bcd"));
+
+		assertThat(large.size(), greaterThan(small.size()));
+		assertThat(small.size(), greaterThan(4L * 255));
+	}
+
+	@Test
+	public void testSizeOfLazyDfas() throws Exception {
+		CachingMultiFactory small = new CachingMultiFactory(new MultiBPGlushkov.Factory(16), Long.MAX_VALUE);
+		CachingMultiFactory large = new CachingMultiFactory(new MultiBPGlushkov.Factory(1024), Long.MAX_VALUE);
+
+		small.of(asList("a+b", "cd"));
+		large.of(asList("a+b", "cd"));
+
+		assertThat(large.size(), greaterThan(small.size()));
+		assertThat(small.size(), greaterThan(2L * 16 * 4));
+	}
+
+	@Test
+	public void testSizeOfQGramTables() throws Exception {
+		CachingMultiFactory factory = new CachingMultiFactory(new QGramShiftOr.Factory(), Long.MAX_VALUE);
+
+		factory.of(asList("abcd", "bcde"));
+		long small = factory.size();
+		factory.of(asList("abcdefgh", "bcdefghi", "cdefghij"));
+
+		assertThat(factory.size() - small, greaterThan(small));
+		assertThat(small, greaterThan(SizeEstimator.PATTERN_CHARS.estimate(null, asList("abcd", "bcde"))));
+	}
+
+	@Test
+	public void testSizeOfFactorSearchAndExtenders() throws Exception {
+		CachingMultiFactory factory = new CachingMultiFactory(new MultiFactorRE.Factory(new WuManber.Factory(4093, 2039), new GlushkovFactorExtender.Factory(), 2), Long.MAX_VALUE);
+
+		factory.of(asList("ab+c", "cde"));
+
+		assertThat(factory.size(), greaterThan(4L * 4093));
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsed() throws Exception {
+		CachingMultiFactory factory = new CachingMultiFactory(new MultiBPGlushkov.Factory(), 24, SizeEstimator.PATTERN_CHARS);
+
+		StringSearchAlgorithm abc = factory.of(asList("abc"));
+		StringSearchAlgorithm def = factory.of(asList("def"));
+		factory.of(asList("abc"));
+		factory.of(asList("ghi", "jkl"));
+
+		assertThat(factory.of(asList("abc")), sameInstance(abc));
+		assertThat(factory.of(asList("def")), not(sameInstance(def)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsMutableAlgorithms() throws Exception {
+		new CachingMultiFactory(new DynamicAhoCorasick.Factory(), 100);
+	}
+
+}
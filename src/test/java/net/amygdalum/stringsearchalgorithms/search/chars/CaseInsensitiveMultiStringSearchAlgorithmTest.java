@@ -8,13 +8,16 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Rule;
 import org.junit.Test;
 
+import net.amygdalum.stringsearchalgorithms.search.RecordingSink;
 import net.amygdalum.stringsearchalgorithms.search.SearchFor;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
 
 public class CaseInsensitiveMultiStringSearchAlgorithmTest {
 
@@ -49,6 +52,23 @@ public class CaseInsensitiveMultiStringSearchAlgorithmTest {
 			new StringMatch(6, 8, "ab")));
 	}
 
+	@Test
+	@SearchFor({ "abC", "Bcd" })
+	public void testPatternIndex() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("ABCacbcdacabcdaabc").findAll();
+		assertThat(patterns(matches), contains(0, 1, 0, 1, 0));
+	}
+
+	@Test
+	@SearchFor({ "ab", "aBCdE" })
+	public void testPatternsOfDifferentLength() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("xABcDeabcdx").findAll();
+		assertThat(matches, containsInAnyOrder(
+			new StringMatch(1, 3, "AB"),
+			new StringMatch(1, 6, "ABcDe"),
+			new StringMatch(6, 8, "ab")));
+	}
+
 	@Test
 	@SearchFor({ "abC", "Bcd" })
 	public void testPattern3() throws Exception {
@@ -235,4 +255,23 @@ public class CaseInsensitiveMultiStringSearchAlgorithmTest {
 		assertThat(searcher.getAlgorithm().getPatternLength(), equalTo(5));
 	}
 
+	@Test
+	@SearchFor({"Ab", "cD"})
+	public void testSearch() throws Exception {
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(new StringCharProvider("abCDxaBcd", 0), sink);
+		assertThat(sink.toMatches("abCDxaBcd"), containsInAnyOrder(searcher.createSearcher("abCDxaBcd").findAll().toArray()));
+		String[] patterns = {"ab", "cd"};
+		for (int i = 0; i < sink.size(); i++) {
+			assertThat("abCDxaBcd".substring((int) sink.start(i), (int) sink.end(i)).toLowerCase(), equalTo(patterns[sink.pattern(i)]));
+		}
+	}
+
+	private static List<Integer> patterns(List<StringMatch> matches) {
+		List<Integer> patterns = new ArrayList<>();
+		for (StringMatch match : matches) {
+			patterns.add(match.pattern());
+		}
+		return patterns;
+	}
 }
@@ -0,0 +1,178 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.search.RecordingSink;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
+
+public class DynamicAhoCorasickTest {
+
+	@Test
+	public void testAdd() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("his", "hers"));
+
+		int id = algorithm.add("she");
+
+		assertThat(id, equalTo(2));
+		assertThat(findAll(algorithm, "ushers"), contains(
+			new StringMatch(1, 4, "she"),
+			new StringMatch(2, 6, "hers")));
+	}
+
+	@Test
+	public void testAddSuffixOfExistingPattern() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("ushers"));
+
+		algorithm.add("he");
+
+		assertThat(findAll(algorithm, "ushers"), contains(
+			new StringMatch(2, 4, "he"),
+			new StringMatch(0, 6, "ushers")));
+	}
+
+	@Test
+	public void testAddExisting() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("he", "she"));
+
+		int id = algorithm.add("he");
+
+		assertThat(id, equalTo(0));
+	}
+
+	@Test
+	public void testRemove() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("he", "she", "his", "hers"));
+
+		boolean removed = algorithm.remove("hers");
+
+		assertThat(removed, is(true));
+		assertThat(algorithm.contains("hers"), is(false));
+		assertThat(findAll(algorithm, "ushers"), contains(
+			new StringMatch(1, 4, "she"),
+			new StringMatch(2, 4, "he")));
+	}
+
+	@Test
+	public void testRemovePrefixOfOtherPattern() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("he", "she", "hers"));
+
+		algorithm.remove("he");
+
+		assertThat(findAll(algorithm, "ushers"), contains(
+			new StringMatch(1, 4, "she"),
+			new StringMatch(2, 6, "hers")));
+	}
+
+	@Test
+	public void testRemoveMissing() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("he", "she"));
+
+		boolean removed = algorithm.remove("hers");
+
+		assertThat(removed, is(false));
+	}
+
+	@Test
+	public void testRemoveAll() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("he", "she", "his", "hers"));
+
+		algorithm.removeAll(asList("he", "she", "his", "hers"));
+
+		assertThat(findAll(algorithm, "ushers"), empty());
+		assertThat(algorithm.getPatternLength(), equalTo(0));
+	}
+
+	@Test
+	public void testSearchReportsPatternIndex() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("he", "she"));
+		algorithm.remove("he");
+		algorithm.add("hers");
+		RecordingSink sink = new RecordingSink();
+
+		algorithm.search(new StringCharProvider("ushers", 0), sink);
+
+		assertThat(sink.size(), equalTo(2));
+		assertThat(sink.pattern(0), equalTo(1));
+		assertThat(sink.start(0), equalTo(1L));
+		assertThat(sink.pattern(1), equalTo(2));
+		assertThat(sink.start(1), equalTo(2L));
+	}
+
+	@Test
+	public void testSnapshotIsNotChanged() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("he", "she"));
+		StringSearchAlgorithm snapshot = algorithm.snapshot();
+
+		algorithm.remove("she");
+		algorithm.add("hers");
+
+		assertThat(findAll(snapshot, "ushers"), contains(
+			new StringMatch(1, 4, "she"),
+			new StringMatch(2, 4, "he")));
+		assertThat(findAll(algorithm, "ushers"), contains(
+			new StringMatch(2, 4, "he"),
+			new StringMatch(2, 6, "hers")));
+	}
+
+	@Test
+	public void testRunningFinderSwitchesToLatestSnapshot() throws Exception {
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(asList("ab"));
+		StringFinder finder = algorithm.createFinder(new StringCharProvider("abxcdxab", 0));
+
+		StringMatch first = finder.findNext();
+		algorithm.add("cd");
+		algorithm.remove("ab");
+
+		assertThat(first, equalTo(new StringMatch(0, 2, "ab")));
+		assertThat(finder.findAll(), contains(new StringMatch(3, 5, "cd")));
+	}
+
+	@Test
+	public void testChangesEqualRebuild() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(20_000, 400, 5, 0.8);
+		List<String> patterns = sample.getPatterns();
+		Random random = new Random(17);
+		Set<String> current = new LinkedHashSet<>(patterns.subList(0, 200));
+		DynamicAhoCorasick algorithm = new DynamicAhoCorasick(current);
+
+		for (int i = 0; i < 1000; i++) {
+			String pattern = patterns.get(random.nextInt(patterns.size()));
+			if (random.nextBoolean()) {
+				algorithm.add(pattern);
+				current.add(pattern);
+			} else {
+				algorithm.remove(pattern);
+				current.remove(pattern);
+			}
+		}
+
+		AhoCorasick rebuilt = new AhoCorasick(new ArrayList<>(current));
+		for (StringFinderOption[] options : new StringFinderOption[][] { {}, { LONGEST_MATCH } }) {
+			assertThat(findAll(algorithm, sample.getText(), options), equalTo(findAll(rebuilt, sample.getText(), options)));
+		}
+	}
+
+	private static List<StringMatch> findAll(StringSearchAlgorithm algorithm, String text, StringFinderOption... options) {
+		return algorithm.createFinder(new StringCharProvider(text, 0), options).findAll();
+	}
+
+}
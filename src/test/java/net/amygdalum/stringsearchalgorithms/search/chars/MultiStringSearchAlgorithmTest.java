@@ -2,30 +2,52 @@ package net.amygdalum.stringsearchalgorithms.search.chars;
 
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
 import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NO_TEXT;
 import static net.amygdalum.stringsearchalgorithms.search.chars.MultiStringSearchAlgorithmMatcher.isMultiStringSearchAlgorithm;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.isIn;
+import static org.hamcrest.Matchers.nullValue;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import org.junit.Rule;
 import org.junit.Test;
 
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.corpus.CorpusKind;
+import net.amygdalum.stringsearchalgorithms.corpus.ReferenceSearch;
+import net.amygdalum.stringsearchalgorithms.search.MatchCounter;
+import net.amygdalum.stringsearchalgorithms.search.MatchDetector;
+import net.amygdalum.stringsearchalgorithms.search.RecordingSink;
+import net.amygdalum.stringsearchalgorithms.search.SearchCorpus;
 import net.amygdalum.stringsearchalgorithms.search.SearchFor;
+import net.amygdalum.stringsearchalgorithms.search.StringFinder;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
 import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
 
 public class MultiStringSearchAlgorithmTest {
 
 	@Rule
 	public MultiStringSearchRule searcher = new MultiStringSearchRule(
 		new AhoCorasick.Factory(),
+		new DynamicAhoCorasick.Factory(),
 		new SetHorspool.Factory(),
 		new SetHorspool.Factory(true),
 		new WuManber.Factory(),
+		new WuManber.Factory(4093, 2039),
 		new SetBackwardOracleMatching.Factory(),
-		new QGramShiftOr.Factory());
+		new QGramShiftOr.Factory(),
+		new AlgorithmSelector());
 
 	@Test
 	@SearchFor({"x"})
@@ -57,6 +79,13 @@ public class MultiStringSearchAlgorithmTest {
 			new StringMatch(6, 8, "ab")));
 	}
 
+	@Test
+	@SearchFor({"abc", "bcd"})
+	public void testPatternIndex() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("abcacbcdacabcdaabc").findAll();
+		assertThat(patterns(matches), contains(0, 1, 0, 1, 0));
+	}
+
 	@Test
 	@SearchFor({"abc", "bcd"})
 	public void testPattern3() throws Exception {
@@ -147,6 +176,24 @@ public class MultiStringSearchAlgorithmTest {
 		assertThat(matches, containsInAnyOrder(new StringMatch(0, 3, "abc")));
 	}
 
+	@Test
+	@SearchFor({"bc", "cdefg"})
+	public void testNonOverlappingPatternsOfDifferentLength() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("abcdefgbc", NON_OVERLAP).findAll();
+		assertThat(matches, contains(
+			new StringMatch(1, 3, "bc"),
+			new StringMatch(7, 9, "bc")));
+	}
+
+	@Test
+	@SearchFor({"bc", "cdefg"})
+	public void testNonOverlappingFindNext() throws Exception {
+		StringFinder finder = searcher.createSearcher("abcdefgbc", NON_OVERLAP);
+		assertThat(finder.findNext(), equalTo(new StringMatch(1, 3, "bc")));
+		assertThat(finder.findNext(), equalTo(new StringMatch(7, 9, "bc")));
+		assertThat(finder.findNext(), nullValue());
+	}
+
 	@Test
 	@SearchFor({"a", "b"})
 	public void testOverlappingPattern1() throws Exception {
@@ -354,4 +401,211 @@ public class MultiStringSearchAlgorithmTest {
 		assertThat(searcher.getAlgorithm().getPatternLength(), equalTo(5));
 	}
 
+	@Test
+	@SearchCorpus
+	public void testCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		List<StringMatch> matches = searcher.createSearcher(sample.chars()).findAll();
+		assertThat(matches, equalTo(ReferenceSearch.findAll(sample.getText(), sample.getPatterns())));
+	}
+
+	@Test
+	@SearchCorpus(CorpusKind.DNA)
+	public void testDnaCorpusNonOverlapping() throws Exception {
+		Sample sample = searcher.getSample();
+		List<StringMatch> matches = searcher.createSearcher(sample.chars(), NON_OVERLAP).findAll();
+		assertThat(matches, equalTo(ReferenceSearch.nonOverlapping(ReferenceSearch.findAll(sample.getText(), sample.getPatterns()))));
+	}
+
+	@Test
+	@SearchCorpus(CorpusKind.DNA)
+	public void testDnaCorpusLongestNonOverlapping() throws Exception {
+		Sample sample = searcher.getSample();
+		List<StringMatch> matches = searcher.createSearcher(sample.chars(), LONGEST_MATCH, NON_OVERLAP).findAll();
+		assertThat(matches, equalTo(ReferenceSearch.longestNonOverlapping(ReferenceSearch.findAll(sample.getText(), sample.getPatterns()))));
+	}
+
+	@Test
+	@SearchFor({"b", "bcca", "caac"})
+	public void testLongestNonOverlappingAfterPartialMatch() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("bcaac", LONGEST_MATCH, NON_OVERLAP).findAll();
+		assertThat(matches, contains(
+			new StringMatch(0, 1, "b"),
+			new StringMatch(1, 5, "caac")));
+	}
+
+	@Test
+	@SearchFor({"cc", "ccc"})
+	public void testNonOverlappingPrefixPatterns() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("ccc", NON_OVERLAP).findAll();
+		assertThat(matches, contains(new StringMatch(0, 2, "cc")));
+	}
+
+	@Test
+	@SearchFor({"cc", "bac", "cccc", "acbc"})
+	public void testLongestNonOverlappingPrefixPatterns() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("xccbccccx", LONGEST_MATCH, NON_OVERLAP).findAll();
+		assertThat(matches, contains(
+			new StringMatch(1, 3, "cc"),
+			new StringMatch(4, 8, "cccc")));
+	}
+
+	@Test
+	@SearchFor({"x"})
+	public void testRandomMixedLengthsNonOverlapping() throws Exception {
+		Random random = new Random(17);
+		for (int i = 0; i < 500; i++) {
+			List<String> patterns = randomPatterns(random);
+			String text = randomText(random);
+			List<StringMatch> matches = searcher.createAlgorithm(patterns).createFinder(new StringCharProvider(text, 0), NON_OVERLAP).findAll();
+			assertThat(patterns + " in " + text, matches, equalTo(ReferenceSearch.nonOverlapping(ReferenceSearch.findAll(text, patterns))));
+		}
+	}
+
+	@Test
+	@SearchFor({"x"})
+	public void testRandomMixedLengthsLongestNonOverlapping() throws Exception {
+		Random random = new Random(19);
+		for (int i = 0; i < 500; i++) {
+			List<String> patterns = randomPatterns(random);
+			String text = randomText(random);
+			List<StringMatch> matches = searcher.createAlgorithm(patterns).createFinder(new StringCharProvider(text, 0), LONGEST_MATCH, NON_OVERLAP).findAll();
+			assertThat(patterns + " in " + text, matches, equalTo(ReferenceSearch.longestNonOverlapping(ReferenceSearch.findAll(text, patterns))));
+		}
+	}
+
+	@Test
+	@SearchFor({"x"})
+	public void testRandomMixedLengthsFindAllAgreesWithSearch() throws Exception {
+		Random random = new Random(23);
+		for (int i = 0; i < 500; i++) {
+			List<String> patterns = randomPatterns(random);
+			String text = randomText(random);
+			StringSearchAlgorithm algorithm = searcher.createAlgorithm(patterns);
+			RecordingSink sink = new RecordingSink();
+			algorithm.search(new StringCharProvider(text, 0), sink);
+			List<StringMatch> all = sink.toMatches(text);
+
+			assertThat(patterns + " in " + text, findAll(algorithm, text), containsInAnyOrder(all.toArray()));
+			assertThat(patterns + " in " + text, findAll(algorithm, text, LONGEST_MATCH), everyItem(isIn(all)));
+			assertThat(patterns + " in " + text, findAll(algorithm, text, NON_OVERLAP), equalTo(ReferenceSearch.nonOverlapping(all)));
+			assertThat(patterns + " in " + text, findAll(algorithm, text, LONGEST_MATCH, NON_OVERLAP), equalTo(ReferenceSearch.longestNonOverlapping(all)));
+		}
+	}
+
+	private static List<StringMatch> findAll(StringSearchAlgorithm algorithm, String text, StringFinderOption... options) {
+		return algorithm.createFinder(new StringCharProvider(text, 0), options).findAll();
+	}
+
+	private static List<String> randomPatterns(Random random) {
+		Set<String> patterns = new LinkedHashSet<>();
+		int size = 1 + random.nextInt(4);
+		while (patterns.size() < size) {
+			patterns.add(randomText(random, 1 + random.nextInt(5)));
+		}
+		return new ArrayList<>(patterns);
+	}
+
+	private static String randomText(Random random) {
+		return randomText(random, random.nextInt(30));
+	}
+
+	private static String randomText(Random random, int length) {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			buffer.append((char) ('a' + random.nextInt(3)));
+		}
+		return buffer.toString();
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testSearch() throws Exception {
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(new StringCharProvider("abababab", 0), sink);
+		assertThat(sink.toMatches("abababab"), containsInAnyOrder(searcher.createSearcher("abababab").findAll().toArray()));
+	}
+
+	@Test
+	@SearchFor({"ab", "cd"})
+	public void testSearchStopsIfSinkRejects() throws Exception {
+		RecordingSink sink = new RecordingSink(2);
+		searcher.getAlgorithm().search(new StringCharProvider("abcdabcd", 0), sink);
+		assertThat(sink.size(), equalTo(2));
+	}
+
+	@Test
+	@SearchCorpus(CorpusKind.NATURAL_LANGUAGE)
+	public void testSearchNaturalLanguageCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(sample.chars(), sink);
+		assertThat(sink.toMatches(sample.getText()), equalTo(ReferenceSearch.findAll(sample.getText(), sample.getPatterns())));
+		for (int i = 0; i < sink.size(); i++) {
+			assertThat(sample.getText().substring((int) sink.start(i), (int) sink.end(i)), equalTo(sample.getPatterns().get(sink.pattern(i))));
+		}
+	}
+
+	@Test
+	@SearchCorpus(CorpusKind.DNA)
+	public void testSearchDnaCorpus() throws Exception {
+		Sample sample = searcher.getSample();
+		RecordingSink sink = new RecordingSink();
+		searcher.getAlgorithm().search(sample.chars(), sink);
+		assertThat(sink.toMatches(sample.getText()), equalTo(ReferenceSearch.findAll(sample.getText(), sample.getPatterns())));
+		for (int i = 0; i < sink.size(); i++) {
+			assertThat(sample.getText().substring((int) sink.start(i), (int) sink.end(i)), equalTo(sample.getPatterns().get(sink.pattern(i))));
+		}
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testNoText() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("ababab", NO_TEXT).findAll();
+		assertThat(matches, equalTo(positionsOf(searcher.createSearcher("ababab").findAll())));
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testNoTextLongestNonOverlapping() throws Exception {
+		List<StringMatch> matches = searcher.createSearcher("ababab", LONGEST_MATCH, NON_OVERLAP, NO_TEXT).findAll();
+		assertThat(matches, equalTo(positionsOf(searcher.createSearcher("ababab", LONGEST_MATCH, NON_OVERLAP).findAll())));
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testCount() throws Exception {
+		MatchCounter counter = new MatchCounter();
+		searcher.getAlgorithm().search(new StringCharProvider("ababab", 0), counter);
+		assertThat(counter.getCount(), equalTo(7L));
+		assertThat(counter.getCount(), equalTo((long) searcher.createSearcher("ababab").findAll().size()));
+	}
+
+	@Test
+	@SearchFor({"aba", "bab", "ab"})
+	public void testExists() throws Exception {
+		MatchDetector found = new MatchDetector();
+		searcher.getAlgorithm().search(new StringCharProvider("ababab", 0), found);
+		assertThat(found.isFound(), is(true));
+
+		MatchDetector notFound = new MatchDetector();
+		searcher.getAlgorithm().search(new StringCharProvider("bbbbbbbb", 0), notFound);
+		assertThat(notFound.isFound(), is(false));
+	}
+
+	private static List<StringMatch> positionsOf(List<StringMatch> matches) {
+		List<StringMatch> positions = new ArrayList<>();
+		for (StringMatch match : matches) {
+			positions.add(new StringMatch(match.start(), match.end()));
+		}
+		return positions;
+	}
+
+	private static List<Integer> patterns(List<StringMatch> matches) {
+		List<Integer> patterns = new ArrayList<>();
+		for (StringMatch match : matches) {
+			patterns.add(match.pattern());
+		}
+		return patterns;
+	}
 }
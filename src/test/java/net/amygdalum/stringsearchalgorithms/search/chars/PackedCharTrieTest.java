@@ -0,0 +1,198 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.io.TableReader;
+import net.amygdalum.stringsearchalgorithms.io.TableWriter;
+import net.amygdalum.util.text.CharAutomaton;
+import net.amygdalum.util.text.CharWordSetBuilder;
+
+public class PackedCharTrieTest {
+
+	@Test
+	public void testFind() throws Exception {
+		PackedCharTrie trie = compile("abc", "bc", "abd");
+
+		assertThat(trie.find("abc".toCharArray()), equalTo(0));
+		assertThat(trie.find("bc".toCharArray()), equalTo(1));
+		assertThat(trie.find("abd".toCharArray()), equalTo(2));
+		assertThat(trie.find("ab".toCharArray()), nullValue());
+		assertThat(trie.find("bd".toCharArray()), nullValue());
+		assertThat(trie.find("abcd".toCharArray()), nullValue());
+	}
+
+	@Test
+	public void testContains() throws Exception {
+		PackedCharTrie trie = compile("abc", "bc", "abd");
+
+		assertThat(trie.contains("abc".toCharArray()), is(true));
+		assertThat(trie.contains("bc".toCharArray()), is(true));
+		assertThat(trie.contains("c".toCharArray()), is(false));
+		assertThat(trie.contains("abe".toCharArray()), is(false));
+	}
+
+	@Test
+	public void testCursorLookaheadAndAccept() throws Exception {
+		PackedCharTrie trie = compile("abc", "bd");
+		CharAutomaton<Integer> cursor = trie.cursor();
+
+		assertThat(cursor.lookahead('a'), is(true));
+		assertThat(cursor.lookahead('c'), is(false));
+		assertThat(cursor.accept('a'), is(true));
+		assertThat(cursor.lookahead('b'), is(true));
+		assertThat(cursor.lookahead('d'), is(false));
+		assertThat(cursor.accept('b'), is(true));
+		assertThat(cursor.hasAttachments(), is(false));
+		assertThat(cursor.accept('d'), is(true));
+		assertThat(cursor.hasAttachments(), is(true));
+		assertThat(attachments(cursor), contains(1));
+		assertThat(cursor.accept('x'), is(false));
+		assertThat(cursor.hasAttachments(), is(false));
+		assertThat(cursor.lookahead('a'), is(true));
+	}
+
+	@Test
+	public void testCursorInheritsAttachmentsOfFallbacks() throws Exception {
+		PackedCharTrie trie = compile("abc", "bc", "c");
+		CharAutomaton<Integer> cursor = trie.cursor();
+
+		cursor.accept('a');
+		cursor.accept('b');
+		cursor.accept('c');
+
+		assertThat(cursor.hasAttachments(), is(true));
+		assertThat(attachments(cursor), contains(0, 1, 2));
+	}
+
+	@Test
+	public void testCursorInheritsAttachmentsOfFallbacksOnUnattachedStates() throws Exception {
+		PackedCharTrie trie = compile("abcd", "bc");
+		CharAutomaton<Integer> cursor = trie.cursor();
+
+		cursor.accept('a');
+		cursor.accept('b');
+		cursor.accept('c');
+
+		assertThat(cursor.hasAttachments(), is(true));
+		assertThat(attachments(cursor), contains(1));
+		assertThat(cursor.accept('d'), is(true));
+		assertThat(attachments(cursor), contains(0));
+	}
+
+	@Test
+	public void testCursorReset() throws Exception {
+		PackedCharTrie trie = compile("ab");
+		CharAutomaton<Integer> cursor = trie.cursor();
+
+		cursor.accept('a');
+		cursor.reset();
+
+		assertThat(cursor.lookahead('b'), is(false));
+		assertThat(cursor.lookahead('a'), is(true));
+		assertThat(attachments(cursor), empty());
+	}
+
+	@Test
+	public void testCharsNearMaxValue() throws Exception {
+		PackedCharTrie trie = compile("￿", "￾￿", "a￿", "\u0000￿");
+		CharAutomaton<Integer> cursor = trie.cursor();
+
+		assertThat(trie.find("￿".toCharArray()), equalTo(0));
+		assertThat(trie.find("￾￿".toCharArray()), equalTo(1));
+		assertThat(trie.find("a￿".toCharArray()), equalTo(2));
+		assertThat(trie.find("\u0000￿".toCharArray()), equalTo(3));
+		assertThat(trie.find("￾".toCharArray()), nullValue());
+		assertThat(cursor.accept('￾'), is(true));
+		assertThat(cursor.accept('￿'), is(true));
+		assertThat(attachments(cursor), contains(1, 0));
+	}
+
+	@Test
+	public void testSizeIsProportionalToNodes() throws Exception {
+		Random random = new Random(42);
+		String[] patterns = new String[5000];
+		int nodes = 1;
+		for (int i = 0; i < patterns.length; i++) {
+			char[] pattern = new char[10];
+			for (int j = 0; j < pattern.length; j++) {
+				pattern[j] = (char) ('a' + random.nextInt(26));
+			}
+			patterns[i] = new String(pattern);
+			nodes += pattern.length;
+		}
+
+		PackedCharTrie trie = compile(patterns);
+
+		assertThat(trie.estimatedSize(), lessThanOrEqualTo(4L * 4 * 2 * nodes));
+		for (int i = 0; i < patterns.length; i++) {
+			assertThat(trie.contains(patterns[i].toCharArray()), is(true));
+		}
+	}
+
+	@Test
+	public void testWriteToReadFrom() throws Exception {
+		PackedCharTrie trie = compile("abc", "bc", "c", "￿");
+
+		PackedCharTrie read = PackedCharTrie.readFrom(new TableReader(ByteBuffer.wrap(write(trie))));
+
+		assertThat(read.estimatedSize(), equalTo(trie.estimatedSize()));
+		assertThat(read.find("abc".toCharArray()), equalTo(0));
+		assertThat(read.find("bc".toCharArray()), equalTo(1));
+		assertThat(read.find("￿".toCharArray()), equalTo(3));
+		assertThat(read.find("ab".toCharArray()), nullValue());
+		CharAutomaton<Integer> cursor = read.cursor();
+		cursor.accept('a');
+		cursor.accept('b');
+		cursor.accept('c');
+		assertThat(attachments(cursor), contains(0, 1, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testReadFromTruncated() throws Exception {
+		byte[] bytes = write(compile("abc", "bc"));
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, bytes.length - 4).slice();
+
+		PackedCharTrie.readFrom(new TableReader(buffer));
+	}
+
+	private static PackedCharTrie compile(String... patterns) {
+		CharWordSetBuilder<Integer, PackedCharTrie> builder = new CharWordSetBuilder<>(new PackedCharTrie.Compiler());
+		for (int i = 0; i < patterns.length; i++) {
+			builder.extend(patterns[i].toCharArray(), i);
+		}
+		return builder
+			.work(new AhoCorasick.FallbackLinks())
+			.build();
+	}
+
+	private static byte[] write(PackedCharTrie trie) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TableWriter writer = new TableWriter(out);
+		trie.writeTo(writer);
+		writer.flush();
+		return out.toByteArray();
+	}
+
+	private static List<Integer> attachments(CharAutomaton<Integer> cursor) {
+		List<Integer> attachments = new ArrayList<>();
+		for (Integer attachment : cursor) {
+			attachments.add(attachment);
+		}
+		return attachments;
+	}
+
+}
@@ -0,0 +1,169 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.corpus.ReferenceSearch;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.MultiBPGlushkov;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
+
+public class ParallelSearchTest {
+
+	private static final StringFinderOption[][] OPTIONS = {
+		{},
+		{ LONGEST_MATCH },
+		{ NON_OVERLAP },
+		{ LONGEST_MATCH, NON_OVERLAP }
+	};
+
+	private ForkJoinPool pool;
+
+	@Before
+	public void before() throws Exception {
+		pool = new ForkJoinPool(4);
+	}
+
+	@After
+	public void after() throws Exception {
+		pool.shutdown();
+	}
+
+	@Test
+	public void testFindAllSinglePattern() throws Exception {
+		Sample sample = Corpus.naturalLanguage(7).sample(20_000, 1, 6, 0.8);
+		String pattern = sample.getPattern();
+		for (StringSearchAlgorithm algorithm : asList(new Horspool(pattern), new Sunday(pattern), new BNDM(pattern), new BOM(pattern), new KnuthMorrisPratt(pattern), new ShiftAnd(pattern))) {
+			assertParallelEqualsSequential(algorithm, pattern.length(), sample.getText(), OPTIONS);
+		}
+	}
+
+	@Test
+	public void testFindAllMultiPattern() throws Exception {
+		Sample sample = Corpus.naturalLanguage(11).sample(20_000, 6, 5, 0.8);
+		List<String> patterns = new ArrayList<>(sample.getPatterns());
+		patterns.add(patterns.get(0).substring(1, 3));
+		patterns.add(patterns.get(1) + patterns.get(2));
+		for (StringSearchAlgorithm algorithm : asList(new AhoCorasick(patterns), new SetBackwardOracleMatching(patterns), new SetHorspool(patterns), new WuManber(patterns))) {
+			assertParallelEqualsSequential(algorithm, 10, sample.getText(), OPTIONS);
+		}
+	}
+
+	@Test
+	public void testFindAllSelfOverlappingPatterns() throws Exception {
+		String text = "aaabaaaaabaabaaaaaaaabaaaab";
+		List<String> patterns = asList("aa", "aaa", "aab", "baa");
+		for (StringSearchAlgorithm algorithm : asList(new AhoCorasick(patterns), new SetBackwardOracleMatching(patterns), new SetHorspool(patterns), new WuManber(patterns))) {
+			assertParallelEqualsSequential(algorithm, 3, text, OPTIONS);
+		}
+	}
+
+	@Test
+	public void testFindAllSubsumedAcrossSeams() throws Exception {
+		String text = "xxabcdxxabcdexxxbcdexxcdexx";
+		List<String> patterns = asList("abcde", "abcd", "bcd", "bc", "cd", "cde");
+		for (StringSearchAlgorithm algorithm : asList(new AhoCorasick(patterns), new SetBackwardOracleMatching(patterns), new SetHorspool(patterns), new WuManber(patterns))) {
+			assertParallelEqualsSequential(algorithm, 5, text, OPTIONS);
+		}
+	}
+
+	@Test
+	public void testFindAllBoundaryDuplicates() throws Exception {
+		ParallelSearch search = new ParallelSearch(new Horspool("abab"), 4, pool, 4);
+
+		List<StringMatch> matches = search.findAll("abababababab");
+
+		assertThat(matches, contains(
+			new StringMatch(0, 4, "abab"),
+			new StringMatch(2, 6, "abab"),
+			new StringMatch(4, 8, "abab"),
+			new StringMatch(6, 10, "abab"),
+			new StringMatch(8, 12, "abab")));
+	}
+
+	@Test
+	public void testFindAllNonOverlappingAcrossSeams() throws Exception {
+		ParallelSearch search = new ParallelSearch(new Horspool("abab"), 4, pool, 4);
+
+		List<StringMatch> matches = search.findAll("abababababab", NON_OVERLAP);
+
+		assertThat(matches, contains(
+			new StringMatch(0, 4, "abab"),
+			new StringMatch(4, 8, "abab"),
+			new StringMatch(8, 12, "abab")));
+	}
+
+	@Test
+	public void testFindAllMoreChunksThanChars() throws Exception {
+		ParallelSearch search = new ParallelSearch(new Horspool("ab"), 2, pool, 10);
+
+		List<StringMatch> matches = search.findAll("abab");
+
+		assertThat(matches, contains(
+			new StringMatch(0, 2, "ab"),
+			new StringMatch(2, 4, "ab")));
+	}
+
+	@Test
+	public void testFindAllSkippingAlgorithmAtDocumentEnd() throws Exception {
+		for (StringSearchAlgorithm algorithm : asList(new Sunday("aba"), new Horspool("aba"))) {
+			for (int chunks : new int[] { 2, 3, 4, 5 }) {
+				ParallelSearch search = new ParallelSearch(algorithm, 3, pool, chunks);
+
+				List<StringMatch> matches = search.findAll("ccccababaccb", NON_OVERLAP);
+
+				assertThat(algorithm + " in " + chunks + " chunks", matches, contains(new StringMatch(4, 7, "aba")));
+			}
+		}
+	}
+
+	@Test
+	public void testFindAllNonOverlappingReportedAgainAfterSkip() throws Exception {
+		String text = "abbaaabbbabbaababaaabbabbbbb";
+		List<String> patterns = asList("ab", "a");
+		MultiBPGlushkov algorithm = new MultiBPGlushkov(patterns);
+		ParallelSearch search = new ParallelSearch(algorithm, 2, pool, 2);
+
+		List<StringMatch> matches = search.findAll(text, NON_OVERLAP);
+
+		assertThat(matches, equalTo(ReferenceSearch.nonOverlapping(ReferenceSearch.findAll(text, patterns))));
+	}
+
+	@Test
+	public void testFindAllNoMatchesBeforeChunkStart() throws Exception {
+		String text = "cbbaccbabcc";
+		List<String> patterns = asList("abbab", "a", "abc", "cc");
+		assertParallelEqualsSequential(new QGramShiftOr(patterns), 5, text, OPTIONS);
+	}
+
+	private void assertParallelEqualsSequential(StringSearchAlgorithm algorithm, int maxLength, String text, StringFinderOption[][] optionSets) {
+		for (StringFinderOption[] options : optionSets) {
+			for (int chunks : new int[] { 1, 3, 5, 17, 64 }) {
+				ParallelSearch search = new ParallelSearch(algorithm, maxLength, pool, chunks);
+
+				List<StringMatch> matches = search.findAll(text, options);
+
+				List<StringMatch> expected = algorithm.createFinder(new StringCharProvider(text, 0), options).findAll();
+				Collections.sort(expected);
+				assertThat(algorithm + " " + asList(options) + " in " + chunks + " chunks", matches, equalTo(expected));
+			}
+		}
+	}
+
+}
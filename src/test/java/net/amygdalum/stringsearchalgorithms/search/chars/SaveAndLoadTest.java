@@ -0,0 +1,167 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Arrays.asList;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.search.MatchSink;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
+
+public class SaveAndLoadTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testAhoCorasick() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(20_000, 50, 6, 0.8);
+		AhoCorasick algorithm = new AhoCorasick(sample.getPatterns());
+
+		AhoCorasick loaded = AhoCorasick.load(ByteBuffer.wrap(save(algorithm)));
+
+		assertSameMatches(sample.getText(), algorithm, loaded);
+	}
+
+	@Test
+	public void testAhoCorasickOnFile() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(20_000, 50, 6, 0.8);
+		AhoCorasick algorithm = new AhoCorasick(sample.getPatterns());
+		Path file = folder.newFile().toPath();
+		algorithm.save(file);
+
+		AhoCorasick loaded = AhoCorasick.load(file);
+
+		assertSameMatches(sample.getText(), algorithm, loaded);
+	}
+
+	@Test
+	public void testWuManber() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(20_000, 50, 6, 0.8);
+		WuManber algorithm = new WuManber(sample.getPatterns());
+
+		WuManber loaded = WuManber.load(ByteBuffer.wrap(save(algorithm)));
+
+		assertSameMatches(sample.getText(), algorithm, loaded);
+	}
+
+	@Test
+	public void testWuManberWithTunedTables() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(20_000, 50, 6, 0.8);
+		WuManber algorithm = new WuManber(sample.getPatterns(), 4093, 2039);
+
+		WuManber loaded = WuManber.load(ByteBuffer.wrap(save(algorithm)));
+
+		assertSameMatches(sample.getText(), algorithm, loaded);
+	}
+
+	@Test
+	public void testSetHorspool() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(20_000, 5, 6, 0.8);
+		SetHorspool algorithm = new SetHorspool(sample.getPatterns());
+
+		SetHorspool loaded = SetHorspool.load(ByteBuffer.wrap(save(algorithm)));
+
+		assertSameMatches(sample.getText(), algorithm, loaded);
+	}
+
+	@Test
+	public void testSetHorspoolWithLargeAlphabet() throws Exception {
+		Sample sample = Corpus.mixedCjk(17).sample(20_000, 5, 4, 0.8);
+		SetHorspool smart = new SetHorspool(sample.getPatterns(), false);
+		SetHorspool relaxed = new SetHorspool(sample.getPatterns(), true);
+
+		SetHorspool loadedSmart = SetHorspool.load(ByteBuffer.wrap(save(smart)));
+		SetHorspool loadedRelaxed = SetHorspool.load(ByteBuffer.wrap(save(relaxed)));
+
+		assertSameMatches(sample.getText(), smart, loadedSmart);
+		assertSameMatches(sample.getText(), relaxed, loadedRelaxed);
+		assertThat(loadedSmart.estimatedSize(), equalTo(smart.estimatedSize()));
+		assertThat(loadedRelaxed.estimatedSize(), equalTo(relaxed.estimatedSize()));
+	}
+
+	@Test
+	public void testSetHorspoolEstimatedSizeCountsShiftTable() throws Exception {
+		SetHorspool smart = new SetHorspool(asList("a", "\u4e00"), false);
+		SetHorspool relaxed = new SetHorspool(asList("a", "\u4e00"), true);
+
+		assertThat(relaxed.estimatedSize() - smart.estimatedSize(), equalTo(4L * 256));
+	}
+
+	@Test
+	public void testSearchWithSink() throws Exception {
+		AhoCorasick algorithm = new AhoCorasick(asList("he", "she", "his", "hers"));
+		AhoCorasick loaded = AhoCorasick.load(ByteBuffer.wrap(save(algorithm)));
+
+		assertThat(search(loaded, "ushers"), equalTo(search(algorithm, "ushers")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoadOtherAlgorithm() throws Exception {
+		WuManber algorithm = new WuManber(asList("abc", "bcd"));
+
+		AhoCorasick.load(ByteBuffer.wrap(save(algorithm)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoadNoTables() throws Exception {
+		AhoCorasick.load(ByteBuffer.wrap("abcdefgh".getBytes()));
+	}
+
+	private static byte[] save(AhoCorasick algorithm) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		algorithm.save(out);
+		return out.toByteArray();
+	}
+
+	private static byte[] save(WuManber algorithm) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		algorithm.save(out);
+		return out.toByteArray();
+	}
+
+	private static byte[] save(SetHorspool algorithm) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		algorithm.save(out);
+		return out.toByteArray();
+	}
+
+	private static void assertSameMatches(String text, StringSearchAlgorithm expected, StringSearchAlgorithm actual) {
+		for (StringFinderOption[] options : new StringFinderOption[][] { {}, { LONGEST_MATCH } }) {
+			List<StringMatch> expectedMatches = expected.createFinder(new StringCharProvider(text, 0), options).findAll();
+			List<StringMatch> actualMatches = actual.createFinder(new StringCharProvider(text, 0), options).findAll();
+
+			assertThat(expectedMatches, not(empty()));
+			assertThat(actualMatches, equalTo(expectedMatches));
+		}
+	}
+
+	private static String search(StringSearchAlgorithm algorithm, String text) {
+		final StringBuilder result = new StringBuilder();
+		algorithm.search(new StringCharProvider(text, 0), new MatchSink() {
+
+			@Override
+			public boolean match(long start, long end, int pattern) {
+				result.append(pattern).append(':').append(start).append('-').append(end).append(' ');
+				return true;
+			}
+		});
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,120 @@
+package net.amygdalum.stringsearchalgorithms.search.chars;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.LONGEST_MATCH;
+import static net.amygdalum.stringsearchalgorithms.search.MatchOption.NON_OVERLAP;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus;
+import net.amygdalum.stringsearchalgorithms.corpus.Corpus.Sample;
+import net.amygdalum.stringsearchalgorithms.corpus.ReferenceSearch;
+import net.amygdalum.stringsearchalgorithms.patternsearch.chars.MultiBPGlushkov;
+import net.amygdalum.stringsearchalgorithms.search.StringFinderOption;
+import net.amygdalum.stringsearchalgorithms.search.StringMatch;
+import net.amygdalum.util.io.StringCharProvider;
+
+public class StreamSearchTest {
+
+	@Test
+	public void testMatches() throws Exception {
+		StreamSearch search = new StreamSearch(new Horspool("abab"), 4, 2);
+
+		List<StringMatch> matches = search.matches("abababababab").collect(toList());
+
+		assertThat(matches, contains(
+			new StringMatch(0, 4, "abab"),
+			new StringMatch(2, 6, "abab"),
+			new StringMatch(4, 8, "abab"),
+			new StringMatch(6, 10, "abab"),
+			new StringMatch(8, 12, "abab")));
+	}
+
+	@Test
+	public void testMatchesParallel() throws Exception {
+		StreamSearch search = new StreamSearch(new Horspool("abab"), 4, 2);
+
+		List<StringMatch> matches = search.matches("abababababab").parallel().collect(toList());
+
+		assertThat(matches, contains(
+			new StringMatch(0, 4, "abab"),
+			new StringMatch(2, 6, "abab"),
+			new StringMatch(4, 8, "abab"),
+			new StringMatch(6, 10, "abab"),
+			new StringMatch(8, 12, "abab")));
+	}
+
+	@Test
+	public void testMatchesNonOverlappingParallel() throws Exception {
+		StreamSearch search = new StreamSearch(new Horspool("abab"), 4, 2);
+
+		List<StringMatch> matches = search.matches("abababababab", NON_OVERLAP).parallel().collect(toList());
+
+		assertThat(matches, contains(
+			new StringMatch(0, 4, "abab"),
+			new StringMatch(4, 8, "abab"),
+			new StringMatch(8, 12, "abab")));
+	}
+
+	@Test
+	public void testMatchesIsLazy() throws Exception {
+		StringCharProvider chars = new StringCharProvider("xxabxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxabxx", 0);
+		StreamSearch search = new StreamSearch(new KnuthMorrisPratt("ab"), 2);
+
+		StringMatch match = search.matches(chars).findFirst().get();
+
+		assertThat(match, equalTo(new StringMatch(2, 4, "ab")));
+		assertThat(chars.current(), lessThan(10L));
+	}
+
+	@Test
+	public void testMatchesParallelEqualsSequential() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(50_000, 4, 5, 0.8);
+		String text = sample.getText();
+		List<String> patterns = sample.getPatterns();
+		for (StringSearchAlgorithm algorithm : asList(new AhoCorasick(patterns), new SetBackwardOracleMatching(patterns), new WuManber(patterns))) {
+			for (StringFinderOption[] options : new StringFinderOption[][] { {}, { LONGEST_MATCH } }) {
+				StreamSearch search = new StreamSearch(algorithm, 5, 128);
+
+				List<StringMatch> matches = search.matches(text, options).parallel().sorted().collect(toList());
+
+				List<StringMatch> expected = algorithm.createFinder(new StringCharProvider(text, 0), options).findAll();
+				Collections.sort(expected);
+				assertThat(search + " " + asList(options), matches, equalTo(expected));
+			}
+		}
+	}
+
+	@Test
+	public void testMatchesNonOverlappingReportedAgainAfterSkip() throws Exception {
+		String text = "aab";
+		List<String> patterns = asList("ab", "a");
+		MultiBPGlushkov algorithm = new MultiBPGlushkov(patterns);
+		StreamSearch search = new StreamSearch(algorithm, 2);
+
+		List<StringMatch> matches = search.matches(text, NON_OVERLAP).collect(toList());
+
+		assertThat(matches, equalTo(ReferenceSearch.nonOverlapping(ReferenceSearch.findAll(text, patterns))));
+	}
+
+	@Test
+	public void testMatchesOnProvider() throws Exception {
+		Sample sample = Corpus.naturalLanguage(17).sample(10_000, 4, 5, 0.8);
+		String text = sample.getText();
+		AhoCorasick algorithm = new AhoCorasick(sample.getPatterns());
+		StreamSearch search = new StreamSearch(algorithm, 5, 128);
+
+		List<StringMatch> matches = search.matches(new StringCharProvider(text, 0), NON_OVERLAP).parallel().collect(toList());
+
+		assertThat(matches, equalTo(algorithm.createFinder(new StringCharProvider(text, 0), NON_OVERLAP).findAll()));
+	}
+
+}